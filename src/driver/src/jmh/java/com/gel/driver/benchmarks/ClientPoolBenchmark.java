@@ -0,0 +1,69 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.util.ClientPoolHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the checkout/return path of the client pool: acquiring a permit, popping an idle client, pushing it back
+ * and releasing the permit. Pool sizes below the thread count exercise the waiter queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientPoolBenchmark {
+    @Param({"8", "64"})
+    public int poolSize;
+
+    private ClientPoolHolder holder;
+    private ConcurrentLinkedDeque<Object> idle;
+
+    @Setup
+    public void setup() {
+        holder = new ClientPoolHolder(poolSize);
+        idle = new ConcurrentLinkedDeque<>();
+
+        for(int i = 0; i != poolSize; i++) {
+            idle.offerFirst(new Object());
+        }
+    }
+
+    private Object checkoutAndReturn() {
+        holder.acquire().toCompletableFuture().join();
+
+        var client = idle.pollFirst();
+        idle.offerFirst(client);
+
+        holder.release();
+        return client;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object threads1() {
+        return checkoutAndReturn();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object threads4() {
+        return checkoutAndReturn();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object threads16() {
+        return checkoutAndReturn();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Object threads32() {
+        return checkoutAndReturn();
+    }
+}
@@ -0,0 +1,212 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.clients.GelTcpClient;
+import com.gel.driver.util.Scram;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a burst of connections in parallel against a local stand-in server that authenticates them with
+ * SCRAM-SHA-256, and measures the time until all of them are ready. A cold key cache is what the first burst after a
+ * deploy sees, a warm one is what reconnects see.
+ * <br/><br/>
+ * The server listens on a unix socket, so this needs Netty's native epoll transport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectStormBenchmark {
+    private static final String USER = "edgedb";
+    private static final String PASSWORD = "password";
+    private static final String SALT = Base64.getEncoder().encodeToString("connect-storm-salt".getBytes(StandardCharsets.UTF_8));
+    private static final int ITERATIONS = 4096;
+
+    @Param({"50"})
+    public int connections;
+
+    @Param({"true", "false"})
+    public boolean warmCache;
+
+    private EventLoopGroup group;
+    private Channel server;
+    private Path directory;
+    private GelConnection connection;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("gel");
+
+        var path = directory.resolve(".s.GEL.5656");
+        var serverKey = hmac(pbkdf2(PASSWORD, Base64.getDecoder().decode(SALT), ITERATIONS), "Server Key");
+
+        group = new EpollEventLoopGroup(2);
+        server = new ServerBootstrap()
+                .group(group)
+                .channel(EpollServerDomainSocketChannel.class)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(
+                                new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 1, 4, -4, 0),
+                                new StandInServer(serverKey)
+                        );
+                    }
+                })
+                .bind(new DomainSocketAddress(path.toFile()))
+                .sync()
+                .channel();
+
+        connection = GelConnection.builder()
+                .withUnixSocket(path)
+                .withUser(USER)
+                .withPassword(PASSWORD)
+                .build();
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        server.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        Files.deleteIfExists(directory.resolve(".s.GEL.5656"));
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void connectStorm() throws Exception {
+        if(!warmCache) {
+            Scram.clearKeyCache();
+        }
+
+        var clients = new ArrayList<GelTcpClient>(connections);
+        var connects = new CompletableFuture<?>[connections];
+
+        for(int i = 0; i != connections; i++) {
+            var client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+            clients.add(client);
+            connects[i] = client.connect().toCompletableFuture();
+        }
+
+        CompletableFuture.allOf(connects).get(30, TimeUnit.SECONDS);
+
+        for(var client : clients) {
+            client.disconnect().toCompletableFuture().get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) throws Exception {
+        var spec = new PBEKeySpec(password.toCharArray(), salt, iterations, 256);
+        return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws Exception {
+        var mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Accepts any handshake and runs the server side of SCRAM-SHA-256 with a precomputed server key, the way a real
+     * server only stores the derived keys. The client's proof isn't checked.
+     */
+    private static final class StandInServer extends SimpleChannelInboundHandler<ByteBuf> {
+        private final byte[] serverKey;
+        private String clientFirstBare;
+        private String serverFirst;
+
+        StandInServer(byte[] serverKey) {
+            this.serverKey = serverKey;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) throws Exception {
+            var type = frame.readUnsignedByte();
+            frame.skipBytes(4);
+
+            switch (type) {
+                case 0x56: // ClientHandshake
+                    var methods = ctx.alloc().buffer();
+                    methods.writeInt(0x0a).writeInt(1);
+                    writeBytes(methods, "SCRAM-SHA-256");
+                    send(ctx, methods);
+                    break;
+                case 0x70: // AuthenticationSASLInitialResponse
+                    frame.skipBytes(frame.readInt()); // method
+                    clientFirstBare = readString(frame).substring(3); // "n,,"
+
+                    var nonce = clientFirstBare.substring(clientFirstBare.indexOf(",r=") + 3);
+                    serverFirst = "r=" + nonce + "stand-in,s=" + SALT + ",i=" + ITERATIONS;
+
+                    var challenge = ctx.alloc().buffer();
+                    challenge.writeInt(0x0b);
+                    writeBytes(challenge, serverFirst);
+                    send(ctx, challenge);
+                    break;
+                case 0x72: // AuthenticationSASLResponse
+                    var clientFinal = readString(frame);
+                    var authMessage = clientFirstBare + "," + serverFirst + ","
+                            + clientFinal.substring(0, clientFinal.indexOf(",p="));
+
+                    var signature = ctx.alloc().buffer();
+                    signature.writeInt(0x0c);
+                    writeBytes(signature, "v=" + Base64.getEncoder().encodeToString(hmac(serverKey, authMessage)));
+                    send(ctx, signature);
+
+                    send(ctx, ctx.alloc().buffer().writeInt(0)); // AuthenticationOK
+
+                    var ready = ctx.alloc().buffer(12);
+                    ready.writeByte(0x5a).writeInt(7).writeShort(0).writeByte(0x49);
+                    ctx.writeAndFlush(ready);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private static String readString(ByteBuf frame) {
+            var length = frame.readInt();
+            var value = frame.toString(frame.readerIndex(), length, StandardCharsets.UTF_8);
+            frame.skipBytes(length);
+            return value;
+        }
+
+        private static void writeBytes(ByteBuf buffer, String value) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.writeInt(bytes.length).writeBytes(bytes);
+        }
+
+        // wraps an authentication status body into its message.
+        private static void send(ChannelHandlerContext ctx, ByteBuf body) {
+            var message = ctx.alloc().buffer(5 + body.readableBytes());
+            message.writeByte(0x52).writeInt(4 + body.readableBytes()).writeBytes(body);
+            body.release();
+            ctx.writeAndFlush(message);
+        }
+    }
+}
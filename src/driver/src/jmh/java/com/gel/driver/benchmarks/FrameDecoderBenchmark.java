@@ -0,0 +1,98 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.binary.PacketSerializer;
+import com.gel.driver.binary.protocol.Receivable;
+import com.gel.driver.binary.protocol.ServerMessageType;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a result made of {@code Data} messages followed by {@code ReadyForCommand}, delivered in fragments of a
+ * fixed size the way a socket read would, and measures the time to get every message out of the decoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameDecoderBenchmark {
+    /**
+     * The size of each {@code Data} message, and the number of them: a single 4 MiB row, or 4 MiB of 1 KiB rows.
+     */
+    @Param({"4194304x1", "1024x4096"})
+    public String messages;
+
+    /**
+     * The size of each read, 16 KiB is the size of a TLS record.
+     */
+    @Param({"1460", "16384"})
+    public int fragmentSize;
+
+    private GelTcpClient client;
+    private ByteBuf[] fragments;
+
+    @Setup
+    public void setup() throws Exception {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+
+        var parts = messages.split("x");
+        var size = Integer.parseInt(parts[0]);
+        var count = Integer.parseInt(parts[1]);
+
+        var payload = new byte[size];
+        ThreadLocalRandom.current().nextBytes(payload);
+
+        var stream = Unpooled.buffer();
+
+        for(int i = 0; i != count; i++) {
+            stream.writeByte(ServerMessageType.DATA.getValue());
+            stream.writeInt(4 + Short.BYTES + Integer.BYTES + size);
+            stream.writeShort(1);
+            stream.writeInt(size);
+            stream.writeBytes(payload);
+        }
+
+        stream.writeByte(ServerMessageType.READY_FOR_COMMAND.getValue());
+        stream.writeInt(4 + Short.BYTES + Byte.BYTES);
+        stream.writeShort(0);
+        stream.writeByte(0x49);
+
+        fragments = new ByteBuf[(stream.readableBytes() + fragmentSize - 1) / fragmentSize];
+
+        for(int i = 0; i != fragments.length; i++) {
+            fragments[i] = stream.readRetainedSlice(Math.min(fragmentSize, stream.readableBytes()));
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws Exception {
+        var channel = new EmbeddedChannel(PacketSerializer.createDecoder(client));
+
+        for(var fragment : fragments) {
+            channel.writeInbound(fragment.retainedDuplicate());
+
+            Receivable packet;
+            while((packet = channel.readInbound()) != null) {
+                blackhole.consume(packet);
+                packet.close();
+            }
+        }
+
+        channel.finishAndReleaseAll();
+    }
+}
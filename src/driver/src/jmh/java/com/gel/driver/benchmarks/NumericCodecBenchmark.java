@@ -0,0 +1,273 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.PacketWriter;
+import com.gel.driver.binary.codecs.Codec;
+import com.gel.driver.binary.codecs.CodecContext;
+import com.gel.driver.binary.codecs.scalars.BigIntCodec;
+import com.gel.driver.binary.codecs.scalars.DecimalCodec;
+import com.gel.driver.binary.codecs.scalars.ScalarCodecBase;
+import com.gel.driver.binary.protocol.common.descriptors.CodecMetadata;
+import com.gel.driver.util.BinaryProtocolUtils;
+import com.gel.driver.util.StringsUtil;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joou.UShort;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.naming.OperationNotSupportedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.joou.Unsigned.uint;
+import static org.joou.Unsigned.ushort;
+
+/**
+ * Encodes and decodes 1000 {@code decimal} and {@code bigint} values with the arithmetic codecs and with the string
+ * based ones they replaced, kept below as {@code Legacy*}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumericCodecBenchmark {
+    private static final int VALUE_COUNT = 1000;
+    private static final CodecContext CONTEXT = new CodecContext(null);
+
+    @Param({"legacy", "arithmetic"})
+    public String implementation;
+
+    private Codec<BigDecimal> decimalCodec;
+    private Codec<BigInteger> bigIntCodec;
+
+    private BigDecimal[] decimals;
+    private BigInteger[] bigInts;
+    private ByteBuf[] encodedDecimals;
+    private ByteBuf[] encodedBigInts;
+
+    @Setup
+    public void setup() throws Exception {
+        var legacy = implementation.equals("legacy");
+
+        decimalCodec = legacy ? new LegacyDecimalCodec(null) : new DecimalCodec(null);
+        bigIntCodec = legacy ? new LegacyBigIntCodec(null) : new BigIntCodec(null);
+
+        // amounts with cents, the shape of a finance workload.
+        var random = new Random(42);
+        decimals = new BigDecimal[VALUE_COUNT];
+        bigInts = new BigInteger[VALUE_COUNT];
+        encodedDecimals = new ByteBuf[VALUE_COUNT];
+        encodedBigInts = new ByteBuf[VALUE_COUNT];
+
+        for(int i = 0; i != VALUE_COUNT; i++) {
+            decimals[i] = BigDecimal.valueOf(random.nextLong() % 100_000_000_000L, 2);
+            bigInts[i] = new BigInteger(96, random);
+            encodedDecimals[i] = Codec.serializeToBuffer(decimalCodec, decimals[i], CONTEXT);
+            encodedBigInts[i] = Codec.serializeToBuffer(bigIntCodec, bigInts[i], CONTEXT);
+        }
+    }
+
+    @Benchmark
+    public int encodeDecimals() throws Exception {
+        try(var writer = new PacketWriter()) {
+            for(var value : decimals) {
+                decimalCodec.serialize(writer, value, CONTEXT);
+            }
+
+            return writer.getPosition();
+        }
+    }
+
+    @Benchmark
+    public void decodeDecimals(Blackhole blackhole) throws Exception {
+        for(var buffer : encodedDecimals) {
+            blackhole.consume(decimalCodec.deserialize(new PacketReader(buffer.duplicate()), CONTEXT));
+        }
+    }
+
+    @Benchmark
+    public int encodeBigInts() throws Exception {
+        try(var writer = new PacketWriter()) {
+            for(var value : bigInts) {
+                bigIntCodec.serialize(writer, value, CONTEXT);
+            }
+
+            return writer.getPosition();
+        }
+    }
+
+    @Benchmark
+    public void decodeBigInts(Blackhole blackhole) throws Exception {
+        for(var buffer : encodedBigInts) {
+            blackhole.consume(bigIntCodec.deserialize(new PacketReader(buffer.duplicate()), CONTEXT));
+        }
+    }
+
+    private static final class LegacyDecimalCodec extends ScalarCodecBase<BigDecimal> {
+        public static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000108");
+        public LegacyDecimalCodec(@Nullable CodecMetadata metadata) {
+            super(ID, metadata, BigDecimal.class);
+        }
+
+        @Override
+        public void serialize(
+                @NotNull PacketWriter writer,
+                @Nullable BigDecimal value,
+                CodecContext context
+        ) throws OperationNotSupportedException {
+            if(value == null) {
+                return;
+            }
+
+            var str = value.toPlainString();
+            var spl = str.split("\\.");
+            var integral = spl[0].charAt(0) == '-' ? spl[0].substring(1) : spl[0];
+            var frac = spl.length > 1 ? spl[1] : "";
+
+            var sDigits =
+                    StringsUtil.padLeft(integral, '0', (int)Math.ceil(integral.length() / 4d) * 4) +
+                    StringsUtil.padRight(frac, '0', (int)Math.ceil(frac.length() / 4d) * 4);
+
+            UShort[] digits = new UShort[sDigits.length() / 4];
+
+            for (int i = 0; i < sDigits.length(); i += 4) {
+                digits[i / 4] = ushort(Integer.parseInt(sDigits.substring(i, i+4)));
+            }
+
+            var nDigits = ushort(digits.length);
+            var weight = (short)(Math.ceil(integral.length() / 4d) - 1);
+            var sign = ushort(value.signum() == -1 ? 0x4000 : 0x0000);
+            var dScale = (short)frac.length();
+
+            writer.write(nDigits);
+            writer.write(weight);
+            writer.write(sign);
+            writer.write(dScale);
+
+            for (var digit : digits) {
+                writer.write(digit);
+            }
+        }
+
+        @Override
+        public @NotNull BigDecimal deserialize(@NotNull PacketReader reader, CodecContext context) {
+            var numDigits = reader.readUInt16().intValue();
+            var weight = reader.readInt16();
+            var isPos = reader.readUInt16().compareTo(ushort(0)) == 0;
+            var displayScale = reader.readUInt16().intValue();
+
+            StringBuilder value = new StringBuilder(isPos ? "" : "-");
+
+            int d;
+
+            if(weight < 0) {
+                d = weight + 1;
+                value.append("0");
+            } else {
+                for(d = 0; d <= weight; d++) {
+                    var digit = d < numDigits ? reader.readUInt16() : 0;
+                    var sDigit = Integer.toString(digit.intValue());
+                    if(d > 0) {
+                        sDigit = StringsUtil.padLeft(sDigit, '0', 4);
+                    }
+                    value.append(sDigit);
+                }
+            }
+
+            if(displayScale > 0) {
+                // seems like the code from `BigDecimal` doesn't use the locale decimal point, parsing to and from must
+                // be done with a literal '.'.
+                value.append('.');
+
+                var end = value.length() + displayScale;
+                for(int i = 0; i < displayScale; d++, i += 4) {
+                    var digit = d >= 0 && d < numDigits ? reader.readUInt16().intValue() : 0;
+                    value.append(StringsUtil.padLeft(Integer.toString(digit), '0', 4));
+                }
+
+                value.delete(end, value.length());
+            }
+
+            return new BigDecimal(value.toString());
+        }
+    }
+
+    private static final class LegacyBigIntCodec extends ScalarCodecBase<BigInteger> {
+        public static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000110");
+        private static final BigInteger BASE = new BigInteger("10000");
+
+        public LegacyBigIntCodec(@Nullable CodecMetadata metadata) {
+            super(ID, metadata, BigInteger.class);
+        }
+
+        @Override
+        public void serialize(@NotNull PacketWriter writer, @Nullable BigInteger value, CodecContext context) throws OperationNotSupportedException {
+            if(value == null) {
+                return;
+            }
+
+            if(value.compareTo(BigInteger.ZERO) == 0) {
+                writer.write(uint(0)); // nDigits & weight
+                writer.write(ushort(0x0000)); // pos
+                writer.write(ushort(0)); // reserved
+                return;
+            }
+
+            var isPos = value.signum() == 1;
+            var abs = value.abs();
+
+            List<UShort> digits = new ArrayList<>();
+
+            while(abs.compareTo(BigInteger.ZERO) != 0) {
+                var mod = abs.mod(BASE);
+                abs = abs.divide(BASE);
+                digits.add((ushort(mod.intValue())));
+            }
+
+            writer.write(ushort(digits.size()));
+            writer.write((short) (digits.size() - 1));
+            writer.write(ushort(isPos ? 0x0000 : 0x4000));
+            writer.write(ushort(0));
+
+            for(int i = digits.size() - 1; i >= 0; i--) {
+                writer.write(digits.get(i));
+            }
+        }
+
+        @Override
+        public @NotNull BigInteger deserialize(@NotNull PacketReader reader, CodecContext context) {
+            var nDigits = reader.readUInt16().intValue();
+            var weight = reader.readInt16();
+            var isPos = reader.readUInt16().compareTo(ushort(0)) == 0;
+
+            // reserved
+            reader.skip(BinaryProtocolUtils.SHORT_SIZE);
+
+            StringBuilder result = new StringBuilder(isPos ? "" : "-");
+
+            int i = weight, d = 0;
+
+            while(i >= 0) {
+                if(i <= weight && d < nDigits) {
+                    var digit = Integer.toString(reader.readUInt16().intValue());
+                    result.append(d > 0 ? StringsUtil.padLeft(digit, '0', 4) : digit);
+                    d++;
+                } else {
+                    result.append("0000");
+                }
+                i--;
+            }
+
+            return new BigInteger(result.toString());
+        }
+    }
+}
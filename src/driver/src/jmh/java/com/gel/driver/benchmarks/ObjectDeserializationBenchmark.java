@@ -0,0 +1,93 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.annotations.GelType;
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.codecs.CodecContext;
+import com.gel.driver.binary.codecs.ObjectCodec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.binary.codecs.scalars.TextCodec;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective deserializer against the compiled one for a 20 field object: 10 {@code int64} and 10
+ * {@code str} properties. {@linkplain #deserializeMap()} flattens the same object into a {@code Map}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectDeserializationBenchmark {
+    private static final int FIELD_COUNT = 20;
+
+    @GelType
+    public static class Person {
+        public Long n0, n1, n2, n3, n4, n5, n6, n7, n8, n9;
+        public String s0, s1, s2, s3, s4, s5, s6, s7, s8, s9;
+    }
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private ObjectCodec.TypeInitializedObjectCodec codec;
+    private ObjectCodec mapCodec;
+    private CodecContext context;
+    private ByteBuf data;
+
+    @Setup
+    public void setup() throws Exception {
+        var config = GelClientConfig.builder()
+                .useCompiledDeserializers(compiled)
+                .build();
+
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        context = new CodecContext(new GelTcpClient(connection, config, null));
+
+        var elements = new ObjectCodec.ObjectProperty[FIELD_COUNT];
+        data = Unpooled.buffer();
+        data.writeInt(FIELD_COUNT);
+
+        for(int i = 0; i != FIELD_COUNT; i++) {
+            data.writeInt(0); // reserved
+
+            if(i < FIELD_COUNT / 2) {
+                elements[i] = ObjectCodec.propertyOf("n" + i, Cardinality.ONE, new Integer64Codec(null));
+                data.writeInt(Long.BYTES);
+                data.writeLong(i * 1_000_003L);
+            } else {
+                var value = ("value of field " + i).getBytes(StandardCharsets.UTF_8);
+                elements[i] = ObjectCodec.propertyOf("s" + (i - FIELD_COUNT / 2), Cardinality.ONE, new TextCodec(null));
+                data.writeInt(value.length);
+                data.writeBytes(value);
+            }
+        }
+
+        mapCodec = new ObjectCodec(UUID.randomUUID(), null, null, elements);
+        codec = mapCodec.getOrCreateTypeCodec(Person.class);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return codec.deserialize(new PacketReader(data.duplicate()), context);
+    }
+
+    @Benchmark
+    public Object deserializeMap() throws Exception {
+        return mapCodec.deserialize(new PacketReader(data.duplicate()), context);
+    }
+}
@@ -0,0 +1,69 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.binary.builders.ObjectBuilder;
+import com.gel.driver.binary.codecs.ArrayCodec;
+import com.gel.driver.binary.codecs.Codec;
+import com.gel.driver.binary.codecs.CompilableCodec;
+import com.gel.driver.binary.codecs.scalars.Float64Codec;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Array;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes an {@code array<float64>} embedding of 1536 elements as a boxed {@code Double[]} and as a {@code double[]}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimitiveArrayBenchmark {
+    private static final int DIMENSIONS = 1536;
+
+    private GelTcpClient client;
+    private Codec<?> codec;
+    private ByteBuf data;
+
+    @Setup
+    public void setup() throws Exception {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+
+        codec = new CompilableCodec(
+                UUID.randomUUID(), null, new Float64Codec(null), ArrayCodec::create, t -> Array.newInstance(t, 0).getClass()
+        );
+
+        data = Unpooled.buffer();
+        data.writeInt(1); // dimensions
+        data.writeLong(0); // reserved
+        data.writeInt(DIMENSIONS); // upper
+        data.writeInt(1); // lower
+
+        for(int i = 0; i != DIMENSIONS; i++) {
+            data.writeInt(Double.BYTES);
+            data.writeDouble(i / 7d);
+        }
+    }
+
+    @Benchmark
+    public Double[] boxed() throws Exception {
+        return ObjectBuilder.buildResult(client, codec, data.slice(), Double[].class);
+    }
+
+    @Benchmark
+    public double[] primitive() throws Exception {
+        return ObjectBuilder.buildResult(client, codec, data.slice(), double[].class);
+    }
+}
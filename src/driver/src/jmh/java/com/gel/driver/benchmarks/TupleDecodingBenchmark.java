@@ -0,0 +1,93 @@
+package com.gel.driver.benchmarks;
+
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.binary.builders.ObjectBuilder;
+import com.gel.driver.binary.codecs.ArrayCodec;
+import com.gel.driver.binary.codecs.Codec;
+import com.gel.driver.binary.codecs.CompilableCodec;
+import com.gel.driver.binary.codecs.TupleCodec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.binary.codecs.scalars.TextCodec;
+import com.gel.driver.clients.GelTcpClient;
+import com.gel.driver.datatypes.Tuple;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes 100k rows of {@code tuple<int64, str, array<int64>>} one at a time, the way streamed results are built, so
+ * the cost of specializing the codec for the result type is paid for every row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TupleDecodingBenchmark {
+    private static final int ROW_COUNT = 100_000;
+
+    private GelTcpClient client;
+    private Codec<?> codec;
+    private ByteBuf data;
+    private int rowSize;
+
+    @Setup
+    public void setup() throws Exception {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+
+        var array = new CompilableCodec(
+                UUID.randomUUID(), null, new Integer64Codec(null), ArrayCodec::new, t -> Array.newInstance(t, 0).getClass()
+        );
+
+        codec = new TupleCodec(UUID.randomUUID(), null, new Codec<?>[] {
+                new Integer64Codec(null), new TextCodec(null), array
+        });
+
+        var text = "a tuple element".getBytes(StandardCharsets.UTF_8);
+
+        data = Unpooled.buffer();
+        data.writeInt(3);
+
+        data.writeInt(0); // reserved
+        data.writeInt(Long.BYTES);
+        data.writeLong(42);
+
+        data.writeInt(0); // reserved
+        data.writeInt(text.length);
+        data.writeBytes(text);
+
+        data.writeInt(0); // reserved
+        data.writeInt(4 + 8 + 8 + 4 * (4 + Long.BYTES));
+        data.writeInt(1); // dimensions
+        data.writeLong(0); // reserved
+        data.writeInt(4); // upper
+        data.writeInt(1); // lower
+
+        for(int i = 0; i != 4; i++) {
+            data.writeInt(Long.BYTES);
+            data.writeLong(i);
+        }
+
+        rowSize = data.readableBytes();
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws Exception {
+        for(int i = 0; i != ROW_COUNT; i++) {
+            blackhole.consume(ObjectBuilder.buildResult(client, codec, data.slice(0, rowSize), Tuple.class));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.gel.driver;
+
+/**
+ * An enum specifying the lane a client pool queues a checkout in while every client is in use.
+ * <br/><br/>
+ * Queued interactive checkouts get three of every four released clients; batch checkouts get the rest, so they're
+ * slowed down rather than starved. Within a lane, checkouts are served in the order they were queued.
+ * @see GelClientPool#withCheckoutPriority(CheckoutPriority)
+ */
+public enum CheckoutPriority {
+    /**
+     * Latency sensitive work, like queries that serve a request. This is the default.
+     */
+    INTERACTIVE,
+
+    /**
+     * Throughput oriented work, like background jobs, that can wait behind interactive checkouts.
+     */
+    BATCH
+}
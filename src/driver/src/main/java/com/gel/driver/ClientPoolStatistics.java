@@ -0,0 +1,115 @@
+package com.gel.driver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a snapshot of the checkout counters of a client pool.
+ * <br/><br/>
+ * The queue length and the wait time histogram are meant for load shedding upstream: a growing queue or a shift
+ * towards the higher buckets means the database can't keep up. Counters only ever grow, compare two snapshots to get
+ * the rates over a period of time.
+ * @see GelClientPool#getPoolStatistics()
+ */
+public final class ClientPoolStatistics {
+    private final long size;
+    private final long inUse;
+    private final long queued;
+    private final long rejected;
+    private final long timedOut;
+    private final @NotNull List<Duration> waitTimeBounds;
+    private final long @NotNull [] waitTimeCounts;
+
+    /**
+     * Constructs a new {@linkplain ClientPoolStatistics}.
+     * @param size The number of clients the pool can hand out at once.
+     * @param inUse The number of clients currently checked out.
+     * @param queued The number of checkouts currently waiting for a client.
+     * @param rejected The number of checkouts rejected because the queue was full.
+     * @param timedOut The number of checkouts that timed out in the queue.
+     * @param waitTimeBounds The inclusive upper bounds of the wait time histogram buckets.
+     * @param waitTimeCounts The number of checkouts per bucket, with one more bucket for the waits past the last bound.
+     */
+    public ClientPoolStatistics(
+            long size, long inUse, long queued, long rejected, long timedOut,
+            @NotNull List<Duration> waitTimeBounds, long @NotNull [] waitTimeCounts
+    ) {
+        this.size = size;
+        this.inUse = inUse;
+        this.queued = queued;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.waitTimeBounds = waitTimeBounds;
+        this.waitTimeCounts = waitTimeCounts;
+    }
+
+    /**
+     * Gets the number of clients the pool can currently hand out at once.
+     * @return The current pool size.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of clients currently checked out of the pool.
+     * @return The number of clients in use.
+     */
+    public long getInUse() {
+        return inUse;
+    }
+
+    /**
+     * Gets the number of checkouts currently waiting for a client, in every lane.
+     * @return The queue length.
+     */
+    public long getQueued() {
+        return queued;
+    }
+
+    /**
+     * Gets the number of checkouts rejected because the maximum number of queued checkouts was reached.
+     * @return The number of rejected checkouts.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of checkouts that waited longer than the checkout timeout.
+     * @return The number of timed out checkouts.
+     */
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Gets the inclusive upper bounds of the wait time histogram buckets, in ascending order. The first bound is
+     * {@linkplain Duration#ZERO}, counting the checkouts that didn't wait at all.
+     * @return The bucket bounds.
+     */
+    public @NotNull List<Duration> getWaitTimeBounds() {
+        return waitTimeBounds;
+    }
+
+    /**
+     * Gets the number of checkouts that got a client per wait time bucket. The last count is for the waits longer
+     * than the last {@linkplain #getWaitTimeBounds() bound}.
+     * @return A copy of the bucket counts.
+     */
+    public long @NotNull [] getWaitTimeCounts() {
+        return waitTimeCounts.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ClientPoolStatistics(size := %d|inUse := %d|queued := %d|rejected := %d|timedOut := %d" +
+                        "|waitTimes := %s)",
+                size, inUse, queued, rejected, timedOut, Arrays.toString(waitTimeCounts)
+        );
+    }
+}
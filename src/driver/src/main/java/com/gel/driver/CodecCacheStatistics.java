@@ -0,0 +1,132 @@
+package com.gel.driver;
+
+/**
+ * Represents a snapshot of the codec cache counters for a connection target.
+ * <br/><br/>
+ * Codecs are cached per server and branch, and shared by every client connected to them. Counters only ever grow,
+ * compare two snapshots to get the rates over a period of time.
+ * @see GelClientPool#getCodecCacheStatistics()
+ */
+public final class CodecCacheStatistics {
+    private final long queryHits;
+    private final long queryMisses;
+    private final long queryEvictions;
+    private final int queryEntries;
+    private final long codecHits;
+    private final long codecMisses;
+    private final long codecEvictions;
+    private final int codecEntries;
+
+    /**
+     * Constructs a new {@linkplain CodecCacheStatistics}.
+     * @param queryHits The number of query codec lookups that found an entry.
+     * @param queryMisses The number of query codec lookups that didn't find an entry.
+     * @param queryEvictions The number of query codec entries evicted to make room for new ones.
+     * @param queryEntries The number of query codec entries currently cached.
+     * @param codecHits The number of type codec lookups that found an entry.
+     * @param codecMisses The number of type codec lookups that didn't find an entry.
+     * @param codecEvictions The number of type codecs evicted to make room for new ones.
+     * @param codecEntries The number of type codecs currently cached.
+     */
+    public CodecCacheStatistics(
+            long queryHits, long queryMisses, long queryEvictions, int queryEntries,
+            long codecHits, long codecMisses, long codecEvictions, int codecEntries
+    ) {
+        this.queryHits = queryHits;
+        this.queryMisses = queryMisses;
+        this.queryEvictions = queryEvictions;
+        this.queryEntries = queryEntries;
+        this.codecHits = codecHits;
+        this.codecMisses = codecMisses;
+        this.codecEvictions = codecEvictions;
+        this.codecEntries = codecEntries;
+    }
+
+    /**
+     * Gets the number of query codec lookups that found an entry, each one saves a parse round trip.
+     * @return The number of query codec cache hits.
+     */
+    public long getQueryHits() {
+        return queryHits;
+    }
+
+    /**
+     * Gets the number of query codec lookups that didn't find an entry.
+     * @return The number of query codec cache misses.
+     */
+    public long getQueryMisses() {
+        return queryMisses;
+    }
+
+    /**
+     * Gets the number of query codec entries evicted because the cache was full.
+     * @return The number of query codec cache evictions.
+     */
+    public long getQueryEvictions() {
+        return queryEvictions;
+    }
+
+    /**
+     * Gets the number of query codec entries currently cached.
+     * @return The size of the query codec cache.
+     */
+    public int getQueryEntries() {
+        return queryEntries;
+    }
+
+    /**
+     * Gets the number of type codec lookups that found an entry.
+     * @return The number of type codec cache hits.
+     */
+    public long getCodecHits() {
+        return codecHits;
+    }
+
+    /**
+     * Gets the number of type codec lookups that didn't find an entry.
+     * @return The number of type codec cache misses.
+     */
+    public long getCodecMisses() {
+        return codecMisses;
+    }
+
+    /**
+     * Gets the number of type codecs evicted because the cache was full.
+     * @return The number of type codec cache evictions.
+     */
+    public long getCodecEvictions() {
+        return codecEvictions;
+    }
+
+    /**
+     * Gets the number of type codecs currently cached.
+     * @return The size of the type codec cache.
+     */
+    public int getCodecEntries() {
+        return codecEntries;
+    }
+
+    /**
+     * Combines two snapshots, summing their counters.
+     * @param other The snapshot to add to this one.
+     * @return A new snapshot with the counters of both.
+     */
+    public CodecCacheStatistics plus(CodecCacheStatistics other) {
+        return new CodecCacheStatistics(
+                queryHits + other.queryHits, queryMisses + other.queryMisses,
+                queryEvictions + other.queryEvictions, queryEntries + other.queryEntries,
+                codecHits + other.codecHits, codecMisses + other.codecMisses,
+                codecEvictions + other.codecEvictions, codecEntries + other.codecEntries
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "CodecCacheStatistics(queries := %d hits/%d misses/%d evictions/%d entries" +
+                        "|codecs := %d hits/%d misses/%d evictions/%d entries)",
+                queryHits, queryMisses, queryEvictions, queryEntries,
+                codecHits, codecMisses, codecEvictions, codecEntries
+        );
+    }
+}
@@ -2,7 +2,9 @@ package com.gel.driver;
 
 import com.gel.driver.namingstrategies.NamingStrategy;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
@@ -14,6 +16,11 @@ public class GelClientConfig {
     }
 
     private int poolSize = 50;
+    private boolean adaptivePoolSizing = false;
+    private int minPoolSize = 1;
+    private int maxPoolSize;
+    private int maxQueuedCheckouts;
+    private Duration checkoutTimeout = Duration.ZERO;
     private ConnectionRetryMode retryMode = ConnectionRetryMode.ALWAYS_RETRY;
     private int maxConnectionRetries = 5;
     private long messageTimeout = 15;
@@ -23,9 +30,21 @@ public class GelClientConfig {
     private boolean implicitTypeIds;
     private NamingStrategy namingStrategy = NamingStrategy.defaultStrategy();
     private boolean useFieldSetters = false;
+    private boolean useCompiledDeserializers = false;
+    private boolean useOptimisticExecute = false;
+    private int maxPipelinedCommands = 1;
+    private int codecCacheSize = 4096;
+    private @Nullable Path codecCacheDirectory;
     private ClientType clientType = ClientType.TCP;
     private int clientAvailability = 10;
     private Duration clientMaxAge = Duration.of(10, ChronoUnit.MINUTES);
+    private int minIdle;
+    private boolean warmUpOnCreate;
+    private Duration poolMaintenanceInterval = Duration.of(30, ChronoUnit.SECONDS);
+    private TransportType transportType = TransportType.AUTO;
+    private int eventLoopThreads;
+    private boolean useEventLoopHandlers = false;
+    private GelMetrics metrics = GelMetrics.NOOP;
 
     /**
      * Gets the number of attempts to try to connect.
@@ -85,6 +104,46 @@ public class GelClientConfig {
         return poolSize;
     }
 
+    /**
+     * Gets whether a client pool grows and shrinks its size with the time checkouts wait for a client.
+     * @return {@code true} if the pool size adapts to its load.
+     */
+    public boolean useAdaptivePoolSizing() {
+        return adaptivePoolSizing;
+    }
+
+    /**
+     * Gets the size an adaptive client pool can shrink to.
+     * @return The minimum pool size.
+     */
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    /**
+     * Gets the size an adaptive client pool can grow to.
+     * @return The maximum pool size, {@code 0} if the pool follows the concurrency suggested by the server.
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * Gets the number of checkouts a client pool queues while every client is in use, before it rejects new ones.
+     * @return The maximum number of queued checkouts, {@code 0} if the queue is unbounded.
+     */
+    public int getMaxQueuedCheckouts() {
+        return maxQueuedCheckouts;
+    }
+
+    /**
+     * Gets the time a queued checkout waits for a client before it fails.
+     * @return The checkout timeout, {@linkplain Duration#ZERO} if checkouts wait indefinitely.
+     */
+    public Duration getCheckoutTimeout() {
+        return checkoutTimeout;
+    }
+
     /**
      * Gets the retry mode for connecting.
      * @return The current connection retry mode.
@@ -111,6 +170,50 @@ public class GelClientConfig {
         return useFieldSetters;
     }
 
+    /**
+     * Gets whether dataclasses are deserialized through compiled deserializers, which bind the fields or constructor
+     * parameters of the class to the shape of a query once instead of looking them up for every object.
+     * @return {@code true} if compiled deserializers should be used.
+     */
+    public boolean useCompiledDeserializers() {
+        return useCompiledDeserializers;
+    }
+
+    /**
+     * Gets whether queries without arguments are executed straight away when their codecs aren't cached, instead of
+     * being parsed first.
+     * @return {@code true} if queries without arguments are executed optimistically.
+     */
+    public boolean useOptimisticExecute() {
+        return useOptimisticExecute;
+    }
+
+    /**
+     * Gets the maximum number of commands a single TCP client writes to its connection before waiting for the
+     * responses of the earlier ones.
+     * @return The maximum number of in-flight commands per connection, {@code 1} if pipelining is disabled.
+     */
+    public int getMaxPipelinedCommands() {
+        return maxPipelinedCommands;
+    }
+
+    /**
+     * Gets the maximum number of entries kept in each codec cache of a connection target.
+     * @return The maximum number of cached query codecs, and of cached type codecs.
+     */
+    public int getCodecCacheSize() {
+        return codecCacheSize;
+    }
+
+    /**
+     * Gets the directory query codecs are persisted to, so that new processes can skip parsing the queries
+     * earlier processes already ran.
+     * @return The directory of the persistent codec cache, or {@code null} if codecs are only cached in memory.
+     */
+    public @Nullable Path getCodecCacheDirectory() {
+        return codecCacheDirectory;
+    }
+
     /**
      * Gets the client type to use in a client pool.
      * @return The client type to use in a client pool.
@@ -136,6 +239,31 @@ public class GelClientConfig {
         return clientMaxAge;
     }
 
+    /**
+     * Gets the number of connected clients a client pool keeps idle, ready to be checked out.
+     * @return The minimum number of idle clients, {@code 0} if clients are only created on demand.
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Gets whether a client pool connects its minimum number of idle clients as soon as it's constructed.
+     * @return {@code true} if the pool warms up on construction.
+     */
+    public boolean getWarmUpOnCreate() {
+        return warmUpOnCreate;
+    }
+
+    /**
+     * Gets the interval at which a client pool with a minimum number of idle clients checks the health of its idle
+     * clients, replaces the expired ones and connects new ones.
+     * @return A {@linkplain Duration} that represents the interval between maintenance runs.
+     */
+    public Duration getPoolMaintenanceInterval() {
+        return poolMaintenanceInterval;
+    }
+
     /**
      * Gets whether {@code __tid__} should be implicitly included on all objects, regardless of shape.
      * @return {@code true} if {@code __tid__} is included on all objects, regardless of shape.
@@ -144,11 +272,50 @@ public class GelClientConfig {
         return implicitTypeIds;
     }
 
+    /**
+     * Gets the network transport TCP clients connect with.
+     * @return The transport type to use.
+     * @see TransportType
+     */
+    public TransportType getTransportType() {
+        return transportType;
+    }
+
+    /**
+     * Gets the number of event loop threads TCP clients share for their network I/O.
+     * @return The number of event loop threads, {@code 0} for twice the number of available cores.
+     */
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    /**
+     * Gets whether TCP clients handle received messages directly on their event loop, instead of handing them off to
+     * a separate thread pool.
+     * @return {@code true} if messages are handled on the event loop.
+     */
+    public boolean useEventLoopHandlers() {
+        return useEventLoopHandlers;
+    }
+
+    /**
+     * Gets the metrics clients and pools record their measurements into.
+     * @return The configured {@linkplain GelMetrics}, {@linkplain GelMetrics#NOOP} by default.
+     */
+    public GelMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * A builder class used to construct {@linkplain GelClientConfig}s.
      */
     public static final class Builder {
         private int poolSize = DEFAULT.poolSize;
+        private boolean adaptivePoolSizing = DEFAULT.adaptivePoolSizing;
+        private int minPoolSize = DEFAULT.minPoolSize;
+        private int maxPoolSize = DEFAULT.maxPoolSize;
+        private int maxQueuedCheckouts = DEFAULT.maxQueuedCheckouts;
+        private Duration checkoutTimeout = DEFAULT.checkoutTimeout;
         private ConnectionRetryMode retryMode = DEFAULT.retryMode;
         private int maxConnectionRetries = DEFAULT.maxConnectionRetries;
         private long messageTimeout = DEFAULT.messageTimeout;
@@ -158,9 +325,21 @@ public class GelClientConfig {
         private boolean implicitTypeIds = DEFAULT.implicitTypeIds;
         private NamingStrategy namingStrategy = DEFAULT.namingStrategy;
         private boolean useFieldSetters = DEFAULT.useFieldSetters;
+        private boolean useCompiledDeserializers = DEFAULT.useCompiledDeserializers;
+        private boolean useOptimisticExecute = DEFAULT.useOptimisticExecute;
+        private int maxPipelinedCommands = DEFAULT.maxPipelinedCommands;
+        private int codecCacheSize = DEFAULT.codecCacheSize;
+        private @Nullable Path codecCacheDirectory = DEFAULT.codecCacheDirectory;
         private ClientType clientType = DEFAULT.clientType;
         private int clientAvailability = DEFAULT.clientAvailability;
         private Duration clientMaxAge = DEFAULT.clientMaxAge;
+        private int minIdle = DEFAULT.minIdle;
+        private boolean warmUpOnCreate = DEFAULT.warmUpOnCreate;
+        private Duration poolMaintenanceInterval = DEFAULT.poolMaintenanceInterval;
+        private TransportType transportType = DEFAULT.transportType;
+        private int eventLoopThreads = DEFAULT.eventLoopThreads;
+        private boolean useEventLoopHandlers = DEFAULT.useEventLoopHandlers;
+        private GelMetrics metrics = DEFAULT.metrics;
 
         /**
          * Sets the pool size of the current builder.
@@ -178,6 +357,85 @@ public class GelClientConfig {
             return this;
         }
 
+        /**
+         * Sets whether a client pool adapts its size to its load. The {@linkplain #withPoolSize(int) pool size} is
+         * then the initial size: the pool grows when checkouts have to wait for a client and shrinks again once they
+         * haven't for a while, within the {@linkplain #withMinPoolSize(int) minimum} and
+         * {@linkplain #withMaxPoolSize(int) maximum} sizes and never past the concurrency suggested by the server.
+         * <br/><br/>
+         * Otherwise, the default, the pool keeps its size until the server suggests a concurrency, and then uses that.
+         * @param adaptivePoolSizing The value to set.
+         * @return The current builder.
+         */
+        public @NotNull Builder useAdaptivePoolSizing(boolean adaptivePoolSizing) {
+            this.adaptivePoolSizing = adaptivePoolSizing;
+            return this;
+        }
+
+        /**
+         * Sets the size an adaptive client pool can shrink to.
+         * @param minPoolSize The value to set.
+         * @return The current builder.
+         * @exception IllegalArgumentException The minimum pool size must be greater than 0
+         */
+        public @NotNull Builder withMinPoolSize(int minPoolSize) {
+            if(minPoolSize <= 0) {
+                throw new IllegalArgumentException("Min pool size must be at least 1");
+            }
+
+            this.minPoolSize = minPoolSize;
+            return this;
+        }
+
+        /**
+         * Sets the size an adaptive client pool can grow to. The concurrency suggested by the server still caps it.
+         * @param maxPoolSize The value to set, {@code 0} to grow up to the concurrency suggested by the server.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must not be negative.
+         */
+        public @NotNull Builder withMaxPoolSize(int maxPoolSize) {
+            if(maxPoolSize < 0) {
+                throw new IllegalArgumentException("Max pool size must not be negative");
+            }
+
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of checkouts a client pool queues while every client is in use. Past it, checkouts fail
+         * right away with a {@linkplain com.gel.driver.exceptions.PoolCheckoutException}, instead of piling up
+         * while the database is slow.
+         * @param maxQueuedCheckouts The value to set, {@code 0} for an unbounded queue.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must not be negative.
+         */
+        public @NotNull Builder withMaxQueuedCheckouts(int maxQueuedCheckouts) {
+            if(maxQueuedCheckouts < 0) {
+                throw new IllegalArgumentException("Max queued checkouts must not be negative");
+            }
+
+            this.maxQueuedCheckouts = maxQueuedCheckouts;
+            return this;
+        }
+
+        /**
+         * Sets the time a queued checkout waits for a client, after which it fails with a
+         * {@linkplain com.gel.driver.exceptions.PoolCheckoutException}. Only the wait in the queue counts, not
+         * connecting the client.
+         * @param checkoutTimeout The value to set, {@linkplain Duration#ZERO} to wait indefinitely.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must not be negative.
+         */
+        public @NotNull Builder withCheckoutTimeout(@NotNull Duration checkoutTimeout) {
+            if(checkoutTimeout.isNegative()) {
+                throw new IllegalArgumentException("Checkout timeout must not be negative");
+            }
+
+            this.checkoutTimeout = checkoutTimeout;
+            return this;
+        }
+
         /**
          * Sets the retry mode of the current builder.
          * @param retryMode The value to set.
@@ -266,6 +524,79 @@ public class GelClientConfig {
             return this;
         }
 
+        /**
+         * Sets whether the type builder will use compiled deserializers to populate data classes. Compiled
+         * deserializers bind the shape of a query to the fields or constructor parameters of a class once and assign
+         * values through method handles; classes that can't be bound fall back to the reflective deserializer.
+         * @param useCompiledDeserializers The value to set.
+         * @return The current builder.
+         */
+        public @NotNull Builder useCompiledDeserializers(boolean useCompiledDeserializers) {
+            this.useCompiledDeserializers = useCompiledDeserializers;
+            return this;
+        }
+
+        /**
+         * Sets whether queries without arguments skip the parse step when their codecs aren't cached. The query is
+         * executed right away and the server describes its result before sending any data, saving a round trip for
+         * queries that haven't been seen before.
+         * @param useOptimisticExecute The value to set.
+         * @return The current builder.
+         */
+        public @NotNull Builder useOptimisticExecute(boolean useOptimisticExecute) {
+            this.useOptimisticExecute = useOptimisticExecute;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of commands a single TCP client can have in flight on its connection. Values above
+         * {@code 1} enable pipelining: commands are written back to back without waiting for the previous ones to
+         * complete, and their responses are matched up in the order the commands were sent.
+         * @param maxPipelinedCommands The value to set.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must be at least 1.
+         */
+        public @NotNull Builder withMaxPipelinedCommands(int maxPipelinedCommands) {
+            if(maxPipelinedCommands <= 0) {
+                throw new IllegalArgumentException("Max pipelined commands must be at least 1");
+            }
+
+            this.maxPipelinedCommands = maxPipelinedCommands;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entries kept in each codec cache. Codecs are cached per server and branch, and
+         * shared by every client connected to them; the size is taken from the first client that connects to a
+         * target. The least recently used entries are evicted once a cache is full.
+         * @param codecCacheSize The value to set.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must be at least 1.
+         */
+        public @NotNull Builder withCodecCacheSize(int codecCacheSize) {
+            if(codecCacheSize <= 0) {
+                throw new IllegalArgumentException("Codec cache size must be at least 1");
+            }
+
+            this.codecCacheSize = codecCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the directory query codecs are persisted to. Each server and branch gets its own file within it, holding
+         * the type descriptors of the queries ran against it; a new process reads the file when it first connects, and
+         * builds the codecs of those queries without parsing them again. The file is cleared when the server reports
+         * that its schema changed.
+         * <br/><br/>
+         * The directory can be shared by processes connecting to the same servers, it's created if it doesn't exist.
+         * @param codecCacheDirectory The value to set, {@code null} to only cache codecs in memory.
+         * @return The current builder.
+         */
+        public @NotNull Builder withCodecCacheDirectory(@Nullable Path codecCacheDirectory) {
+            this.codecCacheDirectory = codecCacheDirectory;
+            return this;
+        }
+
         /**
          * Sets the client type to use.
          * @param clientType The value to set.
@@ -303,6 +634,104 @@ public class GelClientConfig {
             return this;
         }
 
+        /**
+         * Sets the number of connected clients a client pool keeps idle. When this is above {@code 0}, a background
+         * task runs at the {@linkplain #withPoolMaintenanceInterval(Duration) maintenance interval}: it checks idle
+         * clients with a {@code Sync} round trip, disconnects the ones that failed or are past the
+         * {@linkplain #withClientMaxAge(Duration) max age}, and connects new clients in parallel until the pool has
+         * this many idle ones, as long as the pool size allows it.
+         * @param minIdle The value to set.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must not be negative.
+         */
+        public @NotNull Builder withMinIdle(int minIdle) {
+            if(minIdle < 0) {
+                throw new IllegalArgumentException("Min idle must not be negative");
+            }
+
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        /**
+         * Sets whether a client pool connects its {@linkplain #withMinIdle(int) minimum number of idle clients} as
+         * soon as it's constructed, instead of at its first maintenance run. The first queries then don't pay for the
+         * connection handshakes.
+         * @param warmUpOnCreate The value to set.
+         * @return The current builder.
+         */
+        public @NotNull Builder withWarmUpOnCreate(boolean warmUpOnCreate) {
+            this.warmUpOnCreate = warmUpOnCreate;
+            return this;
+        }
+
+        /**
+         * Sets the interval between the maintenance runs of a client pool with a minimum number of idle clients.
+         * @param poolMaintenanceInterval The value to set.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must be positive.
+         */
+        public @NotNull Builder withPoolMaintenanceInterval(@NotNull Duration poolMaintenanceInterval) {
+            if(poolMaintenanceInterval.isNegative() || poolMaintenanceInterval.isZero()) {
+                throw new IllegalArgumentException("Pool maintenance interval must be positive");
+            }
+
+            this.poolMaintenanceInterval = poolMaintenanceInterval;
+            return this;
+        }
+
+        /**
+         * Sets the network transport TCP clients connect with. Native transports need Netty's native library for the
+         * platform on the classpath; if the requested one isn't available, NIO is used instead.
+         * @param transportType The value to set.
+         * @return The current builder.
+         * @see TransportType
+         */
+        public @NotNull Builder withTransportType(@NotNull TransportType transportType) {
+            this.transportType = transportType;
+            return this;
+        }
+
+        /**
+         * Sets the number of event loop threads TCP clients share for their network I/O. Clients with the same
+         * transport and thread count share a single event loop group.
+         * @param eventLoopThreads The value to set, {@code 0} for twice the number of available cores.
+         * @return The current builder.
+         * @exception IllegalArgumentException Value must not be negative.
+         */
+        public @NotNull Builder withEventLoopThreads(int eventLoopThreads) {
+            if(eventLoopThreads < 0) {
+                throw new IllegalArgumentException("Event loop threads must not be negative");
+            }
+
+            this.eventLoopThreads = eventLoopThreads;
+            return this;
+        }
+
+        /**
+         * Sets whether TCP clients handle received messages directly on their event loop. This removes a thread
+         * handoff for every message, but the continuations of query results then run on the event loop too: blocking
+         * in them stalls the I/O of every connection sharing that loop.
+         * @param useEventLoopHandlers The value to set.
+         * @return The current builder.
+         */
+        public @NotNull Builder useEventLoopHandlers(boolean useEventLoopHandlers) {
+            this.useEventLoopHandlers = useEventLoopHandlers;
+            return this;
+        }
+
+        /**
+         * Sets the metrics clients and pools record their measurements into. The same instance is shared by every
+         * client of a pool.
+         * @param metrics The value to set.
+         * @return The current builder.
+         * @see GelMetrics
+         */
+        public @NotNull Builder withMetrics(@NotNull GelMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         /**
          * Constructs a {@linkplain GelClientConfig} from the current builder.
          * @return A {@linkplain GelClientConfig} that represents the current builder.
@@ -316,12 +745,29 @@ public class GelClientConfig {
             gelClientConfig.maxConnectionRetries = this.maxConnectionRetries;
             gelClientConfig.clientMaxAge = this.clientMaxAge;
             gelClientConfig.poolSize = this.poolSize;
+            gelClientConfig.adaptivePoolSizing = this.adaptivePoolSizing;
+            gelClientConfig.minPoolSize = this.minPoolSize;
+            gelClientConfig.maxPoolSize = this.maxPoolSize;
+            gelClientConfig.maxQueuedCheckouts = this.maxQueuedCheckouts;
+            gelClientConfig.checkoutTimeout = this.checkoutTimeout;
             gelClientConfig.useFieldSetters = this.useFieldSetters;
+            gelClientConfig.useCompiledDeserializers = this.useCompiledDeserializers;
+            gelClientConfig.useOptimisticExecute = this.useOptimisticExecute;
+            gelClientConfig.maxPipelinedCommands = this.maxPipelinedCommands;
+            gelClientConfig.codecCacheSize = this.codecCacheSize;
+            gelClientConfig.codecCacheDirectory = this.codecCacheDirectory;
             gelClientConfig.namingStrategy = this.namingStrategy;
             gelClientConfig.clientAvailability = this.clientAvailability;
             gelClientConfig.implicitTypeIds = this.implicitTypeIds;
             gelClientConfig.retryMode = this.retryMode;
             gelClientConfig.messageTimeout = this.messageTimeout;
+            gelClientConfig.transportType = this.transportType;
+            gelClientConfig.eventLoopThreads = this.eventLoopThreads;
+            gelClientConfig.useEventLoopHandlers = this.useEventLoopHandlers;
+            gelClientConfig.metrics = this.metrics;
+            gelClientConfig.minIdle = this.minIdle;
+            gelClientConfig.warmUpOnCreate = this.warmUpOnCreate;
+            gelClientConfig.poolMaintenanceInterval = this.poolMaintenanceInterval;
             return gelClientConfig;
         }
     }
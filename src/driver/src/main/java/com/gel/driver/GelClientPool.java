@@ -1,12 +1,17 @@
 package com.gel.driver;
 
 import com.gel.driver.abstractions.ClientQueryDelegate;
+import com.gel.driver.async.ResultPublisher;
+import com.gel.driver.binary.builders.CodecBuilder;
 import com.gel.driver.clients.*;
 import com.gel.driver.datatypes.Json;
 import com.gel.driver.exceptions.ConfigurationException;
 import com.gel.driver.exceptions.GelException;
+import com.gel.driver.exceptions.PoolCheckoutException;
+import com.gel.driver.internal.PreparedQueryImpl;
 import com.gel.driver.state.Config;
 import com.gel.driver.state.Session;
+import com.gel.driver.util.AdaptivePoolSizer;
 import com.gel.driver.util.ClientPoolHolder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -17,19 +22,26 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-import static com.gel.driver.util.ComposableUtil.composeWith;
-
 /**
  * Represents a client pool used to interact with Gel.
  */
@@ -54,14 +66,30 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
         }
     }
 
-    private final AtomicInteger clientCount = new AtomicInteger();
-    private final @NotNull ConcurrentLinkedQueue<PooledClient> clients;
+    // a single daemon thread schedules the maintenance of every pool, the maintenance itself is asynchronous.
+    private static final class MaintenanceScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "gel-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // idle clients, used as a LIFO stack so the most recently used connections are reused first and the rest can
+    // age out. Shared with every instance created by the 'with*' methods.
+    private final @NotNull ConcurrentLinkedDeque<PooledClient> clients;
+    private final @NotNull AtomicInteger clientCount;
     private final GelConnection connection;
     private final GelClientConfig config;
     private final ClientPoolHolder poolHolder;
+    private final AdaptivePoolSizer poolSizer;
     private final ClientFactory clientFactory;
     private final Session session;
+    private final CheckoutPriority priority;
     private final int clientAvailability;
+    private final @NotNull AtomicReference<CompletableFuture<Void>> maintenanceRun;
+    private final @Nullable ScheduledFuture<?> maintenance;
+    private final @NotNull AtomicBoolean closed;
 
     /**
      * Constructs a new {@linkplain GelClientPool}.
@@ -73,13 +101,41 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
         @NotNull GelConnection connection,
         @NotNull GelClientConfig config
     ) throws ConfigurationException {
-        this.clients = new ConcurrentLinkedQueue<>();
+        this.clients = new ConcurrentLinkedDeque<>();
+        this.clientCount = new AtomicInteger();
         this.config = config;
         this.connection = connection;
-        this.poolHolder = new ClientPoolHolder(config.getPoolSize());
+        this.poolHolder = new ClientPoolHolder(
+                config.getPoolSize(),
+                config.getMaxQueuedCheckouts(),
+                config.getCheckoutTimeout()
+        );
+        this.poolSizer = new AdaptivePoolSizer(
+                this.poolHolder,
+                config.useAdaptivePoolSizing(),
+                config.getMinPoolSize(),
+                config.getMaxPoolSize()
+        );
         this.clientFactory = createClientFactory();
         this.session = Session.DEFAULT;
+        this.priority = CheckoutPriority.INTERACTIVE;
         this.clientAvailability = config.getClientAvailability();
+        this.maintenanceRun = new AtomicReference<>();
+        this.closed = new AtomicBoolean();
+
+        if(config.getMinIdle() > 0) {
+            var interval = config.getPoolMaintenanceInterval().toMillis();
+
+            this.maintenance = MaintenanceScheduler.INSTANCE.scheduleWithFixedDelay(
+                    this::maintain, interval, interval, TimeUnit.MILLISECONDS
+            );
+
+            if(config.getWarmUpOnCreate()) {
+                maintain();
+            }
+        } else {
+            this.maintenance = null;
+        }
     }
 
     /**
@@ -111,19 +167,71 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
     }
 
     private GelClientPool(@NotNull GelClientPool other, Session session) {
-        this.clients = new ConcurrentLinkedQueue<>();
+        this(other, session, other.priority);
+    }
+
+    private GelClientPool(@NotNull GelClientPool other, Session session, CheckoutPriority priority) {
+        this.clients = other.clients;
+        this.clientCount = other.clientCount;
         this.config = other.config;
         this.connection = other.connection;
         this.poolHolder = other.poolHolder;
+        this.poolSizer = other.poolSizer;
         this.clientFactory = other.clientFactory;
         this.session = session;
+        this.priority = priority;
         this.clientAvailability = other.clientAvailability;
+        this.maintenanceRun = other.maintenanceRun;
+        this.maintenance = other.maintenance;
+        this.closed = other.closed;
     }
 
     public int getClientCount() {
         return this.clientCount.get();
     }
 
+    /**
+     * Connects new clients in parallel until the pool has its {@linkplain GelClientConfig#getMinIdle() minimum
+     * number of idle clients}, or until the pool size is reached. Idle clients are checked and expired ones replaced
+     * first, like a maintenance run does.
+     * @return A {@linkplain CompletionStage} that completes once the pool is warm. Clients that failed to connect are
+     * logged and left out, the stage doesn't fail because of them.
+     */
+    public CompletionStage<Void> warmUp() {
+        return maintain();
+    }
+
+    /**
+     * Gets the checkout counters of this pool: its size, the clients in use, the queued checkouts, the failed ones and
+     * a histogram of the time checkouts waited for a client. The counters are shared with every instance created by
+     * the {@code with*} methods.
+     * @return A snapshot of the checkout counters.
+     */
+    public @NotNull ClientPoolStatistics getPoolStatistics() {
+        return this.poolHolder.getStatistics();
+    }
+
+    /**
+     * Creates a new client instance that queues its checkouts with the specified priority while every client of the
+     * pool is in use.
+     * <br/><br/>
+     * The returned client shares the same underlying client pool as this client.
+     * @param priority The checkout priority for the new client.
+     * @return A new client instance with the applied checkout priority, sharing the same underlying client pool.
+     */
+    public @NotNull GelClientPool withCheckoutPriority(@NotNull CheckoutPriority priority) {
+        return new GelClientPool(this, this.session, priority);
+    }
+
+    /**
+     * Gets the codec cache counters for the server and branch this pool connects to. The cache is shared with every
+     * other client connected to the same target.
+     * @return A snapshot of the codec cache counters.
+     */
+    public @NotNull CodecCacheStatistics getCodecCacheStatistics() {
+        return CodecBuilder.getCacheStatistics(this.connection);
+    }
+
     private @NotNull ClientFactory createClientFactory() throws ConfigurationException {
         if(config.getClientType() == ClientType.TCP) {
             return GelTcpClient::new;
@@ -163,7 +271,7 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
             TransactionSettings settings,
             @NotNull Function<Transaction, CompletionStage<T>> func
     ) {
-        return composeWith(getTransactableClient(), client -> client.transaction(settings, func));
+        return withPooledClient(getTransactableClient(), client -> client.transaction(settings, func));
     }
 
     /**
@@ -174,7 +282,7 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
      * @param <T> The result of the query.
      */
     public <T> CompletionStage<T> transaction(@NotNull Function<Transaction, CompletionStage<T>> func) {
-        return composeWith(getTransactableClient(), client -> client.transaction(func));
+        return withPooledClient(getTransactableClient(), client -> client.transaction(func));
     }
 
     /**
@@ -249,22 +357,63 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
         return new GelClientPool(this, this.session.withModule(module));
     }
 
-    // added because Map.entry cannot contain nulls
-    private static final class ExecutePair<U> {
+    // returns the client to the pool once the subscriber is done with the stream.
+    private static final class PooledSubscriber<T> implements Flow.Subscriber<T>, Flow.Subscription {
         private final BaseGelClient client;
-        private final @Nullable U result;
+        private final Flow.Subscriber<? super T> downstream;
+        private final AtomicBoolean isReleased;
+        private @Nullable Flow.Subscription upstream;
 
-        private ExecutePair(BaseGelClient client, @Nullable U result) {
+        private PooledSubscriber(BaseGelClient client, Flow.Subscriber<? super T> downstream) {
             this.client = client;
-            this.result = result;
+            this.downstream = downstream;
+            this.isReleased = new AtomicBoolean();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            release();
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            release();
+            downstream.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            Objects.requireNonNull(upstream).request(n);
         }
 
-        public @Nullable U getResult() {
-            return result;
+        @Override
+        public void cancel() {
+            Objects.requireNonNull(upstream).cancel();
+            release();
         }
 
-        public BaseGelClient getClient() {
-            return client;
+        private void release() {
+            if(!isReleased.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                client.close();
+            } catch (Exception x) {
+                logger.error("Failed to return client {} to the pool", client, x);
+            }
         }
     }
 
@@ -272,26 +421,31 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
             Class<T> cls, String query, Map<String, Object> args,
             EnumSet<Capabilities> capabilities, @NotNull ClientQueryDelegate<T, U> delegate
     ) {
-        return getClient()
-                .thenCompose(client ->
-                        delegate.run(
-                                client,
-                                cls,
-                                query,
-                                args,
-                                capabilities
-                        ).thenApply(r -> new ExecutePair<>(client, r))
-                )
-                .whenComplete((entry, exc) -> {
-                    if(entry != null) {
-                        try {
-                            entry.getClient().close();
-                        } catch (Exception e) {
-                            throw new CompletionException(e);
-                        }
-                    }
-                })
-                .thenApply(ExecutePair::getResult);
+        return withPooledClient(getClient(), client -> delegate.run(client, cls, query, args, capabilities));
+    }
+
+    // runs the delegate with a checked out client, returning the client to the pool whether or not it succeeds.
+    private <C extends AutoCloseable, U> CompletionStage<U> withPooledClient(
+            CompletionStage<C> clientStage,
+            Function<C, CompletionStage<U>> delegate
+    ) {
+        return clientStage.thenCompose(client -> {
+            CompletionStage<U> result;
+
+            try {
+                result = delegate.apply(client);
+            } catch (Throwable x) {
+                result = CompletableFuture.failedFuture(x);
+            }
+
+            return result.whenComplete((v, e) -> {
+                try {
+                    client.close();
+                } catch (Exception x) {
+                    throw new CompletionException(x);
+                }
+            });
+        });
     }
 
     @Override
@@ -306,6 +460,18 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
         return executePooledQuery(cls, query, args, capabilities, GelQueryable::query);
     }
 
+    @Override
+    public <T> Flow.Publisher<T> queryStream(@NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
+        return subscriber -> getClient().whenComplete((client, e) -> {
+            if(e != null) {
+                new ResultPublisher<T>(sink -> CompletableFuture.failedFuture(e)).subscribe(subscriber);
+                return;
+            }
+
+            client.queryStream(cls, query, args, capabilities).subscribe(new PooledSubscriber<>(client, subscriber));
+        });
+    }
+
     @Override
     public <T> CompletionStage<T> querySingle(@NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
         return executePooledQuery(cls, query, args, capabilities, GelQueryable::querySingle);
@@ -323,6 +489,18 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
         );
     }
 
+    @Override
+    public <T> CompletionStage<T> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities,
+            @NotNull JsonResultReader<T> reader
+    ) {
+        return executePooledQuery(Json.class, query, args, capabilities,
+                (c, cls, q, a, ca) -> c.queryJson(q, a, ca, reader)
+        );
+    }
+
     @Override
     public CompletionStage<List<Json>> queryJsonElements(@NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
         return executePooledQuery(Json.class, query, args, capabilities,
@@ -330,34 +508,85 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
         );
     }
 
+    @Override
+    public <T> CompletionStage<PreparedQuery<T>> prepare(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return new PreparedQueryImpl<>(cls, query, cardinality, capabilities, this::withBinaryClient).prepare();
+    }
+
+    // prepared queries check out a client for each execution, the pooled clients share their codecs.
+    private <U> CompletionStage<U> withBinaryClient(@NotNull Function<GelBinaryClient, CompletionStage<U>> operation) {
+        return withPooledClient(getClient(), client -> operation.apply((GelBinaryClient) client));
+    }
+
+    @Override
+    public CompletionStage<Void> executeBatch(@NotNull List<QueryWithArgs> queries) {
+        return withPooledClient(getClient(), client -> client.executeBatch(queries));
+    }
+
+    @Override
+    public <T> CompletionStage<List<List<@Nullable T>>> queryBatch(
+            @NotNull Class<T> cls,
+            @NotNull List<QueryWithArgs> queries
+    ) {
+        return withPooledClient(getClient(), client -> client.queryBatch(cls, queries));
+    }
+
     @Override
     public void close() throws Exception {
-        int count = clientCount.get();
-        while(!clients.isEmpty() && count > 0) {
-            clients.poll().client.disconnect().toCompletableFuture().get();
-            count = clientCount.decrementAndGet();
+        // maintenance and returning clients check this flag, clients that come back from now on are disconnected.
+        this.closed.set(true);
+
+        if(this.maintenance != null) {
+            this.maintenance.cancel(false);
         }
-    }
 
-    private synchronized CompletionStage<BaseGelClient> getClient() {
-        logger.trace("polling cached clients...");
-        var cachedClient = clients.poll();
+        var run = this.maintenanceRun.get();
 
-        if(cachedClient != null) {
-            logger.debug(
-                    "returning cached client, cached client count: {}; age {}",
-                    this.clientCount.decrementAndGet(),
-                    cachedClient.age()
-            );
+        if(run != null) {
+            run.get();
+        }
 
-            cachedClient.touch();
-            return CompletableFuture.completedFuture(cachedClient.client);
+        PooledClient client;
+        while((client = pollClient()) != null) {
+            client.client.disconnect().toCompletableFuture().get();
         }
+    }
 
-        return createClient();
+    private CompletionStage<BaseGelClient> getClient() {
+        return acquirePermit()
+                .thenCompose(v -> {
+                    logger.trace("permit acquired, polling cached clients...");
+                    var cachedClient = pollClient();
+
+                    // expired clients are replaced rather than handed out.
+                    while(cachedClient != null && isExpired(cachedClient)) {
+                        logger.debug("Discarding expired client {}, age {}", cachedClient.client, cachedClient.age());
+                        cachedClient.client.disconnect();
+                        cachedClient = pollClient();
+                    }
+
+                    if(cachedClient != null) {
+                        logger.debug(
+                                "returning cached client, cached client count: {}; age {}",
+                                this.clientCount.get(),
+                                cachedClient.age()
+                        );
+
+                        cachedClient.touch();
+                        return CompletableFuture.completedFuture(cachedClient.client);
+                    }
+
+                    return createClient();
+                })
+                .thenApply(client -> client.withSession(this.session));
     }
 
-    private synchronized CompletionStage<TransactableClient> getTransactableClient() {
+    private CompletionStage<TransactableClient> getTransactableClient() {
         return getClient()
                 .thenApply(client -> {
                     if(!(client instanceof TransactableClient)) {
@@ -366,6 +595,13 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
                                         " provided from the pool is of type {} which doesn't support transactions.",
                                 client.getClass().getSimpleName()
                         );
+
+                        try {
+                            client.close();
+                        } catch (Exception e) {
+                            logger.error("Failed to return client {} to the pool", client, e);
+                        }
+
                         throw new CompletionException(
                                 new GelException("Cannot use transactions with " + client + " type")
                         );
@@ -375,49 +611,259 @@ public final class GelClientPool implements StatefulClient, GelQueryable, AutoCl
                 });
     }
 
+    private CompletionStage<Void> acquirePermit() {
+        var permit = this.poolHolder.acquire(this.priority).toCompletableFuture();
+        var metrics = this.config.getMetrics();
+
+        // only a full queue fails a checkout right away.
+        if(permit.isDone()) {
+            if(permit.isCompletedExceptionally()) {
+                metrics.recordCheckoutFailure(PoolCheckoutException.Reason.QUEUE_FULL);
+            } else {
+                this.poolSizer.recordCheckout(0);
+                metrics.recordCheckoutWait(0);
+            }
+
+            return permit;
+        }
+
+        this.poolSizer.recordQueued();
+
+        var queuedAt = System.nanoTime();
+        return permit.whenComplete((v, e) -> {
+            if(e instanceof PoolCheckoutException) {
+                metrics.recordCheckoutFailure(((PoolCheckoutException) e).getReason());
+                return;
+            }
+
+            var wait = System.nanoTime() - queuedAt;
+            this.poolSizer.recordCheckout(wait);
+            metrics.recordCheckoutWait(wait);
+        });
+    }
+
+    private @Nullable PooledClient pollClient() {
+        var client = this.clients.pollFirst();
+
+        if(client != null) {
+            this.clientCount.decrementAndGet();
+        }
+
+        return client;
+    }
+
+    private boolean isExpired(@NotNull PooledClient client) {
+        return client.age().compareTo(this.config.getClientMaxAge()) > 0;
+    }
+
+    private CompletionStage<Void> maintain() {
+        var run = new CompletableFuture<Void>();
+        var current = this.maintenanceRun.compareAndExchange(null, run);
+
+        if(current != null) {
+            return current;
+        }
+
+        // checked after the run is published, so that close() either sees the run or the run sees the pool closed.
+        if(this.closed.get()) {
+            this.maintenanceRun.set(null);
+            run.complete(null);
+            return run;
+        }
+
+        logger.trace("Running pool maintenance, idle clients: {}", this.clientCount.get());
+
+        CompletionStage<Void> maintenance;
+
+        try {
+            removeExpiredClients();
+            maintenance = checkIdleClients().thenCompose(v -> connectIdleClients());
+        } catch (Throwable x) {
+            maintenance = CompletableFuture.failedFuture(x);
+        }
+
+        maintenance.whenComplete((v, e) -> {
+            this.maintenanceRun.set(null);
+
+            if(e != null) {
+                logger.warn("Pool maintenance failed", e);
+            }
+
+            run.complete(null);
+        });
+
+        return run;
+    }
+
+    private void removeExpiredClients() {
+        for(var client : this.clients) {
+            if(!isExpired(client) && client.client.isConnected()) {
+                continue;
+            }
+
+            if(this.clients.removeFirstOccurrence(client)) {
+                this.clientCount.decrementAndGet();
+                logger.debug("Removed client {} from pool, age {}", client.client, client.age());
+                client.client.disconnect();
+            }
+        }
+    }
+
+    // a checked client is taken out of the pool like a checkout, holding a permit so that the pool can't grow past
+    // its size while the check runs. Clients are only checked while permits are free, the rest wait for the next run.
+    private CompletionStage<Void> checkIdleClients() {
+        var checks = new ArrayList<CompletableFuture<Void>>();
+
+        // iterating over a copy, checked clients are added back to the end of the deque.
+        for(var client : new ArrayList<>(this.clients)) {
+            if(!this.poolHolder.tryAcquire()) {
+                logger.debug("No free permits, skipping the health check of {} idle client(s)", this.clientCount.get());
+                break;
+            }
+
+            // checked out since the copy was taken.
+            if(!this.clients.removeFirstOccurrence(client)) {
+                this.poolHolder.release();
+                continue;
+            }
+
+            this.clientCount.decrementAndGet();
+
+            checks.add(client.client.checkHealth().<Void>handle((v, e) -> {
+                if(e != null) {
+                    logger.debug("Health check of client {} failed, removing it from the pool", client.client, e);
+                    client.client.disconnect();
+                } else {
+                    this.clients.offerLast(client);
+                    this.clientCount.incrementAndGet();
+                    discardIfClosed(client);
+                }
+
+                // the client goes back before the permit, like a returned checkout.
+                this.poolHolder.release();
+                return null;
+            }).toCompletableFuture());
+        }
+
+        return CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletionStage<Void> connectIdleClients() {
+        var connects = new ArrayList<CompletableFuture<Void>>();
+        var missing = this.config.getMinIdle() - this.clientCount.get();
+
+        for(; missing > 0 && this.poolHolder.tryAcquire(); missing--) {
+            connects.add(createClient().thenCompose(this::connectIdleClient).toCompletableFuture());
+        }
+
+        if(!connects.isEmpty()) {
+            logger.debug("Connecting {} idle clients", connects.size());
+        }
+
+        return CompletableFuture.allOf(connects.toArray(CompletableFuture[]::new));
+    }
+
+    // must only be called with a client created while holding a permit, closing it returns both to the pool.
+    private CompletionStage<Void> connectIdleClient(@NotNull BaseGelClient client) {
+        return client.connect().handle((v, e) -> {
+            if(e != null || this.closed.get()) {
+                if(e != null) {
+                    logger.warn("Failed to connect idle client {}", client, e);
+                }
+
+                client.disconnect();
+                this.poolHolder.release();
+                return null;
+            }
+
+            try {
+                client.close();
+            } catch (Exception x) {
+                logger.error("Failed to return client {} to the pool", client, x);
+            }
+
+            return null;
+        });
+    }
+
     private void cleanupPool() {
-        clients.removeIf(c ->
-                c.age().compareTo(this.config.getClientMaxAge()) > 0
-                        || (!c.client.isConnected() && this.clientCount.decrementAndGet() >= this.clientAvailability)
-        );
+        for(var client : this.clients) {
+            if(
+                    client.age().compareTo(this.config.getClientMaxAge()) <= 0 &&
+                    (client.client.isConnected() || this.clientCount.get() < this.clientAvailability)
+            ) {
+                continue;
+            }
+
+            // another thread may have checked the client out since we looked at it.
+            if(this.clients.removeFirstOccurrence(client)) {
+                this.clientCount.decrementAndGet();
+                logger.debug("Removed client {} from pool, age {}", client.client, client.age());
+                client.client.disconnect();
+            }
+        }
     }
 
-    private synchronized void acceptClient(BaseGelClient client) {
-        this.clients.add(new PooledClient(client));
+    private void acceptClient(BaseGelClient client) {
+        if(this.closed.get()) {
+            logger.debug("client {} returned to a closed pool, disconnecting it", client);
+            client.disconnect();
+            return;
+        }
+
+        var pooled = new PooledClient(client);
+        this.clients.offerFirst(pooled);
         var count = this.clientCount.incrementAndGet();
 
         logger.debug("client {} returned to pool, client count: {}", client, count);
 
+        if(discardIfClosed(pooled)) {
+            return;
+        }
+
         if(count > this.clientAvailability) {
             logger.debug("Cleaning up pool... {}/{} availability reached", count, this.clientAvailability);
             cleanupPool();
         }
     }
 
-    private synchronized @NotNull CompletionStage<Void> onClientReady(@NotNull BaseGelClient client) {
+    // called after adding a client to the pool, so that a client returned while the pool closes isn't left behind.
+    private boolean discardIfClosed(@NotNull PooledClient client) {
+        if(!this.closed.get() || !this.clients.removeFirstOccurrence(client)) {
+            return false;
+        }
+
+        this.clientCount.decrementAndGet();
+        client.client.disconnect();
+        return true;
+    }
+
+    private @NotNull CompletionStage<Void> onClientReady(@NotNull BaseGelClient client) {
         var suggestedConcurrency = client.getSuggestedPoolConcurrency();
 
-        suggestedConcurrency.ifPresent(this.poolHolder::resize);
+        suggestedConcurrency.ifPresent(this.poolSizer::onSuggestedConcurrency);
 
         return CompletableFuture.completedFuture(null);
     }
 
+    // must only be called while holding a permit from the pool holder.
     private CompletionStage<BaseGelClient> createClient() {
-        return this.poolHolder.acquireContract()
-                .thenApply(contract -> {
-                    logger.trace("Contract acquired, remaining handles: {}", this.poolHolder.remaining());
-                    BaseGelClient client;
-                    try {
-                        client = clientFactory.create(this.connection, this.config, contract);
-                    } catch (GelException e) {
-                        throw new CompletionException(e);
-                    }
-                    contract.register(client, this::acceptClient);
-                    client.onReady(this::onClientReady);
-                    logger.debug("client instance created: {}", client);
-                    return client;
-                })
-                .thenApply(client -> client.withSession(this.session));
+        logger.trace("Creating client, remaining permits: {}", this.poolHolder.remaining());
+
+        var contract = this.poolHolder.createContract();
+        BaseGelClient client;
+
+        try {
+            client = clientFactory.create(this.connection, this.config, contract);
+        } catch (GelException e) {
+            this.poolHolder.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        contract.register(client, this::acceptClient);
+        client.onReady(this::onClientReady);
+        logger.debug("client instance created: {}", client);
+        return CompletableFuture.completedFuture(client);
     }
 
     @FunctionalInterface
@@ -273,6 +273,30 @@ public class GelConnection implements Cloneable {
 
     private @NotNull HashMap<String, String> serverSettings = new HashMap<String, String>();
 
+    /**
+     * Gets the path of the unix domain socket to connect to instead of the host and port.
+     *
+     * @return The path of the unix socket if present; otherwise {@code null}.
+     */
+    public @Nullable Path getUnixSocketPath() {
+        return unixSocketPath;
+    }
+
+    @JsonIgnore
+    private @Nullable Path unixSocketPath;
+
+    /**
+     * Gets whether connections over a unix domain socket are encrypted with TLS.
+     *
+     * @return {@code true} if TLS is used over the unix socket; otherwise {@code false}.
+     */
+    public boolean useUnixSocketTLS() {
+        return unixSocketTLS;
+    }
+
+    @JsonIgnore
+    private boolean unixSocketTLS;
+
     //#endregion
 
     //#region Builder
@@ -302,6 +326,8 @@ public class GelConnection implements Cloneable {
         private @Nullable String tlsServerName;
         private @Nullable String waitUntilAvailable;
         private @Nullable HashMap<String, String> serverSettings;
+        private @Nullable Path unixSocketPath;
+        private boolean unixSocketTLS;
 
         /**
          * Sets the connections' instance.
@@ -510,6 +536,35 @@ public class GelConnection implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the path of the unix domain socket TCP clients connect to instead of the host and port, for servers
+         * running on the same machine. Connections over the socket aren't encrypted.
+         * <br/><br/>
+         * Unix sockets need Netty's native epoll or kqueue transport on the classpath.
+         *
+         * @param unixSocketPath The path of the server's unix socket.
+         * @return The current builder.
+         */
+        public @NotNull Builder withUnixSocket(@NotNull Path unixSocketPath) {
+            return withUnixSocket(unixSocketPath, false);
+        }
+
+        /**
+         * Sets the path of the unix domain socket TCP clients connect to instead of the host and port, for servers
+         * running on the same machine.
+         * <br/><br/>
+         * Unix sockets need Netty's native epoll or kqueue transport on the classpath.
+         *
+         * @param unixSocketPath The path of the server's unix socket.
+         * @param useTLS Whether to encrypt the connection with TLS, following the TLS settings of the connection.
+         * @return The current builder.
+         */
+        public @NotNull Builder withUnixSocket(@NotNull Path unixSocketPath, boolean useTLS) {
+            this.unixSocketPath = unixSocketPath;
+            this.unixSocketTLS = useTLS;
+            return this;
+        }
+
         /*
          * Checks whether this builder has any fields set.
          * 
@@ -533,7 +588,8 @@ public class GelConnection implements Cloneable {
                 && tlsSecurity == null
                 && tlsServerName == null
                 && waitUntilAvailable == null
-                && serverSettings == null;
+                && serverSettings == null
+                && unixSocketPath == null;
         }
 
         /**
@@ -551,10 +607,15 @@ public class GelConnection implements Cloneable {
         @NotNull Builder builder,
         @NotNull SystemProvider provider
         ) throws ConfigurationException, IOException {
-        return _fromResolvedFields(
+        var result = _fromResolvedFields(
             _fromBuilder(builder, provider),
             provider
         );
+
+        result.unixSocketPath = builder.unixSocketPath;
+        result.unixSocketTLS = builder.unixSocketTLS;
+
+        return result;
     }
 
     private static @NotNull ResolvedFields _fromBuilder(
@@ -683,6 +744,12 @@ public class GelConnection implements Cloneable {
                 }
             }
 
+            // The unix socket only replaces the address to connect to, so it
+            // can be combined with the other primary options.
+            if (builder.unixSocketPath != null) {
+                hasPrimaryOptions = true;
+            }
+
             if (deferredPrimaryError != null) {
                 throw deferredPrimaryError;
             }
@@ -0,0 +1,75 @@
+package com.gel.driver;
+
+import com.gel.driver.exceptions.PoolCheckoutException;
+
+/**
+ * Receives measurements from the hot paths of the binding: pool checkouts, query parsing and execution, network
+ * traffic and the query codec cache. Implementations are set with
+ * {@linkplain GelClientConfig.Builder#withMetrics(GelMetrics)}; {@code com.gel:com.gel.micrometer} provides one that
+ * records into a Micrometer registry.
+ * <br/><br/>
+ * Every method has an empty default, so implementations only override what they collect. Methods are called on the
+ * threads that do the work, including Netty's event loops, so they must be thread-safe and must not block. Latencies
+ * are only measured when the configured metrics aren't {@linkplain #NOOP}, the default doesn't read the clock.
+ */
+public interface GelMetrics {
+    /**
+     * A {@linkplain GelMetrics} that discards every measurement, the default.
+     */
+    GelMetrics NOOP = new GelMetrics() {};
+
+    /**
+     * Records a checkout that got a client from the pool.
+     * @param nanos The time the checkout waited for a client, in nanoseconds; {@code 0} if one was free.
+     */
+    default void recordCheckoutWait(long nanos) {}
+
+    /**
+     * Records a checkout that failed before it got a client.
+     * @param reason Why the checkout failed.
+     */
+    default void recordCheckoutFailure(PoolCheckoutException.Reason reason) {}
+
+    /**
+     * Records a query codec cache lookup, a miss costs a parse round trip.
+     * @param hit Whether the codecs of the query were cached.
+     */
+    default void recordQueryCodecLookup(boolean hit) {}
+
+    /**
+     * Records a parse of a query, including its retries.
+     * @param nanos The time the parse took, in nanoseconds.
+     * @param success Whether the query was parsed.
+     */
+    default void recordParse(long nanos, boolean success) {}
+
+    /**
+     * Records an execution of a query, including its retries and receiving its data.
+     * @param nanos The time the execution took, in nanoseconds.
+     * @param success Whether the query was executed.
+     */
+    default void recordExecute(long nanos, boolean success) {}
+
+    /**
+     * Records bytes written to a connection.
+     * @param bytes The number of bytes.
+     */
+    default void recordBytesSent(long bytes) {}
+
+    /**
+     * Records bytes read from a connection.
+     * @param bytes The number of bytes.
+     */
+    default void recordBytesReceived(long bytes) {}
+
+    /**
+     * Records received {@code Data} messages, each one carries a row of a query result.
+     * @param count The number of messages.
+     */
+    default void recordDataMessages(long count) {}
+
+    /**
+     * Records a client reconnecting after it lost its connection or was told to by the server.
+     */
+    default void recordReconnect() {}
+}
@@ -1,14 +1,28 @@
 package com.gel.driver;
 
+import com.gel.driver.async.ResultPublisher;
 import com.gel.driver.datatypes.Json;
+import com.gel.driver.exceptions.BatchExecutionException;
+import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.ResultCardinalityMismatchException;
+import com.gel.driver.internal.QueryablePreparedQuery;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Represents a generic Gel queryable interface, providing methods to execute queries with cardinality control.
@@ -125,6 +139,86 @@ public interface GelQueryable {
         return query(cls, query, args, EnumSet.of(Capabilities.MODIFICATIONS));
     }
 
+    /**
+     * Executes a query with the cardinality {@code MANY}, publishing each result as it's read from the connection.
+     * <br/><br/>
+     * The query runs once per subscriber. Results are decoded as they arrive, and reading from the connection is
+     * paused while the subscriber has no outstanding demand, so the memory used is bounded by the subscriber's demand
+     * rather than the size of the result.
+     * <br/><br/>
+     * The default implementation runs the query with {@linkplain #query(Class, String, Map, EnumSet)} and publishes
+     * the results once they've all been read, implementations that can read results incrementally override it.
+     * @param cls The result type of the query.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @param capabilities An enum set with the allowed capabilities of the query.
+     * @return A {@linkplain Flow.Publisher} of {@linkplain T} that executes the query when subscribed to.
+     * @param <T> The result type of the query.
+     * @see Capabilities
+     */
+    default <T> Flow.Publisher<T> queryStream(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return new ResultPublisher<>(sink -> query(cls, query, args, capabilities).thenAccept(results -> {
+            for(var result : results) {
+                if(sink.isCancelled()) {
+                    return;
+                }
+
+                if(result != null) {
+                    sink.next(result);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Executes a query with the cardinality {@code MANY}, publishing each result as it's read from the connection.
+     * @param cls The result type of the query.
+     * @param query The query to execute.
+     * @return A {@linkplain Flow.Publisher} of {@linkplain T} that executes the query when subscribed to.
+     * @param <T> The result type of the query.
+     */
+    default <T> Flow.Publisher<T> queryStream(@NotNull Class<T> cls, @NotNull String query) {
+        return queryStream(cls, query, null, EnumSet.of(Capabilities.MODIFICATIONS));
+    }
+
+    /**
+     * Executes a query with the cardinality {@code MANY}, publishing each result as it's read from the connection.
+     * @param cls The result type of the query.
+     * @param query The query to execute.
+     * @param capabilities An enum set with the allowed capabilities of the query.
+     * @return A {@linkplain Flow.Publisher} of {@linkplain T} that executes the query when subscribed to.
+     * @param <T> The result type of the query.
+     * @see Capabilities
+     */
+    default <T> Flow.Publisher<T> queryStream(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return queryStream(cls, query, null, capabilities);
+    }
+
+    /**
+     * Executes a query with the cardinality {@code MANY}, publishing each result as it's read from the connection.
+     * @param cls The result type of the query.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @return A {@linkplain Flow.Publisher} of {@linkplain T} that executes the query when subscribed to.
+     * @param <T> The result type of the query.
+     */
+    default <T> Flow.Publisher<T> queryStream(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @Nullable Map<String, Object> args
+    ) {
+        return queryStream(cls, query, args, EnumSet.of(Capabilities.MODIFICATIONS));
+    }
+
     /**
      * Executes a query with the cardinality {@code AT_MOST_ONE}.
      * @param cls The result type of the query.
@@ -322,6 +416,98 @@ public interface GelQueryable {
         return queryJson(query, null, capabilities);
     }
 
+    /**
+     * Executes a query, specifying the result to be a single JSON array, and reads it without decoding it into a
+     * string: the reader gets a stream over the received bytes, for example to parse them with Jackson's
+     * {@code ObjectMapper.readValue(InputStream, Class)}.
+     * <br/><br/>
+     * The reader runs on the {@linkplain ForkJoinPool#commonPool() common pool}, never on the thread reading from
+     * the connection, so a slow reader doesn't hold up other queries. The default implementation reads the result
+     * of {@linkplain #queryJson(String, Map, EnumSet)}, implementations that can hand over the received bytes
+     * override it.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @param capabilities An enum set with the allowed capabilities of the query.
+     * @param reader The reader of the JSON array.
+     * @param <T> The type the reader produces.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query. The result
+     * of the {@linkplain CompletionStage} is the value returned by the reader.
+     * @see Capabilities
+     */
+    default <T> CompletionStage<T> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities,
+            @NotNull JsonResultReader<T> reader
+    ) {
+        return queryJson(query, args, capabilities).thenApplyAsync(json -> {
+            try(var stream = new ByteArrayInputStream(json.getValue().getBytes(StandardCharsets.UTF_8))) {
+                return reader.read(stream);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Executes a query, specifying the result to be a single JSON array, and reads it without decoding it into a
+     * string.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @param reader The reader of the JSON array.
+     * @param <T> The type the reader produces.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query. The result
+     * of the {@linkplain CompletionStage} is the value returned by the reader.
+     */
+    default <T> CompletionStage<T> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull JsonResultReader<T> reader
+    ) {
+        return queryJson(query, args, EnumSet.of(Capabilities.MODIFICATIONS), reader);
+    }
+
+    /**
+     * Executes a query, specifying the result to be a single JSON array, and writes the UTF-8 encoded JSON to a
+     * stream as it was received.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @param capabilities An enum set with the allowed capabilities of the query.
+     * @param output The stream to write the JSON array to, it isn't closed. It's written to from the common pool,
+     *               see {@linkplain #queryJson(String, Map, EnumSet, JsonResultReader)}.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query and
+     * writing its result.
+     * @see Capabilities
+     */
+    default CompletionStage<Void> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities,
+            @NotNull OutputStream output
+    ) {
+        return queryJson(query, args, capabilities, json -> {
+            json.transferTo(output);
+            return null;
+        });
+    }
+
+    /**
+     * Executes a query, specifying the result to be a single JSON array, and writes the UTF-8 encoded JSON to a
+     * stream as it was received.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @param output The stream to write the JSON array to, it isn't closed.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query and
+     * writing its result.
+     */
+    default CompletionStage<Void> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull OutputStream output
+    ) {
+        return queryJson(query, args, EnumSet.of(Capabilities.MODIFICATIONS), output);
+    }
+
     /**
      * Executes a query, specifying the result to be a collection of JSON objects.
      * @param query The query to execute.
@@ -379,4 +565,129 @@ public interface GelQueryable {
     ) {
         return queryJsonElements(query, null, capabilities);
     }
+
+    /**
+     * Executes a batch of queries, ignoring their results.
+     * <br/><br/>
+     * Statements run in order; if one fails, the ones after it are skipped. The clients of the driver send every
+     * statement in the batch at once, followed by a single sync, so the batch costs one round trip instead of one per
+     * statement. By default, the statements are executed one after another.
+     * @param queries The queries to execute, in order.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the batch. The
+     * {@linkplain CompletionStage} fails with a {@linkplain BatchExecutionException} if a statement fails to run.
+     * @see QueryWithArgs
+     */
+    default CompletionStage<Void> executeBatch(@NotNull List<QueryWithArgs> queries) {
+        CompletionStage<Void> batch = CompletableFuture.completedFuture(null);
+
+        for(int i = 0; i != queries.size(); i++) {
+            var index = i;
+            var statement = queries.get(i);
+
+            batch = batch.thenCompose(v -> asBatchStatement(
+                    index, execute(statement.getQuery(), statement.getArgs(), statement.getCapabilities())
+            ));
+        }
+
+        return batch;
+    }
+
+    /**
+     * Executes a batch of queries with the cardinality {@code MANY}.
+     * <br/><br/>
+     * Statements run in order; if one fails, the ones after it are skipped. The clients of the driver send every
+     * statement in the batch at once, followed by a single sync, so the batch costs one round trip instead of one per
+     * statement. By default, the statements are executed one after another.
+     * @param cls The result type of the queries.
+     * @param queries The queries to execute, in order.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the batch. The result
+     * of the {@linkplain CompletionStage} is an immutable collection holding the results of each statement, in the
+     * same order as {@code queries}. The {@linkplain CompletionStage} fails with a
+     * {@linkplain BatchExecutionException} if a statement fails to run.
+     * @param <T> The result type of the queries.
+     * @see QueryWithArgs
+     */
+    default <T> CompletionStage<List<List<@Nullable T>>> queryBatch(
+            @NotNull Class<T> cls,
+            @NotNull List<QueryWithArgs> queries
+    ) {
+        CompletionStage<List<List<@Nullable T>>> batch = CompletableFuture.completedFuture(
+                new ArrayList<>(queries.size())
+        );
+
+        for(int i = 0; i != queries.size(); i++) {
+            var index = i;
+            var statement = queries.get(i);
+
+            batch = batch.thenCompose(results -> asBatchStatement(
+                    index, query(cls, statement.getQuery(), statement.getArgs(), statement.getCapabilities())
+            ).thenApply(result -> {
+                results.add(result);
+                return results;
+            }));
+        }
+
+        return batch.thenApply(Collections::unmodifiableList);
+    }
+
+    // fails the statement of a batch the way the single sync batches of the clients do.
+    private static <U> CompletionStage<U> asBatchStatement(int index, @NotNull CompletionStage<U> statement) {
+        return statement.handle((result, err) -> {
+            if(err == null) {
+                return result;
+            }
+
+            var cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+
+            throw new CompletionException(
+                    cause instanceof GelException ? new BatchExecutionException(index, (GelException)cause) : cause
+            );
+        });
+    }
+
+    /**
+     * Prepares a query to be executed many times.
+     * <br/><br/>
+     * The returned {@linkplain PreparedQuery} holds on to the codecs of the query, and executions of it skip the
+     * codec cache lookups and the result type resolution a regular query does. If the server describes the query
+     * differently, for example after a schema change, the query is prepared again transparently.
+     * <br/><br/>
+     * Implementations that don't pin codecs, the default, run each execution as a regular query with the cardinality
+     * of the prepared query.
+     * @param cls The result type of the query.
+     * @param query The query to prepare.
+     * @param cardinality The cardinality of the query.
+     * @param capabilities An enum set with the allowed capabilities of the query.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of preparing the query. The
+     * result of the {@linkplain CompletionStage} is a thread-safe {@linkplain PreparedQuery} of {@linkplain T}.
+     * @param <T> The result type of the query.
+     * @see Capabilities
+     */
+    default <T> CompletionStage<PreparedQuery<T>> prepare(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return CompletableFuture.completedFuture(
+                new QueryablePreparedQuery<>(this, cls, query, cardinality, capabilities)
+        );
+    }
+
+    /**
+     * Prepares a query to be executed many times.
+     * @param cls The result type of the query.
+     * @param query The query to prepare.
+     * @param cardinality The cardinality of the query.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of preparing the query. The
+     * result of the {@linkplain CompletionStage} is a thread-safe {@linkplain PreparedQuery} of {@linkplain T}.
+     * @param <T> The result type of the query.
+     */
+    default <T> CompletionStage<PreparedQuery<T>> prepare(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality
+    ) {
+        return prepare(cls, query, cardinality, EnumSet.of(Capabilities.MODIFICATIONS));
+    }
 }
@@ -0,0 +1,21 @@
+package com.gel.driver;
+
+import com.gel.driver.annotations.GelType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Represents a build-time index of the {@linkplain GelType} annotated types in a compilation unit.
+ * <br/><br/>
+ * Implementations are generated by the {@code @GelType} annotation processor shipped with the driver and are
+ * discovered through {@linkplain java.util.ServiceLoader}. When a type is present in an index, its sub-types are
+ * resolved from the index instead of by scanning the classpath at runtime.
+ */
+public interface GelTypeIndex {
+    /**
+     * Gets the binary names of the indexed types.
+     * @return A collection of binary class names, as accepted by {@linkplain Class#forName(String)}.
+     */
+    @NotNull Collection<String> getTypeNames();
+}
@@ -0,0 +1,24 @@
+package com.gel.driver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the UTF-8 encoded JSON result of a query, see
+ * {@linkplain GelQueryable#queryJson(String, java.util.Map, java.util.EnumSet, JsonResultReader)}. Readers run on the
+ * common pool, off the thread reading from the connection.
+ * @param <T> The type the result is read into.
+ */
+@FunctionalInterface
+public interface JsonResultReader<T> {
+    /**
+     * Reads the result of a query.
+     * @param json A stream over the received JSON, it's only valid for the duration of this call.
+     * @return The value read from the JSON.
+     * @throws IOException The JSON couldn't be read.
+     */
+    @Nullable T read(@NotNull InputStream json) throws IOException;
+}
@@ -19,12 +19,69 @@ public interface ObjectEnumerator {
 
     /**
      * Gets the next {@linkplain ObjectElement}, deserializing the value.
+     * <br/><br/>
+     * The returned element may be reused by the enumerator, it's only valid until the next call to this method. Use
+     * {@linkplain ObjectElement#copy()} to keep it longer.
      * @return The next element.
      * @throws GelException A deserialization error occurred.
      * @throws OperationNotSupportedException The read operation isn't allowed.
      */
     @Nullable ObjectElement next() throws GelException, OperationNotSupportedException;
 
+    /**
+     * Gets the name of the next element, without reading it.
+     * @return The name of the next element, or {@code null} if there are no remaining elements.
+     */
+    @Nullable String peekName();
+
+    /**
+     * Reads the next element as a {@code boolean}, without boxing it. The element must be a {@code bool} with a
+     * value.
+     * @return The value of the next element.
+     * @throws GelException The next element isn't a {@code bool}, or has no value.
+     */
+    boolean nextBoolean() throws GelException;
+
+    /**
+     * Reads the next element as a {@code short}, without boxing it. The element must be an {@code int16} with a
+     * value.
+     * @return The value of the next element.
+     * @throws GelException The next element isn't an {@code int16}, or has no value.
+     */
+    short nextShort() throws GelException;
+
+    /**
+     * Reads the next element as an {@code int}, without boxing it. The element must be an {@code int16} or an
+     * {@code int32} with a value.
+     * @return The value of the next element.
+     * @throws GelException The next element isn't an {@code int16} or an {@code int32}, or has no value.
+     */
+    int nextInt() throws GelException;
+
+    /**
+     * Reads the next element as a {@code long}, without boxing it. The element must be an {@code int16}, an
+     * {@code int32} or an {@code int64} with a value.
+     * @return The value of the next element.
+     * @throws GelException The next element isn't an integer, or has no value.
+     */
+    long nextLong() throws GelException;
+
+    /**
+     * Reads the next element as a {@code float}, without boxing it. The element must be a {@code float32} with a
+     * value.
+     * @return The value of the next element.
+     * @throws GelException The next element isn't a {@code float32}, or has no value.
+     */
+    float nextFloat() throws GelException;
+
+    /**
+     * Reads the next element as a {@code double}, without boxing it. The element must be a {@code float32} or a
+     * {@code float64} with a value.
+     * @return The value of the next element.
+     * @throws GelException The next element isn't a {@code float32} or a {@code float64}, or has no value.
+     */
+    double nextDouble() throws GelException;
+
     /**
      * Flattens this enumerator into a single map, consuming the remaining data.
      * @return A map of name-value pairs.
@@ -36,10 +93,10 @@ public interface ObjectEnumerator {
     /**
      * Represents an element read from a {@linkplain ObjectEnumerator}.
      */
-    final class ObjectElement {
-        private final @NotNull String name;
-        private final Object value;
-        private final @NotNull Class<?> type;
+    class ObjectElement {
+        protected @NotNull String name;
+        protected Object value;
+        protected @NotNull Class<?> type;
 
         public ObjectElement(@NotNull String name, Object value, @NotNull Class<?> type) {
             this.name = name;
@@ -47,6 +104,14 @@ public interface ObjectEnumerator {
             this.type = type;
         }
 
+        /**
+         * Copies this element, so that it can be kept after the enumerator moves to the next element.
+         * @return A copy of this element.
+         */
+        public @NotNull ObjectElement copy() {
+            return new ObjectElement(name, value, type);
+        }
+
         public @NotNull String getName() {
             return name;
         }
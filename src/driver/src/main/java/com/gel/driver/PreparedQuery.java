@@ -0,0 +1,64 @@
+package com.gel.driver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Represents a query prepared with {@linkplain GelQueryable#prepare(Class, String, Cardinality, java.util.EnumSet)}.
+ * <br/><br/>
+ * A prepared query can be executed any number of times, concurrently, with different arguments.
+ * @param <T> The result type of the query.
+ */
+public interface PreparedQuery<T> {
+    /**
+     * Gets the query text of this prepared query.
+     * @return The query text.
+     */
+    @NotNull String getQuery();
+
+    /**
+     * Gets the cardinality this query was prepared with.
+     * @return The cardinality of the query.
+     */
+    @NotNull Cardinality getCardinality();
+
+    /**
+     * Executes the prepared query.
+     * @param args The optional map of arguments used within the query.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query. The result
+     * of the {@linkplain CompletionStage} is an immutable collection of {@linkplain T}.
+     */
+    CompletionStage<List<@Nullable T>> query(@Nullable Map<String, Object> args);
+
+    /**
+     * Executes the prepared query.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query. The result
+     * of the {@linkplain CompletionStage} is an immutable collection of {@linkplain T}.
+     */
+    default CompletionStage<List<@Nullable T>> query() {
+        return query(null);
+    }
+
+    /**
+     * Executes the prepared query, expecting at most one result.
+     * @param args The optional map of arguments used within the query.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query. The result
+     * of the {@linkplain CompletionStage} is the result of the query, or {@code null} if it has no result. The
+     * {@linkplain CompletionStage} fails with a
+     * {@linkplain com.gel.driver.exceptions.ResultCardinalityMismatchException} if the query has more than one result.
+     */
+    CompletionStage<@Nullable T> querySingle(@Nullable Map<String, Object> args);
+
+    /**
+     * Executes the prepared query, expecting at most one result.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of executing the query. The result
+     * of the {@linkplain CompletionStage} is the result of the query, or {@code null} if it has no result.
+     */
+    default CompletionStage<@Nullable T> querySingle() {
+        return querySingle(null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.gel.driver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Represents a single statement of a batch, along with its arguments.
+ * @see GelQueryable#executeBatch(java.util.List)
+ * @see GelQueryable#queryBatch(Class, java.util.List)
+ */
+public final class QueryWithArgs {
+    private final @NotNull String query;
+    private final @Nullable Map<String, Object> args;
+    private final @NotNull EnumSet<Capabilities> capabilities;
+
+    /**
+     * Constructs a new {@linkplain QueryWithArgs}.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     * @param capabilities An enum set with the allowed capabilities of the query.
+     */
+    public QueryWithArgs(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        this.query = query;
+        this.args = args;
+        this.capabilities = capabilities;
+    }
+
+    /**
+     * Constructs a new {@linkplain QueryWithArgs} with the {@linkplain Capabilities#MODIFICATIONS} capability.
+     * @param query The query to execute.
+     * @param args The optional map of arguments used within the query.
+     */
+    public QueryWithArgs(@NotNull String query, @Nullable Map<String, Object> args) {
+        this(query, args, EnumSet.of(Capabilities.MODIFICATIONS));
+    }
+
+    /**
+     * Constructs a new {@linkplain QueryWithArgs} without arguments, with the
+     * {@linkplain Capabilities#MODIFICATIONS} capability.
+     * @param query The query to execute.
+     */
+    public QueryWithArgs(@NotNull String query) {
+        this(query, null);
+    }
+
+    /**
+     * Gets the query to execute.
+     * @return The query string.
+     */
+    public @NotNull String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the arguments of the query.
+     * @return The arguments used within the query, or {@code null} if the query has none.
+     */
+    public @Nullable Map<String, Object> getArgs() {
+        return args;
+    }
+
+    /**
+     * Gets the allowed capabilities of the query.
+     * @return An enum set with the allowed capabilities of the query.
+     */
+    public @NotNull EnumSet<Capabilities> getCapabilities() {
+        return capabilities;
+    }
+}
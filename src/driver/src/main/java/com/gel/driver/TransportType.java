@@ -0,0 +1,35 @@
+package com.gel.driver;
+
+/**
+ * An enum specifying the network transport TCP clients use for their connections.
+ * <br/><br/>
+ * The native transports need Netty's native library for the current platform on the classpath, for example
+ * {@code io.netty:netty-transport-native-epoll} with the {@code linux-x86_64} classifier; io_uring needs
+ * {@code io.netty.incubator:netty-incubator-transport-native-io_uring}.
+ */
+public enum TransportType {
+    /**
+     * Uses the first native transport that's available: io_uring, epoll, then kqueue; falling back to NIO.
+     */
+    AUTO,
+
+    /**
+     * Uses Java's NIO selectors, available on every platform.
+     */
+    NIO,
+
+    /**
+     * Uses Netty's epoll transport, available on Linux.
+     */
+    EPOLL,
+
+    /**
+     * Uses Netty's kqueue transport, available on macOS and BSD.
+     */
+    KQUEUE,
+
+    /**
+     * Uses Netty's incubating io_uring transport, available on Linux 5.9 and newer.
+     */
+    IO_URING
+}
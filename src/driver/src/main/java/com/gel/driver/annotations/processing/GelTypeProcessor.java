@@ -0,0 +1,106 @@
+package com.gel.driver.annotations.processing;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An annotation processor that writes a {@linkplain com.gel.driver.GelTypeIndex} containing every
+ * {@linkplain com.gel.driver.annotations.GelType} annotated type in the compilation, along with the
+ * {@code META-INF/services} entry used to discover it at runtime.
+ */
+@SupportedAnnotationTypes(GelTypeProcessor.GEL_TYPE_ANNOTATION)
+public final class GelTypeProcessor extends AbstractProcessor {
+    static final String GEL_TYPE_ANNOTATION = "com.gel.driver.annotations.GelType";
+    private static final String INDEX_INTERFACE = "com.gel.driver.GelTypeIndex";
+    private static final String INDEX_CLASS_NAME = "GelGeneratedTypeIndex";
+
+    // binary name -> element, sorted so the output is stable between builds.
+    private final TreeMap<String, TypeElement> types = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(@NotNull Set<? extends TypeElement> annotations, @NotNull RoundEnvironment roundEnv) {
+        for(var annotation : annotations) {
+            for(var element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if(!(element instanceof TypeElement)) {
+                    continue;
+                }
+
+                var type = (TypeElement)element;
+                types.put(processingEnv.getElementUtils().getBinaryName(type).toString(), type);
+            }
+        }
+
+        if(roundEnv.processingOver() && !types.isEmpty()) {
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR, "Failed to write the Gel type index: " + e.getMessage()
+                );
+            }
+        }
+
+        return false;
+    }
+
+    private void writeIndex() throws IOException {
+        // the index lives next to the first indexed type, so separate compilations don't collide on its name.
+        var first = types.firstEntry().getValue();
+        var packageName = processingEnv.getElementUtils().getPackageOf(first).getQualifiedName().toString();
+        var className = packageName.isEmpty() ? INDEX_CLASS_NAME : packageName + "." + INDEX_CLASS_NAME;
+        var originating = types.values().toArray(new Element[0]);
+
+        var source = processingEnv.getFiler().createSourceFile(className, originating);
+
+        try(Writer writer = source.openWriter()) {
+            if(!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+
+            writer.write("public final class " + INDEX_CLASS_NAME + " implements " + INDEX_INTERFACE + " {\n");
+            writer.write("    private static final java.util.List<String> TYPES = java.util.List.of(\n");
+
+            var names = new ArrayList<>(types.keySet());
+            for(int i = 0; i != names.size(); i++) {
+                writer.write("            \"" + names.get(i) + "\"" + (i == names.size() - 1 ? "\n" : ",\n"));
+            }
+
+            writer.write("    );\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public java.util.Collection<String> getTypeNames() {\n");
+            writer.write("        return TYPES;\n");
+            writer.write("    }\n");
+            writer.write("}\n");
+        }
+
+        var services = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + INDEX_INTERFACE, originating
+        );
+
+        try(Writer writer = services.openWriter()) {
+            writer.write(className + "\n");
+        }
+
+        processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.NOTE, String.format("Indexed %d Gel type(s) into %s", types.size(), className)
+        );
+    }
+}
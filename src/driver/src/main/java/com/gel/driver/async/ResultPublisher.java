@@ -0,0 +1,264 @@
+package com.gel.driver.async;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cold {@linkplain Flow.Publisher} that runs its {@linkplain Source} once per subscriber, handing results to the
+ * subscriber as the source produces them.
+ * <br/><br/>
+ * Results that arrive while the subscriber has no outstanding demand are buffered, and the source is asked to pause
+ * through the pause hook registered with {@linkplain Sink#onFlowControl(Runnable, Runnable)} until demand returns.
+ * @param <T> The type of the results.
+ */
+public final class ResultPublisher<T> implements Flow.Publisher<T> {
+    private static final Logger logger = LoggerFactory.getLogger(ResultPublisher.class);
+    private static final Runnable NO_OP = () -> {};
+
+    /**
+     * Produces results into a {@linkplain Sink}.
+     * @param <T> The type of the results.
+     */
+    @FunctionalInterface
+    public interface Source<T> {
+        /**
+         * Starts producing results.
+         * @param sink The sink to push results into.
+         * @return A {@linkplain CompletionStage} that completes once the source has produced every result.
+         */
+        CompletionStage<Void> run(@NotNull Sink<T> sink);
+    }
+
+    /**
+     * The producing side of a subscription.
+     * @param <T> The type of the results.
+     */
+    public interface Sink<T> {
+        /**
+         * Pushes a result to the subscriber, buffering it if the subscriber has no outstanding demand.
+         * @param value The result.
+         */
+        void next(@NotNull T value);
+
+        /**
+         * Registers the hooks used to pause and resume the source when the subscriber falls behind.
+         * @param pause Invoked when results are buffered and the subscriber has no outstanding demand.
+         * @param resume Invoked once the subscriber requests more results or the subscription terminates.
+         */
+        void onFlowControl(@NotNull Runnable pause, @NotNull Runnable resume);
+
+        /**
+         * Gets whether the subscriber has cancelled its subscription.
+         * @return {@code true} if the subscription was cancelled; otherwise {@code false}.
+         */
+        boolean isCancelled();
+    }
+
+    private final @NotNull Source<T> source;
+
+    public ResultPublisher(@NotNull Source<T> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        var subscription = new ResultSubscription<T>(subscriber);
+        subscriber.onSubscribe(subscription);
+
+        CompletionStage<Void> stage;
+
+        try {
+            stage = source.run(subscription);
+        } catch (Throwable x) {
+            stage = CompletableFuture.failedFuture(x);
+        }
+
+        stage.whenComplete((v, e) -> {
+            if(e != null) {
+                subscription.error(e);
+            } else {
+                subscription.complete();
+            }
+        });
+    }
+
+    private static final class ResultSubscription<T> implements Flow.Subscription, Sink<T> {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Queue<T> buffer;
+        private final AtomicLong demand;
+        private final AtomicInteger wip;
+
+        private volatile Runnable pause;
+        private volatile Runnable resume;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private volatile @Nullable Throwable error;
+
+        // only accessed from within drain()
+        private boolean paused;
+        private boolean terminated;
+
+        public ResultSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            this.buffer = new ConcurrentLinkedQueue<>();
+            this.demand = new AtomicLong();
+            this.wip = new AtomicInteger();
+            this.pause = NO_OP;
+            this.resume = NO_OP;
+        }
+
+        @Override
+        public void request(long n) {
+            if(n <= 0) {
+                error(new IllegalArgumentException("The number of requested results must be positive, got " + n));
+                return;
+            }
+
+            demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        @Override
+        public void next(@NotNull T value) {
+            if(cancelled) {
+                return;
+            }
+
+            buffer.offer(value);
+            drain();
+        }
+
+        @Override
+        public void onFlowControl(@NotNull Runnable pause, @NotNull Runnable resume) {
+            this.pause = pause;
+            this.resume = resume;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void complete() {
+            done = true;
+            drain();
+        }
+
+        public void error(@NotNull Throwable err) {
+            if(err instanceof CompletionException && err.getCause() != null) {
+                err = err.getCause();
+            }
+
+            error = err;
+            done = true;
+            drain();
+        }
+
+        private void drain() {
+            if(wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+
+            do {
+                if(!terminated) {
+                    drain0();
+                }
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain0() {
+            if(cancelled) {
+                buffer.clear();
+                terminate();
+                return;
+            }
+
+            var err = error;
+
+            if(err != null) {
+                buffer.clear();
+                terminate();
+                subscriber.onError(err);
+                return;
+            }
+
+            long requested = demand.get();
+            long emitted = 0;
+
+            while (emitted != requested && !cancelled) {
+                var value = buffer.poll();
+
+                if(value == null) {
+                    break;
+                }
+
+                subscriber.onNext(value);
+                emitted++;
+            }
+
+            if(emitted != 0 && requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+
+            if(cancelled) {
+                buffer.clear();
+                terminate();
+                return;
+            }
+
+            if(done && buffer.isEmpty()) {
+                terminate();
+                subscriber.onComplete();
+                return;
+            }
+
+            // once the source is done nothing is left to read, the transport must be readable for the next query.
+            setPaused(!done && demand.get() == 0 && !buffer.isEmpty());
+        }
+
+        private void terminate() {
+            terminated = true;
+            setPaused(false);
+        }
+
+        private void setPaused(boolean value) {
+            if(paused == value) {
+                return;
+            }
+
+            paused = value;
+
+            logger.debug("{} result source", value ? "Pausing" : "Resuming");
+
+            if(value) {
+                pause.run();
+            } else {
+                resume.run();
+            }
+        }
+    }
+}
@@ -97,15 +97,26 @@ public class PacketReader {
         return arr;
     }
 
+    /**
+     * Decodes the remaining bytes of this reader as a UTF-8 string, straight from the buffer.
+     * @return The decoded string.
+     */
+    public @NotNull String consumeString() {
+        var length = buffer.readableBytes();
+        var value = buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+        buffer.skipBytes(length);
+        return value;
+    }
+
     public @NotNull UUID readUUID() {
         return new UUID(buffer.readLong(), buffer.readLong());
     }
 
     public @NotNull String readString() {
         var len = readInt32();
-        var buffer = new byte[len];
-        this.buffer.readBytes(buffer);
-        return new String(buffer, StandardCharsets.UTF_8);
+        var value = buffer.toString(buffer.readerIndex(), len, StandardCharsets.UTF_8);
+        buffer.skipBytes(len);
+        return value;
     }
 
     public boolean readBoolean() {
@@ -168,6 +179,34 @@ public class PacketReader {
         return arr;
     }
 
+    /**
+     * Limits this reader to its next {@code length} bytes, without slicing the buffer: anything reading the remaining
+     * bytes of this reader only sees the limited bytes. Limits can be nested.
+     * @param length The number of bytes to limit the reader to.
+     * @return The previous limit, to pass to {@linkplain #endLimit(int)}.
+     * @throws IndexOutOfBoundsException There are less than {@code length} readable bytes.
+     */
+    public int beginLimit(int length) {
+        if(length > buffer.readableBytes()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cannot limit the reader to %d bytes, only %d are readable", length, buffer.readableBytes()
+            ));
+        }
+
+        var previous = buffer.writerIndex();
+        buffer.writerIndex(buffer.readerIndex() + length);
+        return previous;
+    }
+
+    /**
+     * Ends a limit started with {@linkplain #beginLimit(int)}, skipping the limited bytes that weren't read.
+     * @param previous The previous limit, returned by {@linkplain #beginLimit(int)}.
+     */
+    public void endLimit(int previous) {
+        buffer.readerIndex(buffer.writerIndex());
+        buffer.writerIndex(previous);
+    }
+
     /**
      * Reads the {@code length} number of bytes and creates a new {@linkplain ScopedReader} wrapping the bytes.
      * @param length The number of bytes to read.
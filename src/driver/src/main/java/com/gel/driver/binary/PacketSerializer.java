@@ -1,5 +1,6 @@
 package com.gel.driver.binary;
 
+import com.gel.driver.GelMetrics;
 import com.gel.driver.binary.protocol.ServerMessageType;
 import com.gel.driver.binary.protocol.Receivable;
 import com.gel.driver.binary.protocol.Sendable;
@@ -9,10 +10,9 @@ import com.gel.driver.exceptions.GelException;
 import com.gel.driver.util.HexUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToMessageDecoder;
-import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.MessageToByteEncoder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -31,6 +31,9 @@ public class PacketSerializer {
     private static final Logger logger = LoggerFactory.getLogger(PacketSerializer.class);
     private static final Map<Class<?>, Map<Number, Enum<?>>> binaryEnumMap = new HashMap<>();
 
+    // type, length
+    private static final int MESSAGE_HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
     public static <T extends Enum<?> & BinaryEnum<U>, U extends Number> void registerBinaryEnum(Class<T> cls, T @NotNull [] values) {
         binaryEnumMap.put(cls, Arrays.stream(values).collect(Collectors.toMap(BinaryEnum::getValue, v -> v)));
     }
@@ -44,154 +47,102 @@ public class PacketSerializer {
         return (T)binaryEnumMap.get(enumCls).get(raw);
     }
 
-    public static @NotNull MessageToMessageDecoder<ByteBuf> createDecoder(GelBinaryClient client) {
-        return new MessageToMessageDecoder<>() {
-            private final Map<Channel, PacketContract> contracts = new HashMap<>();
+    /**
+     * Creates a decoder splitting the inbound bytes of a connection into messages. Bytes are accumulated until a
+     * whole message is available, each message is then deserialized once, from a slice of the accumulated bytes.
+     * @param client The client whose protocol provider reads the messages.
+     * @return A decoder for a single channel.
+     */
+    public static @NotNull ByteToMessageDecoder createDecoder(GelBinaryClient client) {
+        var metrics = client.getConfig().getMetrics();
 
+        return new ByteToMessageDecoder() {
             @Override
-            protected void decode(@NotNull ChannelHandlerContext ctx, @NotNull ByteBuf msg, @NotNull List<Object> out) throws Exception {
-                var fromContract = false;
-
-                if(contracts.containsKey(ctx.channel())){
-                    var contract = contracts.get(ctx.channel());
+            protected void decode(@NotNull ChannelHandlerContext ctx, @NotNull ByteBuf in, @NotNull List<Object> out) throws Exception {
+                var startIndex = in.readerIndex();
+                var dataMessages = 0;
 
-                    logger.debug("Attempting to complete contract {}", contract);
-
-                    if (contract.tryComplete(msg)) {
-                        logger.debug("Contract completed of type {} with size {}", contract.messageType, contract.length);
+                try {
+                    while (in.readableBytes() >= MESSAGE_HEADER_SIZE) {
+                        var start = in.readerIndex();
+                        var length = in.getUnsignedInt(start + 1) - 4; // remove length of self.
 
-                        out.add(contract.getPacket());
-                        contracts.remove(ctx.channel());
-                        fromContract = true;
-                        msg = contract.data;
-                    } else {
-                        logger.debug("Contract pending [{}]: {}/{}", contract.messageType, contract.getSize(), contract.length);
-                        return;
-                    }
-                }
+                        // the rest of the message is still in flight, keep the bytes we have until it arrives.
+                        if (in.readableBytes() - MESSAGE_HEADER_SIZE < length) {
+                            return;
+                        }
 
-                while (msg.readableBytes() > 5) {
-                    var type = getEnumValue(ServerMessageType.class, msg.readByte());
-                    var length = msg.readUnsignedInt() - 4; // remove length of self.
+                        var type = getEnumValue(ServerMessageType.class, in.getByte(start));
+                        in.skipBytes(MESSAGE_HEADER_SIZE);
 
-                    // can we read this packet?
-                    if (msg.readableBytes() >= length) {
-                        var packet = PacketSerializer.deserialize(client, type, length, msg.readSlice((int) length));
+                        var packet = PacketSerializer.deserialize(client, type, length, in.readSlice((int) length));
 
                         if(packet == null) {
                             logger.error("Got null result for packet type {}", type);
                             throw new GelException("Failed to read message type: malformed data");
                         }
 
+                        if(type == ServerMessageType.DATA) {
+                            dataMessages++;
+                        }
+
                         logger.debug("S->C: T:{}", type);
                         out.add(packet);
-                        continue;
                     }
-
-                    // if we cannot read the full packet, create a contract for it.
-                    msg.retain();
-                    contracts.put(ctx.channel(), new PacketContract(msg, type, length));
-                    return;
-                }
-
-                if(msg.readableBytes() > 0){
-                    msg.retain();
-                    contracts.put(ctx.channel(), new PacketContract(msg, null, null));
-                    return;
-                }
-
-                if(fromContract){
-                    msg.release();
-                }
-            }
-
-            class PacketContract {
-                private @Nullable Receivable packet;
-                private ByteBuf data;
-
-                private @Nullable ServerMessageType messageType;
-                private @Nullable Long length;
-
-                private final List<ByteBuf> components;
-
-                public PacketContract(
-                        ByteBuf data,
-                        @Nullable ServerMessageType messageType,
-                        @Nullable Long length
-                ) {
-                    this.data = data;
-                    this.length = length;
-                    this.messageType = messageType;
-
-                    this.components = new ArrayList<>() {{
-                        add(data);
-                    }};
-                }
-
-                public long getSize() {
-                    long size = 0;
-
-                    for (var component : components) {
-                        size += component.readableBytes();
+                } finally {
+                    // recorded once per read rather than per message.
+                    if(in.readerIndex() != startIndex) {
+                        metrics.recordBytesReceived(in.readerIndex() - startIndex);
                     }
 
-                    return size;
-                }
-
-                public boolean tryComplete(@NotNull ByteBuf other) {
-                    var orig = data.slice();
-                    data = Unpooled.wrappedBuffer(orig, other);
-
-                    if (messageType == null) {
-                        messageType = getEnumValue(ServerMessageType.class, data.readByte());
+                    if(dataMessages != 0) {
+                        metrics.recordDataMessages(dataMessages);
                     }
-
-                    if (length == null) {
-                        length = data.readUnsignedInt() - 4;
-                    }
-
-                    other.retain();
-                    components.add(other);
-
-                    if (data.readableBytes() >= length) {
-                        // read
-                        packet = PacketSerializer.deserialize(client, messageType, length, data, false);
-
-                        return true;
-                    }
-
-                    return false;
-                }
-
-                public @NotNull Receivable getPacket() throws OperationNotSupportedException {
-                    if (packet == null) {
-                        throw new OperationNotSupportedException("Packet contract was incomplete");
-                    }
-
-                    return packet;
                 }
             }
         };
     }
 
-    public static @NotNull MessageToMessageEncoder<Sendable> createEncoder() {
-        return new MessageToMessageEncoder<>() {
+    /**
+     * Creates an encoder that doesn't record metrics, see {@linkplain #createEncoder(GelMetrics)}.
+     * @return An encoder for a single channel.
+     */
+    public static @NotNull MessageToByteEncoder<Sendable> createEncoder() {
+        return createEncoder(GelMetrics.NOOP);
+    }
 
+    /**
+     * Creates an encoder writing messages into buffers from the allocator of the channel. Each buffer is allocated with
+     * the exact size of its message, so it's written in a single pass and never grows. Messages are released once
+     * written.
+     * @param metrics The metrics the number of written bytes is recorded into.
+     * @return An encoder for a single channel.
+     */
+    public static @NotNull MessageToByteEncoder<Sendable> createEncoder(@NotNull GelMetrics metrics) {
+        return new MessageToByteEncoder<>(Sendable.class) {
             @Override
-            protected void encode(@NotNull ChannelHandlerContext ctx, @NotNull Sendable msg, @NotNull List<Object> out) {
+            protected @NotNull ByteBuf allocateBuffer(@NotNull ChannelHandlerContext ctx, @NotNull Sendable msg, boolean preferDirect) {
+                return preferDirect
+                        ? ctx.alloc().ioBuffer(msg.getSize())
+                        : ctx.alloc().heapBuffer(msg.getSize());
+            }
 
+            @Override
+            protected void encode(@NotNull ChannelHandlerContext ctx, @NotNull Sendable msg, @NotNull ByteBuf out) throws Exception {
                 try {
-                    var data = PacketSerializer.serialize(msg);
+                    msg.write(new PacketWriter(out));
+                    metrics.recordBytesSent(out.readableBytes());
 
-                    data.readerIndex(0);
-
-                    logger.debug("C->S: T:{} D:{}", msg.type, HexUtils.bufferToHexString(data));
-
-                    out.add(data);
+                    if(logger.isDebugEnabled()) {
+                        logger.debug("C->S: T:{} D:{}", msg.type, HexUtils.bufferToHexString(out));
+                    }
                 } catch (Throwable x) {
                     logger.error("Failed to serialize packet", x);
                     ctx.fireExceptionCaught(x);
                     ctx.fireUserEventTriggered("DISCONNECT");
+                    throw x;
+                } finally {
+                    msg.release();
                 }
             }
         };
@@ -331,27 +282,46 @@ public class PacketSerializer {
         }
     }
 
+    /**
+     * Serializes messages into a single buffer, and releases them.
+     * @param packet The first message to serialize.
+     * @param packets The messages to serialize after it.
+     * @return A buffer holding every message, in order.
+     * @throws OperationNotSupportedException A message couldn't be serialized.
+     */
     public static ByteBuf serialize(@NotNull Sendable packet, @Nullable Sendable @Nullable ... packets) throws OperationNotSupportedException {
-        int size = packet.getSize();
+        try {
+            int size = packet.getSize();
 
-        if(packets != null && packets.length > 0) {
-            size += Arrays.stream(packets)
-                    .filter(Objects::nonNull)
-                    .mapToInt(Sendable::getSize)
-                    .sum();
-        }
+            if(packets != null && packets.length > 0) {
+                size += Arrays.stream(packets)
+                        .filter(Objects::nonNull)
+                        .mapToInt(Sendable::getSize)
+                        .sum();
+            }
 
-        try (var writer = new PacketWriter(size)) {
-            packet.write(writer);
+            try (var writer = new PacketWriter(size)) {
+                packet.write(writer);
+
+                if(packets != null) {
+                    for (var p : packets) {
+                        assert p != null;
+                        p.write(writer);
+                    }
+                }
+
+                return writer.getBuffer();
+            }
+        } finally {
+            packet.release();
 
             if(packets != null) {
                 for (var p : packets) {
-                    assert p != null;
-                    p.write(writer);
+                    if(p != null) {
+                        p.release();
+                    }
                 }
             }
-
-            return writer.getBuffer();
         }
     }
 }
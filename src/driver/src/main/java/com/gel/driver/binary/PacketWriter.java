@@ -5,6 +5,7 @@ import com.gel.driver.util.BinaryProtocolUtils;
 import com.gel.driver.util.TypeUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joou.UByte;
@@ -13,7 +14,6 @@ import org.joou.ULong;
 import org.joou.UShort;
 
 import javax.naming.OperationNotSupportedException;
-import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.UUID;
@@ -33,9 +33,22 @@ public class PacketWriter implements AutoCloseable {
     private static final @NotNull HashMap<Class<?>, PrimitiveWriter> primitiveNumberWriters;
 
     public PacketWriter(int size, boolean isDynamic) {
+        this(ByteBufAllocator.DEFAULT.directBuffer(size), isDynamic);
+    }
+
+    /**
+     * Constructs a new {@linkplain PacketWriter} writing into an existing buffer, after its current writer index.
+     * The buffer grows in place if it's too small, it remains owned by the caller.
+     * @param buffer The buffer to write into.
+     */
+    public PacketWriter(@NotNull ByteBuf buffer) {
+        this(buffer, true);
+    }
+
+    private PacketWriter(@NotNull ByteBuf buffer, boolean isDynamic) {
         this.isDynamic = isDynamic;
         this.canWrite = true;
-        this.buffer = ByteBufAllocator.DEFAULT.directBuffer(size);
+        this.buffer = buffer;
     }
 
     static {
@@ -82,21 +95,8 @@ public class PacketWriter implements AutoCloseable {
             throw new IndexOutOfBoundsException(String.format("Cannot write %d bytes as it would overflow the buffer", target));
         }
 
-        var newSize = target + buffer.writerIndex() > 2048
-                ? buffer.capacity() + target + 512
-                : buffer.capacity() > 2048
-                    ? buffer.capacity() + 2048
-                    : (buffer.capacity() << 1) + target;
-
-        var newBuffer = ByteBufAllocator.DEFAULT.directBuffer(newSize);
-
-        var position = this.buffer.writerIndex();
-
-        newBuffer.writeBytes(this.buffer);
-
-        this.buffer = newBuffer;
-
-        this.buffer.writerIndex(position);
+        // grows the buffer in place, the allocator frees the memory it previously used.
+        this.buffer.ensureWritable(target);
     }
 
     private <T> void write(T value, int size, @NotNull BiFunction<ByteBuf, T, ByteBuf> writer) throws OperationNotSupportedException {
@@ -165,7 +165,12 @@ public class PacketWriter implements AutoCloseable {
             return;
         }
 
-        writeArray(value.getBytes(StandardCharsets.UTF_8));
+        // encodes straight into the buffer, rather than into an intermediate array.
+        var length = ByteBufUtil.utf8Bytes(value);
+
+        ensureCanWrite(length + INT_SIZE);
+        this.buffer.writeInt(length);
+        ByteBufUtil.reserveAndWriteUtf8(this.buffer, value, length);
     }
 
     public <T extends Number> void writePrimitive(@NotNull T value) throws OperationNotSupportedException {
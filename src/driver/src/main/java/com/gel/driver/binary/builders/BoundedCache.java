@@ -0,0 +1,150 @@
+package com.gel.driver.binary.builders;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A concurrent map holding at most a fixed number of entries, evicting the least recently used ones once it's full.
+ * <br/><br/>
+ * Reads never lock: each entry records when it was last read, and eviction runs on the thread whose insert went over
+ * the limit. That thread evicts down to 90% of the limit in one pass, so the cost of sorting the entries is shared by
+ * the inserts that filled the gap.
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+final class BoundedCache<K, V> {
+    private static final class Entry<V> {
+        public final V value;
+        public volatile long lastAccess;
+
+        public Entry(V value) {
+            this.value = value;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> map;
+    private final int maxSize;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+    }
+
+    public @Nullable V get(@NotNull K key) {
+        var entry = map.get(key);
+
+        if(entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        entry.lastAccess = System.nanoTime();
+        return entry.value;
+    }
+
+    public boolean containsKey(@NotNull K key) {
+        return map.containsKey(key);
+    }
+
+    public @Nullable V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> factory) {
+        var entry = map.get(key);
+
+        if(entry != null) {
+            hits.increment();
+            entry.lastAccess = System.nanoTime();
+            return entry.value;
+        }
+
+        misses.increment();
+
+        entry = map.computeIfAbsent(key, k -> {
+            var value = factory.apply(k);
+            return value == null ? null : new Entry<>(value);
+        });
+
+        if(entry == null) {
+            return null;
+        }
+
+        evictIfFull();
+        return entry.value;
+    }
+
+    /**
+     * Caches a value, replacing the value already cached under the key, if any.
+     * @param key The key of the value.
+     * @param value The value to cache.
+     */
+    public void put(@NotNull K key, @NotNull V value) {
+        if(map.put(key, new Entry<>(value)) == null) {
+            evictIfFull();
+        }
+    }
+
+    public void remove(@NotNull K key) {
+        map.remove(key);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void evictIfFull() {
+        if(map.size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            var target = maxSize - maxSize / 10;
+            var entries = new ArrayList<Map.Entry<K, Long>>(map.size());
+
+            for(var entry : map.entrySet()) {
+                entries.add(Map.entry(entry.getKey(), entry.getValue().lastAccess));
+            }
+
+            if(entries.size() <= target) {
+                return;
+            }
+
+            entries.sort(Map.Entry.comparingByValue());
+
+            for(int i = 0; i != entries.size() - target; i++) {
+                if(map.remove(entries.get(i).getKey()) != null) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
@@ -1,30 +1,36 @@
 package com.gel.driver.binary.builders;
 
+import com.gel.driver.CodecCacheStatistics;
+import com.gel.driver.GelConnection;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.codecs.Codec;
 import com.gel.driver.binary.codecs.NullCodec;
 import com.gel.driver.binary.codecs.scalars.*;
 import com.gel.driver.binary.codecs.scalars.complex.DateTimeCodec;
 import com.gel.driver.binary.codecs.scalars.complex.RelativeDurationCodec;
+import com.gel.driver.binary.codecs.visitors.TypeVisitor;
 import com.gel.driver.binary.protocol.ProtocolProvider;
+import com.gel.driver.binary.protocol.QueryCacheKey;
 import com.gel.driver.binary.protocol.ProtocolVersion;
 import com.gel.driver.binary.protocol.TypeDescriptorInfo;
-import com.gel.driver.binary.protocol.common.Cardinality;
-import com.gel.driver.binary.protocol.common.IOFormat;
 import com.gel.driver.binary.protocol.common.descriptors.CodecMetadata;
 import com.gel.driver.clients.GelBinaryClient;
 import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.MissingCodecException;
+import com.gel.driver.namingstrategies.NamingStrategy;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.naming.OperationNotSupportedException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -33,42 +39,255 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 public final class CodecBuilder {
-    private static final class CodecCache {
-        public final ConcurrentMap<UUID, Codec<?>> cache;
-        public final ConcurrentMap<UUID, Codec<?>> codecPartsInstanceCache;
-        public final ConcurrentMap<Long, QueryCodecCacheEntry> queryCodecsCache;
+    /**
+     * The codecs of a single connection target. Instances are obtained with
+     * {@linkplain #getCodecCache(GelBinaryClient, ProtocolVersion)} and held by the protocol provider of each client.
+     */
+    public static final class CodecCache {
+        private final BoundedCache<UUID, Codec<?>> codecPartsInstanceCache;
+        private final BoundedCache<QueryCacheKey, QueryCodecCacheEntry> queryCodecsCache;
+        private final BoundedCache<VisitedCodecKey, Codec<?>> visitedCodecsCache;
+        private final @Nullable PersistentCodecCache persistentCache;
+        private final @NotNull UUID schemaId;
+
+        private CodecCache(@NotNull CacheScope scope) {
+            this.codecPartsInstanceCache = new BoundedCache<>(scope.maxSize);
+            this.queryCodecsCache = new BoundedCache<>(scope.maxSize);
+            this.visitedCodecsCache = new BoundedCache<>(scope.maxSize);
+            // nothing is persisted before the schema is known, the handshake only caches the codecs of the state.
+            this.persistentCache = scope.directory == null || scope.schemaId.equals(INVALID_CODEC_ID)
+                    ? null
+                    : PersistentCodecCache.open(scope.directory, scope.toString(), scope.maxSize);
+            this.schemaId = scope.schemaId;
+        }
 
-        public final ProtocolVersion version;
+        /**
+         * Gets whether this cache holds the codecs of the provided schema.
+         * @param schemaId The state type descriptor ID reported by the server, see
+         * {@linkplain #getCodecCache(GelBinaryClient, ProtocolVersion)}.
+         * @return {@code true} if the cache was created for the schema; otherwise {@code false}.
+         */
+        public boolean isForSchema(@NotNull UUID schemaId) {
+            return this.schemaId.equals(schemaId);
+        }
 
+        /**
+         * Removes the persisted codecs of the target, if any, called once the server reports that its schema changed.
+         * Codecs cached in memory are kept: descriptor IDs change along with the types they describe, so the server
+         * describes any query whose shape changed when it's next executed.
+         */
+        public void clearPersistedCodecs() {
+            if(persistentCache != null) {
+                persistentCache.clear();
+            }
+        }
 
-        private CodecCache(ProtocolVersion version) {
+        /**
+         * Writes the persisted codecs still waiting for the background writer to the file of the target, if any.
+         */
+        public void flushPersistedCodecs() {
+            if(persistentCache != null) {
+                persistentCache.flush();
+            }
+        }
+
+        private @NotNull CodecCacheStatistics getStatistics() {
+            return new CodecCacheStatistics(
+                    queryCodecsCache.getHits(), queryCodecsCache.getMisses(),
+                    queryCodecsCache.getEvictions(), queryCodecsCache.size(),
+                    codecPartsInstanceCache.getHits(), codecPartsInstanceCache.getMisses(),
+                    codecPartsInstanceCache.getEvictions(), codecPartsInstanceCache.size()
+            );
+        }
+    }
+
+    // type descriptor IDs are only unique within a server, and query shapes differ between branches and schemas.
+    // the cache settings are part of the scope, so that clients configured differently don't share a cache.
+    private static final class CacheScope {
+        public final ProtocolVersion version;
+        public final String hostname;
+        public final int port;
+        public final String branch;
+        public final UUID schemaId;
+        public final int maxSize;
+        public final @Nullable Path directory;
+
+        public CacheScope(
+                ProtocolVersion version, String hostname, int port, String branch, UUID schemaId,
+                int maxSize, @Nullable Path directory
+        ) {
             this.version = version;
-            this.cache = new ConcurrentHashMap<>(16);
-            this.codecPartsInstanceCache = new ConcurrentHashMap<>(16);
-            this.queryCodecsCache = new ConcurrentHashMap<>(8);
+            this.hostname = hostname;
+            this.port = port;
+            this.branch = branch;
+            this.schemaId = schemaId;
+            this.maxSize = maxSize;
+            this.directory = directory;
+        }
+
+        public boolean isFor(@NotNull GelConnection connection) {
+            return port == connection.getPort() &&
+                    hostname.equals(connection.getHostname()) &&
+                    branch.equals(connection.getBranch());
+        }
+
+        // the same target and settings, whatever the schema.
+        public boolean isSupersededBy(@NotNull CacheScope other) {
+            return !schemaId.equals(other.schemaId) &&
+                    !schemaId.equals(INVALID_CODEC_ID) &&
+                    port == other.port &&
+                    maxSize == other.maxSize &&
+                    version.equals(other.version) &&
+                    hostname.equals(other.hostname) &&
+                    branch.equals(other.branch) &&
+                    Objects.equals(directory, other.directory);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+
+            if(!(o instanceof CacheScope)) {
+                return false;
+            }
+
+            var other = (CacheScope) o;
+            return port == other.port &&
+                    maxSize == other.maxSize &&
+                    version.equals(other.version) &&
+                    hostname.equals(other.hostname) &&
+                    branch.equals(other.branch) &&
+                    schemaId.equals(other.schemaId) &&
+                    Objects.equals(directory, other.directory);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(version, hostname, port, branch, schemaId, maxSize, directory);
+        }
+
+        // also the name of the persisted codec file, the size is part of it so that two scopes never share a file.
+        @Override
+        public String toString() {
+            return String.format("%s-%d-%s-v%s-%s-%d", hostname, port, branch, version, schemaId, maxSize);
         }
     }
 
     private static final Logger logger = LoggerFactory.getLogger(CodecBuilder.class);
 
+    // the result of visiting a codec depends on the target type, and on the naming strategy that maps the fields of
+    // the target type to the elements of object codecs.
+    private static final class VisitedCodecKey {
+        public final UUID codecId;
+        public final Class<?> target;
+        public final NamingStrategy namingStrategy;
+
+        private final int hash;
+
+        public VisitedCodecKey(UUID codecId, Class<?> target, NamingStrategy namingStrategy) {
+            this.codecId = codecId;
+            this.target = target;
+            this.namingStrategy = namingStrategy;
+            this.hash = 31 * (31 * codecId.hashCode() + target.hashCode()) + namingStrategy.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+
+            if(!(o instanceof VisitedCodecKey)) {
+                return false;
+            }
+
+            var other = (VisitedCodecKey) o;
+
+            return hash == other.hash &&
+                    target == other.target &&
+                    namingStrategy == other.namingStrategy &&
+                    codecId.equals(other.codecId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     public static final UUID NULL_CODEC_ID = new UUID(0L, 0L);
     public static final UUID INVALID_CODEC_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
 
     public static final NullCodec NULL_CODEC = new NullCodec();
 
-    private static final ConcurrentMap<ProtocolVersion, CodecCache> codecCaches;
+    private static final ConcurrentMap<CacheScope, CodecCache> codecCaches;
 
     static {
         codecCaches = new ConcurrentHashMap<>(2);
     }
 
+    /**
+     * Gets the codec cache for the target of a client, creating it if it doesn't exist yet.
+     * <br/><br/>
+     * Caches are scoped to the server, branch and schema of the client, along with its
+     * {@linkplain com.gel.driver.GelClientConfig#getCodecCacheSize() cache size} and
+     * {@linkplain com.gel.driver.GelClientConfig#getCodecCacheDirectory() persistence directory}: clients configured
+     * differently get caches of their own. The protocol doesn't report a schema version, the schema is identified by
+     * the state type descriptor ID the server sends when connecting, which changes along with the globals and
+     * config of the schema. Once a client connects to a new schema, the caches of the earlier ones are dropped.
+     * @param client The client to get the cache for.
+     * @param version The protocol version used by the client.
+     * @return The codec cache shared by every client with the same target, schema and cache settings.
+     */
+    public static @NotNull CodecCache getCodecCache(@NotNull GelBinaryClient client, @NotNull ProtocolVersion version) {
+        var connection = client.getConnectionArguments();
+        var config = client.getConfig();
+
+        var scope = new CacheScope(
+                version, connection.getHostname(), connection.getPort(), connection.getBranch(),
+                client.getStateDescriptorId(), config.getCodecCacheSize(), config.getCodecCacheDirectory()
+        );
+
+        var cache = codecCaches.get(scope);
+
+        if(cache != null) {
+            return cache;
+        }
+
+        cache = codecCaches.computeIfAbsent(scope, CodecCache::new);
+
+        if(!scope.schemaId.equals(INVALID_CODEC_ID)) {
+            codecCaches.keySet().removeIf(other -> other.isSupersededBy(scope));
+        }
+
+        return cache;
+    }
+
+    /**
+     * Gets the codec cache counters for a connection target, summed over every protocol version used with it.
+     * @param connection The connection target.
+     * @return A snapshot of the cache counters.
+     */
+    public static @NotNull CodecCacheStatistics getCacheStatistics(@NotNull GelConnection connection) {
+        var statistics = new CodecCacheStatistics(0, 0, 0, 0, 0, 0, 0, 0);
+
+        for(var entry : codecCaches.entrySet()) {
+            if(entry.getKey().isFor(connection)) {
+                statistics = statistics.plus(entry.getValue().getStatistics());
+            }
+        }
+
+        return statistics;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> @Nullable Codec<T> getCodec(ProtocolProvider provider, UUID id, Class<T> ignoredCls) {
         return (Codec<T>) getCodec(provider, id);
     }
     public static @Nullable Codec<?> getCodec(ProtocolProvider provider, UUID id) {
-        var codec = codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new).cache.get(id);
-        return codec != null ? codec : getCachedOrScalarCodec(provider, id);
+        return getCachedOrScalarCodec(provider, id);
     }
 
     public static @NotNull Codec<?> buildCodec(GelBinaryClient client, @NotNull UUID id, @Nullable ByteBuf buffer) throws GelException {
@@ -102,8 +321,6 @@ public final class CodecBuilder {
                 return getOrCreateCodec(client.getProtocolProvider(), id, NullCodec::new);
             }
 
-            var providerCache = codecCaches.computeIfAbsent(client.getProtocolProvider().getVersion(), CodecCache::new);
-
             var descriptors = new ArrayList<TypeDescriptorInfo<? extends Enum<?>>>();
 
             while(!reader.isEmpty()) {
@@ -123,15 +340,7 @@ public final class CodecBuilder {
             for(var i = 0; i != descriptors.size(); i++) {
                 var descriptor = descriptors.get(i);
 
-                Codec<?> codec = providerCache.cache.get(descriptor.getId());;
-
-                if(codec != null) {
-                    logger.debug("Using cached codec {} from ID: {}", codec, descriptor.getId());
-                    codecs.add(i, codec);
-                    continue;
-                }
-
-                codec = getCachedOrScalarCodec(client.getProtocolProvider(), descriptor.getId());
+                Codec<?> codec = getCachedOrScalarCodec(client.getProtocolProvider(), descriptor.getId());
 
                 if(codec != null) {
                     logger.debug("Using cached codec {} from ID: {}", codec, descriptor.getId());
@@ -172,12 +381,8 @@ public final class CodecBuilder {
         }
     }
 
-    public static @NotNull Long getCacheKey(@NotNull String query, @NotNull Cardinality cardinality, @NotNull IOFormat format) {
-        return calculateKnuthHash(query) + cardinality.getValue() + format.getValue();
-    }
-
-    public static @Nullable QueryCodecs getCachedCodecs(ProtocolProvider provider, long cacheKey) {
-        var providerCache = codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new);
+    public static @Nullable QueryCodecs getCachedCodecs(ProtocolProvider provider, @NotNull QueryCacheKey cacheKey) {
+        var providerCache = provider.getCodecCache();
 
         var ids = providerCache.queryCodecsCache.get(cacheKey);
 
@@ -185,8 +390,8 @@ public final class CodecBuilder {
             return null;
         }
 
-        var inCodec = providerCache.cache.get(ids.inputCodecId);
-        var outCodec = providerCache.cache.get(ids.outputCodecId);
+        var inCodec = getCachedOrScalarCodec(provider, ids.inputCodecId);
+        var outCodec = getCachedOrScalarCodec(provider, ids.outputCodecId);
 
         if(inCodec == null || outCodec == null) {
             providerCache.queryCodecsCache.remove(cacheKey);
@@ -196,20 +401,134 @@ public final class CodecBuilder {
         return new QueryCodecs(ids.inputCodecId, inCodec, ids.outputCodecId, outCodec);
     }
 
-    public static void updateCachedCodecs(ProtocolProvider provider, long cacheKey, UUID inCodecId, UUID outCodecId) {
-        codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new)
-                .queryCodecsCache.computeIfAbsent(cacheKey, (c) -> new QueryCodecCacheEntry(inCodecId, outCodecId));
+    /**
+     * Visits a codec with a target type, caching the result. The visited codec is a new instance whenever visiting
+     * changes it, the codecs held by the cache are never modified.
+     * @param client The client visiting the codec.
+     * @param codec The codec to visit.
+     * @param target The type the codec should work with.
+     * @return The visited codec.
+     * @throws GelException The codec couldn't be visited with the target type.
+     */
+    public static @NotNull Codec<?> getVisitedCodec(
+            @NotNull GelBinaryClient client, @NotNull Codec<?> codec, @NotNull Class<?> target
+    ) throws GelException {
+        if(!TypeVisitor.isTypeDependent(codec) || codec.getId() == null) {
+            return codec;
+        }
+
+        var cache = client.getProtocolProvider().getCodecCache().visitedCodecsCache;
+        var key = new VisitedCodecKey(codec.getId(), target, client.getConfig().getNamingStrategy());
+        var visited = cache.get(key);
+
+        if(visited == null) {
+            var visitor = new TypeVisitor(client);
+            visitor.setTargetType(target);
+
+            var result = visitor.visit(codec);
+
+            // a concurrent visit may have been cached first, the cached instance is used by everyone.
+            visited = cache.computeIfAbsent(key, k -> result);
+        }
+
+        return visited;
+    }
+
+    /**
+     * Caches the codec IDs of a query as described by the server, replacing any IDs cached before: after a schema
+     * change the server describes the query again, and the new IDs must be served from then on.
+     * @param provider The protocol provider whose codec cache to update.
+     * @param cacheKey The cache key of the query.
+     * @param inCodecId The ID of the input codec.
+     * @param outCodecId The ID of the output codec.
+     */
+    public static void updateCachedCodecs(ProtocolProvider provider, @NotNull QueryCacheKey cacheKey, UUID inCodecId, UUID outCodecId) {
+        provider.getCodecCache()
+                .queryCodecsCache.put(cacheKey, new QueryCodecCacheEntry(inCodecId, outCodecId));
     }
 
-    private static @NotNull Long calculateKnuthHash(@NotNull String str) {
-        var h = 3074457345618258791L;
+    /**
+     * Builds the codecs of a query from its persisted descriptors, and caches them in memory.
+     * @param client The client to build the codecs with.
+     * @param cacheKey The cache key of the query.
+     * @return The codecs of the query, or {@code null} if the query wasn't persisted or its codecs couldn't be built.
+     */
+    public static @Nullable QueryCodecs restoreCachedCodecs(@NotNull GelBinaryClient client, @NotNull QueryCacheKey cacheKey) {
+        var provider = client.getProtocolProvider();
+        var persistentCache = provider.getCodecCache().persistentCache;
+
+        if(persistentCache == null) {
+            return null;
+        }
 
-        for(int i = 0; i != str.length(); i++) {
-            h += str.charAt(i);
-            h *= 3074457345618258799L;
+        var descriptors = persistentCache.getQuery(cacheKey);
+
+        if(descriptors == null) {
+            return null;
         }
 
-        return h;
+        try {
+            var inCodec = restoreCodec(client, persistentCache, descriptors.inputTypeDescriptorId);
+            var outCodec = restoreCodec(client, persistentCache, descriptors.outputTypeDescriptorId);
+
+            if(inCodec == null || outCodec == null) {
+                persistentCache.remove(cacheKey);
+                return null;
+            }
+
+            logger.debug("Restored persisted codecs of {}", cacheKey);
+
+            // a description received meanwhile is newer than the persisted one, so it's kept. A persisted description
+            // that's stale after a migration is replaced, in memory and on disk, once the server describes the query.
+            provider.getCodecCache().queryCodecsCache.computeIfAbsent(
+                    cacheKey,
+                    k -> new QueryCodecCacheEntry(descriptors.inputTypeDescriptorId, descriptors.outputTypeDescriptorId)
+            );
+
+            return new QueryCodecs(
+                    descriptors.inputTypeDescriptorId, inCodec, descriptors.outputTypeDescriptorId, outCodec
+            );
+        } catch (GelException x) {
+            logger.warn("Failed to build the persisted codecs of {}, parsing it instead", cacheKey, x);
+            persistentCache.remove(cacheKey);
+            return null;
+        }
+    }
+
+    /**
+     * Persists the descriptors of a query, if the codec cache of the provider is backed by a file. Must be called
+     * before the codecs are built from the descriptors, since building them consumes the buffers.
+     * @param provider The protocol provider whose codec cache to persist to.
+     * @param cacheKey The cache key of the query.
+     * @param inCodecId The ID of the input type descriptor.
+     * @param inDescriptor The input type descriptor, as sent by the server.
+     * @param outCodecId The ID of the output type descriptor.
+     * @param outDescriptor The output type descriptor, as sent by the server.
+     */
+    public static void persistCachedCodecs(
+            ProtocolProvider provider, @NotNull QueryCacheKey cacheKey,
+            @NotNull UUID inCodecId, @Nullable ByteBuf inDescriptor,
+            @NotNull UUID outCodecId, @Nullable ByteBuf outDescriptor
+    ) {
+        var persistentCache = provider.getCodecCache().persistentCache;
+
+        if(persistentCache != null) {
+            persistentCache.put(cacheKey, inCodecId, inDescriptor, outCodecId, outDescriptor);
+        }
+    }
+
+    private static @Nullable Codec<?> restoreCodec(
+            @NotNull GelBinaryClient client, @NotNull PersistentCodecCache persistentCache, @NotNull UUID id
+    ) throws GelException {
+        var codec = getCachedOrScalarCodec(client.getProtocolProvider(), id);
+
+        if(codec != null || id.equals(NULL_CODEC_ID)) {
+            return codec != null ? codec : buildCodec(client, id, (ByteBuf) null);
+        }
+
+        var descriptor = persistentCache.getDescriptor(id);
+
+        return descriptor == null ? null : buildCodec(client, id, Unpooled.wrappedBuffer(descriptor));
     }
 
     @SuppressWarnings("unchecked")
@@ -218,7 +537,7 @@ public final class CodecBuilder {
             UUID id,
             @NotNull Supplier<Codec<T>> constructor
     ) {
-        return (Codec<T>) codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new)
+        return (Codec<T>) provider.getCodecCache()
                 .codecPartsInstanceCache.computeIfAbsent(id, ignored -> constructor.get());
     }
 
@@ -229,7 +548,7 @@ public final class CodecBuilder {
             @Nullable CodecMetadata metadata,
             @NotNull Function<@Nullable CodecMetadata, Codec<T>> constructor
     ) {
-        return (Codec<T>) codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new)
+        return (Codec<T>) provider.getCodecCache()
                 .codecPartsInstanceCache.computeIfAbsent(id, ignored -> constructor.apply(metadata));
     }
 
@@ -244,22 +563,20 @@ public final class CodecBuilder {
             logger.debug(
                     "cache requested id: {}. exists?: {}, metadata: {}",
                     id,
-                    codecCaches
-                            .computeIfAbsent(provider.getVersion(), CodecCache::new)
-                            .codecPartsInstanceCache.containsKey(id),
+                    provider.getCodecCache().codecPartsInstanceCache.containsKey(id),
                     metadata == null
                             ? "none"
                             : metadata.toString()
             );
         }
 
-        return (Codec<T>) codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new)
+        return (Codec<T>) provider.getCodecCache()
                 .codecPartsInstanceCache.computeIfAbsent(id, i -> constructor.apply(i, metadata));
     }
 
     @SuppressWarnings("unchecked")
     private static <T> @Nullable Codec<T> getCachedOrScalarCodec(ProtocolProvider provider, UUID id) {
-        return (Codec<T>) codecCaches.computeIfAbsent(provider.getVersion(), CodecCache::new)
+        return (Codec<T>) provider.getCodecCache()
                 .codecPartsInstanceCache.computeIfAbsent(
                         id,
                         (v) -> scalarCodecFactories.containsKey(v)
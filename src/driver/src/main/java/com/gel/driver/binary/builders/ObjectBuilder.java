@@ -3,7 +3,6 @@ package com.gel.driver.binary.builders;
 import com.gel.driver.binary.builders.types.TypeBuilder;
 import com.gel.driver.binary.codecs.Codec;
 import com.gel.driver.binary.codecs.ObjectCodec;
-import com.gel.driver.binary.codecs.visitors.TypeVisitor;
 import com.gel.driver.clients.GelBinaryClient;
 import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.NoTypeConverterException;
@@ -32,10 +31,24 @@ public final class ObjectBuilder {
     }
 
     public static <T> @Nullable T buildResult(@NotNull GelBinaryClient client, Codec<?> codec, @NotNull ByteBuf data, @NotNull Class<T> cls) throws GelException, OperationNotSupportedException {
-        var visitor = new TypeVisitor(client);
-        visitor.setTargetType(cls);
-        codec = visitor.visit(codec);
+        return buildVisitedResult(client, getResultCodec(client, codec, cls), data, cls);
+    }
+
+    /**
+     * Visits a result codec with the target type, so that it can be used to build results of that type with
+     * {@linkplain #buildVisitedResult(GelBinaryClient, Codec, ByteBuf, Class)}. Visited codecs are cached, every
+     * result of a query can be built with the codec returned for its first one.
+     * @param client The client the result was received from.
+     * @param codec The output codec of the query.
+     * @param cls The type of the results.
+     * @return The codec to build the results with.
+     * @throws GelException The codec couldn't be visited with the target type.
+     */
+    public static @NotNull Codec<?> getResultCodec(@NotNull GelBinaryClient client, @NotNull Codec<?> codec, @NotNull Class<?> cls) throws GelException {
+        return CodecBuilder.getVisitedCodec(client, codec, cls);
+    }
 
+    public static <T> @Nullable T buildVisitedResult(@NotNull GelBinaryClient client, Codec<?> codec, @NotNull ByteBuf data, @NotNull Class<T> cls) throws GelException, OperationNotSupportedException {
         if(codec instanceof ObjectCodec) {
             return TypeBuilder.buildObject(client, cls, (ObjectCodec)codec, data);
         }
@@ -0,0 +1,594 @@
+package com.gel.driver.binary.builders;
+
+import com.gel.driver.Cardinality;
+import com.gel.driver.binary.BinaryEnum;
+import com.gel.driver.binary.protocol.QueryCacheKey;
+import com.gel.driver.binary.protocol.common.IOFormat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A file holding the type descriptors of the queries ran against a single server and branch, read back by new
+ * processes so that they can build the codecs of those queries without parsing them.
+ * <br/><br/>
+ * The file is an append-only log: a header naming the connection target, followed by descriptor and query records.
+ * Records are appended under a file lock, so processes can share a file; a later record for a query replaces the
+ * earlier ones when the file is read. Descriptor IDs identify the shape of a type, so a query whose shape changed gets
+ * new descriptors rather than stale ones, and the server describing a query anew overwrites its record.
+ * <br/><br/>
+ * Records are written by a background thread in batches, so describing a query never waits on the file. Once the
+ * superseded records outnumber the live ones, or the file holds more queries than the limit, the log is rewritten
+ * with only the latest record of the most recently written queries.
+ * <br/><br/>
+ * Persistence is best effort: any I/O failure is logged and disables the file, codecs are then only cached in memory.
+ */
+public final class PersistentCodecCache {
+    private static final Logger logger = LoggerFactory.getLogger(PersistentCodecCache.class);
+
+    private static final int MAGIC = 0x47454C43; // 'GELC'
+    private static final short FORMAT_VERSION = 1;
+
+    private static final byte DESCRIPTOR_RECORD = 1;
+    private static final byte QUERY_RECORD = 2;
+
+    // type, length
+    private static final int RECORD_HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
+    // records described at about the same time are written together.
+    private static final long FLUSH_DELAY_MILLIS = 100;
+
+    // a log with few superseded records isn't worth rewriting.
+    private static final int MIN_SUPERSEDED_RECORDS = 64;
+
+    // a single daemon thread writes the records of every file.
+    private static final class Writer {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "gel-codec-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // the records of a file, in the order they were last written.
+    private static final class Contents {
+        public final Map<UUID, byte[]> descriptors = new HashMap<>();
+        public final LinkedHashMap<QueryCacheKey, QueryDescriptors> queries = new LinkedHashMap<>();
+        public int queryRecords;
+
+        public int superseded() {
+            return queryRecords - queries.size();
+        }
+    }
+
+    /**
+     * The input and output type descriptor IDs of a persisted query.
+     */
+    public static final class QueryDescriptors {
+        public final UUID inputTypeDescriptorId;
+        public final UUID outputTypeDescriptorId;
+
+        public QueryDescriptors(UUID inputTypeDescriptorId, UUID outputTypeDescriptorId) {
+            this.inputTypeDescriptorId = inputTypeDescriptorId;
+            this.outputTypeDescriptorId = outputTypeDescriptorId;
+        }
+    }
+
+    private final @NotNull Path path;
+    private final @NotNull String scope;
+    private final int maxQueries;
+    private final int headerSize;
+
+    private final ConcurrentHashMap<UUID, byte[]> descriptors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<QueryCacheKey, QueryDescriptors> queries = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // query records in the file that a later record replaced, as far as this process knows.
+    private final AtomicInteger superseded = new AtomicInteger();
+
+    private volatile boolean disabled;
+
+    private PersistentCodecCache(@NotNull Path path, @NotNull String scope, int maxQueries) {
+        this.path = path;
+        this.scope = scope;
+        this.maxQueries = maxQueries;
+        this.headerSize = writeHeader().remaining();
+    }
+
+    /**
+     * Opens the persisted codecs of a connection target, reading every record written so far.
+     * @param directory The directory holding the persisted codecs, created if it doesn't exist.
+     * @param scope A string identifying the connection target, used to name the file.
+     * @param maxQueries The maximum number of queries to persist, later ones are only cached in memory. A file holding
+     *                   more, written by other processes, is cut down to the most recently written ones.
+     * @return The opened cache, or {@code null} if the file couldn't be read or belongs to another target.
+     */
+    public static @Nullable PersistentCodecCache open(@NotNull Path directory, @NotNull String scope, int maxQueries) {
+        var path = directory.resolve(scope.replaceAll("[^A-Za-z0-9._-]", "_") + ".codecs");
+        var cache = new PersistentCodecCache(path, scope, maxQueries);
+
+        try {
+            Files.createDirectories(directory);
+
+            if(!cache.load()) {
+                return null;
+            }
+        } catch (IOException | RuntimeException x) {
+            logger.warn("Failed to read persisted codecs from {}, codecs are only cached in memory", path, x);
+            return null;
+        }
+
+        logger.debug(
+                "Read {} queries and {} descriptors from {}",
+                cache.queries.size(), cache.descriptors.size(), path
+        );
+
+        return cache;
+    }
+
+    /**
+     * Gets the descriptor IDs persisted for a query.
+     * @param key The cache key of the query.
+     * @return The input and output descriptor IDs of the query, or {@code null} if it wasn't persisted.
+     */
+    public @Nullable QueryDescriptors getQuery(@NotNull QueryCacheKey key) {
+        return queries.get(key);
+    }
+
+    /**
+     * Gets the raw bytes of a persisted type descriptor, as sent by the server.
+     * @param id The ID of the type descriptor.
+     * @return The descriptor bytes, or {@code null} if the descriptor wasn't persisted.
+     */
+    public byte @Nullable [] getDescriptor(@NotNull UUID id) {
+        return descriptors.get(id);
+    }
+
+    /**
+     * Persists the descriptors of a query. Descriptors that are already persisted aren't written again. The readable
+     * bytes of the buffers are copied, their reader index is left untouched.
+     * <br/><br/>
+     * The descriptors can be read back right away, and are written to the file shortly after by a background thread.
+     * @param key The cache key of the query.
+     * @param inputId The ID of the input type descriptor.
+     * @param inputDescriptor The input type descriptor, {@code null} for the null codec.
+     * @param outputId The ID of the output type descriptor.
+     * @param outputDescriptor The output type descriptor, {@code null} for the null codec.
+     */
+    public void put(
+            @NotNull QueryCacheKey key,
+            @NotNull UUID inputId, @Nullable ByteBuf inputDescriptor,
+            @NotNull UUID outputId, @Nullable ByteBuf outputDescriptor
+    ) {
+        if(disabled) {
+            return;
+        }
+
+        var existing = queries.get(key);
+
+        if(
+                existing != null &&
+                existing.inputTypeDescriptorId.equals(inputId) &&
+                existing.outputTypeDescriptorId.equals(outputId)
+        ) {
+            return;
+        }
+
+        if(existing == null && queries.size() >= maxQueries) {
+            return;
+        }
+
+        var inputBytes = inputDescriptor == null || descriptors.containsKey(inputId)
+                ? null
+                : ByteBufUtil.getBytes(inputDescriptor);
+        var outputBytes = outputDescriptor == null || outputId.equals(inputId) || descriptors.containsKey(outputId)
+                ? null
+                : ByteBufUtil.getBytes(outputDescriptor);
+
+        var records = new ArrayList<ByteBuffer>(3);
+
+        if(inputBytes != null) {
+            records.add(descriptorRecord(inputId, inputBytes));
+        }
+
+        if(outputBytes != null) {
+            records.add(descriptorRecord(outputId, outputBytes));
+        }
+
+        records.add(queryRecord(key, inputId, outputId));
+
+        if(inputBytes != null) {
+            descriptors.putIfAbsent(inputId, inputBytes);
+        }
+
+        if(outputBytes != null) {
+            descriptors.putIfAbsent(outputId, outputBytes);
+        }
+
+        if(queries.put(key, new QueryDescriptors(inputId, outputId)) != null) {
+            superseded.incrementAndGet();
+        }
+
+        pending.addAll(records);
+
+        if(flushScheduled.compareAndSet(false, true)) {
+            Writer.INSTANCE.schedule(this::scheduledFlush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the records that are still waiting for the background thread, on the calling thread. The log is
+     * compacted afterwards if enough of its records are superseded.
+     */
+    public synchronized void flush() {
+        var records = new ArrayList<ByteBuffer>(pending.size());
+
+        for(ByteBuffer record; (record = pending.poll()) != null;) {
+            records.add(record);
+        }
+
+        if(!records.isEmpty() && append(records.toArray(new ByteBuffer[0]))) {
+            logger.debug("Wrote {} records to {}", records.size(), path);
+        }
+
+        if(isWorthCompacting(superseded.get(), queries.size())) {
+            compact();
+        }
+    }
+
+    private void scheduledFlush() {
+        // cleared first, so records queued while writing schedule another flush.
+        flushScheduled.set(false);
+
+        try {
+            flush();
+        } catch (RuntimeException x) {
+            logger.warn("Failed to write persisted codecs to {}", path, x);
+        }
+    }
+
+    /**
+     * Forgets a persisted query for the lifetime of this process, used when its descriptors can't be read back.
+     * @param key The cache key of the query.
+     */
+    public void remove(@NotNull QueryCacheKey key) {
+        queries.remove(key);
+    }
+
+    /**
+     * Removes every persisted record, used when the schema of the server changed.
+     */
+    public void clear() {
+        queries.clear();
+        descriptors.clear();
+
+        if(disabled) {
+            return;
+        }
+
+        synchronized (this) {
+            pending.clear();
+            superseded.set(0);
+
+            try(
+                    var channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                    var ignored = channel.lock()
+            ) {
+                channel.truncate(headerSize);
+                logger.debug("Cleared persisted codecs in {}", path);
+            } catch (IOException x) {
+                disable("clear", x);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of persisted queries known to this process.
+     * @return The number of persisted queries.
+     */
+    public int size() {
+        return queries.size();
+    }
+
+    private synchronized boolean load() throws IOException {
+        try(
+                var channel = FileChannel.open(
+                        path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+                );
+                var ignored = channel.lock()
+        ) {
+            if(channel.size() == 0) {
+                write(channel, writeHeader());
+                return true;
+            }
+
+            var contents = read(channel);
+
+            if(contents == null) {
+                logger.warn("{} holds codecs of another server, codecs are only cached in memory", path);
+                return false;
+            }
+
+            var live = contents.queries.size();
+
+            if(live > maxQueries || isWorthCompacting(contents.superseded(), live)) {
+                rewrite(channel, contents);
+            }
+
+            descriptors.putAll(contents.descriptors);
+            queries.putAll(contents.queries);
+            superseded.set(contents.superseded());
+            return true;
+        }
+    }
+
+    // re-reads the file, so records other processes appended are kept, and rewrites it with the live records only.
+    private void compact() {
+        if(disabled) {
+            return;
+        }
+
+        try(
+                var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                var ignored = channel.lock()
+        ) {
+            var contents = read(channel);
+
+            if(contents == null) {
+                throw new IOException("The header of the file changed");
+            }
+
+            rewrite(channel, contents);
+
+            // the file now only describes the kept queries, a query dropped from it is parsed again when next used.
+            queries.keySet().retainAll(contents.queries.keySet());
+            queries.putAll(contents.queries);
+            descriptors.keySet().retainAll(contents.descriptors.keySet());
+            descriptors.putAll(contents.descriptors);
+            superseded.set(0);
+        } catch (IOException x) {
+            disable("compact", x);
+        }
+    }
+
+    private static boolean isWorthCompacting(int superseded, int live) {
+        return superseded >= Math.max(MIN_SUPERSEDED_RECORDS, live);
+    }
+
+    private @Nullable Contents read(@NotNull FileChannel channel) throws IOException {
+        var mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+        if(!readHeader(mapped)) {
+            return null;
+        }
+
+        var contents = new Contents();
+        var validLength = readRecords(mapped, contents);
+
+        if(validLength != channel.size()) {
+            // a process stopped midway through a write, drop the partial record so later ones can be read.
+            logger.debug("Truncating a partial record at {} in {}", validLength, path);
+            channel.truncate(validLength);
+        }
+
+        return contents;
+    }
+
+    // keeps the most recently written queries within the limit, along with the descriptors they use.
+    private void rewrite(@NotNull FileChannel channel, @NotNull Contents contents) throws IOException {
+        var excess = contents.queries.size() - maxQueries;
+        var iterator = contents.queries.entrySet().iterator();
+
+        for(; excess > 0 && iterator.hasNext(); excess--) {
+            iterator.next();
+            iterator.remove();
+        }
+
+        var records = new ArrayList<ByteBuffer>(contents.queries.size() * 3);
+        var used = new HashMap<UUID, byte[]>();
+
+        for(var query : contents.queries.entrySet()) {
+            var ids = query.getValue();
+
+            for(var id : new UUID[] {ids.inputTypeDescriptorId, ids.outputTypeDescriptorId}) {
+                var descriptor = contents.descriptors.get(id);
+
+                if(descriptor != null && used.putIfAbsent(id, descriptor) == null) {
+                    records.add(descriptorRecord(id, descriptor));
+                }
+            }
+
+            records.add(queryRecord(query.getKey(), ids.inputTypeDescriptorId, ids.outputTypeDescriptorId));
+        }
+
+        logger.debug(
+                "Compacting {} query records into {} in {}",
+                contents.queryRecords, contents.queries.size(), path
+        );
+
+        channel.truncate(headerSize);
+        channel.position(headerSize);
+        write(channel, records.toArray(new ByteBuffer[0]));
+
+        contents.descriptors.keySet().retainAll(used.keySet());
+        contents.queryRecords = contents.queries.size();
+    }
+
+    private boolean readHeader(@NotNull ByteBuffer buffer) {
+        try {
+            if(buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                return false;
+            }
+
+            var scopeBytes = new byte[buffer.getInt()];
+            buffer.get(scopeBytes);
+            return scope.equals(new String(scopeBytes, StandardCharsets.UTF_8));
+        } catch (BufferUnderflowException | NegativeArraySizeException x) {
+            return false;
+        }
+    }
+
+    private long readRecords(@NotNull ByteBuffer buffer, @NotNull Contents contents) {
+        while(buffer.remaining() >= RECORD_HEADER_SIZE) {
+            var start = buffer.position();
+            var type = buffer.get();
+            var length = buffer.getInt();
+
+            if(length < 0 || length > buffer.remaining()) {
+                return start;
+            }
+
+            var record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+
+            switch (type) {
+                case DESCRIPTOR_RECORD:
+                    var id = new UUID(record.getLong(), record.getLong());
+                    var bytes = new byte[record.remaining()];
+                    record.get(bytes);
+                    contents.descriptors.put(id, bytes);
+                    break;
+                case QUERY_RECORD:
+                    var flags = record.getLong();
+                    var cardinality = readEnum(Cardinality.values(), record.get());
+                    var format = readEnum(IOFormat.values(), record.get());
+                    var inputId = new UUID(record.getLong(), record.getLong());
+                    var outputId = new UUID(record.getLong(), record.getLong());
+                    var query = StandardCharsets.UTF_8.decode(record).toString();
+
+                    contents.queryRecords++;
+
+                    if(cardinality != null && format != null) {
+                        var key = new QueryCacheKey(query, cardinality, format, flags);
+
+                        // moved to the end, so the queries stay ordered by their latest record.
+                        contents.queries.remove(key);
+                        contents.queries.put(key, new QueryDescriptors(inputId, outputId));
+                    }
+                    break;
+                default:
+                    logger.debug("Skipping unknown record type {} in {}", type, path);
+                    break;
+            }
+        }
+
+        return buffer.position();
+    }
+
+    private static <T extends Enum<T> & BinaryEnum<Byte>> @Nullable T readEnum(
+            T @NotNull [] values, byte value
+    ) {
+        for (var v : values) {
+            if(v.getValue() == value) {
+                return v;
+            }
+        }
+
+        return null;
+    }
+
+    private @NotNull ByteBuffer writeHeader() {
+        var scopeBytes = scope.getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + Integer.BYTES + scopeBytes.length);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(FORMAT_VERSION);
+        buffer.putInt(scopeBytes.length);
+        buffer.put(scopeBytes);
+
+        return buffer.flip();
+    }
+
+    private static @NotNull ByteBuffer descriptorRecord(@NotNull UUID id, byte @NotNull [] descriptor) {
+        var length = Long.BYTES * 2 + descriptor.length;
+        var buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+
+        buffer.put(DESCRIPTOR_RECORD);
+        buffer.putInt(length);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        buffer.put(descriptor);
+
+        return buffer.flip();
+    }
+
+    private static @NotNull ByteBuffer queryRecord(@NotNull QueryCacheKey key, @NotNull UUID inputId, @NotNull UUID outputId) {
+        var query = key.query.getBytes(StandardCharsets.UTF_8);
+        var length = Long.BYTES + Byte.BYTES * 2 + Long.BYTES * 4 + query.length;
+        var buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+
+        buffer.put(QUERY_RECORD);
+        buffer.putInt(length);
+        buffer.putLong(key.compilationFlags);
+        buffer.put(key.cardinality.getValue());
+        buffer.put(key.format.getValue());
+        buffer.putLong(inputId.getMostSignificantBits());
+        buffer.putLong(inputId.getLeastSignificantBits());
+        buffer.putLong(outputId.getMostSignificantBits());
+        buffer.putLong(outputId.getLeastSignificantBits());
+        buffer.put(query);
+
+        return buffer.flip();
+    }
+
+    // the file lock guards against other processes, and the monitor against other threads: a JVM can't hold two
+    // locks on the same file at once.
+    private synchronized boolean append(ByteBuffer @NotNull ... records) {
+        if(disabled) {
+            return false;
+        }
+
+        try(
+                var channel = FileChannel.open(
+                        path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND
+                );
+                var ignored = channel.lock()
+        ) {
+            write(channel, records);
+            return true;
+        } catch (IOException x) {
+            disable("write", x);
+            return false;
+        }
+    }
+
+    private static void write(@NotNull FileChannel channel, ByteBuffer @NotNull ... buffers) throws IOException {
+        for (var buffer : buffers) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void disable(String operation, IOException x) {
+        disabled = true;
+        logger.warn("Failed to {} persisted codecs in {}, codecs are only cached in memory", operation, path, x);
+    }
+}
@@ -0,0 +1,194 @@
+package com.gel.driver.binary.builders.internal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The map of a flattened object: element names are shared by every object of the same codec, only the values are
+ * stored per object. Entries keep the order of the object's elements.
+ * <br/><br/>
+ * Replacing the value of an element is done in place; adding or removing entries copies the map into a
+ * {@linkplain LinkedHashMap} first.
+ */
+public final class FlatObjectMap extends AbstractMap<String, Object> {
+    private final String @NotNull [] names;
+    private final int offset;
+    private final Object @NotNull [] values;
+    private int size;
+
+    private @Nullable Map<String, Object> copy;
+
+    /**
+     * Constructs a new {@linkplain FlatObjectMap}.
+     * @param names The names of the elements of the object.
+     * @param offset The index of the first element in {@code names} that's part of this map.
+     */
+    public FlatObjectMap(String @NotNull [] names, int offset) {
+        this.names = names;
+        this.offset = offset;
+        this.values = new Object[names.length - offset];
+    }
+
+    /**
+     * Adds the value of the next element of the object.
+     * @param value The value of the element.
+     */
+    void add(@Nullable Object value) {
+        values[size++] = value;
+    }
+
+    private int indexOf(@Nullable Object key) {
+        if(key == null) {
+            return -1;
+        }
+
+        for(int i = 0; i != size; i++) {
+            if(key.equals(names[offset + i])) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private @NotNull Map<String, Object> copy() {
+        if(copy == null) {
+            copy = new LinkedHashMap<>(size * 2);
+
+            for(int i = 0; i != size; i++) {
+                copy.put(names[offset + i], values[i]);
+            }
+        }
+
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return copy != null ? copy.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return copy != null ? copy.containsKey(key) : indexOf(key) != -1;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if(copy != null) {
+            return copy.get(key);
+        }
+
+        var index = indexOf(key);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if(copy == null) {
+            var index = indexOf(key);
+
+            if(index != -1) {
+                var previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+        }
+
+        return copy().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return copy().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        copy().clear();
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        if(copy != null) {
+            return copy.entrySet();
+        }
+
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return FlatObjectMap.this.size();
+            }
+
+            @Override
+            public @NotNull Iterator<Entry<String, Object>> iterator() {
+                if(copy != null) {
+                    return copy.entrySet().iterator();
+                }
+
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if(index >= size) {
+                            throw new NoSuchElementException();
+                        }
+
+                        return new FlatEntry(index++);
+                    }
+                };
+            }
+        };
+    }
+
+    private final class FlatEntry implements Entry<String, Object> {
+        private final int index;
+
+        private FlatEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return names[offset + index];
+        }
+
+        @Override
+        public Object getValue() {
+            return copy != null ? copy.get(getKey()) : values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Entry)) {
+                return false;
+            }
+
+            var other = (Entry<?, ?>)o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -2,26 +2,43 @@ package com.gel.driver.binary.builders.internal;
 
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.ObjectEnumerator;
+import com.gel.driver.binary.codecs.Codec;
 import com.gel.driver.binary.codecs.CodecContext;
 import com.gel.driver.binary.codecs.ObjectCodec;
+import com.gel.driver.binary.codecs.scalars.*;
 import com.gel.driver.clients.GelBinaryClient;
 import com.gel.driver.exceptions.GelException;
+import com.gel.driver.exceptions.NoTypeConverterException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.naming.OperationNotSupportedException;
-import java.util.HashMap;
 import java.util.Map;
 
 import static com.gel.driver.util.BinaryProtocolUtils.INT_SIZE;
 
 public final class ObjectEnumeratorImpl implements ObjectEnumerator {
+    // the element returned by next(), reused for every element of the object.
+    private static final class ReusableElement extends ObjectEnumerator.ObjectElement {
+        public ReusableElement() {
+            super("", null, Object.class);
+        }
+
+        public @NotNull ObjectElement set(@NotNull String name, @Nullable Object value, @NotNull Class<?> type) {
+            this.name = name;
+            this.value = value;
+            this.type = type;
+            return this;
+        }
+    }
+
     private final @NotNull PacketReader reader;
     private final CodecContext context;
     private final ObjectCodec codec;
 
     private final int numElements;
     private int position;
+    private @Nullable ReusableElement element;
 
     public ObjectEnumeratorImpl(@NotNull PacketReader reader, ObjectCodec codec, CodecContext context) {
         this.reader = reader;
@@ -46,21 +63,40 @@ public final class ObjectEnumeratorImpl implements ObjectEnumerator {
             return null;
         }
 
+        var property = codec.elements[position];
+        var value = nextValue();
+
+        if(element == null) {
+            element = new ReusableElement();
+        }
+
+        return element.set(property.name, value, property.codec.getConvertingClass());
+    }
+
+    /**
+     * Deserializes the value of the next element without wrapping it in an {@linkplain ObjectElement}. The element's
+     * position within {@linkplain ObjectCodec#elements} is the number of elements read before this call.
+     * @return The value of the next element, or {@code null} if the element has no data.
+     * @throws GelException A deserialization error occurred.
+     * @throws OperationNotSupportedException The read operation isn't allowed.
+     */
+    public @Nullable Object nextValue() throws GelException, OperationNotSupportedException {
         try {
             reader.skip(INT_SIZE);
 
-            var element = codec.elements[position];
+            var length = reader.readInt32();
+
+            if(length <= 0) {
+                return null;
+            }
 
-            try(var elementReader = reader.scopedSlice()) {
-                if(elementReader.isNoData) {
-                    return new ObjectEnumerator.ObjectElement(element.name, null, element.codec.getConvertingClass());
-                }
+            // the element is read in place, the codec only sees the bytes of the element.
+            var limit = reader.beginLimit(length);
 
-                return new ObjectEnumerator.ObjectElement(
-                        element.name,
-                        element.codec.deserialize(elementReader, context),
-                        element.codec.getConvertingClass()
-                );
+            try {
+                return codec.elements[position].codec.deserialize(reader, context);
+            } finally {
+                reader.endLimit(limit);
             }
         }
         finally {
@@ -68,15 +104,188 @@ public final class ObjectEnumeratorImpl implements ObjectEnumerator {
         }
     }
 
+    /**
+     * Checks whether elements of a codec can be read as a primitive type by the unboxed accessors of the enumerator.
+     * @param codec The codec of the element.
+     * @param type The primitive type.
+     * @return {@code true} if the element can be read as {@code type} without boxing it, otherwise {@code false}.
+     */
+    public static boolean canReadUnboxed(@NotNull Codec<?> codec, @NotNull Class<?> type) {
+        if(type == long.class) {
+            return codec instanceof Integer64Codec || codec instanceof Integer32Codec || codec instanceof Integer16Codec;
+        } else if(type == int.class) {
+            return codec instanceof Integer32Codec || codec instanceof Integer16Codec;
+        } else if(type == short.class) {
+            return codec instanceof Integer16Codec;
+        } else if(type == double.class) {
+            return codec instanceof Float64Codec || codec instanceof Float32Codec;
+        } else if(type == float.class) {
+            return codec instanceof Float32Codec;
+        } else if(type == boolean.class) {
+            return codec instanceof BoolCodec;
+        }
+
+        return false;
+    }
+
     @Override
-    public @NotNull Map<String, Object> flatten() throws GelException, OperationNotSupportedException {
-        return new HashMap<>() {
-            {
-                ObjectEnumerator.ObjectElement element;
-                while(hasRemaining() && (element = next()) != null) {
-                    put(element.getName(), element.getValue());
-                }
+    public @Nullable String peekName() {
+        return hasRemaining() ? codec.elements[position].name : null;
+    }
+
+    @Override
+    public boolean nextBoolean() throws GelException {
+        var elementCodec = nextCodec(boolean.class);
+
+        if(!(elementCodec instanceof BoolCodec)) {
+            throw typeMismatch(boolean.class);
+        }
+
+        enterValue(boolean.class, Byte.BYTES);
+        return reader.readBoolean();
+    }
+
+    @Override
+    public short nextShort() throws GelException {
+        var elementCodec = nextCodec(short.class);
+
+        if(!(elementCodec instanceof Integer16Codec)) {
+            throw typeMismatch(short.class);
+        }
+
+        enterValue(short.class, Short.BYTES);
+        return reader.readInt16();
+    }
+
+    @Override
+    public int nextInt() throws GelException {
+        var elementCodec = nextCodec(int.class);
+
+        if(elementCodec instanceof Integer32Codec) {
+            enterValue(int.class, Integer.BYTES);
+            return reader.readInt32();
+        } else if(elementCodec instanceof Integer16Codec) {
+            enterValue(int.class, Short.BYTES);
+            return reader.readInt16();
+        }
+
+        throw typeMismatch(int.class);
+    }
+
+    @Override
+    public long nextLong() throws GelException {
+        var elementCodec = nextCodec(long.class);
+
+        if(elementCodec instanceof Integer64Codec) {
+            enterValue(long.class, Long.BYTES);
+            return reader.readInt64();
+        } else if(elementCodec instanceof Integer32Codec) {
+            enterValue(long.class, Integer.BYTES);
+            return reader.readInt32();
+        } else if(elementCodec instanceof Integer16Codec) {
+            enterValue(long.class, Short.BYTES);
+            return reader.readInt16();
+        }
+
+        throw typeMismatch(long.class);
+    }
+
+    @Override
+    public float nextFloat() throws GelException {
+        var elementCodec = nextCodec(float.class);
+
+        if(!(elementCodec instanceof Float32Codec)) {
+            throw typeMismatch(float.class);
+        }
+
+        enterValue(float.class, Float.BYTES);
+        return reader.readFloat();
+    }
+
+    @Override
+    public double nextDouble() throws GelException {
+        var elementCodec = nextCodec(double.class);
+
+        if(elementCodec instanceof Float64Codec) {
+            enterValue(double.class, Double.BYTES);
+            return reader.readDouble();
+        } else if(elementCodec instanceof Float32Codec) {
+            enterValue(double.class, Float.BYTES);
+            return reader.readFloat();
+        }
+
+        throw typeMismatch(double.class);
+    }
+
+    private @NotNull Codec<?> nextCodec(@NotNull Class<?> type) throws GelException {
+        if(!hasRemaining()) {
+            throw new GelException("There are no remaining elements to read as " + type.getName());
+        }
+
+        return codec.elements[position].codec;
+    }
+
+    // consumes the header of the next element, leaving the reader on its value.
+    private void enterValue(@NotNull Class<?> type, int size) throws GelException {
+        var element = codec.elements[position++];
+
+        reader.skip(INT_SIZE); // reserved
+
+        var length = reader.readInt32();
+
+        if(length == size) {
+            return;
+        }
+
+        if(length < 0) {
+            throw new GelException(String.format(
+                    "The element '%s' has no value, it can't be read as %s", element.name, type.getName()
+            ));
+        }
+
+        reader.skip(length);
+
+        throw new GelException(String.format(
+                "The element '%s' has a value of %d bytes, expected %d bytes for %s",
+                element.name, length, size, type.getName()
+        ));
+    }
+
+    private @NotNull GelException typeMismatch(@NotNull Class<?> type) {
+        var element = codec.elements[position];
+
+        return new NoTypeConverterException(String.format(
+                "The element '%s' of type %s can't be read as %s",
+                element.name, element.codec.getConvertingClass().getName(), type.getName()
+        ));
+    }
+
+    /**
+     * Skips the next element without deserializing it.
+     */
+    public void skipValue() {
+        try {
+            reader.skip(INT_SIZE);
+
+            var length = reader.readInt32();
+
+            if(length > 0) {
+                reader.skip(length);
             }
-        };
+        }
+        finally {
+            position++;
+        }
+    }
+
+    @Override
+    public @NotNull Map<String, Object> flatten() throws GelException, OperationNotSupportedException {
+        var map = new FlatObjectMap(codec.names, position);
+
+        while(hasRemaining()) {
+            map.add(nextValue());
+        }
+
+        return map;
     }
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+package com.gel.driver.binary.builders.types;
+
+import com.gel.driver.Cardinality;
+import com.gel.driver.binary.builders.ObjectBuilder;
+import com.gel.driver.binary.builders.internal.ObjectEnumeratorImpl;
+import com.gel.driver.binary.codecs.ObjectCodec;
+import com.gel.driver.exceptions.GelException;
+import com.gel.driver.exceptions.NoTypeConverterException;
+import com.gel.driver.namingstrategies.NamingStrategy;
+import com.gel.driver.util.TypeUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.naming.OperationNotSupportedException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+
+/**
+ * A deserializer bound to the element layout of a single {@linkplain ObjectCodec}.
+ * <br/><br/>
+ * Codec elements are matched to fields or constructor parameters once, when the deserializer is compiled, and values
+ * are assigned through {@linkplain MethodHandle}s; deserializing a row does no name lookups or reflective calls.
+ * @param <T> The type this deserializer produces.
+ */
+public abstract class CompiledDeserializer<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SPREAD_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    protected final @NotNull Class<T> type;
+    private final @NotNull NamingStrategy strategy;
+    private final boolean useFieldSetters;
+
+    private CompiledDeserializer(@NotNull Class<T> type, @NotNull NamingStrategy strategy, boolean useFieldSetters) {
+        this.type = type;
+        this.strategy = strategy;
+        this.useFieldSetters = useFieldSetters;
+    }
+
+    /**
+     * Gets whether this deserializer was compiled with the provided settings.
+     * @param strategy The naming strategy to check.
+     * @param useFieldSetters Whether setter methods are preferred.
+     * @return {@code true} if the deserializer was compiled with the same settings; otherwise {@code false}.
+     */
+    public boolean isBoundTo(@NotNull NamingStrategy strategy, boolean useFieldSetters) {
+        return this.strategy == strategy && this.useFieldSetters == useFieldSetters;
+    }
+
+    /**
+     * Deserializes the remaining elements of the enumerator into a new instance.
+     * @param enumerator The enumerator to read from, its elements must follow the layout this deserializer was bound to.
+     * @return The deserialized instance.
+     * @throws GelException A deserialization or conversion error occurred.
+     * @throws OperationNotSupportedException The read operation isn't allowed.
+     */
+    public abstract T deserialize(@NotNull ObjectEnumeratorImpl enumerator) throws GelException, OperationNotSupportedException;
+
+    static <T> @NotNull CompiledDeserializer<T> forFields(
+            @NotNull Class<T> type,
+            @NotNull Constructor<?> ctor,
+            @NotNull TypeDeserializerInfo.NamingStrategyMap<TypeDeserializerInfo.FieldInfo> fields,
+            @NotNull ObjectCodec codec,
+            @NotNull NamingStrategy strategy,
+            boolean useFieldSetters
+    ) throws IllegalAccessException {
+        ensureReadable(type);
+
+        var bindings = new ElementBinding[codec.elements.length];
+
+        for(int i = 0; i != bindings.length; i++) {
+            var element = codec.elements[i];
+            var field = fields.get(element.name);
+
+            if(field == null) {
+                continue;
+            }
+
+            var setMethod = field.getSetMethod();
+            var setter = useFieldSetters && setMethod != null
+                    ? LOOKUP.unreflect(setMethod)
+                    : LOOKUP.unreflectSetter(field.field);
+
+            // required primitive fields are read straight from the buffer, without boxing the value.
+            if(
+                    field.fieldType.isPrimitive() &&
+                    element.cardinality == Cardinality.ONE &&
+                    ObjectEnumeratorImpl.canReadUnboxed(element.codec, field.fieldType)
+            ) {
+                bindings[i] = new ElementBinding(
+                        field.getFieldName(),
+                        field.fieldType,
+                        setter.asType(MethodType.methodType(void.class, Object.class, field.fieldType)),
+                        -1,
+                        true
+                );
+                continue;
+            }
+
+            bindings[i] = new ElementBinding(field.getFieldName(), field.fieldType, setter.asType(SETTER_TYPE), -1);
+        }
+
+        return new FieldDeserializer<>(
+                type, LOOKUP.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE), bindings, strategy, useFieldSetters
+        );
+    }
+
+    static <T> @NotNull CompiledDeserializer<T> forConstructor(
+            @NotNull Class<T> type,
+            @NotNull Constructor<?> ctor,
+            @NotNull TypeDeserializerInfo.NamingStrategyMap<Parameter> parameters,
+            @NotNull ObjectCodec codec,
+            @NotNull NamingStrategy strategy,
+            boolean useFieldSetters
+    ) throws IllegalAccessException {
+        ensureReadable(type);
+
+        var ctorParameters = ctor.getParameters();
+        var defaults = new Object[ctorParameters.length];
+
+        for(int i = 0; i != defaults.length; i++) {
+            defaults[i] = TypeUtils.getDefaultValue(ctorParameters[i].getType());
+        }
+
+        var bindings = new ElementBinding[codec.elements.length];
+
+        for(int i = 0; i != bindings.length; i++) {
+            var name = codec.elements[i].name;
+            var index = parameters.nameIndexMap.get(name);
+
+            if(index == null) {
+                continue;
+            }
+
+            var parameter = ctorParameters[index];
+            bindings[i] = new ElementBinding(parameter.getName(), parameter.getType(), null, index);
+        }
+
+        var handle = LOOKUP.unreflectConstructor(ctor)
+                .asSpreader(Object[].class, ctorParameters.length)
+                .asType(SPREAD_CONSTRUCTOR_TYPE);
+
+        return new ConstructorDeserializer<>(type, handle, bindings, defaults, strategy, useFieldSetters);
+    }
+
+    private static void ensureReadable(@NotNull Class<?> type) {
+        // core reflection implies readability, method handle lookups don't.
+        CompiledDeserializer.class.getModule().addReads(type.getModule());
+    }
+
+    private static @NotNull GelException wrap(@NotNull Class<?> type, @NotNull Throwable err) {
+        if(err instanceof GelException) {
+            return (GelException)err;
+        }
+
+        return new GelException("Failed to deserialize " + type.getName(), err);
+    }
+
+    private static final class ElementBinding {
+        public final @NotNull String name;
+        public final @NotNull Class<?> target;
+        public final @Nullable Object defaultValue;
+        public final @Nullable MethodHandle setter;
+        public final int parameterIndex;
+        public final boolean unboxed;
+
+        public ElementBinding(@NotNull String name, @NotNull Class<?> target, @Nullable MethodHandle setter, int parameterIndex) {
+            this(name, target, setter, parameterIndex, false);
+        }
+
+        public ElementBinding(
+                @NotNull String name,
+                @NotNull Class<?> target,
+                @Nullable MethodHandle setter,
+                int parameterIndex,
+                boolean unboxed
+        ) {
+            this.name = name;
+            this.target = target;
+            this.defaultValue = TypeUtils.getDefaultValue(target);
+            this.setter = setter;
+            this.parameterIndex = parameterIndex;
+            this.unboxed = unboxed;
+        }
+
+        // the setter of an unboxed binding takes the primitive type of the field.
+        public void setUnboxed(@NotNull Object instance, @NotNull ObjectEnumeratorImpl enumerator) throws Throwable {
+            assert setter != null;
+
+            if(target == long.class) {
+                setter.invokeExact(instance, enumerator.nextLong());
+            } else if(target == int.class) {
+                setter.invokeExact(instance, enumerator.nextInt());
+            } else if(target == double.class) {
+                setter.invokeExact(instance, enumerator.nextDouble());
+            } else if(target == boolean.class) {
+                setter.invokeExact(instance, enumerator.nextBoolean());
+            } else if(target == float.class) {
+                setter.invokeExact(instance, enumerator.nextFloat());
+            } else {
+                setter.invokeExact(instance, enumerator.nextShort());
+            }
+        }
+
+        public @Nullable Object convert(@Nullable Object value) throws GelException {
+            if(value == null) {
+                return defaultValue;
+            }
+
+            try {
+                return ObjectBuilder.convertTo(target, value);
+            } catch (GelException error) {
+                throw new NoTypeConverterException(String.format(
+                        "The field '%s' with type '%s' cannot be implicitly assigned to the received data type '%s'",
+                        name, target.getName(), value.getClass().getName()
+                ));
+            }
+        }
+    }
+
+    private static final class FieldDeserializer<T> extends CompiledDeserializer<T> {
+        private final @NotNull MethodHandle ctor;
+        private final @Nullable ElementBinding @NotNull [] bindings;
+
+        public FieldDeserializer(
+                @NotNull Class<T> type,
+                @NotNull MethodHandle ctor,
+                @Nullable ElementBinding @NotNull [] bindings,
+                @NotNull NamingStrategy strategy,
+                boolean useFieldSetters
+        ) {
+            super(type, strategy, useFieldSetters);
+            this.ctor = ctor;
+            this.bindings = bindings;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(@NotNull ObjectEnumeratorImpl enumerator) throws GelException, OperationNotSupportedException {
+            try {
+                var instance = (Object)ctor.invokeExact();
+
+                for(int i = 0; enumerator.hasRemaining(); i++) {
+                    var binding = bindings[i];
+
+                    if(binding == null) {
+                        enumerator.skipValue();
+                        continue;
+                    }
+
+                    if(binding.unboxed) {
+                        binding.setUnboxed(instance, enumerator);
+                        continue;
+                    }
+
+                    assert binding.setter != null;
+                    binding.setter.invokeExact(instance, binding.convert(enumerator.nextValue()));
+                }
+
+                return (T)instance;
+            } catch (GelException | OperationNotSupportedException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable x) {
+                throw wrap(type, x);
+            }
+        }
+    }
+
+    private static final class ConstructorDeserializer<T> extends CompiledDeserializer<T> {
+        private final @NotNull MethodHandle ctor;
+        private final @Nullable ElementBinding @NotNull [] bindings;
+        private final @Nullable Object @NotNull [] defaults;
+
+        public ConstructorDeserializer(
+                @NotNull Class<T> type,
+                @NotNull MethodHandle ctor,
+                @Nullable ElementBinding @NotNull [] bindings,
+                @Nullable Object @NotNull [] defaults,
+                @NotNull NamingStrategy strategy,
+                boolean useFieldSetters
+        ) {
+            super(type, strategy, useFieldSetters);
+            this.ctor = ctor;
+            this.bindings = bindings;
+            this.defaults = defaults;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(@NotNull ObjectEnumeratorImpl enumerator) throws GelException, OperationNotSupportedException {
+            var params = defaults.clone();
+
+            for(int i = 0; enumerator.hasRemaining(); i++) {
+                var binding = bindings[i];
+
+                if(binding == null) {
+                    enumerator.skipValue();
+                    continue;
+                }
+
+                params[binding.parameterIndex] = binding.convert(enumerator.nextValue());
+            }
+
+            try {
+                return (T)(Object)ctor.invokeExact(params);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable x) {
+                throw wrap(type, x);
+            }
+        }
+    }
+}
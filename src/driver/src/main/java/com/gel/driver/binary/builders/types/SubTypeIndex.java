@@ -0,0 +1,127 @@
+package com.gel.driver.binary.builders.types;
+
+import com.gel.driver.GelTypeIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.reflections.Reflections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves sub-types of {@linkplain com.gel.driver.annotations.GelType} annotated types from the
+ * {@linkplain GelTypeIndex} implementations generated at build time.
+ * <br/><br/>
+ * An index only lists the types of its own compilation, so it can only stand in for scanning the classpath location
+ * it was compiled into; sub-types in other locations still have to be found by a scan.
+ */
+public final class SubTypeIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SubTypeIndex.class);
+
+    // the indexes visible to each class loader, types are only ever indexed by the loader that defines them.
+    private static final ConcurrentMap<ClassLoader, Indexes> indexes = new ConcurrentHashMap<>();
+
+    private SubTypeIndex() {}
+
+    /**
+     * Finds the sub-types of the provided type. Sub-types listed in an index visible to the class loader of the type
+     * are merged with the ones found by scanning the classpath location of the type, unless that location was
+     * compiled with an index itself.
+     * @param type The type to find the sub-types of.
+     * @return The sub-types of the type, which may be empty.
+     */
+    public static @NotNull Collection<Class<?>> findSubTypesOf(@NotNull Class<?> type) {
+        var loader = getClassLoader(type);
+        var loaded = indexes.computeIfAbsent(loader, SubTypeIndex::loadIndexes);
+        var subTypes = new LinkedHashSet<Class<?>>();
+
+        for(var indexed : loaded.types) {
+            if(indexed != type && type.isAssignableFrom(indexed)) {
+                subTypes.add(indexed);
+            }
+        }
+
+        var location = getLocation(type);
+
+        if(location == null || !loaded.locations.contains(location)) {
+            logger.debug("{} isn't covered by a Gel type index, scanning the classpath for its sub-types", type.getName());
+            subTypes.addAll(new Reflections(type, loader).getSubTypesOf(type));
+        }
+
+        return subTypes;
+    }
+
+    private static @NotNull ClassLoader getClassLoader(@NotNull Class<?> type) {
+        var loader = type.getClassLoader();
+        return loader == null ? ClassLoader.getSystemClassLoader() : loader;
+    }
+
+    private static @Nullable String getLocation(@NotNull Class<?> type) {
+        try {
+            var source = type.getProtectionDomain().getCodeSource();
+            URL location = source == null ? null : source.getLocation();
+            return location == null ? null : location.toExternalForm();
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    private static @NotNull Indexes loadIndexes(@NotNull ClassLoader loader) {
+        var types = new HashSet<Class<?>>();
+        var locations = new HashSet<String>();
+        var iterator = ServiceLoader.load(GelTypeIndex.class, loader).iterator();
+
+        while(true) {
+            GelTypeIndex index;
+
+            try {
+                if(!iterator.hasNext()) {
+                    break;
+                }
+
+                index = iterator.next();
+            } catch (ServiceConfigurationError e) {
+                logger.warn("Failed to load a Gel type index, skipping it", e);
+                continue;
+            }
+
+            var indexLoader = index.getClass().getClassLoader();
+            var location = getLocation(index.getClass());
+
+            if(location != null) {
+                locations.add(location);
+            }
+
+            for(var name : index.getTypeNames()) {
+                try {
+                    types.add(Class.forName(name, false, indexLoader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    logger.debug("Indexed type {} from {} couldn't be loaded", name, index.getClass().getName(), e);
+                }
+            }
+        }
+
+        logger.debug("Loaded {} indexed Gel type(s) from {} location(s)", types.size(), locations.size());
+
+        return new Indexes(types, locations);
+    }
+
+    private static final class Indexes {
+        private final @NotNull Set<Class<?>> types;
+        private final @NotNull Set<String> locations;
+
+        private Indexes(@NotNull Set<Class<?>> types, @NotNull Set<String> locations) {
+            this.types = types;
+            this.locations = locations;
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.gel.driver.binary.builders.types;
 
+import com.gel.driver.Cardinality;
 import com.gel.driver.ObjectEnumerator;
 import com.gel.driver.annotations.*;
 import com.gel.driver.binary.builders.ObjectBuilder;
 import com.gel.driver.binary.builders.TypeDeserializerFactory;
 import com.gel.driver.binary.builders.internal.ObjectEnumeratorImpl;
-import com.gel.driver.binary.protocol.common.Cardinality;
+import com.gel.driver.binary.codecs.ObjectCodec;
 import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.NoTypeConverterException;
 import com.gel.driver.namingstrategies.NamingStrategy;
@@ -14,7 +15,6 @@ import com.gel.driver.util.StringsUtil;
 import com.gel.driver.util.TypeUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,8 +34,12 @@ public class TypeDeserializerInfo<T> {
     // lazy fields, use getter methods
     private List<FieldInfo> fields;
     private Map<String, Method> setterMethods;
-    private Reflections reflection;
     private Collection<Class<?>> bases;
+    private volatile boolean childrenScanned;
+
+    // set by createFactory, used to bind compiled deserializers
+    private @Nullable Constructor<?> emptyConstructor;
+    private @Nullable Constructor<?> valueConstructor;
 
     private final @NotNull Map<NamingStrategy, NamingStrategyMap<Parameter>> constructorNamingMap;
     private final @NotNull Map<NamingStrategy, NamingStrategyMap<FieldInfo>> fieldNamingMap;
@@ -65,14 +69,6 @@ public class TypeDeserializerInfo<T> {
         this.children = new HashMap<>();
     }
 
-    private synchronized @NotNull Reflections getReflection() {
-        if(reflection == null) {
-            this.reflection = new Reflections(this.type);
-        }
-
-        return this.reflection;
-    }
-
     private synchronized @NotNull Collection<Class<?>> getBases() {
         if(bases == null) {
             var bases = new ArrayList<Class<?>>();
@@ -135,11 +131,20 @@ public class TypeDeserializerInfo<T> {
         return type;
     }
 
+    @SuppressWarnings("unchecked")
     public void scanChildren() {
-        // find potential children
-        var children = getReflection().getSubTypesOf(type);
+        if(childrenScanned) {
+            return;
+        }
+
+        synchronized (this.children) {
+            if(childrenScanned) {
+                return;
+            }
+
+            // find potential children, preferring the build-time index over scanning the classpath.
+            var children = SubTypeIndex.findSubTypesOf(type);
 
-        if(!children.isEmpty()) {
             for (var child : children) {
                 if(child.getAnnotation(GelIgnore.class) != null) {
                     continue;
@@ -151,8 +156,10 @@ public class TypeDeserializerInfo<T> {
                     continue;
                 }
 
-                this.children.putIfAbsent(typeInfo.type.getSimpleName(), typeInfo);
+                this.children.putIfAbsent(typeInfo.type.getSimpleName(), (TypeDeserializerInfo<? extends T>) typeInfo);
             }
+
+            childrenScanned = true;
         }
     }
 
@@ -192,6 +199,8 @@ public class TypeDeserializerInfo<T> {
                 return (enumerator, parent) -> (T)ctor.newInstance(enumerator);
             }
 
+            this.valueConstructor = ctor;
+
             return (enumerator, parent) -> {
                 var namingStrategyEntry = constructorNamingMap.computeIfAbsent(
                         ((ObjectEnumeratorImpl)enumerator).getClient().getConfig().getNamingStrategy(),
@@ -211,7 +220,7 @@ public class TypeDeserializerInfo<T> {
                         inverseIndexer.set(i);
                         params[i] = element.getValue();
                     } else {
-                        unhandled.add(element);
+                        unhandled.add(element.copy());
                     }
                 }
 
@@ -289,6 +298,7 @@ public class TypeDeserializerInfo<T> {
         }
 
         var ctor = emptyCtor.get();
+        this.emptyConstructor = ctor;
 
         return (enumerator, parent) -> {
             var namingStrategyEntry = fieldNamingMap.computeIfAbsent(
@@ -312,6 +322,47 @@ public class TypeDeserializerInfo<T> {
         };
     }
 
+    /**
+     * Binds a {@linkplain CompiledDeserializer} for this type to the element layout of the provided codec.
+     * @param codec The object codec the deserializer will read from.
+     * @param strategy The naming strategy used to match codec elements to fields or constructor parameters.
+     * @param useFieldSetters Whether setter methods should be preferred over setting fields directly.
+     * @return A compiled deserializer, or {@code null} if this type can't be deserialized without the reflective
+     * factory.
+     */
+    public @Nullable CompiledDeserializer<T> compile(@NotNull ObjectCodec codec, @NotNull NamingStrategy strategy, boolean useFieldSetters) {
+        try {
+            if(valueConstructor != null) {
+                return CompiledDeserializer.forConstructor(
+                        type, valueConstructor, getConstructorMap(strategy), codec, strategy, useFieldSetters
+                );
+            }
+
+            if(emptyConstructor != null) {
+                return CompiledDeserializer.forFields(
+                        type, emptyConstructor, getFieldMap(strategy), codec, strategy, useFieldSetters
+                );
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            logger.debug("Unable to compile a deserializer for {}, using the reflective factory", type.getName(), e);
+        }
+
+        return null;
+    }
+
+    public @NotNull NamingStrategyMap<Parameter> getConstructorMap(NamingStrategy strategy) {
+        if(valueConstructor == null) {
+            throw new IllegalStateException(type.getName() + " has no value constructor");
+        }
+
+        var ctor = valueConstructor;
+
+        return constructorNamingMap.computeIfAbsent(
+                strategy,
+                (n) -> new NamingStrategyMap<>(n, (v) -> getNameOrAnnotated(v, Parameter::getName), ctor.getParameters())
+        );
+    }
+
     public @NotNull NamingStrategyMap<FieldInfo> getFieldMap(NamingStrategy strategy) {
         return fieldNamingMap.computeIfAbsent(
                 strategy,
@@ -394,6 +445,10 @@ public class TypeDeserializerInfo<T> {
             throw new GelException("Cannot find element type of the collection " + cls.getName());
         }
 
+        public @Nullable Method getSetMethod() {
+            return setMethod;
+        }
+
         public @NotNull String getFieldName() {
             return this.field.getName();
         }
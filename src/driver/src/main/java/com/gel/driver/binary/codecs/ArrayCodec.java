@@ -13,7 +13,7 @@ import java.lang.reflect.Array;
 import java.util.UUID;
 
 public class ArrayCodec<T> extends CodecBase<T[]> {
-    private static final byte[] EMPTY_ARRAY = new byte[] {
+    static final byte[] EMPTY_ARRAY = new byte[] {
             0,0,0,0,
             0,0,0,0,
             0,0,0,0,
@@ -29,6 +29,20 @@ public class ArrayCodec<T> extends CodecBase<T[]> {
         this.innerCodec = (Codec<T>) codec;
     }
 
+    /**
+     * Creates the codec of an array type, arrays of fixed-width scalars requested as primitive arrays are handled by a
+     * {@linkplain PrimitiveArrayCodec}.
+     * @param id The id of the codec.
+     * @param metadata The metadata of the codec.
+     * @param cls The array type of the codec.
+     * @param codec The codec of the elements.
+     * @return A codec for the array type.
+     */
+    public static @NotNull Codec<?> create(UUID id, @Nullable CodecMetadata metadata, Class<?> cls, Codec<?> codec) {
+        var primitiveCodec = PrimitiveArrayCodec.create(id, metadata, cls, codec);
+        return primitiveCodec != null ? primitiveCodec : new ArrayCodec<>(id, metadata, cls, codec);
+    }
+
     @Override
     public void serialize(@NotNull PacketWriter writer, T @Nullable [] value, CodecContext context) throws OperationNotSupportedException, GelException {
         if(value == null) {
@@ -1,7 +1,9 @@
 package com.gel.driver.binary.codecs;
 
+import com.gel.driver.binary.builders.CodecBuilder;
 import com.gel.driver.binary.codecs.visitors.TypeVisitor;
 import com.gel.driver.clients.GelBinaryClient;
+import com.gel.driver.exceptions.GelException;
 import org.jetbrains.annotations.NotNull;
 
 public final class CodecContext {
@@ -14,4 +16,21 @@ public final class CodecContext {
     public @NotNull TypeVisitor getTypeVisitor() {
         return new TypeVisitor(this.client);
     }
+
+    /**
+     * Visits a codec with a target type, reusing the result of a previous visit with the same type when possible.
+     * @param codec The codec to visit.
+     * @param type The type the codec should work with.
+     * @return The visited codec.
+     * @throws GelException The codec couldn't be visited with the target type.
+     */
+    public @NotNull Codec<?> visit(@NotNull Codec<?> codec, @NotNull Class<?> type) throws GelException {
+        if(this.client == null) {
+            var visitor = getTypeVisitor();
+            visitor.setTargetType(type);
+            return visitor.visit(codec);
+        }
+
+        return CodecBuilder.getVisitedCodec(this.client, codec, type);
+    }
 }
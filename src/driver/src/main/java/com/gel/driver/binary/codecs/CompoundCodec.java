@@ -50,8 +50,6 @@ public class CompoundCodec extends CodecBase<Object> {
 
         writer.write(collection.length);
 
-        var visitor = context.getTypeVisitor();
-
         for(int i = 0; i != collection.length; i++) {
             writer.write(0); // reserved
 
@@ -62,9 +60,7 @@ public class CompoundCodec extends CodecBase<Object> {
                 continue;
             }
 
-            visitor.setTargetType(elementValue.getClass());
-            Codec codec = visitor.visit(this.innerCodecs[i]);
-            visitor.reset();
+            Codec codec = context.visit(this.innerCodecs[i], elementValue.getClass());
 
             writer.writeDelegateWithLength((v) -> codec.serialize(v, elementValue, context));
         }
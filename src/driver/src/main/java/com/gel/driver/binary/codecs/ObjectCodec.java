@@ -1,11 +1,12 @@
 package com.gel.driver.binary.codecs;
 
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.PacketWriter;
 import com.gel.driver.binary.builders.internal.ObjectEnumeratorImpl;
+import com.gel.driver.binary.builders.types.CompiledDeserializer;
 import com.gel.driver.binary.builders.types.TypeBuilder;
 import com.gel.driver.binary.builders.types.TypeDeserializerInfo;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.binary.protocol.common.descriptors.CodecMetadata;
 import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.NoTypeConverterException;
@@ -29,6 +30,9 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
         private final Class<?> target;
         private final @NotNull ObjectCodec parent;
 
+        private volatile @Nullable CompiledDeserializer<?> compiled;
+        private volatile boolean compilable = true;
+
         public TypeInitializedObjectCodec(@NotNull Class<?> target, @NotNull ObjectCodec parent) throws GelException {
             super(parent);
 
@@ -49,6 +53,24 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
             this.deserializer = info;
         }
 
+        private TypeInitializedObjectCodec(@NotNull TypeInitializedObjectCodec other, ObjectProperty[] elements) {
+            super(other, elements);
+
+            this.parent = other.parent;
+            this.target = other.target;
+            this.deserializer = other.deserializer;
+        }
+
+        /**
+         * Creates a copy of this codec with different element codecs, used by the type visitor so that visiting a
+         * codec doesn't modify the instance shared with every other query and target type.
+         * @param elements The elements of the copy.
+         * @return A new codec, with the same target type as this one.
+         */
+        public @NotNull TypeInitializedObjectCodec withElements(ObjectProperty[] elements) {
+            return new TypeInitializedObjectCodec(this, elements);
+        }
+
         @Override
         public @Nullable Object deserialize(@NotNull PacketReader reader, CodecContext context) throws GelException {
             assert deserializer != null;
@@ -56,12 +78,42 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
             var enumerator = new ObjectEnumeratorImpl(reader, this, context);
 
             try {
+                var compiled = getCompiledDeserializer(context);
+
+                if(compiled != null) {
+                    return compiled.deserialize(enumerator);
+                }
+
                 return deserializer.factory.deserialize(enumerator);
             } catch (Exception x) {
                 throw new GelException("Failed to deserialize " + target.getName(), x);
             }
         }
 
+        private @Nullable CompiledDeserializer<?> getCompiledDeserializer(CodecContext context) {
+            if(!compilable || context.client == null || !context.client.getConfig().useCompiledDeserializers()) {
+                return null;
+            }
+
+            assert deserializer != null;
+
+            var config = context.client.getConfig();
+            var compiled = this.compiled;
+
+            if(compiled == null || !compiled.isBoundTo(config.getNamingStrategy(), config.useFieldSetters())) {
+                compiled = deserializer.compile(this, config.getNamingStrategy(), config.useFieldSetters());
+
+                if(compiled == null) {
+                    this.compilable = false;
+                    return null;
+                }
+
+                this.compiled = compiled;
+            }
+
+            return compiled;
+        }
+
         public Class<?> getTarget() {
             return target;
         }
@@ -78,7 +130,7 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
     public static final class ObjectProperty {
         public final String name;
         public final @Nullable Cardinality cardinality;
-        public Codec<?> codec;
+        public final Codec<?> codec;
         public ObjectProperty(String name, Codec<?> codec, @Nullable Cardinality cardinality) {
             this.name = name;
             this.codec = codec;
@@ -88,19 +140,34 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
 
     public final @Nullable UUID typeId;
     public final ObjectProperty[] elements;
+
+    /**
+     * The names of {@linkplain #elements}, shared by every object decoded by this codec.
+     */
+    public final String[] names;
     private final @NotNull ConcurrentMap<Class<?>, TypeInitializedObjectCodec> typeCodecs;
 
     public ObjectCodec(UUID shapeId, @Nullable UUID typeId, @Nullable CodecMetadata metadata, ObjectProperty... elements) {
         super(shapeId, metadata, Object.class);
         this.typeId = typeId;
         this.elements = elements;
+        this.names = new String[elements.length];
         this.typeCodecs = new ConcurrentHashMap<>();
+
+        for(int i = 0; i != elements.length; i++) {
+            this.names[i] = elements[i].name;
+        }
     }
 
     private ObjectCodec(ObjectCodec other) {
+        this(other, other.elements);
+    }
+
+    private ObjectCodec(ObjectCodec other, ObjectProperty[] elements) {
         super(other.id, other.metadata, Object.class);
         this.typeId = other.typeId;
-        this.elements = other.elements;
+        this.elements = elements;
+        this.names = other.names; // specialized elements keep their names
         this.typeCodecs = other.typeCodecs;
     }
 
@@ -154,8 +221,6 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
 
         writer.write(value.size());
 
-        var visitor = context.getTypeVisitor();
-
         for(int i = 0; i != value.size(); i++) {
             var element = this.elements[i];
 
@@ -173,9 +238,7 @@ public class ObjectCodec extends CodecBase<Object> implements ArgumentCodec<Obje
                 continue;
             }
 
-            visitor.setTargetType(elementValue.getClass());
-            var codec = (Codec)visitor.visit(element.codec);
-            visitor.reset();
+            var codec = (Codec)context.visit(element.codec, elementValue.getClass());
 
             writer.writeDelegateWithLength((v) -> codec.serialize(v, elementValue, context));
         }
@@ -0,0 +1,193 @@
+package com.gel.driver.binary.codecs;
+
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.PacketWriter;
+import com.gel.driver.binary.codecs.scalars.Float32Codec;
+import com.gel.driver.binary.codecs.scalars.Float64Codec;
+import com.gel.driver.binary.codecs.scalars.Integer16Codec;
+import com.gel.driver.binary.codecs.scalars.Integer32Codec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.binary.protocol.common.descriptors.CodecMetadata;
+import com.gel.driver.exceptions.GelException;
+import com.gel.driver.util.BinaryProtocolUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.naming.OperationNotSupportedException;
+import java.lang.reflect.Array;
+import java.util.UUID;
+
+/**
+ * An array codec for fixed-width scalars, used when the result type is an array of the matching primitive type:
+ * {@code short[]} for {@code int16}, {@code int[]} for {@code int32}, {@code long[]} for {@code int64},
+ * {@code float[]} for {@code float32} and {@code double[]} for {@code float64}.
+ * <br/><br/>
+ * Elements are read straight from the buffer into the primitive array, without boxing them or slicing the buffer
+ * for each of them.
+ */
+public final class PrimitiveArrayCodec extends CodecBase<Object> {
+    private final @NotNull Class<?> componentType;
+    private final int elementSize;
+
+    @SuppressWarnings("unchecked")
+    private PrimitiveArrayCodec(UUID id, @Nullable CodecMetadata metadata, @NotNull Class<?> componentType, int elementSize) {
+        super(id, metadata, (Class<Object>) Array.newInstance(componentType, 0).getClass());
+        this.componentType = componentType;
+        this.elementSize = elementSize;
+    }
+
+    /**
+     * Creates a primitive array codec if the array type and the element codec are supported.
+     * @param id The id of the array codec.
+     * @param metadata The metadata of the array codec.
+     * @param cls The array type to decode to, or its component type: the type visitor compiles array properties of
+     *            objects with the element type of the field.
+     * @param innerCodec The codec of the elements of the array.
+     * @return A primitive array codec, or {@code null} if {@code cls} isn't the primitive array type of the element
+     * codec.
+     */
+    public static @Nullable PrimitiveArrayCodec create(
+            UUID id, @Nullable CodecMetadata metadata, @NotNull Class<?> cls, @NotNull Codec<?> innerCodec
+    ) {
+        var componentType = cls.isArray() ? cls.getComponentType() : cls;
+
+        if(!componentType.isPrimitive()) {
+            return null;
+        }
+
+        if(componentType == short.class && innerCodec instanceof Integer16Codec) {
+            return new PrimitiveArrayCodec(id, metadata, componentType, Short.BYTES);
+        } else if(componentType == int.class && innerCodec instanceof Integer32Codec) {
+            return new PrimitiveArrayCodec(id, metadata, componentType, Integer.BYTES);
+        } else if(componentType == long.class && innerCodec instanceof Integer64Codec) {
+            return new PrimitiveArrayCodec(id, metadata, componentType, Long.BYTES);
+        } else if(componentType == float.class && innerCodec instanceof Float32Codec) {
+            return new PrimitiveArrayCodec(id, metadata, componentType, Float.BYTES);
+        } else if(componentType == double.class && innerCodec instanceof Float64Codec) {
+            return new PrimitiveArrayCodec(id, metadata, componentType, Double.BYTES);
+        }
+
+        return null;
+    }
+
+    @Override
+    public void serialize(@NotNull PacketWriter writer, @Nullable Object value, CodecContext context) throws OperationNotSupportedException, GelException {
+        if(value == null) {
+            writer.writeArrayWithoutLength(ArrayCodec.EMPTY_ARRAY);
+            return;
+        }
+
+        var length = Array.getLength(value);
+
+        writer.write(1); // num dimensions
+        writer.write(0); // reserved
+        writer.write(0); // reserved
+
+        // dimensions: length for upper, 1 for lower
+        writer.write(length);
+        writer.write(1);
+
+        if(componentType == short.class) {
+            for(var element : (short[])value) {
+                writer.write(elementSize);
+                writer.write(element);
+            }
+        } else if(componentType == int.class) {
+            for(var element : (int[])value) {
+                writer.write(elementSize);
+                writer.write(element);
+            }
+        } else if(componentType == long.class) {
+            for(var element : (long[])value) {
+                writer.write(elementSize);
+                writer.write(element);
+            }
+        } else if(componentType == float.class) {
+            for(var element : (float[])value) {
+                writer.write(elementSize);
+                writer.write(element);
+            }
+        } else {
+            for(var element : (double[])value) {
+                writer.write(elementSize);
+                writer.write(element);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull Object deserialize(@NotNull PacketReader reader, CodecContext context) throws GelException {
+        var dimensions = reader.readInt32();
+
+        reader.skip(BinaryProtocolUtils.LONG_SIZE); // reserved
+
+        var numElements = 0;
+
+        if(dimensions != 0) {
+            var upper = reader.readInt32();
+            var lower = reader.readInt32();
+
+            numElements = upper - lower + 1;
+        }
+
+        // each element is its length followed by its value, every length is the same.
+        if(numElements < 0 || reader.size() - reader.position() < (long)numElements * (BinaryProtocolUtils.INT_SIZE + elementSize)) {
+            throw new GelException("Array data is shorter than its " + numElements + " elements");
+        }
+
+        if(componentType == short.class) {
+            var array = new short[numElements];
+
+            for(int i = 0; i != numElements; i++) {
+                checkElementSize(reader.readInt32());
+                array[i] = reader.readInt16();
+            }
+
+            return array;
+        } else if(componentType == int.class) {
+            var array = new int[numElements];
+
+            for(int i = 0; i != numElements; i++) {
+                checkElementSize(reader.readInt32());
+                array[i] = reader.readInt32();
+            }
+
+            return array;
+        } else if(componentType == long.class) {
+            var array = new long[numElements];
+
+            for(int i = 0; i != numElements; i++) {
+                checkElementSize(reader.readInt32());
+                array[i] = reader.readInt64();
+            }
+
+            return array;
+        } else if(componentType == float.class) {
+            var array = new float[numElements];
+
+            for(int i = 0; i != numElements; i++) {
+                checkElementSize(reader.readInt32());
+                array[i] = reader.readFloat();
+            }
+
+            return array;
+        } else {
+            var array = new double[numElements];
+
+            for(int i = 0; i != numElements; i++) {
+                checkElementSize(reader.readInt32());
+                array[i] = reader.readDouble();
+            }
+
+            return array;
+        }
+    }
+
+    private void checkElementSize(int size) throws GelException {
+        if(size != elementSize) {
+            throw new GelException(String.format(
+                    "Expected an array element of %d bytes for %s, got %d", elementSize, componentType.getName(), size
+            ));
+        }
+    }
+}
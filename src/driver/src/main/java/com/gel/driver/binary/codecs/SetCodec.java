@@ -36,7 +36,7 @@ public final class SetCodec<T> extends CodecBase<Collection<T>> {
         return deserializeSet(
                 reader,
                 context,
-                innerCodec instanceof ArrayCodec<?>
+                innerCodec instanceof ArrayCodec<?> || innerCodec instanceof PrimitiveArrayCodec
                         ? this::deserializeEnvelopeElement
                         : this::deserializeSetElement
         );
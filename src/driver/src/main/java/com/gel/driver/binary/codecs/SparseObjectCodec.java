@@ -39,8 +39,6 @@ public final class SparseObjectCodec extends CodecBase<Map<String, ?>> {
 
         writer.write(value.size());
 
-        var visitor = context.getTypeVisitor();
-
         for(var element : value.entrySet()) {
             if(!propertyNamesMap.containsKey(element.getKey())) {
                 continue;
@@ -55,9 +53,7 @@ public final class SparseObjectCodec extends CodecBase<Map<String, ?>> {
                 continue;
             }
 
-            visitor.setTargetType(element.getValue().getClass());
-            var codec = (Codec)visitor.visit(innerCodecs[index]);
-            visitor.reset();
+            var codec = (Codec)context.visit(innerCodecs[index], element.getValue().getClass());
 
             writer.writeDelegateWithLength(v -> codec.serialize(v, element.getValue(), context));
         }
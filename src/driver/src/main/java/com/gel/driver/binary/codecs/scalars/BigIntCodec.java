@@ -4,87 +4,71 @@ import com.gel.driver.binary.PacketWriter;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.codecs.CodecContext;
 import com.gel.driver.binary.protocol.common.descriptors.CodecMetadata;
-import com.gel.driver.util.StringsUtil;
+import com.gel.driver.exceptions.GelException;
 import com.gel.driver.util.BinaryProtocolUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.joou.UShort;
 
 import javax.naming.OperationNotSupportedException;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
-import static org.joou.Unsigned.uint;
-import static org.joou.Unsigned.ushort;
+import static com.gel.driver.binary.codecs.scalars.NumericDigits.*;
 
 public final class BigIntCodec extends ScalarCodecBase<BigInteger> {
     public static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000110");
-    private static final BigInteger BASE = new BigInteger("10000");
 
     public BigIntCodec(@Nullable CodecMetadata metadata) {
         super(ID, metadata, BigInteger.class);
     }
 
     @Override
-    public void serialize(@NotNull PacketWriter writer, @Nullable BigInteger value, CodecContext context) throws OperationNotSupportedException {
+    public void serialize(@NotNull PacketWriter writer, @Nullable BigInteger value, CodecContext context) throws OperationNotSupportedException, GelException {
         if(value == null) {
             return;
         }
 
-        if(value.compareTo(BigInteger.ZERO) == 0) {
-            writer.write(uint(0)); // nDigits & weight
-            writer.write(ushort(0x0000)); // pos
-            writer.write(ushort(0)); // reserved
-            return;
-        }
-
-        var isPos = value.signum() == 1;
-        var abs = value.abs();
-
-        List<UShort> digits = new ArrayList<>();
+        var digits = toDigits(value.abs(), 0);
+        var numDigits = digits.length - countTrailingZeros(digits);
+        var weight = numDigits == 0 ? 0 : digits.length - 1;
 
-        while(abs.compareTo(BigInteger.ZERO) != 0) {
-            var mod = abs.mod(BASE);
-            abs = abs.divide(BASE);
-            digits.add((ushort(mod.intValue())));
+        if(weight > Short.MAX_VALUE) {
+            throw new GelException(value + " is out of range for a bigint");
         }
 
-        writer.write(ushort(digits.size()));
-        writer.write((short) (digits.size() - 1));
-        writer.write(ushort(isPos ? 0x0000 : 0x4000));
-        writer.write(ushort(0));
+        writer.write((short)numDigits);
+        writer.write((short)weight);
+        writer.write((short)(value.signum() == -1 ? SIGN_NEGATIVE : SIGN_POSITIVE));
+        writer.write((short)0); // reserved
 
-        for(int i = digits.size() - 1; i >= 0; i--) {
-            writer.write(digits.get(i));
-        }
+        NumericDigits.write(writer, digits, numDigits);
     }
 
     @Override
-    public @NotNull BigInteger deserialize(@NotNull PacketReader reader, CodecContext context) {
-        var nDigits = reader.readUInt16().intValue();
+    public @NotNull BigInteger deserialize(@NotNull PacketReader reader, CodecContext context) throws GelException {
+        var numDigits = reader.readInt16() & 0xFFFF;
         var weight = reader.readInt16();
-        var isPos = reader.readUInt16().compareTo(ushort(0)) == 0;
+        var isNegative = readIsNegative(reader);
 
         // reserved
         reader.skip(BinaryProtocolUtils.SHORT_SIZE);
 
-        StringBuilder result = new StringBuilder(isPos ? "" : "-");
+        // digits below 10000^0 would be a fraction, they're never sent for a bigint.
+        var integralDigits = Math.max(Math.min(numDigits, weight + 1), 0);
+
+        var value = integralDigits <= LONG_DIGITS
+                ? BigInteger.valueOf(readLong(reader, integralDigits))
+                : readBigInteger(reader, integralDigits);
+
+        reader.skip((numDigits - integralDigits) * BinaryProtocolUtils.SHORT_SIZE);
 
-        int i = weight, d = 0;
+        // trailing zero digits aren't sent.
+        var trailingZeros = weight + 1 - integralDigits;
 
-        while(i >= 0) {
-            if(i <= weight && d < nDigits) {
-                var digit = Integer.toString(reader.readUInt16().intValue());
-                result.append(d > 0 ? StringsUtil.padLeft(digit, '0', 4) : digit);
-                d++;
-            } else {
-                result.append("0000");
-            }
-            i--;
+        if(trailingZeros > 0) {
+            value = value.multiply(BigInteger.TEN.pow(4 * trailingZeros));
         }
 
-        return new BigInteger(result.toString());
+        return isNegative ? value.negate() : value;
     }
 }
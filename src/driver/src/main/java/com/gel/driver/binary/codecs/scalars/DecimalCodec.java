@@ -4,19 +4,22 @@ import com.gel.driver.binary.PacketWriter;
 import com.gel.driver.binary.codecs.CodecContext;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.protocol.common.descriptors.CodecMetadata;
-import com.gel.driver.util.StringsUtil;
+import com.gel.driver.exceptions.GelException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.joou.UShort;
 
 import javax.naming.OperationNotSupportedException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.UUID;
 
-import static org.joou.Unsigned.ushort;
+import static com.gel.driver.binary.codecs.scalars.NumericDigits.*;
 
 public final class DecimalCodec extends ScalarCodecBase<BigDecimal> {
     public static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000108");
+
+    private static final int MAX_DISPLAY_SCALE = 0x3FFF;
+
     public DecimalCodec(@Nullable CodecMetadata metadata) {
         super(ID, metadata, BigDecimal.class);
     }
@@ -26,80 +29,58 @@ public final class DecimalCodec extends ScalarCodecBase<BigDecimal> {
             @NotNull PacketWriter writer,
             @Nullable BigDecimal value,
             CodecContext context
-    ) throws OperationNotSupportedException {
+    ) throws OperationNotSupportedException, GelException {
         if(value == null) {
             return;
         }
 
-        var str = value.toPlainString();
-        var spl = str.split("\\.");
-        var integral = spl[0].charAt(0) == '-' ? spl[0].substring(1) : spl[0];
-        var frac = spl.length > 1 ? spl[1] : "";
-
-        var sDigits =
-                StringsUtil.padLeft(integral, '0', (int)Math.ceil(integral.length() / 4d) * 4) +
-                StringsUtil.padRight(frac, '0', (int)Math.ceil(frac.length() / 4d) * 4);
+        var displayScale = Math.max(value.scale(), 0);
 
-        UShort[] digits = new UShort[sDigits.length() / 4];
-
-        for (int i = 0; i < sDigits.length(); i += 4) {
-            digits[i / 4] = ushort(Integer.parseInt(sDigits.substring(i, i+4)));
+        if(displayScale > MAX_DISPLAY_SCALE) {
+            throw new GelException("The scale of " + value + " is out of range for a decimal");
         }
 
-        var nDigits = ushort(digits.length);
-        var weight = (short)(Math.ceil(integral.length() / 4d) - 1);
-        var sign = ushort(value.signum() == -1 ? 0x4000 : 0x0000);
-        var dScale = (short)frac.length();
+        // value = unscaled * 10^exponent = (unscaled * 10^shift) * 10000^groupExponent
+        var exponent = -(long)value.scale();
+        var groupExponent = Math.floorDiv(exponent, 4);
+        var digits = toDigits(value.unscaledValue().abs(), (int)Math.floorMod(exponent, 4));
 
-        writer.write(nDigits);
-        writer.write(weight);
-        writer.write(sign);
-        writer.write(dScale);
+        var numDigits = digits.length - countTrailingZeros(digits);
+        var weight = numDigits == 0 ? 0 : digits.length - 1 + groupExponent;
 
-        for (var digit : digits) {
-            writer.write(digit);
+        if(weight < Short.MIN_VALUE || weight > Short.MAX_VALUE || numDigits > 0xFFFF) {
+            throw new GelException(value + " is out of range for a decimal");
         }
+
+        writer.write((short)numDigits);
+        writer.write((short)weight);
+        writer.write((short)(value.signum() == -1 ? SIGN_NEGATIVE : SIGN_POSITIVE));
+        writer.write((short)displayScale);
+
+        NumericDigits.write(writer, digits, numDigits);
     }
 
     @Override
-    public @NotNull BigDecimal deserialize(@NotNull PacketReader reader, CodecContext context) {
-        var numDigits = reader.readUInt16().intValue();
+    public @NotNull BigDecimal deserialize(@NotNull PacketReader reader, CodecContext context) throws GelException {
+        var numDigits = reader.readInt16() & 0xFFFF;
         var weight = reader.readInt16();
-        var isPos = reader.readUInt16().compareTo(ushort(0)) == 0;
-        var displayScale = reader.readUInt16().intValue();
+        var isNegative = readIsNegative(reader);
+        var displayScale = reader.readInt16() & 0xFFFF;
 
-        StringBuilder value = new StringBuilder(isPos ? "" : "-");
+        // the last digit is multiplied by 10000^(weight - numDigits + 1)
+        var scale = 4 * (numDigits - 1 - weight);
 
-        int d;
+        BigDecimal value;
 
-        if(weight < 0) {
-            d = weight + 1;
-            value.append("0");
+        if(numDigits <= LONG_DIGITS) {
+            var unscaled = readLong(reader, numDigits);
+            value = BigDecimal.valueOf(isNegative ? -unscaled : unscaled, scale);
         } else {
-            for(d = 0; d <= weight; d++) {
-                var digit = d < numDigits ? reader.readUInt16() : 0;
-                var sDigit = Integer.toString(digit.intValue());
-                if(d > 0) {
-                    sDigit = StringsUtil.padLeft(sDigit, '0', 4);
-                }
-                value.append(sDigit);
-            }
-        }
-
-        if(displayScale > 0) {
-            // seems like the code from `BigDecimal` doesn't use the locale decimal point, parsing to and from must
-            // be done with a literal '.'.
-            value.append('.');
-
-            var end = value.length() + displayScale;
-            for(int i = 0; i < displayScale; d++, i += 4) {
-                var digit = d >= 0 && d < numDigits ? reader.readUInt16().intValue() : 0;
-                value.append(StringsUtil.padLeft(Integer.toString(digit), '0', 4));
-            }
-
-            value.delete(end, value.length());
+            var unscaled = readBigInteger(reader, numDigits);
+            value = new BigDecimal(isNegative ? unscaled.negate() : unscaled, scale);
         }
 
-        return new BigDecimal(value.toString());
+        // digits past the display scale are padding.
+        return value.setScale(displayScale, RoundingMode.DOWN);
     }
 }
@@ -33,12 +33,10 @@ public class JsonCodec extends ScalarCodecBase<Json> {
     public @Nullable Json deserialize(@NotNull PacketReader reader, CodecContext context) {
         reader.skip(BinaryProtocolUtils.BYTE_SIZE);
 
-        var data = reader.consumeByteArray();
-
-        if(data.length == 0) {
+        if(reader.isEmpty()) {
             return null;
         }
 
-        return new Json(new String(data, StandardCharsets.UTF_8));
+        return new Json(reader.consumeString());
     }
 }
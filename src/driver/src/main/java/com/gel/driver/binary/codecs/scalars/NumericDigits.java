@@ -0,0 +1,190 @@
+package com.gel.driver.binary.codecs.scalars;
+
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.PacketWriter;
+import com.gel.driver.exceptions.GelException;
+import org.jetbrains.annotations.NotNull;
+
+import javax.naming.OperationNotSupportedException;
+import java.math.BigInteger;
+
+/**
+ * Converts integers to and from the base 10000 digits of the {@code numeric} wire format used by
+ * {@linkplain DecimalCodec} and {@linkplain BigIntCodec}. Digits are ordered most significant first.
+ */
+final class NumericDigits {
+    static final int BASE = 10000;
+    static final int SIGN_POSITIVE = 0x0000;
+    static final int SIGN_NEGATIVE = 0x4000;
+
+    /**
+     * The largest number of digits that always fits a {@code long}.
+     */
+    static final int LONG_DIGITS = 4;
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000};
+
+    // BASE^LONG_DIGITS, big integers are split into long chunks of this size.
+    private static final long CHUNK = 10_000_000_000_000_000L;
+    private static final BigInteger BIG_CHUNK = BigInteger.valueOf(CHUNK);
+
+    private static final short[] NO_DIGITS = new short[0];
+
+    private NumericDigits() {}
+
+    /**
+     * Gets the base 10000 digits of {@code magnitude * 10^shift}.
+     * @param magnitude A non-negative integer.
+     * @param shift A power of ten, between 0 and 3, to multiply the magnitude by.
+     * @return The digits, without leading zeros; zero has no digits.
+     */
+    static short @NotNull [] toDigits(@NotNull BigInteger magnitude, int shift) {
+        // 2^50 * 1000 still fits a long.
+        if(magnitude.bitLength() <= 50) {
+            return toDigits(magnitude.longValue() * POWERS_OF_TEN[shift]);
+        }
+
+        if(shift != 0) {
+            magnitude = magnitude.multiply(BigInteger.valueOf(POWERS_OF_TEN[shift]));
+        }
+
+        // log10(2) < 0.302, one more chunk covers the rounding.
+        var chunks = new long[(int)(magnitude.bitLength() * 0.302 / 16) + 2];
+        var count = 0;
+
+        while(magnitude.signum() != 0) {
+            var division = magnitude.divideAndRemainder(BIG_CHUNK);
+            chunks[count++] = division[1].longValue();
+            magnitude = division[0];
+        }
+
+        var top = chunks[count - 1];
+        var topDigits = countDigits(top);
+        var digits = new short[topDigits + (count - 1) * LONG_DIGITS];
+
+        writeDigits(top, digits, 0, topDigits);
+
+        for(int i = count - 2, offset = topDigits; i >= 0; i--, offset += LONG_DIGITS) {
+            writeDigits(chunks[i], digits, offset, LONG_DIGITS);
+        }
+
+        return digits;
+    }
+
+    /**
+     * Gets the base 10000 digits of a non-negative {@code long}.
+     * @param value A non-negative integer.
+     * @return The digits, without leading zeros; zero has no digits.
+     */
+    static short @NotNull [] toDigits(long value) {
+        if(value == 0) {
+            return NO_DIGITS;
+        }
+
+        var digits = new short[countDigits(value)];
+        writeDigits(value, digits, 0, digits.length);
+        return digits;
+    }
+
+    /**
+     * Counts the zero digits at the end of {@code digits}.
+     * @param digits The digits to check.
+     * @return The number of trailing zero digits.
+     */
+    static int countTrailingZeros(short @NotNull [] digits) {
+        var count = 0;
+
+        while(count < digits.length && digits[digits.length - 1 - count] == 0) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes the first {@code count} digits of {@code digits}.
+     * @param writer The writer to write to.
+     * @param digits The digits to write.
+     * @param count The number of digits to write.
+     * @throws OperationNotSupportedException The write operation isn't allowed.
+     */
+    static void write(@NotNull PacketWriter writer, short @NotNull [] digits, int count) throws OperationNotSupportedException {
+        for(int i = 0; i != count; i++) {
+            writer.write(digits[i]);
+        }
+    }
+
+    /**
+     * Reads the sign of a {@code numeric} value.
+     * @param reader The reader to read from.
+     * @return {@code true} if the value is negative, otherwise {@code false}.
+     * @throws GelException The value isn't a number.
+     */
+    static boolean readIsNegative(@NotNull PacketReader reader) throws GelException {
+        var sign = reader.readInt16() & 0xFFFF;
+
+        if(sign == SIGN_NEGATIVE) {
+            return true;
+        } else if(sign == SIGN_POSITIVE) {
+            return false;
+        }
+
+        throw new GelException(String.format("Unsupported numeric sign 0x%04X", sign));
+    }
+
+    /**
+     * Reads up to {@linkplain #LONG_DIGITS} digits as a single integer.
+     * @param reader The reader to read from.
+     * @param count The number of digits to read.
+     * @return The integer made of the digits.
+     */
+    static long readLong(@NotNull PacketReader reader, int count) {
+        long value = 0;
+
+        for(int i = 0; i != count; i++) {
+            value = value * BASE + reader.readInt16();
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads any number of digits as a single integer.
+     * @param reader The reader to read from.
+     * @param count The number of digits to read.
+     * @return The integer made of the digits.
+     */
+    static @NotNull BigInteger readBigInteger(@NotNull PacketReader reader, int count) {
+        var head = count % LONG_DIGITS;
+
+        if(head == 0) {
+            head = LONG_DIGITS;
+        }
+
+        var value = BigInteger.valueOf(readLong(reader, head));
+
+        for(int remaining = count - head; remaining != 0; remaining -= LONG_DIGITS) {
+            value = value.multiply(BIG_CHUNK).add(BigInteger.valueOf(readLong(reader, LONG_DIGITS)));
+        }
+
+        return value;
+    }
+
+    private static int countDigits(long value) {
+        var count = 0;
+
+        while(value != 0) {
+            value /= BASE;
+            count++;
+        }
+
+        return count;
+    }
+
+    private static void writeDigits(long value, short @NotNull [] digits, int offset, int count) {
+        for(int i = offset + count - 1; i >= offset; i--) {
+            digits[i] = (short)(value % BASE);
+            value /= BASE;
+        }
+    }
+}
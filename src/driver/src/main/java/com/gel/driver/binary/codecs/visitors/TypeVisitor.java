@@ -32,6 +32,19 @@ public final class TypeVisitor implements CodecVisitor {
         this.frames.clear();
     }
 
+    /**
+     * Checks whether the result of visiting a codec depends on the target type.
+     * @param codec The codec to check.
+     * @return {@code true} if visiting the codec can return a different codec, otherwise {@code false}.
+     */
+    public static boolean isTypeDependent(@NotNull Codec<?> codec) {
+        return codec instanceof TupleCodec ||
+                codec instanceof ObjectCodec ||
+                codec instanceof CompilableCodec ||
+                codec instanceof ComplexCodec ||
+                codec instanceof RuntimeCodec;
+    }
+
     @Override
     public Codec<?> visit(@NotNull Codec<?> codec) throws GelException {
         if (getContext().type.equals(Void.class)) {
@@ -56,8 +69,13 @@ public final class TypeVisitor implements CodecVisitor {
     }
 
     private static @NotNull Codec<?> visitTupleCodec(@NotNull TypeVisitor visitor, @NotNull TupleCodec codec) throws GelException {
+        // the codec is shared by every query using it, so visited inner codecs go into a copy.
+        Codec<?>[] innerCodecs = null;
+
         for(int i = 0; i != codec.innerCodecs.length; i++) {
             var innerCodec = codec.innerCodecs[i];
+            Codec<?> visited;
+
             try(var ignored = visitor.enterNewContext(c -> {
                 Class<?> type;
 
@@ -71,11 +89,19 @@ public final class TypeVisitor implements CodecVisitor {
 
                 c.type = type;
             })) {
-                codec.innerCodecs[i] = visitor.visit(innerCodec);
+                visited = visitor.visit(innerCodec);
+            }
+
+            if(visited != innerCodec) {
+                if(innerCodecs == null) {
+                    innerCodecs = codec.innerCodecs.clone();
+                }
+
+                innerCodecs[i] = visited;
             }
         }
 
-        return codec;
+        return innerCodecs == null ? codec : new TupleCodec(codec.id, codec.metadata, innerCodecs);
     }
 
     public static @NotNull Codec<?> visitObjectCodec(@NotNull TypeVisitor visitor, ObjectCodec codec) throws GelException {
@@ -96,6 +122,7 @@ public final class TypeVisitor implements CodecVisitor {
         }
 
         var map = typeCodec.getDeserializer().getFieldMap(visitor.client.getConfig().getNamingStrategy());
+        ObjectCodec.ObjectProperty[] elements = null;
 
         for(int i = 0; i != typeCodec.elements.length; i++) {
             var element = typeCodec.elements[i];
@@ -114,15 +141,25 @@ public final class TypeVisitor implements CodecVisitor {
 
             final var isReal = field != null;
 
+            Codec<?> visited;
+
             try(var ignored = visitor.enterNewContext(v -> {
                 v.type = type;
                 v.isRealType = isReal;
             })) {
-                element.codec = visitor.visit(element.codec);
+                visited = visitor.visit(element.codec);
+            }
+
+            if(visited != element.codec) {
+                if(elements == null) {
+                    elements = typeCodec.elements.clone();
+                }
+
+                elements[i] = ObjectCodec.propertyOf(element.name, element.cardinality, visited);
             }
         }
 
-        return typeCodec;
+        return elements == null ? typeCodec : typeCodec.withElements(elements);
     }
 
     public static Codec<?> visitCompilableCodec(@NotNull TypeVisitor visitor, @NotNull CompilableCodec codec) throws GelException {
@@ -2,9 +2,11 @@ package com.gel.driver.binary.duplexers;
 
 import com.gel.driver.ErrorCode;
 import com.gel.driver.async.ChannelCompletableFuture;
+import com.gel.driver.binary.protocol.ProtocolPhase;
 import com.gel.driver.binary.protocol.ProtocolProvider;
 import com.gel.driver.binary.protocol.Receivable;
 import com.gel.driver.binary.protocol.Sendable;
+import com.gel.driver.binary.protocol.ServerMessageType;
 import com.gel.driver.binary.protocol.common.ProtocolError;
 import com.gel.driver.clients.GelBinaryClient;
 import com.gel.driver.exceptions.ConnectionFailedException;
@@ -13,6 +15,7 @@ import com.gel.driver.exceptions.GelException;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.ScheduledFuture;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -20,13 +23,17 @@ import org.slf4j.LoggerFactory;
 
 import javax.naming.OperationNotSupportedException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import static com.gel.driver.util.ComposableUtil.composeWith;
 import static com.gel.driver.util.ComposableUtil.exceptionallyCompose;
@@ -41,6 +48,17 @@ public class ChannelDuplexer extends Duplexer {
 
     private final ReentrantLock messageEnqueueLock = new ReentrantLock();
 
+    // pipelined duplex steps, in the order their packets were written to the channel.
+    private final @NotNull Queue<PipelinedDuplex> pipeline = new ArrayDeque<>();
+    private final ReentrantLock pipelineLock = new ReentrantLock();
+    private volatile long lastPipelineActivity;
+    private @Nullable ScheduledFuture<?> pipelineTimeoutCheck;
+
+    // the last exchange reading its responses with readNext, pipelined steps aren't written until it completes.
+    private @Nullable CompletableFuture<Void> exclusiveExchange;
+    // completed once the pipelined steps in flight have all completed, for an exclusive exchange waiting on them.
+    private @Nullable CompletableFuture<Void> pipelineDrained;
+
     private final GelBinaryClient client;
 
     private boolean isConnected;
@@ -76,12 +94,14 @@ public class ChannelDuplexer extends Duplexer {
                 for(var promise : readPromises) {
                     promise.completeExceptionally(exc);
                 }
+                failPipeline(exc);
             } else if (evt.equals("DISCONNECT")) {
                 disconnect();
                 var exc = new ConnectionFailedException("Client requested a disconnect");
                 for(var promise : readPromises) {
                     promise.completeExceptionally(exc);
                 }
+                failPipeline(exc);
             }
         }
 
@@ -89,6 +109,9 @@ public class ChannelDuplexer extends Duplexer {
         public void channelInactive(@NotNull ChannelHandlerContext ctx) {
             isConnected = false;
             logger.debug("Channel inactive");
+            failPipeline(new ConnectionFailedTemporarilyException(
+                    new ConnectionFailedException("The connection closed with pipelined commands in flight")
+            ));
         }
 
         @Override
@@ -106,6 +129,10 @@ public class ChannelDuplexer extends Duplexer {
                 return;
             }
 
+            if(routePipelined(protocolMessage)) {
+                return;
+            }
+
             int completeCount = 0;
 
             try {
@@ -204,7 +231,10 @@ public class ChannelDuplexer extends Duplexer {
 
                 final var readPromiseId = promise.hashCode();
 
-                promise.whenComplete((v,e) -> logger.debug("Read promise completed, ID: {}, is success?: {}", promise.hashCode(), e == null && !promise.isCancelled()));
+                // the completion callback is only worth its allocation when it's logged.
+                if(logger.isDebugEnabled()) {
+                    promise.whenComplete((v,e) -> logger.debug("Read promise completed, ID: {}, is success?: {}", promise.hashCode(), e == null && !promise.isCancelled()));
+                }
 
                 logger.debug("Enqueueing read promise: ID: {}", readPromiseId);
                 readPromises.add(promise);
@@ -298,12 +328,22 @@ public class ChannelDuplexer extends Duplexer {
 
     @Override
     public CompletionStage<Void> duplex(@NotNull DuplexCallback func, @NotNull Sendable packet, @Nullable Sendable... packets) {
+        if(client.getConfig().getMaxPipelinedCommands() > 1 && getProtocolProvider().getPhase() == ProtocolPhase.COMMAND) {
+            return duplexPipelined(func, packet, packets);
+        }
+
+        return exclusively(() -> duplex0(func, packet, packets));
+    }
+
+    private CompletionStage<Void> duplex0(@NotNull DuplexCallback func, @NotNull Sendable packet, @Nullable Sendable... packets) {
         var firstHashcode = packet.hashCode();
         final var duplexId = 31 * firstHashcode + Arrays.hashCode(packets);
         logger.debug("Starting duplex step, ID: {}", duplexId);
         final var duplexPromise = new CompletableFuture<Void>();
 
-        duplexPromise.whenComplete((v,e) -> logger.debug("Duplex step complete, ID: {}, isCancelled?: {}, isExceptional?: {}", duplexId, duplexPromise.isCancelled(), e != null));
+        if(logger.isDebugEnabled()) {
+            duplexPromise.whenComplete((v,e) -> logger.debug("Duplex step complete, ID: {}, isCancelled?: {}, isExceptional?: {}", duplexId, duplexPromise.isCancelled(), e != null));
+        }
 
         return this.send(packet, packets)
                 .thenCompose((v) -> processDuplexStep(func, duplexPromise, duplexId))
@@ -341,6 +381,300 @@ public class ChannelDuplexer extends Duplexer {
         });
     }
 
+    /**
+     * Runs an exchange once the pipelined steps in flight have completed, holding back the steps duplexed meanwhile
+     * until it completes. Pipelined steps are only in flight while no exclusive exchange runs, so every message read
+     * during the exchange is routed to it rather than to the pipeline.
+     */
+    @Override
+    protected <T> CompletionStage<T> exclusively(@NotNull Supplier<CompletionStage<T>> exchange) {
+        if(client.getConfig().getMaxPipelinedCommands() <= 1) {
+            return exchange.get();
+        }
+
+        var done = new CompletableFuture<Void>();
+        CompletionStage<Void> ready;
+
+        pipelineLock.lock();
+
+        try {
+            var previous = exclusiveExchange;
+            exclusiveExchange = done;
+
+            if(previous != null) {
+                // steps duplexed since then wait on this exchange, so the pipeline is empty once the previous completes.
+                ready = previous;
+            } else if(pipeline.isEmpty()) {
+                ready = CompletableFuture.completedFuture(null);
+            } else {
+                if(pipelineDrained == null) {
+                    pipelineDrained = new CompletableFuture<>();
+                }
+
+                ready = pipelineDrained;
+            }
+        } finally {
+            pipelineLock.unlock();
+        }
+
+        return ready
+                .thenCompose(v -> exchange.get())
+                .whenComplete((v, e) -> {
+                    pipelineLock.lock();
+
+                    try {
+                        if(exclusiveExchange == done) {
+                            exclusiveExchange = null;
+                        }
+                    } finally {
+                        pipelineLock.unlock();
+                    }
+
+                    done.complete(null);
+                });
+    }
+
+    /**
+     * Writes the packets of a duplex step without waiting for the steps before it to complete. The responses are
+     * routed to the step by {@linkplain #routePipelined(Receivable)}, which relies on the server answering each
+     * {@code Sync} with exactly one {@code ReadyForCommand}, in the order the packets were written.
+     */
+    private CompletionStage<Void> duplexPipelined(
+            @NotNull DuplexCallback func, @NotNull Sendable packet, @Nullable Sendable @Nullable ... packets
+    ) {
+        var channel = this.channel;
+
+        if(channel == null || !isConnected) {
+            // fail with a reconnect, so the query is retried on a fresh connection rather than on one that is
+            // handshaking: messages for a non-pipelined read would be routed to the pipeline otherwise.
+            return CompletableFuture.failedFuture(new ConnectionFailedTemporarilyException(
+                    new ConnectionFailedException("Cannot send message to a closed connection")
+            ));
+        }
+
+        var step = new PipelinedDuplex(func);
+
+        pipelineLock.lock();
+
+        try {
+            var exclusive = exclusiveExchange;
+
+            if(exclusive != null) {
+                logger.debug("Holding back pipelined duplex step {} until an exclusive exchange completes", step.hashCode());
+                return exclusive.thenCompose(v -> duplexPipelined(func, packet, packets));
+            }
+
+            // the step is enqueued and its packets are written under the same lock, so the order of the queue always
+            // matches the order the server responds in.
+            if(pipeline.isEmpty()) {
+                lastPipelineActivity = System.nanoTime();
+            }
+
+            pipeline.add(step);
+            logger.debug("Writing pipelined duplex step {}, in flight: {}", step.hashCode(), pipeline.size());
+
+            write(channel, step, packet);
+
+            if(packets != null) {
+                for(var p : packets) {
+                    if(p != null) {
+                        write(channel, step, p);
+                    }
+                }
+            }
+
+            channel.flush();
+            schedulePipelineTimeoutCheck(channel);
+        } finally {
+            pipelineLock.unlock();
+        }
+
+        return step.promise;
+    }
+
+    private void write(@NotNull Channel channel, @NotNull PipelinedDuplex step, @NotNull Sendable packet) {
+        channel.write(packet).addListener(f -> {
+            if(!f.isSuccess()) {
+                logger.debug("Failed to write pipelined duplex step {}", step.hashCode(), f.cause());
+                step.promise.completeExceptionally(new ConnectionFailedTemporarilyException(f.cause()));
+            }
+        });
+    }
+
+    /**
+     * Routes a message to the oldest in-flight pipelined duplex step.
+     * @param message The message to route.
+     * @return {@code true} if the message was routed; {@code false} if there are no pipelined steps in flight.
+     */
+    private boolean routePipelined(@NotNull Receivable message) {
+        PipelinedDuplex step;
+        CompletableFuture<Void> drained;
+
+        pipelineLock.lock();
+
+        try {
+            step = message.getMessageType() == ServerMessageType.READY_FOR_COMMAND
+                    ? pipeline.poll()
+                    : pipeline.peek();
+
+            if(step == null) {
+                return false;
+            }
+
+            lastPipelineActivity = System.nanoTime();
+            drained = takePipelineDrained();
+        } finally {
+            pipelineLock.unlock();
+        }
+
+        step.accept(message);
+
+        if(drained != null) {
+            drained.complete(null);
+        }
+
+        return true;
+    }
+
+    // must hold the pipeline lock, the returned promise is completed once it's released.
+    private @Nullable CompletableFuture<Void> takePipelineDrained() {
+        var drained = pipelineDrained;
+
+        if(drained == null || !pipeline.isEmpty()) {
+            return null;
+        }
+
+        pipelineDrained = null;
+        return drained;
+    }
+
+    private void failPipeline(@NotNull Throwable error) {
+        var failed = new ArrayList<PipelinedDuplex>();
+        CompletableFuture<Void> drained;
+        PipelinedDuplex step;
+
+        pipelineLock.lock();
+
+        try {
+            if(pipeline.isEmpty()) {
+                return;
+            }
+
+            logger.debug("Failing {} pipelined duplex step(s)", pipeline.size());
+
+            while((step = pipeline.poll()) != null) {
+                failed.add(step);
+            }
+
+            drained = takePipelineDrained();
+        } finally {
+            pipelineLock.unlock();
+        }
+
+        // the failed steps retry through a reconnect shared by all of them, see BaseGelClient#reconnect.
+        for(var f : failed) {
+            f.promise.completeExceptionally(error);
+        }
+
+        if(drained != null) {
+            drained.complete(null);
+        }
+    }
+
+    private void schedulePipelineTimeoutCheck(@NotNull Channel channel) {
+        if(pipelineTimeoutCheck != null) {
+            return;
+        }
+
+        pipelineTimeoutCheck = channel.eventLoop().schedule(
+                () -> checkPipelineTimeout(channel),
+                client.getConfig().getMessageTimeoutValue(),
+                client.getConfig().getMessageTimeoutUnit()
+        );
+    }
+
+    private void checkPipelineTimeout(@NotNull Channel channel) {
+        var timeout = client.getConfig().getMessageTimeoutUnit().toNanos(client.getConfig().getMessageTimeoutValue());
+
+        pipelineLock.lock();
+
+        try {
+            pipelineTimeoutCheck = null;
+
+            if(pipeline.isEmpty()) {
+                return;
+            }
+
+            var idle = System.nanoTime() - lastPipelineActivity;
+
+            if(idle < timeout) {
+                pipelineTimeoutCheck = channel.eventLoop().schedule(
+                        () -> checkPipelineTimeout(channel), timeout - idle, TimeUnit.NANOSECONDS
+                );
+                return;
+            }
+        } finally {
+            pipelineLock.unlock();
+        }
+
+        logger.debug("Pipelined duplex steps passed the configured message timeout, closing the connection");
+
+        failPipeline(new TimeoutException("A message read process passed the configured message timeout"));
+
+        // responses still in flight belong to the failed steps, the connection can't be used any more.
+        channel.close();
+    }
+
+    private static final class PipelinedDuplex {
+        public final CompletableFuture<Void> promise = new CompletableFuture<>();
+        private final @NotNull DuplexCallback func;
+        private CompletionStage<Void> tail = CompletableFuture.completedFuture(null);
+
+        public PipelinedDuplex(@NotNull DuplexCallback func) {
+            this.func = func;
+        }
+
+        // only called from the channel handler, messages for a step are processed one at a time and in order.
+        public void accept(@NotNull Receivable message) {
+            tail = tail.thenCompose(v -> {
+                if(promise.isDone()) {
+                    logger.debug("Dropping {} for completed pipelined duplex step {}", message.getMessageType(), hashCode());
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                try {
+                    return func.process(new DuplexResult(message, promise));
+                } catch (GelException | OperationNotSupportedException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }).handle((v, e) -> {
+                if(e != null) {
+                    promise.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                } else if(message.getMessageType() == ServerMessageType.READY_FOR_COMMAND) {
+                    promise.complete(null);
+                }
+
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void suspendReads() {
+        if(this.channel != null) {
+            logger.debug("Suspending channel reads");
+            this.channel.config().setAutoRead(false);
+        }
+    }
+
+    @Override
+    public void resumeReads() {
+        if(this.channel != null && !this.channel.config().isAutoRead()) {
+            logger.debug("Resuming channel reads");
+            this.channel.config().setAutoRead(true);
+        }
+    }
+
     public void init(Channel channel) {
         this.channel = channel;
     }
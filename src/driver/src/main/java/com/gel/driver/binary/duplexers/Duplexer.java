@@ -12,6 +12,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class Duplexer {
     public abstract ProtocolProvider getProtocolProvider();
@@ -27,6 +28,19 @@ public abstract class Duplexer {
             @Nullable Sendable... packets
     );
 
+    /**
+     * Stops reading from the underlying transport until {@linkplain #resumeReads()} is called. Transports that
+     * deliver a response in one piece may ignore this.
+     */
+    public void suspendReads() {
+    }
+
+    /**
+     * Resumes reading from the underlying transport after a call to {@linkplain #suspendReads()}.
+     */
+    public void resumeReads() {
+    }
+
     public final CompletionStage<Void> send(Sendable packet) {
         return this.send(packet, (Sendable[]) null);
     }
@@ -46,7 +60,18 @@ public abstract class Duplexer {
     }
 
     public final CompletionStage<Receivable> duplexSingle(Sendable packet) {
-        return send(packet).thenCompose(v -> readNext());
+        return exclusively(() -> send(packet).thenCompose(v -> readNext()));
+    }
+
+    /**
+     * Runs an exchange that reads its responses with {@linkplain #readNext()}. Duplexers that pipeline commands run it
+     * once no pipelined command is in flight, so the responses it reads are its own.
+     * @param exchange The exchange to run.
+     * @return The result of the exchange.
+     * @param <T> The type of the result.
+     */
+    protected <T> CompletionStage<T> exclusively(@NotNull Supplier<CompletionStage<T>> exchange) {
+        return exchange.get();
     }
 
     @FunctionalInterface
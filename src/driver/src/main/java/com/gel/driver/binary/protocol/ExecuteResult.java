@@ -1,5 +1,6 @@
 package com.gel.driver.binary.protocol;
 
+import com.gel.driver.binary.builders.CodecBuilder;
 import com.gel.driver.binary.codecs.Codec;
 import io.netty.buffer.ByteBuf;
 
@@ -9,9 +10,15 @@ public class ExecuteResult {
     public final Codec<?> codec;
     public final List<ByteBuf> data;
 
+    /**
+     * The codecs the query was executed with, these differ from the parsed ones if the server described the query
+     * again during the execution.
+     */
+    public final CodecBuilder.QueryCodecs codecs;
 
-    public ExecuteResult(Codec<?> codec, List<ByteBuf> data) {
-        this.codec = codec;
+    public ExecuteResult(CodecBuilder.QueryCodecs codecs, List<ByteBuf> data) {
+        this.codec = codecs.outputCodec;
         this.data = data;
+        this.codecs = codecs;
     }
 }
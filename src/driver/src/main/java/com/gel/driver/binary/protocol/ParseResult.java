@@ -1,8 +1,8 @@
 package com.gel.driver.binary.protocol;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.codecs.Codec;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import io.netty.buffer.ByteBuf;
 
 import java.util.EnumSet;
@@ -2,15 +2,20 @@ package com.gel.driver.binary.protocol;
 
 import com.gel.driver.GelConnection;
 import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.builders.CodecBuilder;
 import com.gel.driver.binary.codecs.Codec;
 import com.gel.driver.binary.protocol.v1.V1ProtocolProvider;
 import com.gel.driver.binary.protocol.v2.V2ProtocolProvider;
 import com.gel.driver.clients.GelBinaryClient;
+import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.MissingCodecException;
 import com.gel.driver.exceptions.UnexpectedMessageException;
+import io.netty.buffer.ByteBuf;
 import org.jetbrains.annotations.Nullable;
 
+import javax.naming.OperationNotSupportedException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +44,12 @@ public interface ProtocolProvider {
 
 
     ProtocolVersion getVersion();
+
+    /**
+     * Gets the codec cache used by this provider, shared with every client connected to the same server and branch.
+     * @return The codec cache of this provider.
+     */
+    CodecBuilder.CodecCache getCodecCache();
     ProtocolPhase getPhase();
     Map<String, @Nullable Object> getServerConfig();
 
@@ -52,6 +63,15 @@ public interface ProtocolProvider {
 
     CompletionStage<ParseResult> parseQuery(QueryParameters queryParameters);
     CompletionStage<ExecuteResult> executeQuery(QueryParameters queryParameters, ParseResult parseResult);
+    CompletionStage<Void> executeQuery(QueryParameters queryParameters, ParseResult parseResult, DataHandler handler);
+
+    /**
+     * Executes a batch of parsed queries, writing every {@code Execute} message followed by a single {@code Sync}.
+     * @param queryParameters The queries to execute, in order.
+     * @param parseResults The parse results of each query, in the same order as {@code queryParameters}.
+     * @return The results of each query, in order.
+     */
+    CompletionStage<List<ExecuteResult>> executeBatch(List<QueryParameters> queryParameters, List<ParseResult> parseResults);
 
     CompletionStage<Void> sendSyncMessage();
     CompletionStage<Void> processMessage(Receivable packet);
@@ -59,4 +79,14 @@ public interface ProtocolProvider {
     Sendable handshake();
     Sendable terminate();
     Sendable sync();
+
+    /**
+     * Receives the payload of each {@code Data} message as it's read, along with the codec that decodes it. The codec
+     * can differ from the one in the {@linkplain ParseResult} if the server described a new result shape while
+     * executing. The buffer is only valid for the duration of the call, handlers that need it afterwards must retain it.
+     */
+    @FunctionalInterface
+    interface DataHandler {
+        void handle(Codec<?> codec, ByteBuf data) throws GelException, OperationNotSupportedException;
+    }
 }
@@ -0,0 +1,76 @@
+package com.gel.driver.binary.protocol;
+
+import com.gel.driver.Cardinality;
+import com.gel.driver.binary.protocol.common.IOFormat;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The key of a query in the codec cache: everything that decides the codecs the server describes for a query.
+ * <br/><br/>
+ * The hash is computed once, when the key is created. Keys are meant to be created once per query and reused, see
+ * {@linkplain QueryParameters#getCacheKey(long)}.
+ */
+public final class QueryCacheKey {
+    public final @NotNull String query;
+    public final @NotNull Cardinality cardinality;
+    public final @NotNull IOFormat format;
+    public final long compilationFlags;
+
+    private final int hash;
+
+    /**
+     * Constructs a new {@linkplain QueryCacheKey}.
+     * @param query The query text.
+     * @param cardinality The expected cardinality of the query.
+     * @param format The result format of the query.
+     * @param compilationFlags The compilation flags the query is sent with, as their combined binary value.
+     */
+    public QueryCacheKey(
+            @NotNull String query, @NotNull Cardinality cardinality, @NotNull IOFormat format, long compilationFlags
+    ) {
+        this.query = query;
+        this.cardinality = cardinality;
+        this.format = format;
+        this.compilationFlags = compilationFlags;
+
+        // ordinals rather than the identity hash of the enums, so a key hashes the same in every process.
+        var h = query.hashCode();
+        h = 31 * h + cardinality.ordinal();
+        h = 31 * h + format.ordinal();
+        h = 31 * h + Long.hashCode(compilationFlags);
+        this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+
+        if(!(o instanceof QueryCacheKey)) {
+            return false;
+        }
+
+        var other = (QueryCacheKey) o;
+
+        // cheap checks first, the query text is compared last.
+        return hash == other.hash &&
+                cardinality == other.cardinality &&
+                format == other.format &&
+                compilationFlags == other.compilationFlags &&
+                query.equals(other.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "QueryCacheKey(cardinality := %s|format := %s|flags := %d|query := %s)",
+                cardinality, format, compilationFlags, query
+        );
+    }
+}
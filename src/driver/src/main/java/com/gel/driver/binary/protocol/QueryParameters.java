@@ -1,9 +1,9 @@
 package com.gel.driver.binary.protocol;
 
 import com.gel.driver.Capabilities;
-import com.gel.driver.binary.builders.CodecBuilder;
-import com.gel.driver.binary.protocol.common.Cardinality;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.protocol.common.IOFormat;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumSet;
@@ -17,6 +17,8 @@ public final class QueryParameters {
     public final IOFormat format;
     public final boolean implicitTypeNames;
 
+    private @Nullable QueryCacheKey cacheKey;
+
     public QueryParameters(
             String query,
             @Nullable Map<String, @Nullable Object> arguments,
@@ -33,7 +35,19 @@ public final class QueryParameters {
         this.implicitTypeNames = implicitTypeNames;
     }
 
-    public long getCacheKey() {
-        return CodecBuilder.getCacheKey(query, cardinality, format);
+    /**
+     * Gets the codec cache key of these parameters. The key is created on the first call and reused by the following
+     * ones, as long as the compilation flags stay the same.
+     * @param compilationFlags The compilation flags the query is sent with, as their combined binary value.
+     * @return The codec cache key of the query.
+     */
+    public @NotNull QueryCacheKey getCacheKey(long compilationFlags) {
+        var key = this.cacheKey;
+
+        if(key == null || key.compilationFlags != compilationFlags) {
+            this.cacheKey = key = new QueryCacheKey(query, cardinality, format, compilationFlags);
+        }
+
+        return key;
     }
 }
@@ -33,4 +33,11 @@ public abstract class Sendable implements SerializableData {
 
     protected abstract int getDataSize();
 
+    /**
+     * Releases the buffers owned by this message, once it has been written. Buffers shared with other messages, like
+     * the state, aren't owned by it.
+     */
+    public void release() {
+    }
+
 }
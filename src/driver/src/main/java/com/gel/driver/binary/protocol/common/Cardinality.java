@@ -3,6 +3,13 @@ package com.gel.driver.binary.protocol.common;
 import com.gel.driver.binary.BinaryEnum;
 import org.jetbrains.annotations.NotNull;
 
+/**
+ * The former location of {@linkplain com.gel.driver.Cardinality}, kept so existing imports still compile. The driver
+ * no longer reads or accepts it.
+ *
+ * @deprecated in favor of {@linkplain com.gel.driver.Cardinality}.
+ */
+@Deprecated
 public enum Cardinality implements BinaryEnum<Byte> {
     NO_RESULT    (0x6e),
     AT_MOST_ONE  (0x6f),
@@ -21,4 +28,12 @@ public enum Cardinality implements BinaryEnum<Byte> {
     public @NotNull Byte getValue() {
         return this.value;
     }
+
+    /**
+     * Gets the {@linkplain com.gel.driver.Cardinality} with the same value.
+     * @return The cardinality to use in place of this one.
+     */
+    public @NotNull com.gel.driver.Cardinality toCardinality() {
+        return com.gel.driver.Cardinality.valueOf(name());
+    }
 }
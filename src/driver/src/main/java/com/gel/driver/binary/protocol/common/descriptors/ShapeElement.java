@@ -1,6 +1,6 @@
 package com.gel.driver.binary.protocol.common.descriptors;
 
-import com.gel.driver.binary.protocol.common.Cardinality;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.protocol.common.descriptors.ShapeElementFlags;
 import org.jetbrains.annotations.NotNull;
@@ -1,7 +1,9 @@
 package com.gel.driver.binary.protocol.v1;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
 import com.gel.driver.ErrorCode;
+import com.gel.driver.GelMetrics;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.builders.CodecBuilder;
 import com.gel.driver.binary.codecs.*;
@@ -84,6 +86,7 @@ public class V1ProtocolProvider implements ProtocolProvider {
     private ProtocolPhase phase;
     private final GelBinaryClient client;
     private @Nullable Map<String, @Nullable Object> rawServerConfig;
+    private CodecBuilder.@Nullable CodecCache codecCache;
 
     public V1ProtocolProvider(GelBinaryClient client) {
         this.client = client;
@@ -96,6 +99,18 @@ public class V1ProtocolProvider implements ProtocolProvider {
         return ProtocolVersion.of(1, 0);
     }
 
+    @Override
+    public CodecBuilder.CodecCache getCodecCache() {
+        var cache = this.codecCache;
+
+        // the cache is scoped to the schema, which changes along with the state descriptor.
+        if(cache == null || !cache.isForSchema(client.getStateDescriptorId())) {
+            this.codecCache = cache = CodecBuilder.getCodecCache(client, getVersion());
+        }
+
+        return cache;
+    }
+
     @Override
     public ProtocolPhase getPhase() {
         return this.phase;
@@ -149,7 +164,7 @@ public class V1ProtocolProvider implements ProtocolProvider {
                                 id,
                                 metadata,
                                 getRelativeCodec.apply(arrayType.typePosition.intValue()),
-                                ArrayCodec::new,
+                                ArrayCodec::create,
                                 t -> Array.newInstance(t,0).getClass()
                         )
                 );
@@ -274,10 +289,12 @@ public class V1ProtocolProvider implements ProtocolProvider {
         public boolean stateUpdated;
 
         public CodecBuilder.QueryCodecs codecs;
+        public boolean codecsUpdated;
 
         public boolean isComplete;
+        public boolean shouldRetry;
 
-        public List<ByteBuf> data;
+        public DataHandler dataHandler;
 
         public ProtocolState(QueryParameters args, ByteBuf stateBuffer) {
             this.stateBuffer = stateBuffer;
@@ -285,9 +302,9 @@ public class V1ProtocolProvider implements ProtocolProvider {
             this.cardinality = args.cardinality;
         }
 
-        public ProtocolState(QueryParameters args, ByteBuf stateBuffer, List<ByteBuf> data) {
+        public ProtocolState(QueryParameters args, ByteBuf stateBuffer, DataHandler dataHandler) {
             this(args, stateBuffer);
-            this.data = data;
+            this.dataHandler = dataHandler;
         }
     }
 
@@ -313,19 +330,46 @@ public class V1ProtocolProvider implements ProtocolProvider {
             ));
         }
 
-        var cacheKey = queryParameters.getCacheKey();
+        var cacheKey = getCacheKey(queryParameters);
 
         var cachedCodecs = CodecBuilder.getCachedCodecs(this, cacheKey);
 
+        if(cachedCodecs == null) {
+            // another process may have parsed the query already, and persisted its descriptors.
+            cachedCodecs = CodecBuilder.restoreCachedCodecs(client, cacheKey);
+        }
+
+        var metrics = client.getConfig().getMetrics();
+        metrics.recordQueryCodecLookup(cachedCodecs != null);
+
+        if(cachedCodecs == null && canExecuteOptimistically(queryParameters)) {
+            // 'Execute' carries the query text, the server describes the result before sending any data, so there's
+            // no need to wait on a separate 'Parse' round trip.
+            logger.debug("No cached codecs for {}, executing optimistically", cacheKey);
+
+            return CompletableFuture.completedFuture(new ParseResult(
+                    CodecBuilder.NULL_CODEC,
+                    CodecBuilder.NULL_CODEC,
+                    CodecBuilder.NULL_CODEC_ID,
+                    CodecBuilder.NULL_CODEC_ID,
+                    stateBuffer,
+                    queryParameters.capabilities,
+                    queryParameters.cardinality
+            ));
+        }
+
         if(cachedCodecs == null) {
             ProtocolState parseState = new ProtocolState(queryParameters, stateBuffer);
 
-            return runWithAttempts(
+            var start = startLatency(metrics);
+            var parse = recordLatency(metrics, GelMetrics::recordParse, start, runWithAttempts(
                     queryParameters,
                     a -> parse0(a, parseState),
                     ignored -> parseState.isComplete,
                     () -> parseState.attempts++
-            ).thenApply(v ->
+            ));
+
+            return parse.thenApply(v ->
                 new ParseResult(
                         parseState.codecs.inputCodec, parseState.codecs.outputCodec, parseState.codecs.inputCodecId,
                         parseState.codecs.outputCodecId, parseState.stateBuffer, parseState.capabilities,
@@ -379,58 +423,7 @@ public class V1ProtocolProvider implements ProtocolProvider {
                     handleCommandError(args, state, result, err);
                     return CompletableFuture.completedFuture(null);
                 case COMMAND_DATA_DESCRIPTION:
-                    var commandDescriptor = result.packet.as(CommandDataDescription.class);
-
-                    logger.debug("parsing command data description");
-
-                    if(!Objects.equals(args.capabilities, commandDescriptor.capabilities)) {
-                        logger.debug(
-                                "actual capabilities differ from the provided ones: provided: {}. actual: {}",
-                                args.capabilities,
-                                commandDescriptor.capabilities
-                        );
-
-                        state.capabilities = commandDescriptor.capabilities;
-                    }
-
-                    if(args.cardinality != commandDescriptor.cardinality) {
-                        logger.debug(
-                                "actual cardinality differs from the provided one: provided: {}. actual: {}",
-                                args.cardinality,
-                                commandDescriptor.cardinality
-                        );
-
-                        state.cardinality = commandDescriptor.cardinality;
-                    }
-
-                    state.codecs = new CodecBuilder.QueryCodecs(
-                            commandDescriptor.inputTypeDescriptorId,
-                            CodecBuilder.buildCodec(
-                                    client,
-                                    commandDescriptor.inputTypeDescriptorId,
-                                    commandDescriptor.inputTypeDescriptorBuffer
-                            ),
-                            commandDescriptor.outputTypeDescriptorId,
-                            CodecBuilder.buildCodec(
-                                    client,
-                                    commandDescriptor.outputTypeDescriptorId,
-                                    commandDescriptor.outputTypeDescriptorBuffer
-                            )
-                    );
-
-                    logger.debug(
-                            "updating codec query cache key {} with I:{} O:{}",
-                            args.getCacheKey(),
-                            commandDescriptor.inputTypeDescriptorId,
-                            commandDescriptor.outputTypeDescriptorId
-                    );
-
-                    CodecBuilder.updateCachedCodecs(
-                            this,
-                            args.getCacheKey(),
-                            commandDescriptor.inputTypeDescriptorId,
-                            commandDescriptor.outputTypeDescriptorId
-                    );
+                    updateQueryCodecs(args, state, result.packet.as(CommandDataDescription.class));
                     break;
                 case STATE_DATA_DESCRIPTION:
                     updateStateCodec(state, result);
@@ -446,40 +439,171 @@ public class V1ProtocolProvider implements ProtocolProvider {
         });
     }
 
+    private void updateQueryCodecs(
+            @NotNull QueryParameters args, @NotNull ProtocolState state, @NotNull CommandDataDescription commandDescriptor
+    ) throws GelException {
+        logger.debug("parsing command data description");
+
+        if(!Objects.equals(args.capabilities, commandDescriptor.capabilities)) {
+            logger.debug(
+                    "actual capabilities differ from the provided ones: provided: {}. actual: {}",
+                    args.capabilities,
+                    commandDescriptor.capabilities
+            );
+
+            state.capabilities = commandDescriptor.capabilities;
+        }
+
+        if(args.cardinality != commandDescriptor.cardinality) {
+            logger.debug(
+                    "actual cardinality differs from the provided one: provided: {}. actual: {}",
+                    args.cardinality,
+                    commandDescriptor.cardinality
+            );
+
+            state.cardinality = commandDescriptor.cardinality;
+        }
+
+        var cacheKey = getCacheKey(args);
+
+        // building the codecs consumes the descriptors, so they're persisted first.
+        CodecBuilder.persistCachedCodecs(
+                this,
+                cacheKey,
+                commandDescriptor.inputTypeDescriptorId,
+                commandDescriptor.inputTypeDescriptorBuffer,
+                commandDescriptor.outputTypeDescriptorId,
+                commandDescriptor.outputTypeDescriptorBuffer
+        );
+
+        state.codecs = new CodecBuilder.QueryCodecs(
+                commandDescriptor.inputTypeDescriptorId,
+                CodecBuilder.buildCodec(
+                        client,
+                        commandDescriptor.inputTypeDescriptorId,
+                        commandDescriptor.inputTypeDescriptorBuffer
+                ),
+                commandDescriptor.outputTypeDescriptorId,
+                CodecBuilder.buildCodec(
+                        client,
+                        commandDescriptor.outputTypeDescriptorId,
+                        commandDescriptor.outputTypeDescriptorBuffer
+                )
+        );
+
+        logger.debug(
+                "updating codec query cache key {} with I:{} O:{}",
+                cacheKey,
+                commandDescriptor.inputTypeDescriptorId,
+                commandDescriptor.outputTypeDescriptorId
+        );
+
+        CodecBuilder.updateCachedCodecs(
+                this,
+                cacheKey,
+                commandDescriptor.inputTypeDescriptorId,
+                commandDescriptor.outputTypeDescriptorId
+        );
+
+        state.codecsUpdated = true;
+    }
+
+    private boolean canExecuteOptimistically(@NotNull QueryParameters args) {
+        return client.getConfig().useOptimisticExecute() && (args.arguments == null || args.arguments.isEmpty());
+    }
+
     @Override
     public CompletionStage<ExecuteResult> executeQuery(QueryParameters queryParameters, ParseResult parseResult) {
         var data = new ArrayList<ByteBuf>();
-        var state = new ProtocolState(queryParameters, parseResult.stateData, data);
 
-        return runWithAttempts(
+        // retain the data buffer once, so it's available for the consumer of data, since after
+        // the duplex step `Data` and its children (buffers) are freed.
+        var state = new ProtocolState(queryParameters, parseResult.stateData, (outCodec, buffer) -> data.add(buffer.retain()));
+
+        return executeQuery(queryParameters, parseResult, state)
+                .whenComplete((v, e) -> {
+                    if(e != null) {
+                        for(var buffer : data) {
+                            buffer.release();
+                        }
+                    }
+                })
+                .thenApply(v ->
+                        new ExecuteResult(
+                                state.codecs,
+                                data
+                        )
+                );
+    }
+
+    @Override
+    public CompletionStage<Void> executeQuery(
+            QueryParameters queryParameters, ParseResult parseResult, DataHandler handler
+    ) {
+        return executeQuery(queryParameters, parseResult, new ProtocolState(queryParameters, parseResult.stateData, handler));
+    }
+
+    private CompletionStage<Void> executeQuery(
+            QueryParameters queryParameters, ParseResult parseResult, ProtocolState state
+    ) {
+        state.codecs = new CodecBuilder.QueryCodecs(
+                parseResult.inCodecId, parseResult.inCodec, parseResult.outCodecId, parseResult.outCodec
+        );
+
+        var metrics = client.getConfig().getMetrics();
+        var start = startLatency(metrics);
+
+        return recordLatency(metrics, GelMetrics::recordExecute, start, runWithAttempts(
                 queryParameters,
-                p -> execute0(p, parseResult, state),
+                p -> execute0(p, state),
                 p -> state.isComplete,
                 () -> state.attempts++
-        ).thenApply(v ->
-                new ExecuteResult(
-                        parseResult.outCodec,
-                        data
-                )
-        );
+        ));
+    }
+
+    @FunctionalInterface
+    private interface LatencyRecorder {
+        void record(GelMetrics metrics, long nanos, boolean success);
+    }
+
+    // the clock is only read, and the operation only observed, when metrics are collected.
+    private static long startLatency(@NotNull GelMetrics metrics) {
+        return metrics == GelMetrics.NOOP ? 0 : System.nanoTime();
+    }
+
+    private static CompletionStage<Void> recordLatency(
+            @NotNull GelMetrics metrics,
+            @NotNull LatencyRecorder recorder,
+            long start,
+            @NotNull CompletionStage<Void> operation
+    ) {
+        if(metrics == GelMetrics.NOOP) {
+            return operation;
+        }
+
+        return operation.whenComplete((v, e) -> recorder.record(metrics, System.nanoTime() - start, e == null));
     }
 
-    private CompletionStage<Void> execute0(QueryParameters queryParameters, ParseResult parseResult, ProtocolState state) {
+    private CompletionStage<Void> execute0(QueryParameters queryParameters, ProtocolState state) {
         if(state.attempts > 2) {
             return CompletableFuture.failedFuture(
                     new GelException("Failed to parse query after " + state.attempts + " attempts")
             );
         }
 
-        if(!(parseResult.inCodec instanceof ArgumentCodec)) {
+        var codecs = state.codecs;
+
+        if(!(codecs.inputCodec instanceof ArgumentCodec)) {
             return CompletableFuture.failedFuture(
                     new MissingCodecException(String.format(
                             "Cannot encode arguments, %s is not a valid argument codec",
-                            parseResult.inCodec.toString())
+                            codecs.inputCodec.toString())
                     )
             );
         }
 
+        state.codecsUpdated = false;
+
         try {
             return client.getDuplexer().duplexAndSync(new Execute(
                     queryParameters.capabilities,
@@ -489,11 +613,11 @@ public class V1ProtocolProvider implements ProtocolProvider {
                     queryParameters.cardinality,
                     queryParameters.query,
                     client.getStateDescriptorId(),
-                    parseResult.stateData,
-                    parseResult.inCodecId,
-                    parseResult.outCodecId,
+                    state.stateBuffer,
+                    codecs.inputCodecId,
+                    codecs.outputCodecId,
                     ArgumentCodec.serializeToBuffer(
-                            (ArgumentCodec<?>) parseResult.inCodec,
+                            (ArgumentCodec<?>) codecs.inputCodec,
                             queryParameters.arguments,
                             client.getCodecContext()
                     )
@@ -502,11 +626,11 @@ public class V1ProtocolProvider implements ProtocolProvider {
                     case DATA:
                         var data = result.packet.as(Data.class);
                         assert data.payloadBuffer != null;
-                        // retain the data buffer once, so it's available for the
-                        // consumer of data, since after this duplex step, `Data` and
-                        // its children (buffers) are freed.
-                        data.payloadBuffer.retain();
-                        state.data.add(data.payloadBuffer);
+                        state.dataHandler.handle(state.codecs.outputCodec, data.payloadBuffer);
+                        break;
+                    case COMMAND_DATA_DESCRIPTION:
+                        // the result shape differs from the one we sent, every following 'Data' uses the new one.
+                        updateQueryCodecs(queryParameters, state, result.packet.as(CommandDataDescription.class));
                         break;
                     case STATE_DATA_DESCRIPTION:
                         updateStateCodec(state, result);
@@ -518,7 +642,8 @@ public class V1ProtocolProvider implements ProtocolProvider {
                     case READY_FOR_COMMAND:
                         var ready = result.packet.as(ReadyForCommand.class);
                         client.setTransactionState(ready.transactionState);
-                        state.isComplete = true;
+                        state.isComplete = !state.shouldRetry;
+                        state.shouldRetry = false;
                         result.finishDuplexing();
                         break;
                 }
@@ -530,6 +655,200 @@ public class V1ProtocolProvider implements ProtocolProvider {
         }
     }
 
+    private static final class BatchState {
+        public final ProtocolState[] states;
+        public final List<ByteBuf>[] data;
+        public @Nullable ByteBuf stateBuffer;
+
+        public int attempts;
+        public int current;
+        public boolean isComplete;
+        public boolean shouldRetry;
+
+        @SuppressWarnings("unchecked")
+        public BatchState(List<QueryParameters> queryParameters, List<ParseResult> parseResults) {
+            this.states = new ProtocolState[queryParameters.size()];
+            this.data = new List[queryParameters.size()];
+
+            for(int i = 0; i != states.length; i++) {
+                var parseResult = parseResults.get(i);
+                var data = this.data[i] = new ArrayList<>();
+
+                states[i] = new ProtocolState(
+                        queryParameters.get(i), parseResult.stateData, (codec, buffer) -> data.add(buffer.retain())
+                );
+                states[i].codecs = new CodecBuilder.QueryCodecs(
+                        parseResult.inCodecId, parseResult.inCodec, parseResult.outCodecId, parseResult.outCodec
+                );
+            }
+
+            // the session is the same for every statement, they can share one serialized state.
+            this.stateBuffer = parseResults.isEmpty() ? null : parseResults.get(0).stateData;
+        }
+
+        public void releaseData() {
+            for(var buffers : data) {
+                for(var buffer : buffers) {
+                    buffer.release();
+                }
+
+                buffers.clear();
+            }
+        }
+    }
+
+    @Override
+    public CompletionStage<List<ExecuteResult>> executeBatch(
+            List<QueryParameters> queryParameters, List<ParseResult> parseResults
+    ) {
+        var state = new BatchState(queryParameters, parseResults);
+
+        return executeBatch0(queryParameters, state)
+                .whenComplete((v, e) -> {
+                    if(e != null) {
+                        state.releaseData();
+                    }
+                })
+                .thenApply(v -> {
+                    var results = new ArrayList<ExecuteResult>(state.states.length);
+
+                    for(int i = 0; i != state.states.length; i++) {
+                        results.add(new ExecuteResult(state.states[i].codecs, state.data[i]));
+                    }
+
+                    return results;
+                });
+    }
+
+    private CompletionStage<Void> executeBatch0(List<QueryParameters> queryParameters, BatchState state) {
+        if(state.attempts > 2) {
+            return CompletableFuture.failedFuture(
+                    new GelException("Failed to execute batch after " + state.attempts + " attempts")
+            );
+        }
+
+        var packets = new Sendable[queryParameters.size() + 1];
+
+        try {
+            for(int i = 0; i != queryParameters.size(); i++) {
+                var parameters = queryParameters.get(i);
+                var codecs = state.states[i].codecs;
+
+                if(!(codecs.inputCodec instanceof ArgumentCodec)) {
+                    throw new MissingCodecException(String.format(
+                            "Cannot encode arguments, %s is not a valid argument codec",
+                            codecs.inputCodec.toString()
+                    ));
+                }
+
+                state.states[i].codecsUpdated = false;
+
+                packets[i] = new Execute(
+                        parameters.capabilities,
+                        getCompilationFlags(parameters),
+                        client.getConfig().getImplicitLimit(),
+                        parameters.format,
+                        parameters.cardinality,
+                        parameters.query,
+                        client.getStateDescriptorId(),
+                        state.stateBuffer,
+                        codecs.inputCodecId,
+                        codecs.outputCodecId,
+                        ArgumentCodec.serializeToBuffer(
+                                (ArgumentCodec<?>) codecs.inputCodec,
+                                parameters.arguments,
+                                client.getCodecContext()
+                        )
+                );
+            }
+        } catch (OperationNotSupportedException | GelException | RuntimeException e) {
+            // the messages aren't sent, so the arguments already encoded for the earlier statements are released here.
+            for(var packet : packets) {
+                if(packet != null) {
+                    packet.release();
+                }
+            }
+
+            return CompletableFuture.failedFuture(e);
+        }
+
+        packets[packets.length - 1] = sync();
+
+        state.current = 0;
+
+        return client.getDuplexer().duplex((result) -> {
+            var current = Math.min(state.current, state.states.length - 1);
+            var statement = state.states[current];
+
+            switch (result.packet.getMessageType()) {
+                case DATA:
+                    var data = result.packet.as(Data.class);
+                    assert data.payloadBuffer != null;
+                    statement.dataHandler.handle(statement.codecs.outputCodec, data.payloadBuffer);
+                    break;
+                case COMMAND_DATA_DESCRIPTION:
+                    updateQueryCodecs(
+                            queryParameters.get(current), statement, result.packet.as(CommandDataDescription.class)
+                    );
+                    break;
+                case STATE_DATA_DESCRIPTION:
+                    updateStateCodec(statement, result);
+                    state.stateBuffer = statement.stateBuffer;
+                    break;
+                case COMMAND_COMPLETE:
+                    state.current++;
+                    break;
+                case ERROR_RESPONSE:
+                    var err = result.packet.as(ErrorResponse.class);
+                    handleBatchError(queryParameters.get(current), state, current, result, err);
+                    break;
+                case READY_FOR_COMMAND:
+                    var ready = result.packet.as(ReadyForCommand.class);
+                    client.setTransactionState(ready.transactionState);
+                    state.isComplete = !state.shouldRetry;
+                    result.finishDuplexing();
+                    break;
+            }
+
+            return CompletableFuture.completedFuture(null);
+        }, packets[0], Arrays.copyOfRange(packets, 1, packets.length)).thenCompose(v -> {
+            if(state.isComplete) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            state.shouldRetry = false;
+            state.attempts++;
+            state.releaseData();
+            return executeBatch0(queryParameters, state);
+        });
+    }
+
+    private void handleBatchError(
+            @NotNull QueryParameters queryParameters, @NotNull BatchState state, int index,
+            Duplexer.@NotNull DuplexResult result, @NotNull ErrorResponse err
+    ) {
+        logger.debug("Processing batch error {} for statement {}", err.errorCode, index);
+
+        var statement = state.states[index];
+
+        if(err.errorCode == ErrorCode.STATE_MISMATCH_ERROR) {
+            getCodecCache().clearPersistedCodecs();
+        }
+
+        // statements before the failed one have already run, so only a failure of the first one can be retried.
+        if(index == 0) {
+            if(
+                    (err.errorCode == ErrorCode.STATE_MISMATCH_ERROR && statement.stateUpdated) ||
+                    (err.errorCode == ErrorCode.PARAMETER_TYPE_MISMATCH_ERROR && statement.codecsUpdated)
+            ) {
+                state.shouldRetry = true;
+                return;
+            }
+        }
+
+        result.finishExceptionally(new BatchExecutionException(index, err.toException(queryParameters.query)));
+    }
+
     private @NotNull EnumSet<CompilationFlags> getCompilationFlags(QueryParameters args) {
         var flags = EnumSet.of(CompilationFlags.NONE);
 
@@ -548,19 +867,41 @@ public class V1ProtocolProvider implements ProtocolProvider {
         return flags;
     }
 
+    private @NotNull QueryCacheKey getCacheKey(@NotNull QueryParameters args) {
+        // the flags change the shape of the result, so the flags the query is sent with are part of the key.
+        long flags = 0;
+
+        for(var flag : getCompilationFlags(args)) {
+            flags |= flag.getValue();
+        }
+
+        return args.getCacheKey(flags);
+    }
+
     private void handleCommandError(@NotNull QueryParameters queryParameters, @NotNull V1ProtocolProvider.ProtocolState args, Duplexer.@NotNull DuplexResult result, @NotNull ErrorResponse err) {
         logger.debug("Processing command phase error {}", err.errorCode);
 
         if(err.errorCode == ErrorCode.STATE_MISMATCH_ERROR) {
             logger.debug("Has updated state?: {}", args.stateUpdated);
+
+            // the state type changes along with the schema, persisted codecs may no longer describe it.
+            getCodecCache().clearPersistedCodecs();
+
             // should have new state
             if(!args.stateUpdated) {
                 result.finishExceptionally(
                         "Failed to properly encode state data, this is a bug",
                         GelException::new
                 );
+            } else {
+                args.shouldRetry = true;
             }
         }
+        else if(err.errorCode == ErrorCode.PARAMETER_TYPE_MISMATCH_ERROR && args.codecsUpdated) {
+            // an optimistic execute guessed the wrong input shape, the server described the right one before erroring.
+            logger.debug("Parameter type mismatch after receiving new codecs, retrying");
+            args.shouldRetry = true;
+        }
         else {
             result.finishExceptionally(err, queryParameters.query, ErrorResponse::toException);
         }
@@ -568,6 +909,10 @@ public class V1ProtocolProvider implements ProtocolProvider {
 
     private void updateStateCodec(ProtocolState state, Duplexer.@NotNull DuplexResult result) {
         var stateDescriptor = result.packet.as(StateDataDescription.class);
+
+        // set first, so that the state codec is cached with the schema it belongs to.
+        client.setStateDescriptorId(stateDescriptor.typeDescriptorId);
+
         var codec = CodecBuilder.getCodec(this, stateDescriptor.typeDescriptorId, Map.class);
 
         if(codec == null) {
@@ -584,7 +929,6 @@ public class V1ProtocolProvider implements ProtocolProvider {
         }
 
         client.setStateCodec(codec);
-        client.setStateDescriptorId(stateDescriptor.typeDescriptorId);
 
         state.stateUpdated = true;
 
@@ -731,6 +1075,9 @@ public class V1ProtocolProvider implements ProtocolProvider {
                 case STATE_DATA_DESCRIPTION:
                     var stateDescriptor = (StateDataDescription)packet;
 
+                    // set first, so that the state codec is cached with the schema it belongs to.
+                    client.setStateDescriptorId(stateDescriptor.typeDescriptorId);
+
                     var codec = CodecBuilder.getCodec(this, stateDescriptor.typeDescriptorId, Map.class);
 
                     if(codec == null) {
@@ -740,7 +1087,6 @@ public class V1ProtocolProvider implements ProtocolProvider {
                         codec = CodecBuilder.buildCodec(client, stateDescriptor.typeDescriptorId, reader, Map.class);
                     }
 
-                    client.setStateDescriptorId(stateDescriptor.typeDescriptorId);
                     client.setStateCodec(codec);
                     break;
                 case PARAMETER_STATUS:
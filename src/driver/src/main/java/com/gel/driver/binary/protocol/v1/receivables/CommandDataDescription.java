@@ -1,11 +1,11 @@
 package com.gel.driver.binary.protocol.v1.receivables;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.protocol.Receivable;
 import com.gel.driver.binary.protocol.common.Annotation;
 import com.gel.driver.binary.PacketReader;
 import com.gel.driver.binary.protocol.ServerMessageType;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import io.netty.buffer.ByteBuf;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -1,10 +1,10 @@
 package com.gel.driver.binary.protocol.v1.sendables;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.PacketWriter;
 import com.gel.driver.binary.protocol.ClientMessageType;
 import com.gel.driver.binary.protocol.Sendable;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.binary.protocol.common.CompilationFlags;
 import com.gel.driver.binary.protocol.common.IOFormat;
 import io.netty.buffer.ByteBuf;
@@ -98,4 +98,12 @@ public class Execute extends Sendable {
 
         writer.writeArray(parameterData);
     }
+
+    @Override
+    public void release() {
+        // the arguments are encoded for this message alone.
+        if(parameterData != null) {
+            parameterData.release();
+        }
+    }
 }
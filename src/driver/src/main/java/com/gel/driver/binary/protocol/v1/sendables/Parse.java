@@ -1,9 +1,9 @@
 package com.gel.driver.binary.protocol.v1.sendables;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.PacketWriter;
 import com.gel.driver.binary.protocol.Sendable;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.binary.protocol.common.CompilationFlags;
 import com.gel.driver.binary.protocol.common.IOFormat;
 import com.gel.driver.binary.protocol.ClientMessageType;
@@ -99,7 +99,7 @@ public class V2ProtocolProvider extends V1ProtocolProvider implements ProtocolPr
                                 id,
                                 meta,
                                 getRelativeCodec.apply(arrayDescriptor.type.intValue()),
-                                ArrayCodec::new,
+                                ArrayCodec::create,
                                 t -> Array.newInstance(t, 0).getClass()
                         )
                 );
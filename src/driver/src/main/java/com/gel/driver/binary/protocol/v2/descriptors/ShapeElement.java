@@ -1,7 +1,7 @@
 package com.gel.driver.binary.protocol.v2.descriptors;
 
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.PacketReader;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.binary.protocol.common.descriptors.ShapeElementFlags;
 import org.joou.UInteger;
 import org.joou.UShort;
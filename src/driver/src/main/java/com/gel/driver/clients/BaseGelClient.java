@@ -12,7 +12,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -22,6 +24,7 @@ public abstract class BaseGelClient implements StatefulClient, GelQueryable, Aut
     private final GelConnection connection;
     private final GelClientConfig config;
     private final AutoCloseable poolHandle;
+    private final AtomicReference<CompletableFuture<Void>> reconnecting = new AtomicReference<>();
 
     protected Session session;
 
@@ -91,11 +94,46 @@ public abstract class BaseGelClient implements StatefulClient, GelQueryable, Aut
     public abstract CompletionStage<Void> connect();
     public abstract CompletionStage<Void> disconnect();
 
+    /**
+     * Checks that this client can still talk to the server, connecting it if it isn't connected.
+     * @return A {@linkplain CompletionStage} that represents the asynchronous operation of checking the client.
+     */
+    public CompletionStage<Void> checkHealth() {
+        return connect();
+    }
+
+    /**
+     * Disconnects and connects this client again. Calls made while a reconnect is in progress share it, so operations
+     * failed by the same connection error, like the pipelined commands in flight, don't each reconnect the client.
+     * @return A {@linkplain CompletionStage} that represents the asynchronous operation of reconnecting.
+     */
     public CompletionStage<Void> reconnect() {
-        return disconnect().thenCompose((v) -> {
-            logger.debug("Executing connection attempt from reconnect");
-            return connect();
-        });
+        var promise = new CompletableFuture<Void>();
+        var pending = reconnecting.compareAndExchange(null, promise);
+
+        if(pending != null) {
+            logger.debug("Joining the reconnect in progress");
+            return pending;
+        }
+
+        getConfig().getMetrics().recordReconnect();
+
+        disconnect()
+                .thenCompose((v) -> {
+                    logger.debug("Executing connection attempt from reconnect");
+                    return connect();
+                })
+                .whenComplete((v, e) -> {
+                    reconnecting.compareAndSet(promise, null);
+
+                    if(e != null) {
+                        promise.completeExceptionally(e);
+                    } else {
+                        promise.complete(null);
+                    }
+                });
+
+        return promise;
     }
 
     @Override
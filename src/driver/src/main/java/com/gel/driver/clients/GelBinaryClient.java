@@ -1,6 +1,7 @@
 package com.gel.driver.clients;
 
 import com.gel.driver.*;
+import com.gel.driver.async.ResultPublisher;
 import com.gel.driver.binary.builders.CodecBuilder;
 import com.gel.driver.binary.builders.ObjectBuilder;
 import com.gel.driver.binary.builders.types.TypeBuilder;
@@ -8,14 +9,17 @@ import com.gel.driver.binary.codecs.Codec;
 import com.gel.driver.binary.codecs.CodecContext;
 import com.gel.driver.binary.duplexers.Duplexer;
 import com.gel.driver.binary.protocol.*;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.binary.protocol.common.IOFormat;
 import com.gel.driver.datatypes.Json;
+import com.gel.driver.exceptions.BatchExecutionException;
 import com.gel.driver.exceptions.ConnectionFailedException;
 import com.gel.driver.exceptions.GelErrorException;
 import com.gel.driver.exceptions.GelException;
 import com.gel.driver.exceptions.ResultCardinalityMismatchException;
+import com.gel.driver.internal.PreparedQueryImpl;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joou.UShort;
@@ -23,17 +27,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.naming.OperationNotSupportedException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.gel.driver.util.ComposableUtil.exceptionallyCompose;
 
 public abstract class GelBinaryClient extends BaseGelClient {
     private static final Logger logger = LoggerFactory.getLogger(GelBinaryClient.class);
+    private static final byte[] EMPTY_JSON_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
     @SuppressWarnings("rawtypes")
     private @Nullable Codec<Map> stateCodec;
     private UUID stateDescriptorId;
@@ -49,7 +60,7 @@ public abstract class GelBinaryClient extends BaseGelClient {
     public GelBinaryClient(GelConnection connection, GelClientConfig config, AutoCloseable poolHandle) {
         super(connection, config, poolHandle);
         this.connectionSemaphore = new Semaphore(1);
-        this.querySemaphore = new Semaphore(1);
+        this.querySemaphore = new Semaphore(getMaxInFlightCommands());
         this.readyPromise = new CompletableFuture<>();
         this.stateDescriptorId = CodecBuilder.INVALID_CODEC_ID;
         this.protocolProvider = ProtocolProvider.getProvider(this);
@@ -57,6 +68,15 @@ public abstract class GelBinaryClient extends BaseGelClient {
 
     public abstract Duplexer getDuplexer();
 
+    /**
+     * Gets the maximum number of commands this client can have in flight at once. Called from the constructor, after
+     * the configuration is set.
+     * @return The number of commands that can run concurrently on this client's connection.
+     */
+    protected int getMaxInFlightCommands() {
+        return 1;
+    }
+
     public @NotNull ProtocolProvider getProtocolProvider() {
         return this.protocolProvider;
     }
@@ -93,12 +113,87 @@ public abstract class GelBinaryClient extends BaseGelClient {
     public final CompletionStage<ExecuteResult> executeQuery(
             @NotNull QueryParameters args
     ) {
+        return executeQuery(args, parseResult -> protocolProvider.executeQuery(args, parseResult));
+    }
+
+    public final <T> CompletionStage<T> executeQuery(
+            @NotNull QueryParameters args,
+            @NotNull Function<ParseResult, CompletionStage<T>> executor
+    ) {
+        return runQuery(() -> protocolProvider.parseQuery(args).thenCompose(executor));
+    }
+
+    /**
+     * Parses a query, without executing it.
+     * @param args The query to parse.
+     * @return A {@linkplain CompletionStage} containing the codecs of the query.
+     */
+    public final CompletionStage<ParseResult> parseQuery(@NotNull QueryParameters args) {
+        return runQuery(() -> protocolProvider.parseQuery(args));
+    }
+
+    /**
+     * Executes a query with codecs it was previously parsed with, skipping the codec cache.
+     * @param args The query to execute.
+     * @param codecs The codecs of the query.
+     * @return A {@linkplain CompletionStage} containing the result of the query.
+     */
+    public final CompletionStage<ExecuteResult> executeQuery(
+            @NotNull QueryParameters args,
+            @NotNull CodecBuilder.QueryCodecs codecs
+    ) {
+        return runQuery(() -> {
+            ByteBuf stateBuffer;
+
+            try {
+                stateBuffer = serializeState();
+            } catch (OperationNotSupportedException | GelException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+
+            return protocolProvider.executeQuery(args, new ParseResult(
+                    codecs.inputCodec, codecs.outputCodec, codecs.inputCodecId, codecs.outputCodecId, stateBuffer,
+                    args.capabilities, args.cardinality
+            ));
+        });
+    }
+
+    /**
+     * Parses each query of a batch, then executes them all with a single sync.
+     * @param args The queries to execute, in order.
+     * @return A {@linkplain CompletionStage} containing the results of each query, in order.
+     */
+    public final CompletionStage<List<ExecuteResult>> executeQueries(@NotNull List<QueryParameters> args) {
+        if(args.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        return runQuery(() -> parseBatch(args, new ArrayList<>(args.size()))
+                .thenCompose(parseResults -> protocolProvider.executeBatch(args, parseResults))
+        );
+    }
+
+    private CompletionStage<List<ParseResult>> parseBatch(
+            @NotNull List<QueryParameters> args, @NotNull List<ParseResult> results
+    ) {
+        // cached queries complete synchronously, so this only waits on the queries that need a parse round trip.
+        if(results.size() == args.size()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        return protocolProvider.parseQuery(args.get(results.size())).thenCompose(result -> {
+            results.add(result);
+            return parseBatch(args, results);
+        });
+    }
+
+    private <T> CompletionStage<T> runQuery(@NotNull Supplier<CompletionStage<T>> operation) {
         logger.debug("Execute request: is connected? {}", getDuplexer().isConnected());
 
         if(!getDuplexer().isConnected()) {
             // TODO: check for recursion
             return connect()
-                    .thenCompose(v -> executeQuery(args));
+                    .thenCompose(v -> runQuery(operation));
         }
 
         final var hasReleased = new AtomicBoolean();
@@ -113,7 +208,7 @@ public abstract class GelBinaryClient extends BaseGelClient {
                         throw new RuntimeException(e);
                     }
                 })
-                .thenCompose((v) -> executeQuery0(args,executionState))
+                .thenCompose((v) -> runQuery0(operation, executionState))
                 .whenComplete((v,e) -> {
                     if(!hasReleased.get()) {
                         this.querySemaphore.release();
@@ -121,15 +216,22 @@ public abstract class GelBinaryClient extends BaseGelClient {
                 });
     }
 
-    private CompletionStage<ExecuteResult> executeQuery0(@NotNull QueryParameters args, ExecutionState state) {
+    private <T> CompletionStage<T> runQuery0(
+            @NotNull Supplier<CompletionStage<T>> operation,
+            ExecutionState state
+    ) {
         return exceptionallyCompose(
-                protocolProvider
-                        .parseQuery(args)
-                        .thenCompose(parseResult -> protocolProvider.executeQuery(args, parseResult)),
-                e -> {
+                operation.get(),
+                error -> {
+                    // failures of dependant stages arrive wrapped, the checks below need the actual error.
+                    var e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
                     logger.debug("got exception in execute step", e);
 
-                    if(e instanceof GelErrorException && !((GelException)e).shouldReconnect && !((GelException)e).shouldRetry) {
+                    if(
+                            (e instanceof GelErrorException || e instanceof BatchExecutionException) &&
+                            !((GelException)e).shouldReconnect && !((GelException)e).shouldRetry
+                    ) {
                         return CompletableFuture.failedFuture(e);
                     }
 
@@ -151,7 +253,7 @@ public abstract class GelBinaryClient extends BaseGelClient {
                             state.attempts++;
                             logger.debug("Retrying with attempts now at {}", state.attempts);
 
-                            return executeQuery0(args, state);
+                            return runQuery0(operation, state);
                         }
 
                         if(edbException.shouldReconnect) {
@@ -159,7 +261,7 @@ public abstract class GelBinaryClient extends BaseGelClient {
                             logger.debug("Reconnecting and retrying with attempts now at {}", state.attempts);
 
                             return this.reconnect()
-                                    .thenCompose(y -> executeQuery0(args, state));
+                                    .thenCompose(y -> runQuery0(operation, state));
                         }
                     }
 
@@ -199,28 +301,179 @@ public abstract class GelBinaryClient extends BaseGelClient {
                 IOFormat.BINARY,
                 TypeBuilder.requiredImplicitTypeNames(cls)
         )).thenCompose(result -> {
-            var arr = new ArrayList<T>(result.data.size());
+            try {
+                return CompletableFuture.completedFuture(buildResults(cls, result));
+            } catch (GelException | OperationNotSupportedException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    private <T> @NotNull List<T> buildResults(
+            @NotNull Class<T> cls, @NotNull ExecuteResult result
+    ) throws GelException, OperationNotSupportedException {
+        var arr = new ArrayList<T>(result.data.size());
+
+        try {
+            var codec = result.data.isEmpty() ? result.codec : ObjectBuilder.getResultCodec(this, result.codec, cls);
 
             for(int i = 0; i != result.data.size(); i++) {
+                arr.add(
+                        i,
+                        ObjectBuilder.buildVisitedResult(
+                                this,
+                                codec,
+                                result.data.get(i),
+                                cls
+                        )
+                );
+            }
+        } finally {
+            // free the buffers
+            for(var buffer : result.data) {
+                buffer.release();
+            }
+        }
+
+        return Collections.unmodifiableList(arr);
+    }
+
+    @Override
+    public <T> CompletionStage<PreparedQuery<T>> prepare(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return new PreparedQueryImpl<>(cls, query, cardinality, capabilities, this::runPrepared).prepare();
+    }
+
+    private <U> CompletionStage<U> runPrepared(@NotNull Function<GelBinaryClient, CompletionStage<U>> operation) {
+        return operation.apply(this);
+    }
+
+    @Override
+    public CompletionStage<Void> executeBatch(@NotNull List<QueryWithArgs> queries) {
+        var args = new ArrayList<QueryParameters>(queries.size());
+
+        for(var query : queries) {
+            args.add(new QueryParameters(
+                    query.getQuery(),
+                    query.getArgs(),
+                    query.getCapabilities(),
+                    Cardinality.MANY,
+                    IOFormat.NONE,
+                    false
+            ));
+        }
+
+        return executeQueries(args).thenAccept(results -> {
+            for(var result : results) {
+                for(var buffer : result.data) {
+                    buffer.release();
+                }
+            }
+        });
+    }
+
+    @Override
+    public <T> CompletionStage<List<List<@Nullable T>>> queryBatch(
+            @NotNull Class<T> cls,
+            @NotNull List<QueryWithArgs> queries
+    ) {
+        var args = new ArrayList<QueryParameters>(queries.size());
+        var implicitTypeNames = TypeBuilder.requiredImplicitTypeNames(cls);
+
+        for(var query : queries) {
+            args.add(new QueryParameters(
+                    query.getQuery(),
+                    query.getArgs(),
+                    query.getCapabilities(),
+                    Cardinality.MANY,
+                    IOFormat.BINARY,
+                    implicitTypeNames
+            ));
+        }
+
+        return executeQueries(args).thenCompose(results -> {
+            var batch = new ArrayList<List<T>>(results.size());
+            Exception error = null;
+
+            for(var result : results) {
+                if(error != null) {
+                    // keep going so every buffer is freed.
+                    for(var buffer : result.data) {
+                        buffer.release();
+                    }
+
+                    continue;
+                }
+
                 try {
-                    arr.add(
-                            i,
-                            ObjectBuilder.buildResult(
-                                    this,
-                                    result.codec,
-                                    result.data.get(i),
-                                    cls
-                            )
-                    );
+                    batch.add(buildResults(cls, result));
                 } catch (GelException | OperationNotSupportedException e) {
-                    return CompletableFuture.failedFuture(e);
-                } finally {
-                    // free the buffer
-                    result.data.get(i).release();
+                    error = e;
                 }
             }
 
-            return CompletableFuture.completedFuture(Collections.unmodifiableList(arr));
+            return error == null
+                    ? CompletableFuture.completedFuture(Collections.unmodifiableList(batch))
+                    : CompletableFuture.failedFuture(error);
+        });
+    }
+
+    @Override
+    public <T> Flow.Publisher<T> queryStream(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return new ResultPublisher<>(sink -> {
+            final var duplexer = getDuplexer();
+            sink.onFlowControl(duplexer::suspendReads, duplexer::resumeReads);
+
+            final var parameters = new QueryParameters(
+                    query,
+                    args,
+                    capabilities,
+                    Cardinality.MANY,
+                    IOFormat.BINARY,
+                    TypeBuilder.requiredImplicitTypeNames(cls)
+            );
+
+            final var hasEmitted = new AtomicBoolean();
+            final var decodeError = new AtomicReference<Exception>();
+
+            return executeQuery(parameters, parseResult -> {
+                if(hasEmitted.get()) {
+                    // the subscriber has already seen part of the result, a retry would duplicate it.
+                    return CompletableFuture.failedFuture(
+                            new GelException("Cannot retry a streamed query after results have been published")
+                    );
+                }
+
+                return protocolProvider.executeQuery(parameters, parseResult, (codec, data) -> {
+                    // keep reading until the command completes so the connection stays usable, but stop decoding.
+                    if(sink.isCancelled() || decodeError.get() != null) {
+                        return;
+                    }
+
+                    try {
+                        var value = ObjectBuilder.buildResult(this, codec, data, cls);
+
+                        if(value != null) {
+                            hasEmitted.set(true);
+                            sink.next(value);
+                        }
+                    } catch (GelException | OperationNotSupportedException e) {
+                        decodeError.set(e);
+                    }
+                }).thenCompose(v -> decodeError.get() == null
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.failedFuture(decodeError.get())
+                );
+            });
         });
     }
 
@@ -357,6 +610,47 @@ public abstract class GelBinaryClient extends BaseGelClient {
         });
     }
 
+    @Override
+    public <T> CompletionStage<T> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities,
+            @NotNull JsonResultReader<T> reader
+    ) {
+        return executeQuery(new QueryParameters(
+                query,
+                args,
+                capabilities,
+                Cardinality.MANY,
+                IOFormat.JSON,
+                false
+        )).thenApplyAsync(result -> {
+            // the reader may block on I/O of its own, so it runs on the common pool rather than the event loop.
+            if(result.data.size() > 1) {
+                for (var buffer : result.data) {
+                    buffer.release();
+                }
+
+                throw new CompletionException(
+                        new ResultCardinalityMismatchException(Cardinality.AT_MOST_ONE, Cardinality.MANY)
+                );
+            }
+
+            // the row holds the UTF-8 text of the array, the reader gets it without a copy.
+            var data = result.data.isEmpty()
+                    ? Unpooled.wrappedBuffer(EMPTY_JSON_ARRAY)
+                    : result.data.get(0);
+
+            try(var json = new ByteBufInputStream(data)) {
+                return reader.read(json);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                data.release();
+            }
+        });
+    }
+
     @Override
     public CompletionStage<List<Json>> queryJsonElements(@NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
         return executeQuery(new QueryParameters(
@@ -4,16 +4,16 @@ import com.gel.driver.*;
 import com.gel.driver.async.ChannelCompletableFuture;
 import com.gel.driver.binary.PacketSerializer;
 import com.gel.driver.binary.duplexers.ChannelDuplexer;
+import com.gel.driver.clients.transport.NettyTransport;
+import com.gel.driver.exceptions.ConfigurationException;
 import com.gel.driver.exceptions.ConnectionFailedTemporarilyException;
 import com.gel.driver.util.SslUtils;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.ApplicationProtocolConfig;
 import io.netty.handler.ssl.ApplicationProtocolNegotiator;
 import io.netty.handler.ssl.SslContext;
@@ -21,10 +21,13 @@ import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.EventExecutorGroup;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -41,26 +44,34 @@ import static com.gel.driver.util.ComposableUtil.exceptionallyCompose;
 
 public class GelTcpClient extends GelBinaryClient implements TransactableClient {
     private static final Logger logger = LoggerFactory.getLogger(GelTcpClient.class);
-    private static final NioEventLoopGroup NETTY_TCP_GROUP = new NioEventLoopGroup();
-    private static final EventExecutorGroup DUPLEXER_GROUP = new DefaultEventExecutorGroup(8);
 
     private final @NotNull ChannelDuplexer duplexer;
     private final Bootstrap bootstrap;
+    private final @Nullable NettyTransport transport;
     private TransactionState transactionState;
 
     public GelTcpClient(GelConnection connection, GelClientConfig config, AutoCloseable poolHandle) {
         super(connection, config, poolHandle);
         this.duplexer = new ChannelDuplexer(this);
 
+        var unixSocket = connection.getUnixSocketPath() != null;
+
+        this.transport = unixSocket
+                ? NettyTransport.getDomainSocketTransport(config.getTransportType())
+                : NettyTransport.get(config.getTransportType());
+
         this.bootstrap = new Bootstrap()
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-                .group(NETTY_TCP_GROUP)
-                .channel(NioSocketChannel.class)
-                .handler(new ChannelInitializer<SocketChannel>() {
+                .handler(new ChannelInitializer<>() {
                     @Override
-                    protected void initChannel(@NotNull SocketChannel ch) throws Exception {
+                    protected void initChannel(@NotNull Channel ch) throws Exception {
                         var pipeline = ch.pipeline();
 
+                        if(unixSocket && !getConnectionArguments().useUnixSocketTLS()) {
+                            addProtocolHandlers(ch);
+                            return;
+                        }
+
                         SslContext context = new SslContext() {
                             SslContext innerContext = SslUtils.applyTrustManager(
                                 getConnectionArguments(), 
@@ -134,17 +145,36 @@ public class GelTcpClient extends GelBinaryClient implements TransactableClient
                                 )
                         );
 
-                        // edgedb-binary protocol and duplexer
-                        pipeline.addLast(
-                                PacketSerializer.createDecoder(GelTcpClient.this),
-                                PacketSerializer.createEncoder()
-                        );
-
-                        pipeline.addLast(DUPLEXER_GROUP, duplexer.channelHandler);
-
-                        duplexer.init(ch);
+                        addProtocolHandlers(ch);
                     }
                 });
+
+        if(transport != null) {
+            this.bootstrap
+                    .group(transport.getEventLoopGroup(config.getEventLoopThreads()))
+                    .channel(unixSocket ? transport.getDomainSocketChannelClass() : transport.getSocketChannelClass());
+        }
+    }
+
+    private void addProtocolHandlers(@NotNull Channel ch) {
+        // edgedb-binary protocol and duplexer
+        ch.pipeline().addLast(
+                PacketSerializer.createDecoder(this),
+                PacketSerializer.createEncoder(getConfig().getMetrics())
+        );
+
+        if(getConfig().useEventLoopHandlers()) {
+            ch.pipeline().addLast(duplexer.channelHandler);
+        } else {
+            ch.pipeline().addLast(DuplexerGroupHolder.GROUP, duplexer.channelHandler);
+        }
+
+        duplexer.init(ch);
+    }
+
+    // only created once a client hands its messages off the event loop.
+    private static final class DuplexerGroupHolder {
+        private static final EventExecutorGroup GROUP = new DefaultEventExecutorGroup(8);
     }
 
     @Override
@@ -152,6 +182,11 @@ public class GelTcpClient extends GelBinaryClient implements TransactableClient
         return this.duplexer;
     }
 
+    @Override
+    protected int getMaxInFlightCommands() {
+        return getConfig().getMaxPipelinedCommands();
+    }
+
     @Override
     public void setTransactionState(TransactionState state) {
         this.transactionState = state;
@@ -161,15 +196,27 @@ public class GelTcpClient extends GelBinaryClient implements TransactableClient
     protected CompletionStage<Void> openConnection() {
         final var connection = getConnectionArguments();
 
+        // only null for unix sockets, when no available transport supports them.
+        if(transport == null) {
+            return CompletableFuture.failedFuture(new ConfigurationException(
+                    "Connecting to a unix socket requires Netty's native epoll or kqueue transport"
+            ));
+        }
+
         try {
-            logger.debug("Opening connection from bootstrap");
+            SocketAddress address = connection.getUnixSocketPath() != null
+                    ? transport.createDomainSocketAddress(connection.getUnixSocketPath())
+                    : InetSocketAddress.createUnresolved(connection.getHostname(), connection.getPort());
+
+            if(address == null) {
+                return CompletableFuture.failedFuture(new ConfigurationException(
+                        "The " + transport.getType() + " transport doesn't support unix sockets"
+                ));
+            }
+
+            logger.debug("Opening connection to {} from bootstrap", address);
             return exceptionallyCompose(
-                    ChannelCompletableFuture.completeFrom(
-                        bootstrap.connect(
-                            connection.getHostname(),
-                            connection.getPort()
-                        )
-                    ),  e -> {
+                    ChannelCompletableFuture.completeFrom(bootstrap.connect(address)),  e -> {
                         logger.debug("Connection failed", e);
 
                         if(e instanceof CompletionException && e.getCause() instanceof ConnectException) {
@@ -189,6 +236,16 @@ public class GelTcpClient extends GelBinaryClient implements TransactableClient
         }
     }
 
+    @Override
+    public CompletionStage<Void> checkHealth() {
+        if(!isConnected()) {
+            return connect();
+        }
+
+        // a Sync round trip doesn't touch the session state of the connection.
+        return getProtocolProvider().sendSyncMessage();
+    }
+
     @Override
     protected CompletionStage<Void> closeConnection() {
         return this.duplexer.disconnect();
@@ -0,0 +1,45 @@
+package com.gel.driver.clients.transport;
+
+import com.gel.driver.TransportType;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.SocketAddress;
+import java.nio.file.Path;
+
+final class EpollTransport extends NettyTransport {
+    EpollTransport() {
+        super(TransportType.EPOLL);
+    }
+
+    static boolean isAvailable() {
+        return Epoll.isAvailable();
+    }
+
+    @Override
+    protected @NotNull EventLoopGroup createEventLoopGroup(int threads) {
+        return new EpollEventLoopGroup(threads);
+    }
+
+    @Override
+    public @NotNull Class<? extends SocketChannel> getSocketChannelClass() {
+        return EpollSocketChannel.class;
+    }
+
+    @Override
+    public @NotNull Class<? extends Channel> getDomainSocketChannelClass() {
+        return EpollDomainSocketChannel.class;
+    }
+
+    @Override
+    public @NotNull SocketAddress createDomainSocketAddress(@NotNull Path path) {
+        return new DomainSocketAddress(path.toFile());
+    }
+}
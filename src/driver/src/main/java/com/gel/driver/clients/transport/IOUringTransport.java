@@ -0,0 +1,54 @@
+package com.gel.driver.clients.transport;
+
+import com.gel.driver.TransportType;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The io_uring transport of {@code netty-incubator-transport-native-io_uring}. The incubator isn't versioned with
+ * Netty itself, so it's loaded reflectively rather than compiled against.
+ */
+final class IOUringTransport extends NettyTransport {
+    private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+    private final Class<? extends EventLoopGroup> groupClass;
+    private final Class<? extends SocketChannel> socketChannelClass;
+
+    IOUringTransport() {
+        super(TransportType.IO_URING);
+
+        try {
+            this.groupClass = load("IOUringEventLoopGroup").asSubclass(EventLoopGroup.class);
+            this.socketChannelClass = load("IOUringSocketChannel").asSubclass(SocketChannel.class);
+        } catch (ClassNotFoundException err) {
+            throw new NoClassDefFoundError(err.getMessage());
+        }
+    }
+
+    static boolean isAvailable() {
+        try {
+            return (boolean)load("IOUring").getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError err) {
+            return false;
+        }
+    }
+
+    private static Class<?> load(String name) throws ClassNotFoundException {
+        return Class.forName(PACKAGE + name, true, IOUringTransport.class.getClassLoader());
+    }
+
+    @Override
+    protected @NotNull EventLoopGroup createEventLoopGroup(int threads) {
+        try {
+            return groupClass.getConstructor(int.class).newInstance(threads);
+        } catch (ReflectiveOperationException err) {
+            throw new IllegalStateException("Failed to create the io_uring event loop group", err);
+        }
+    }
+
+    @Override
+    public @NotNull Class<? extends SocketChannel> getSocketChannelClass() {
+        return socketChannelClass;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gel.driver.clients.transport;
+
+import com.gel.driver.TransportType;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.kqueue.KQueue;
+import io.netty.channel.kqueue.KQueueDomainSocketChannel;
+import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.kqueue.KQueueSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.SocketAddress;
+import java.nio.file.Path;
+
+final class KQueueTransport extends NettyTransport {
+    KQueueTransport() {
+        super(TransportType.KQUEUE);
+    }
+
+    static boolean isAvailable() {
+        return KQueue.isAvailable();
+    }
+
+    @Override
+    protected @NotNull EventLoopGroup createEventLoopGroup(int threads) {
+        return new KQueueEventLoopGroup(threads);
+    }
+
+    @Override
+    public @NotNull Class<? extends SocketChannel> getSocketChannelClass() {
+        return KQueueSocketChannel.class;
+    }
+
+    @Override
+    public @NotNull Class<? extends Channel> getDomainSocketChannelClass() {
+        return KQueueDomainSocketChannel.class;
+    }
+
+    @Override
+    public @NotNull SocketAddress createDomainSocketAddress(@NotNull Path path) {
+        return new DomainSocketAddress(path.toFile());
+    }
+}
@@ -0,0 +1,189 @@
+package com.gel.driver.clients.transport;
+
+import com.gel.driver.TransportType;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a Netty transport: the event loops and channel types clients connect with.
+ * <br/><br/>
+ * Event loop groups are shared by every client using the same transport and thread count, and live for the duration
+ * of the process.
+ */
+public abstract class NettyTransport {
+    private static final Logger logger = LoggerFactory.getLogger(NettyTransport.class);
+
+    private static final Map<TransportType, NettyTransport> TRANSPORTS = new ConcurrentHashMap<>();
+    private static final Map<TransportType, Optional<NettyTransport>> AVAILABLE = new ConcurrentHashMap<>();
+
+    private final Map<Integer, EventLoopGroup> groups = new ConcurrentHashMap<>();
+    private final TransportType type;
+
+    /**
+     * Constructs a new {@linkplain NettyTransport}.
+     * @param type The type of the transport.
+     */
+    protected NettyTransport(@NotNull TransportType type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the type of this transport.
+     * @return The type of this transport, never {@linkplain TransportType#AUTO}.
+     */
+    public @NotNull TransportType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the shared event loop group of this transport for a given number of threads.
+     * @param threads The number of event loop threads, {@code 0} for Netty's default of twice the number of cores.
+     * @return The event loop group.
+     */
+    public @NotNull EventLoopGroup getEventLoopGroup(int threads) {
+        return groups.computeIfAbsent(threads, this::createEventLoopGroup);
+    }
+
+    /**
+     * Creates a new event loop group.
+     * @param threads The number of event loop threads, {@code 0} for Netty's default.
+     * @return The created event loop group.
+     */
+    protected abstract @NotNull EventLoopGroup createEventLoopGroup(int threads);
+
+    /**
+     * Gets the class of TCP channels of this transport.
+     * @return The class of the socket channels.
+     */
+    public abstract @NotNull Class<? extends SocketChannel> getSocketChannelClass();
+
+    /**
+     * Gets the class of unix domain socket channels of this transport.
+     * @return The class of the domain socket channels, or {@code null} if this transport doesn't support them.
+     */
+    public @Nullable Class<? extends Channel> getDomainSocketChannelClass() {
+        return null;
+    }
+
+    /**
+     * Creates the address of a unix domain socket.
+     * @param path The path of the socket.
+     * @return The address to connect domain socket channels to, or {@code null} if this transport doesn't support
+     * domain sockets.
+     */
+    public @Nullable SocketAddress createDomainSocketAddress(@NotNull Path path) {
+        return null;
+    }
+
+    /**
+     * Gets the transport for the given type. {@linkplain TransportType#AUTO} resolves to the first available
+     * native transport, or NIO; an explicitly requested transport that isn't available falls back to NIO.
+     * @param type The type of transport to get.
+     * @return The transport to use.
+     */
+    public static @NotNull NettyTransport get(@NotNull TransportType type) {
+        return TRANSPORTS.computeIfAbsent(type, NettyTransport::resolve);
+    }
+
+    /**
+     * Gets a transport supporting unix domain sockets, preferring the given type.
+     * @param type The preferred type of transport.
+     * @return The transport to use, or {@code null} if no transport with domain sockets is available.
+     */
+    public static @Nullable NettyTransport getDomainSocketTransport(@NotNull TransportType type) {
+        var preferred = get(type);
+
+        if(preferred.getDomainSocketChannelClass() != null) {
+            return preferred;
+        }
+
+        for(var candidate : new TransportType[] {TransportType.EPOLL, TransportType.KQUEUE}) {
+            var transport = getIfAvailable(candidate);
+
+            if(transport != null && transport.getDomainSocketChannelClass() != null) {
+                return transport;
+            }
+        }
+
+        return null;
+    }
+
+    private static @NotNull NettyTransport resolve(@NotNull TransportType type) {
+        switch (type) {
+            case AUTO:
+                for(var candidate : new TransportType[] {TransportType.IO_URING, TransportType.EPOLL, TransportType.KQUEUE}) {
+                    var transport = getIfAvailable(candidate);
+
+                    if(transport != null) {
+                        logger.debug("Using the {} transport", candidate);
+                        return transport;
+                    }
+                }
+                break;
+            case NIO:
+                break;
+            default:
+                var transport = getIfAvailable(type);
+
+                if(transport != null) {
+                    return transport;
+                }
+
+                logger.warn("The {} transport isn't available on this platform, falling back to NIO", type);
+                break;
+        }
+
+        return Objects.requireNonNull(getIfAvailable(TransportType.NIO));
+    }
+
+    // each available transport has a single instance, so its event loop groups are shared however it was requested.
+    private static @Nullable NettyTransport getIfAvailable(@NotNull TransportType type) {
+        return AVAILABLE.computeIfAbsent(type, t -> Optional.ofNullable(create(t))).orElse(null);
+    }
+
+    private static @Nullable NettyTransport create(@NotNull TransportType type) {
+        // the native transports are optional dependencies, their classes are only touched once they're known to exist.
+        try {
+            switch (type) {
+                case NIO:
+                    return new NioTransport();
+                case EPOLL:
+                    return isPresent("io.netty.channel.epoll.Epoll") && EpollTransport.isAvailable()
+                            ? new EpollTransport()
+                            : null;
+                case KQUEUE:
+                    return isPresent("io.netty.channel.kqueue.KQueue") && KQueueTransport.isAvailable()
+                            ? new KQueueTransport()
+                            : null;
+                case IO_URING:
+                    return IOUringTransport.isAvailable() ? new IOUringTransport() : null;
+                default:
+                    return null;
+            }
+        } catch (LinkageError err) {
+            logger.debug("Failed to load the {} transport", type, err);
+            return null;
+        }
+    }
+
+    private static boolean isPresent(@NotNull String className) {
+        try {
+            Class.forName(className, false, NettyTransport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError err) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.gel.driver.clients.transport;
+
+import com.gel.driver.TransportType;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.jetbrains.annotations.NotNull;
+
+final class NioTransport extends NettyTransport {
+    NioTransport() {
+        super(TransportType.NIO);
+    }
+
+    @Override
+    protected @NotNull EventLoopGroup createEventLoopGroup(int threads) {
+        return new NioEventLoopGroup(threads);
+    }
+
+    @Override
+    public @NotNull Class<? extends SocketChannel> getSocketChannelClass() {
+        return NioSocketChannel.class;
+    }
+}
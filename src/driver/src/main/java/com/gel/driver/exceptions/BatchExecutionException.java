@@ -0,0 +1,38 @@
+package com.gel.driver.exceptions;
+
+/**
+ * Represents an exception that occurs when a statement within a batch fails.
+ * <br/><br/>
+ * The statements of a batch are sent together and run in order; once one fails, the ones after it are skipped by
+ * Gel. Statements before the failed one have already run, and their effects are only undone if the batch was
+ * executed within a transaction.
+ * @see com.gel.driver.GelQueryable#executeBatch(java.util.List)
+ */
+public final class BatchExecutionException extends GelException {
+    private final int statementIndex;
+
+    /**
+     * Constructs a new {@linkplain BatchExecutionException}.
+     * @param statementIndex The index of the statement that failed within the batch.
+     * @param inner The error the statement failed with.
+     */
+    public BatchExecutionException(int statementIndex, GelException inner) {
+        // only the first statement can be retried, nothing in the batch has run when it fails.
+        super(
+                String.format("Statement %d of the batch failed", statementIndex),
+                inner,
+                statementIndex == 0 && inner.shouldRetry,
+                statementIndex == 0 && inner.shouldReconnect
+        );
+
+        this.statementIndex = statementIndex;
+    }
+
+    /**
+     * Gets the index of the statement that failed within the batch.
+     * @return The zero-based index of the failed statement; every statement before it has run.
+     */
+    public int getStatementIndex() {
+        return statementIndex;
+    }
+}
@@ -0,0 +1,48 @@
+package com.gel.driver.exceptions;
+
+/**
+ * Represents an exception that occurs when a client pool can't hand out a client in time. Either too many checkouts
+ * were already queued, or the checkout waited longer than the configured timeout.
+ * <br/><br/>
+ * The pool fails these checkouts fast instead of letting them pile up, callers can treat this exception as a signal
+ * to shed load.
+ * @see com.gel.driver.GelClientConfig#getMaxQueuedCheckouts()
+ * @see com.gel.driver.GelClientConfig#getCheckoutTimeout()
+ */
+public final class PoolCheckoutException extends GelException {
+    /**
+     * An enum specifying why a checkout failed.
+     */
+    public enum Reason {
+        /**
+         * The maximum number of queued checkouts was reached.
+         */
+        QUEUE_FULL,
+
+        /**
+         * The checkout waited longer than the checkout timeout.
+         */
+        TIMED_OUT
+    }
+
+    private final Reason reason;
+
+    /**
+     * Constructs a new {@linkplain PoolCheckoutException}.
+     * @param reason Why the checkout failed.
+     * @param message A detailed message describing why this exception was raised.
+     */
+    public PoolCheckoutException(Reason reason, String message) {
+        super(message);
+
+        this.reason = reason;
+    }
+
+    /**
+     * Gets why the checkout failed.
+     * @return The reason of the failure.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
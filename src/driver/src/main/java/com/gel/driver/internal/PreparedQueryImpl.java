@@ -0,0 +1,173 @@
+package com.gel.driver.internal;
+
+import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
+import com.gel.driver.PreparedQuery;
+import com.gel.driver.binary.builders.CodecBuilder;
+import com.gel.driver.binary.builders.ObjectBuilder;
+import com.gel.driver.binary.builders.types.TypeBuilder;
+import com.gel.driver.binary.codecs.Codec;
+import com.gel.driver.binary.protocol.ExecuteResult;
+import com.gel.driver.binary.protocol.QueryParameters;
+import com.gel.driver.binary.protocol.common.IOFormat;
+import com.gel.driver.clients.GelBinaryClient;
+import com.gel.driver.exceptions.GelException;
+import com.gel.driver.exceptions.ResultCardinalityMismatchException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.naming.OperationNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+public final class PreparedQueryImpl<T> implements PreparedQuery<T> {
+    private static final Logger logger = LoggerFactory.getLogger(PreparedQuery.class);
+
+    /**
+     * Runs an operation with a client, a pool checks out one of its clients for each operation.
+     */
+    @FunctionalInterface
+    public interface ClientRunner {
+        <U> CompletionStage<U> run(@NotNull Function<GelBinaryClient, CompletionStage<U>> operation);
+    }
+
+    private static final class PinnedCodecs {
+        public final CodecBuilder.QueryCodecs codecs;
+        public final Codec<?> resultCodec;
+
+        private PinnedCodecs(CodecBuilder.QueryCodecs codecs, Codec<?> resultCodec) {
+            this.codecs = codecs;
+            this.resultCodec = resultCodec;
+        }
+
+        public boolean matches(@NotNull CodecBuilder.QueryCodecs codecs) {
+            return this.codecs.inputCodec == codecs.inputCodec && this.codecs.outputCodec == codecs.outputCodec;
+        }
+    }
+
+    private final @NotNull Class<T> cls;
+    private final @NotNull String query;
+    private final @NotNull Cardinality cardinality;
+    private final @NotNull EnumSet<Capabilities> capabilities;
+    private final boolean implicitTypeNames;
+    private final @NotNull ClientRunner runner;
+
+    private volatile @Nullable PinnedCodecs pinned;
+
+    public PreparedQueryImpl(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality,
+            @NotNull EnumSet<Capabilities> capabilities,
+            @NotNull ClientRunner runner
+    ) {
+        this.cls = cls;
+        this.query = query;
+        this.cardinality = cardinality;
+        this.capabilities = EnumSet.copyOf(capabilities);
+        this.implicitTypeNames = TypeBuilder.requiredImplicitTypeNames(cls);
+        this.runner = runner;
+    }
+
+    /**
+     * Parses the query and pins its codecs.
+     * @return A {@linkplain CompletionStage} representing the asynchronous operation of preparing the query.
+     */
+    public CompletionStage<PreparedQuery<T>> prepare() {
+        return runner.run(client -> client.parseQuery(createParameters(null)).thenApply(result -> {
+            // an optimistic parse doesn't describe the query, the codecs are pinned after the first execution instead.
+            if(!CodecBuilder.NULL_CODEC_ID.equals(result.inCodecId)) {
+                try {
+                    pin(client, new CodecBuilder.QueryCodecs(
+                            result.inCodecId, result.inCodec, result.outCodecId, result.outCodec
+                    ));
+                } catch (GelException e) {
+                    throw new CompletionException(e);
+                }
+            }
+
+            return this;
+        }));
+    }
+
+    @Override
+    public @NotNull String getQuery() {
+        return query;
+    }
+
+    @Override
+    public @NotNull Cardinality getCardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public CompletionStage<List<@Nullable T>> query(@Nullable Map<String, Object> args) {
+        return execute(args, false);
+    }
+
+    @Override
+    public CompletionStage<@Nullable T> querySingle(@Nullable Map<String, Object> args) {
+        return execute(args, true).thenApply(results -> results.isEmpty() ? null : results.get(0));
+    }
+
+    private CompletionStage<List<T>> execute(@Nullable Map<String, Object> args, boolean single) {
+        return runner.run(client -> {
+            var parameters = createParameters(args);
+            var pinned = this.pinned;
+
+            return (pinned == null ? client.executeQuery(parameters) : client.executeQuery(parameters, pinned.codecs))
+                    .thenApply(result -> buildResults(client, pinned, result, single));
+        });
+    }
+
+    private @NotNull List<T> buildResults(
+            @NotNull GelBinaryClient client, @Nullable PinnedCodecs pinned, @NotNull ExecuteResult result, boolean single
+    ) {
+        try {
+            if(single && result.data.size() > 1) {
+                throw new ResultCardinalityMismatchException(Cardinality.AT_MOST_ONE, Cardinality.MANY);
+            }
+
+            if(pinned == null || !pinned.matches(result.codecs)) {
+                // the server described the query again, the new codecs are used from now on.
+                pinned = pin(client, result.codecs);
+            }
+
+            var arr = new ArrayList<T>(result.data.size());
+
+            for(var data : result.data) {
+                arr.add(ObjectBuilder.buildVisitedResult(client, pinned.resultCodec, data, cls));
+            }
+
+            return Collections.unmodifiableList(arr);
+        } catch (GelException | OperationNotSupportedException e) {
+            throw new CompletionException(e);
+        } finally {
+            for(var buffer : result.data) {
+                buffer.release();
+            }
+        }
+    }
+
+    private @NotNull PinnedCodecs pin(
+            @NotNull GelBinaryClient client, @NotNull CodecBuilder.QueryCodecs codecs
+    ) throws GelException {
+        logger.debug("Pinning codecs {} -> {} for prepared query", codecs.inputCodecId, codecs.outputCodecId);
+
+        var pinned = new PinnedCodecs(codecs, ObjectBuilder.getResultCodec(client, codecs.outputCodec, cls));
+        this.pinned = pinned;
+        return pinned;
+    }
+
+    private @NotNull QueryParameters createParameters(@Nullable Map<String, Object> args) {
+        return new QueryParameters(query, args, capabilities, cardinality, IOFormat.BINARY, implicitTypeNames);
+    }
+}
@@ -0,0 +1,79 @@
+package com.gel.driver.internal;
+
+import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelQueryable;
+import com.gel.driver.PreparedQuery;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@linkplain PreparedQuery} that runs each execution as a regular query of a {@linkplain GelQueryable}, for
+ * implementations that don't pin codecs themselves. The queryable still parses the query once and reuses its cached
+ * codecs on later executions.
+ * @param <T> The result type of the query.
+ */
+public final class QueryablePreparedQuery<T> implements PreparedQuery<T> {
+    private final @NotNull GelQueryable queryable;
+    private final @NotNull Class<T> cls;
+    private final @NotNull String query;
+    private final @NotNull Cardinality cardinality;
+    private final @NotNull EnumSet<Capabilities> capabilities;
+
+    public QueryablePreparedQuery(
+            @NotNull GelQueryable queryable,
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        this.queryable = queryable;
+        this.cls = cls;
+        this.query = query;
+        this.cardinality = cardinality;
+        this.capabilities = EnumSet.copyOf(capabilities);
+    }
+
+    @Override
+    public @NotNull String getQuery() {
+        return query;
+    }
+
+    @Override
+    public @NotNull Cardinality getCardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public CompletionStage<List<@Nullable T>> query(@Nullable Map<String, Object> args) {
+        switch (cardinality) {
+            case NO_RESULT:
+                return queryable.execute(query, args, capabilities).thenApply(v -> Collections.emptyList());
+            case AT_MOST_ONE:
+            case ONE:
+                return querySingle(args).thenApply(
+                        result -> result == null ? Collections.emptyList() : Collections.singletonList(result)
+                );
+            default:
+                return queryable.query(cls, query, args, capabilities);
+        }
+    }
+
+    @Override
+    public CompletionStage<@Nullable T> querySingle(@Nullable Map<String, Object> args) {
+        switch (cardinality) {
+            case NO_RESULT:
+                return queryable.execute(query, args, capabilities).thenApply(v -> null);
+            case ONE:
+                return queryable.queryRequiredSingle(cls, query, args, capabilities);
+            default:
+                return queryable.querySingle(cls, query, args, capabilities);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.gel.driver.internal;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
+import com.gel.driver.JsonResultReader;
+import com.gel.driver.PreparedQuery;
+import com.gel.driver.QueryWithArgs;
 import com.gel.driver.Transaction;
 import com.gel.driver.TransactionSettings;
 import com.gel.driver.TransactionState;
 import com.gel.driver.abstractions.QueryDelegate;
+import com.gel.driver.async.ResultPublisher;
 import com.gel.driver.clients.TransactableClient;
 import com.gel.driver.datatypes.Json;
 import com.gel.driver.exceptions.GelException;
@@ -20,9 +25,11 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public final class TransactionImpl implements Transaction {
     private static final Logger logger = LoggerFactory.getLogger(com.gel.driver.Transaction.class);
@@ -30,6 +37,7 @@ public final class TransactionImpl implements Transaction {
     private final TransactionSettings settings;
 
     private final @NotNull Semaphore semaphore;
+    private volatile boolean completed;
 
     public TransactionImpl(TransactableClient client, TransactionSettings settings) {
         this.client = client;
@@ -60,32 +68,30 @@ public final class TransactionImpl implements Transaction {
     }
 
     private CompletionStage<Void> commit() {
+        this.completed = true;
         return this.client.commit();
     }
 
     private CompletionStage<Void> rollback() {
+        this.completed = true;
         return this.client.rollback();
     }
 
 
-    private <T, U> CompletionStage<U> executeTransactionStep(
-            Class<T> cls,
-            String query,
-            @Nullable Map<String, Object> args,
-            EnumSet<Capabilities> capabilities,
+    private <U> CompletionStage<U> executeTransactionStep(
             @NotNull AtomicInteger attempts,
-            @NotNull QueryDelegate<T, U> delegate
+            @NotNull Supplier<CompletionStage<U>> step
     ) {
         return CompletableFuture.completedFuture(null)
                 .thenCompose((v) ->
-                        delegate.run(cls, query, args, capabilities)
+                        step.get()
                                 .thenApply(t -> (CompletionStage<U>)CompletableFuture.completedFuture(t))
                                 .exceptionally(e -> {
                                     if(e instanceof GelException) {
                                         if(((GelException) e).shouldRetry) {
 
                                             if(attempts.getAndIncrement() <= settings.getRetryAttempts()) {
-                                                return executeTransactionStep(cls, query, args, capabilities, attempts, delegate);
+                                                return executeTransactionStep(attempts, step);
                                             }
                                         }
                                     }
@@ -102,15 +108,28 @@ public final class TransactionImpl implements Transaction {
             EnumSet<Capabilities> capabilities,
             @NotNull QueryDelegate<T, U> delegate
     ) {
+        return executeTransaction(() -> delegate.run(cls, query, args, capabilities));
+    }
+
+    private <U> CompletionStage<U> executeTransaction(@NotNull Supplier<CompletionStage<U>> step) {
         final AtomicInteger attempts = new AtomicInteger();
 
+        if(completed) {
+            // the client is back outside of the transaction, the step would run as a query of its own.
+            return CompletableFuture.failedFuture(
+                    new TransactionException("The transaction has already been committed or rolled back")
+            );
+        }
+
         return CompletableFuture.runAsync(() -> {
             try {
                 semaphore.acquire();
             } catch (InterruptedException e) {
                 throw new CompletionException(e);
             }
-        }).thenCompose((v) -> executeTransactionStep(cls, query, args, capabilities, attempts, delegate));
+        }).thenCompose((v) -> executeTransactionStep(attempts, step)
+                .whenComplete((u, e) -> semaphore.release())
+        );
     }
 
     @Override
@@ -128,6 +147,17 @@ public final class TransactionImpl implements Transaction {
         return executeTransaction(cls, query, args, capabilities, client::query);
     }
 
+    @Override
+    public <T> Flow.Publisher<T> queryStream(@NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
+        // the stream holds the transaction until it terminates, so it can't interleave with the other steps. The
+        // client refuses to retry it once results were published, only a stream that failed before that is retried.
+        return new ResultPublisher<>(sink -> executeTransaction(() -> {
+            var forwarder = new StreamForwarder<>(sink);
+            client.queryStream(cls, query, args, capabilities).subscribe(forwarder);
+            return forwarder.done;
+        }));
+    }
+
     @Override
     public <T> CompletionStage<T> querySingle(@NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
         return executeTransaction(cls, query, args, capabilities, client::querySingle);
@@ -145,10 +175,149 @@ public final class TransactionImpl implements Transaction {
         );
     }
 
+    @Override
+    public <T> CompletionStage<T> queryJson(
+            @NotNull String query,
+            @Nullable Map<String, Object> args,
+            @NotNull EnumSet<Capabilities> capabilities,
+            @NotNull JsonResultReader<T> reader
+    ) {
+        return executeTransaction(Json.class, query, args, capabilities,
+                (c, q, a, ca) -> client.queryJson(q, a, ca, reader)
+        );
+    }
+
     @Override
     public CompletionStage<List<Json>> queryJsonElements(@NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities) {
         return executeTransaction(Json.class, query, args, capabilities,
                 (c, q, a, ca) -> client.queryJsonElements(q, a, ca)
         );
     }
+
+    @Override
+    public <T> CompletionStage<PreparedQuery<T>> prepare(
+            @NotNull Class<T> cls,
+            @NotNull String query,
+            @NotNull Cardinality cardinality,
+            @NotNull EnumSet<Capabilities> capabilities
+    ) {
+        return executeTransaction(() -> client.prepare(cls, query, cardinality, capabilities))
+                .<PreparedQuery<T>>thenApply(TransactionPreparedQuery::new);
+    }
+
+    @Override
+    public CompletionStage<Void> executeBatch(@NotNull List<QueryWithArgs> queries) {
+        return executeTransaction(() -> client.executeBatch(queries));
+    }
+
+    @Override
+    public <T> CompletionStage<List<List<@Nullable T>>> queryBatch(
+            @NotNull Class<T> cls,
+            @NotNull List<QueryWithArgs> queries
+    ) {
+        return executeTransaction(() -> client.queryBatch(cls, queries));
+    }
+
+    /**
+     * A query prepared within the transaction, its executions are steps of the transaction.
+     */
+    private final class TransactionPreparedQuery<T> implements PreparedQuery<T> {
+        private final PreparedQuery<T> prepared;
+
+        public TransactionPreparedQuery(PreparedQuery<T> prepared) {
+            this.prepared = prepared;
+        }
+
+        @Override
+        public @NotNull String getQuery() {
+            return prepared.getQuery();
+        }
+
+        @Override
+        public @NotNull Cardinality getCardinality() {
+            return prepared.getCardinality();
+        }
+
+        @Override
+        public CompletionStage<List<@Nullable T>> query(@Nullable Map<String, Object> args) {
+            return executeTransaction(() -> prepared.query(args));
+        }
+
+        @Override
+        public CompletionStage<@Nullable T> querySingle(@Nullable Map<String, Object> args) {
+            return executeTransaction(() -> prepared.querySingle(args));
+        }
+    }
+
+    /**
+     * Forwards the results of a stream to the sink of another, requesting results one at a time while the sink isn't
+     * paused so the backpressure of the outer subscriber reaches the connection.
+     */
+    private static final class StreamForwarder<T> implements Flow.Subscriber<T> {
+        public final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private final ResultPublisher.Sink<T> sink;
+        private volatile @Nullable Flow.Subscription subscription;
+        private volatile boolean paused;
+        private volatile boolean draining;
+
+        public StreamForwarder(ResultPublisher.Sink<T> sink) {
+            this.sink = sink;
+            sink.onFlowControl(() -> paused = true, this::resume);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            request();
+        }
+
+        @Override
+        public void onNext(T item) {
+            if(draining) {
+                return;
+            }
+
+            sink.next(item);
+
+            if(!paused) {
+                request();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        private void resume() {
+            paused = false;
+            request();
+        }
+
+        private void request() {
+            var subscription = this.subscription;
+
+            if(subscription == null) {
+                return;
+            }
+
+            // a cancelled stream is read to its end rather than cancelled, so the transaction is only released once
+            // the query is done with the connection.
+            if(sink.isCancelled() && !draining) {
+                draining = true;
+                subscription.request(Long.MAX_VALUE);
+                return;
+            }
+
+            if(!draining) {
+                subscription.request(1);
+            }
+        }
+    }
 }
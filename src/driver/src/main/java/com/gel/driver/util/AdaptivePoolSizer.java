@@ -0,0 +1,227 @@
+package com.gel.driver.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Sizes a {@linkplain ClientPoolHolder} between configured bounds, from the time checkouts spend waiting for a
+ * permit and the concurrency the server suggests.
+ * <br/><br/>
+ * Checkouts are sampled in windows of {@value #WINDOW_MILLIS}ms. A window whose checkouts waited more than
+ * {@value #GROW_WAIT_MILLIS}ms on average, or that ends with checkouts still queued, grows the pool by half its size.
+ * Once no checkout had to wait for {@value #SHRINK_DELAY_SECONDS}s, the pool shrinks halfway towards the peak number
+ * of permits in use over those {@value #SHRINK_DELAY_SECONDS}s plus some headroom. The server's suggested concurrency
+ * caps the size, the configured maximum caps the suggestion.
+ * <br/><br/>
+ * Recording a checkout is lock-free, only the evaluation at the end of a window is synchronized.
+ */
+public final class AdaptivePoolSizer {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    private static final long WINDOW_MILLIS = 100;
+    private static final long GROW_WAIT_MILLIS = 1;
+    private static final long SHRINK_DELAY_SECONDS = 30;
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS);
+    private static final long GROW_WAIT = TimeUnit.MILLISECONDS.toNanos(GROW_WAIT_MILLIS);
+    private static final long SHRINK_DELAY = TimeUnit.SECONDS.toNanos(SHRINK_DELAY_SECONDS);
+
+    private final @NotNull ClientPoolHolder holder;
+    private final @NotNull LongSupplier clock;
+    private final boolean adaptive;
+    private final long initialSize;
+    private final long minSize;
+    private final long maxSize;
+
+    private final @NotNull LongAdder checkouts;
+    private final @NotNull LongAdder waitTime;
+    private final @NotNull AtomicLong peakInUse;
+    private final @NotNull AtomicLong windowStart;
+    private volatile long suggestedConcurrency;
+
+    // guarded by 'this'. The start of the current shrink window: the last window with waits, or the last shrink
+    // decision. 'peakInUse' holds the peak since then.
+    private long lastWait;
+
+    /**
+     * Constructs a new {@linkplain AdaptivePoolSizer}.
+     * @param holder The holder to size, its current size is the initial size.
+     * @param adaptive Whether the size adapts to the observed wait time. If not, the size only follows the server's
+     *                 suggested concurrency.
+     * @param minSize The minimum size.
+     * @param maxSize The maximum size, {@code 0} to follow the server's suggested concurrency.
+     */
+    public AdaptivePoolSizer(@NotNull ClientPoolHolder holder, boolean adaptive, int minSize, int maxSize) {
+        this(holder, adaptive, minSize, maxSize, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new {@linkplain AdaptivePoolSizer} with the given clock.
+     * @param holder The holder to size, its current size is the initial size.
+     * @param adaptive Whether the size adapts to the observed wait time.
+     * @param minSize The minimum size.
+     * @param maxSize The maximum size, {@code 0} to follow the server's suggested concurrency.
+     * @param clock The clock windows are measured with, in nanoseconds.
+     */
+    public AdaptivePoolSizer(
+            @NotNull ClientPoolHolder holder,
+            boolean adaptive,
+            int minSize,
+            int maxSize,
+            @NotNull LongSupplier clock
+    ) {
+        this.holder = holder;
+        this.clock = clock;
+        this.adaptive = adaptive;
+        this.initialSize = holder.size();
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.checkouts = new LongAdder();
+        this.waitTime = new LongAdder();
+        this.peakInUse = new AtomicLong();
+        this.windowStart = new AtomicLong(clock.getAsLong());
+        this.lastWait = this.windowStart.get();
+
+        if(adaptive) {
+            var clamped = Math.max(Math.min(this.initialSize, getMaxSize()), getMinSize());
+
+            if(clamped != this.initialSize) {
+                holder.resize(clamped);
+            }
+        }
+    }
+
+    /**
+     * Records a checkout that got its permit.
+     * @param waitNanos The time the checkout waited for its permit, in nanoseconds.
+     */
+    public void recordCheckout(long waitNanos) {
+        if(!this.adaptive) {
+            return;
+        }
+
+        this.checkouts.increment();
+
+        if(waitNanos > 0) {
+            this.waitTime.add(waitNanos);
+        }
+
+        var inUse = this.holder.inUse();
+
+        if(inUse > this.peakInUse.get()) {
+            this.peakInUse.accumulateAndGet(inUse, Math::max);
+        }
+
+        tryEvaluate();
+    }
+
+    /**
+     * Records a checkout that had to queue for its permit. Long running queries return their permits late, so the
+     * window is evaluated here too instead of only once the queued checkout gets its permit.
+     */
+    public void recordQueued() {
+        if(this.adaptive) {
+            tryEvaluate();
+        }
+    }
+
+    /**
+     * Applies the pool concurrency the server suggested, clamping the size into the new bounds.
+     * @param suggestedConcurrency The suggested concurrency.
+     */
+    public void onSuggestedConcurrency(long suggestedConcurrency) {
+        if(suggestedConcurrency <= 0 || suggestedConcurrency == this.suggestedConcurrency) {
+            return;
+        }
+
+        synchronized (this) {
+            this.suggestedConcurrency = suggestedConcurrency;
+
+            if(!this.adaptive) {
+                this.holder.resize(suggestedConcurrency);
+                return;
+            }
+
+            var size = this.holder.size();
+            var clamped = Math.max(Math.min(size, getMaxSize()), getMinSize());
+
+            if(clamped != size) {
+                logger.debug("Clamping pool size from {} to {} for suggested concurrency {}", size, clamped,
+                        suggestedConcurrency);
+                this.holder.resize(clamped);
+            }
+        }
+    }
+
+    /**
+     * Gets the size the pool can currently grow to.
+     * @return The configured maximum, capped by the server's suggested concurrency once it's known.
+     */
+    public long getMaxSize() {
+        var suggested = this.suggestedConcurrency;
+        var max = this.maxSize > 0 ? this.maxSize : Math.max(this.initialSize, suggested);
+
+        return suggested > 0 ? Math.min(max, suggested) : max;
+    }
+
+    /**
+     * Gets the size the pool can currently shrink to.
+     * @return The configured minimum, capped by the {@linkplain #getMaxSize() maximum size}.
+     */
+    public long getMinSize() {
+        return Math.min(this.minSize, getMaxSize());
+    }
+
+    private void tryEvaluate() {
+        var now = this.clock.getAsLong();
+        var start = this.windowStart.get();
+
+        if(now - start >= WINDOW && this.windowStart.compareAndSet(start, now)) {
+            evaluate(now);
+        }
+    }
+
+    private synchronized void evaluate(long now) {
+        var count = this.checkouts.sumThenReset();
+        var wait = this.waitTime.sumThenReset();
+        var size = this.holder.size();
+
+        if((count > 0 && wait / count > GROW_WAIT) || this.holder.waiting() > 0) {
+            this.lastWait = now;
+            this.peakInUse.set(this.holder.inUse());
+
+            var grown = Math.min(size + Math.max(1, size / 2), getMaxSize());
+
+            if(grown > size) {
+                logger.debug("Growing pool from {} to {}, average wait {}ns over {} checkouts", size, grown,
+                        count > 0 ? wait / count : 0, count);
+                this.holder.resize(grown);
+            }
+
+            return;
+        }
+
+        if(now - this.lastWait < SHRINK_DELAY) {
+            return;
+        }
+
+        // a burst early in the delay counts as much as a late one, the next decision looks at the next full delay.
+        var peak = this.peakInUse.getAndSet(this.holder.inUse());
+        this.lastWait = now;
+
+        var target = Math.max(peak + Math.max(1, peak / 4), getMinSize());
+
+        if(target < size) {
+            var shrunk = size - Math.max(1, (size - target) / 2);
+
+            logger.debug("Shrinking pool from {} to {}, peak in use {}", size, shrunk, peak);
+            this.holder.resize(shrunk);
+        }
+    }
+}
@@ -2,10 +2,10 @@ package com.gel.driver.util;
 
 import com.gel.driver.binary.SerializableData;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 public class BinaryProtocolUtils {
@@ -23,7 +23,8 @@ public class BinaryProtocolUtils {
         int size = 4;
 
         if(s != null) {
-            size += s.getBytes(StandardCharsets.UTF_8).length;
+            // counts the encoded bytes without encoding them.
+            size += ByteBufUtil.utf8Bytes(s);
         }
 
         return size;
@@ -1,86 +1,361 @@
 package com.gel.driver.util;
 
+import com.gel.driver.CheckoutPriority;
+import com.gel.driver.ClientPoolStatistics;
 import com.gel.driver.clients.BaseGelClient;
+import com.gel.driver.exceptions.PoolCheckoutException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Objects;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * Tracks the number of clients that can be checked out of a pool at once, queueing checkouts past that limit in a
+ * FIFO lane per {@linkplain CheckoutPriority}.
+ * <br/><br/>
+ * The holder is lock-free: {@code available} is the number of free permits minus the number of queued waiters, so a
+ * negative value tells a releasing thread that it has to hand its permit to a waiter instead of returning it. Waiters
+ * that time out remove themselves from their lane, unless a releasing thread already counts on handing them a permit:
+ * those stay queued until it skips them, and are counted in {@code abandoned} meanwhile.
+ */
 public final class ClientPoolHolder {
     private static final Logger logger = LoggerFactory.getLogger(ClientPoolHolder.class);
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+    private static final CheckoutPriority[] LANES = CheckoutPriority.values();
 
-    private long size;
-    private final @NotNull ConcurrentLinkedQueue<CompletableFuture<Void>> queue;
+    // inclusive upper bounds of the wait time histogram buckets, in milliseconds.
+    private static final long[] WAIT_TIME_BOUNDS = {0, 1, 5, 10, 50, 100, 500, 1000, 5000};
+    private static final long[] WAIT_TIME_BOUND_NANOS = Arrays.stream(WAIT_TIME_BOUNDS)
+            .map(TimeUnit.MILLISECONDS::toNanos)
+            .toArray();
 
-    private final @NotNull AtomicLong count;
+    private final @NotNull AtomicLong size;
+    private final @NotNull AtomicLong available;
+    private final @NotNull AtomicLong retiring;
+    private final @NotNull AtomicLong abandoned;
+    private final @NotNull AtomicLong handoffs;
+    private final @NotNull ConcurrentLinkedQueue<Waiter>[] waiters;
+    private final int maxQueued;
+    private final long timeoutNanos;
+
+    private final @NotNull LongAdder rejected;
+    private final @NotNull LongAdder timedOut;
+    private final @NotNull LongAdder[] waitTimes;
 
     public ClientPoolHolder(int initialSize) {
-        this.size = initialSize;
-        this.queue = new ConcurrentLinkedQueue<>();
-        this.count = new AtomicLong(size);
+        this(initialSize, 0, Duration.ZERO);
+    }
+
+    /**
+     * Constructs a new {@linkplain ClientPoolHolder}.
+     * @param initialSize The initial number of permits.
+     * @param maxQueued The number of waiters past which checkouts are rejected, {@code 0} for no limit.
+     * @param timeout The time a waiter waits for a permit before it fails, {@linkplain Duration#ZERO} for no limit.
+     */
+    @SuppressWarnings("unchecked")
+    public ClientPoolHolder(int initialSize, int maxQueued, @NotNull Duration timeout) {
+        this.size = new AtomicLong(initialSize);
+        this.available = new AtomicLong(initialSize);
+        this.retiring = new AtomicLong();
+        this.abandoned = new AtomicLong();
+        this.handoffs = new AtomicLong();
+        this.waiters = new ConcurrentLinkedQueue[LANES.length];
+        this.maxQueued = maxQueued;
+        this.timeoutNanos = timeout.toNanos();
+        this.rejected = new LongAdder();
+        this.timedOut = new LongAdder();
+        this.waitTimes = new LongAdder[WAIT_TIME_BOUNDS.length + 1];
+
+        for(int i = 0; i != this.waiters.length; i++) {
+            this.waiters[i] = new ConcurrentLinkedQueue<>();
+        }
+
+        for(int i = 0; i != this.waitTimes.length; i++) {
+            this.waitTimes[i] = new LongAdder();
+        }
+    }
+
+    public long size() {
+        return this.size.get();
     }
 
     public long remaining() {
-        return this.size - count.get();
+        return Math.max(this.available.get(), 0);
+    }
+
+    public long waiting() {
+        return Math.max(-this.available.get() - this.abandoned.get(), 0);
     }
 
+    /**
+     * Gets the number of permits currently checked out, including the ones that are retired once they're released.
+     * @return The number of permits in use.
+     */
+    public long inUse() {
+        return Math.max(this.size.get() + this.retiring.get() - remaining(), 0);
+    }
+
+    /**
+     * Changes the number of permits. Growing wakes queued waiters first; shrinking takes free permits right away and
+     * retires checked out ones as they're released.
+     * @param newValue The new number of permits.
+     */
     public void resize(long newValue) {
-        if(newValue == this.size) {
+        var delta = newValue - this.size.getAndSet(newValue);
+
+        if(delta == 0) {
             return;
         }
 
-        count.getAndUpdate(v -> v + (newValue - size));
-        this.size = newValue;
+        logger.debug("Resizing pool by {} to {}", delta, newValue);
+
+        // growing hands the new permits out exactly like returned ones, waking queued waiters first.
+        for(; delta > 0; delta--) {
+            release();
+        }
+
+        // shrinking takes free permits right away, anything still checked out is retired when it's released.
+        for(; delta < 0; delta++) {
+            var current = this.available.get();
+
+            while(current > 0 && !this.available.compareAndSet(current, current - 1)) {
+                current = this.available.get();
+            }
+
+            if(current <= 0) {
+                this.retiring.incrementAndGet();
+            }
+        }
     }
 
-    public CompletionStage<PoolContract> acquireContract() {
-        var c = count.decrementAndGet();
+    /**
+     * Acquires a permit to check out a client, queueing as an {@linkplain CheckoutPriority#INTERACTIVE interactive}
+     * checkout.
+     * @return A {@linkplain CompletionStage} that completes once a permit is available.
+     */
+    public CompletionStage<Void> acquire() {
+        return acquire(CheckoutPriority.INTERACTIVE);
+    }
 
-        if(c < 0) {
-            count.compareAndSet(-1, 0);
+    /**
+     * Acquires a permit to check out a client.
+     * @param priority The lane to queue in if no permit is free.
+     * @return A {@linkplain CompletionStage} that completes once a permit is available, or fails with a
+     * {@linkplain PoolCheckoutException} if the queue is full or the wait timed out.
+     */
+    public CompletionStage<Void> acquire(@NotNull CheckoutPriority priority) {
+        // the check races with other acquires, the queue can overshoot the limit by the number of concurrent ones.
+        if(this.maxQueued > 0 && this.available.get() <= 0 && waiting() >= this.maxQueued) {
+            this.rejected.increment();
+            return CompletableFuture.failedFuture(new PoolCheckoutException(
+                    PoolCheckoutException.Reason.QUEUE_FULL,
+                    String.format("The client pool has %d checkouts queued already", this.maxQueued)
+            ));
+        }
+
+        if(this.available.getAndDecrement() > 0) {
+            this.waitTimes[0].increment();
+            return ACQUIRED;
+        }
 
-            var promise = new CompletableFuture<Void>();
+        var waiter = new Waiter(priority.ordinal(), System.nanoTime());
+        this.waiters[priority.ordinal()].offer(waiter);
 
-            queue.add(promise);
+        logger.trace("No permits available, queued {} waiter {}", priority, waiter.hashCode());
 
-            return promise.thenApply(v -> lendContract());
+        if(this.timeoutNanos > 0) {
+            waiter.orTimeout(this.timeoutNanos, TimeUnit.NANOSECONDS);
         }
-        else {
-            return CompletableFuture.completedFuture(lendContract());
+
+        return waiter;
+    }
+
+    /**
+     * Acquires a permit if one is free, without queueing.
+     * @return {@code true} if a permit was acquired; otherwise {@code false}.
+     */
+    public boolean tryAcquire() {
+        var current = this.available.get();
+
+        while(current > 0) {
+            if(this.available.compareAndSet(current, current - 1)) {
+                return true;
+            }
+
+            current = this.available.get();
         }
+
+        return false;
     }
 
-    private @NotNull PoolContract lendContract() {
-        return new PoolContract(this::completeContract);
+    /**
+     * Returns a permit, handing it to the oldest waiter if there is one.
+     */
+    public void release() {
+        while(true) {
+            var retire = this.retiring.get();
+
+            if(retire > 0) {
+                if(this.retiring.compareAndSet(retire, retire - 1)) {
+                    logger.trace("Retired permit after pool shrink");
+                    return;
+                }
+
+                continue;
+            }
+
+            if(this.available.getAndIncrement() >= 0) {
+                return;
+            }
+
+            // the waiter decremented 'available' before offering itself to the queue, so it's at most a few
+            // instructions away from becoming visible.
+            Waiter waiter;
+            while((waiter = pollWaiter()) == null) {
+                Thread.onSpinWait();
+            }
+
+            if(waiter.complete(null)) {
+                recordWaitTime(System.nanoTime() - waiter.queuedAt);
+                return;
+            }
+
+            // the waiter gave up before it was woken; our increment settled its place in the count, so the permit
+            // is still ours to hand out.
+            if(waiter.timedOut) {
+                this.abandoned.decrementAndGet();
+            }
+
+            logger.trace("Skipping abandoned waiter {}", waiter.hashCode());
+        }
     }
 
-    private void completeContract(PoolContract contract) {
-        logger.debug("Completing contract {}...", contract);
+    /**
+     * Gets a snapshot of the checkout counters.
+     * @return The current {@linkplain ClientPoolStatistics}.
+     */
+    public @NotNull ClientPoolStatistics getStatistics() {
+        var counts = new long[this.waitTimes.length];
 
-        if(queue.isEmpty()) {
-            logger.debug("Empty contract queue, incrementing count");
-            count.incrementAndGet();
-            return;
+        for(int i = 0; i != counts.length; i++) {
+            counts[i] = this.waitTimes[i].sum();
+        }
+
+        return new ClientPoolStatistics(
+                size(), inUse(), waiting(), this.rejected.sum(), this.timedOut.sum(),
+                Arrays.stream(WAIT_TIME_BOUNDS).mapToObj(Duration::ofMillis).collect(Collectors.toUnmodifiableList()),
+                counts
+        );
+    }
+
+    // every fourth handoff starts at the lowest lane, so batch checkouts are slowed down by interactive ones but
+    // aren't starved by them.
+    private @Nullable Waiter pollWaiter() {
+        var reverse = (this.handoffs.getAndIncrement() & 3) == 3;
+
+        for(int i = 0; i != this.waiters.length; i++) {
+            var waiter = this.waiters[reverse ? this.waiters.length - 1 - i : i].poll();
+
+            if(waiter != null) {
+                return waiter;
+            }
+        }
+
+        return null;
+    }
+
+    private void recordWaitTime(long nanos) {
+        for(int i = 0; i != WAIT_TIME_BOUND_NANOS.length; i++) {
+            if(nanos <= WAIT_TIME_BOUND_NANOS[i]) {
+                this.waitTimes[i].increment();
+                return;
+            }
+        }
+
+        this.waitTimes[WAIT_TIME_BOUND_NANOS.length].increment();
+    }
+
+    private final class Waiter extends CompletableFuture<Void> {
+        private final int lane;
+        private final long queuedAt;
+        private volatile boolean timedOut;
+
+        Waiter(int lane, long queuedAt) {
+            this.lane = lane;
+            this.queuedAt = queuedAt;
         }
 
+        // 'orTimeout' fails the waiter with a TimeoutException, it's replaced with the pool's own exception here.
+        @Override
+        public boolean completeExceptionally(Throwable ex) {
+            if(!(ex instanceof TimeoutException)) {
+                return super.completeExceptionally(ex);
+            }
+
+            var error = new PoolCheckoutException(
+                    PoolCheckoutException.Reason.TIMED_OUT,
+                    String.format("No client was available within %dms", TimeUnit.NANOSECONDS.toMillis(timeoutNanos))
+            );
+
+            // set before completing, so the thread that skips this waiter sees it.
+            this.timedOut = true;
+
+            if(waiters[this.lane].remove(this)) {
+                // out of the queue, no releasing thread can complete this waiter any more.
+                ClientPoolHolder.this.timedOut.increment();
+
+                // while other waiters are counted, no releasing thread is left without one to hand its permit to, so
+                // this waiter's place in the count can be given back.
+                var current = available.get();
+
+                while(current < 0) {
+                    if(available.compareAndSet(current, current + 1)) {
+                        return super.completeExceptionally(error);
+                    }
 
-        logger.debug("Polling queue and completing...");
-        Objects.requireNonNull(queue.poll()).complete(null);
+                    current = available.get();
+                }
+
+                // a releasing thread already counts on this waiter, it's queued again for that thread to skip.
+                super.completeExceptionally(error);
+                abandoned.incrementAndGet();
+                waiters[this.lane].offer(this);
+                return true;
+            }
+
+            // a releasing thread polled this waiter, and skips it if this completes first.
+            if(!super.completeExceptionally(error)) {
+                return false;
+            }
+
+            abandoned.incrementAndGet();
+            ClientPoolHolder.this.timedOut.increment();
+            return true;
+        }
+    }
+
+    public @NotNull PoolContract createContract() {
+        return new PoolContract(this::release);
     }
 
     public static class PoolContract implements AutoCloseable {
-        private final Consumer<PoolContract> completer;
+        private final Runnable completer;
         private @Nullable BaseGelClient client;
         private @Nullable Consumer<BaseGelClient> onComplete;
 
-        private PoolContract(Consumer<PoolContract> completer) {
+        private PoolContract(Runnable completer) {
             this.completer = completer;
         }
 
@@ -91,11 +366,12 @@ public final class ClientPoolHolder {
 
         @Override
         public void close() {
-            this.completer.accept(this);
-
+            // return the client before the permit, so the waiter that gets the permit can reuse it.
             if(client != null && onComplete != null) {
                 onComplete.accept(client);
             }
+
+            this.completer.run();
         }
 
         @Override
@@ -16,8 +16,10 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.text.Normalizer;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -27,6 +29,11 @@ public class Scram {
     private static final SecureRandom random = new SecureRandom();
     private static final Pattern serverMessageParser = Pattern.compile("(.)=(.+?)(?>,|$)");
 
+    // a process only authenticates with a handful of credentials, the cache is cleared if that's not the case.
+    private static final int MAX_CACHED_KEYS = 64;
+    private static final ConcurrentHashMap<KeyCacheKey, DerivedKeys> keyCache = new ConcurrentHashMap<>();
+
+    private String username;
     private String rawFirstMessage;
     private byte[] clientNonce;
 
@@ -64,7 +71,8 @@ public class Scram {
             this.clientNonce = generateNonce();
         }
 
-        this.rawFirstMessage = String.format("n=%s,r=%s", Normalizer.normalize(username, Normalizer.Form.NFKC), Base64.getEncoder().encodeToString(this.clientNonce));
+        this.username = Normalizer.normalize(username, Normalizer.Form.NFKC);
+        this.rawFirstMessage = String.format("n=%s,r=%s", this.username, Base64.getEncoder().encodeToString(this.clientNonce));
         return "n,," + this.rawFirstMessage;
     }
 
@@ -99,14 +107,11 @@ public class Scram {
         var finalMessage = "c=biws,r=" + parsed.get("r");
         var authMessage = String.format("%s,%s,%s", this.rawFirstMessage, initialResponse, finalMessage).getBytes(StandardCharsets.UTF_8);
 
-        var saltedPassword = saltPassword(password, salt, iterations);
-        var clientKey = getClientKey(saltedPassword);
-        var storedKey = hash(clientKey);
-        var clientSig = computeHMACHash(storedKey, authMessage);
-        var clientProof = xor(clientKey, clientSig);
+        var keys = getKeys(password, salt, iterations);
+        var clientSig = computeHMACHash(keys.storedKey, authMessage);
+        var clientProof = xor(keys.clientKey, clientSig);
 
-        var serverKey = getServerKey(saltedPassword);
-        var serverProof = computeHMACHash(serverKey, authMessage);
+        var serverProof = computeHMACHash(keys.serverKey, authMessage);
 
         return new SASLFinalMessage(
                 String.format("%s,p=%s", finalMessage, Base64.getEncoder().encodeToString(clientProof)),
@@ -114,6 +119,35 @@ public class Scram {
         );
     }
 
+    /**
+     * Clears the process-wide cache of keys derived from passwords.
+     */
+    public static void clearKeyCache() {
+        keyCache.clear();
+    }
+
+    private @NotNull DerivedKeys getKeys(@NotNull String password, byte @NotNull [] salt, int iterations) throws ScramException {
+        var cacheKey = new KeyCacheKey(
+                this.username,
+                hash(password.getBytes(StandardCharsets.UTF_8)),
+                salt,
+                iterations
+        );
+
+        var keys = keyCache.get(cacheKey);
+
+        if(keys == null) {
+            if(keyCache.size() >= MAX_CACHED_KEYS) {
+                keyCache.clear();
+            }
+
+            keys = keyCache.computeIfAbsent(cacheKey, k -> new DerivedKeys());
+        }
+
+        keys.derive(password, salt, iterations);
+        return keys;
+    }
+
     public static byte[] parseServerFinalMessage(@NotNull ByteBuf status) {
         var message = decodeString(status);
 
@@ -179,6 +213,60 @@ public class Scram {
         return result;
     }
 
+    /**
+     * The keys derived from a salted password, shared by every authentication using the same credentials. Connections
+     * opened at the same time wait for the first one to derive them instead of repeating the work.
+     */
+    private static final class DerivedKeys {
+        private byte[] clientKey;
+        private byte[] storedKey;
+        private byte[] serverKey;
+
+        synchronized void derive(@NotNull String password, byte @NotNull [] salt, int iterations) throws ScramException {
+            if(serverKey != null) {
+                return;
+            }
+
+            var saltedPassword = saltPassword(password, salt, iterations);
+            clientKey = getClientKey(saltedPassword);
+            storedKey = hash(clientKey);
+            serverKey = getServerKey(saltedPassword);
+        }
+    }
+
+    private static final class KeyCacheKey {
+        private final String username;
+        private final byte[] passwordDigest;
+        private final byte[] salt;
+        private final int iterations;
+
+        KeyCacheKey(String username, byte[] passwordDigest, byte[] salt, int iterations) {
+            this.username = username;
+            this.passwordDigest = passwordDigest;
+            this.salt = salt;
+            this.iterations = iterations;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof KeyCacheKey)) {
+                return false;
+            }
+
+            var other = (KeyCacheKey)o;
+            return iterations == other.iterations
+                    && username.equals(other.username)
+                    && Arrays.equals(passwordDigest, other.passwordDigest)
+                    && Arrays.equals(salt, other.salt);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * username.hashCode() + Arrays.hashCode(passwordDigest)) + Arrays.hashCode(salt))
+                    + iterations;
+        }
+    }
+
     private static @NotNull Map<String, String> parseServerMessage(@NotNull String message) {
         var matcher = serverMessageParser.matcher(message);
         return matcher.results().collect(Collectors.toMap((v) -> v.group(1), (v) -> v.group(2)));
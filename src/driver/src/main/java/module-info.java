@@ -19,6 +19,14 @@ module com.gel.driver {
     requires org.jooq.joou;
     requires org.reflections;
     requires java.net.http;
+    requires static java.compiler;
+    requires static io.netty.transport.classes.epoll;
+    requires static io.netty.transport.classes.kqueue;
+    requires static io.netty.transport.unix.common;
+
+    uses com.gel.driver.GelTypeIndex;
+
+    provides javax.annotation.processing.Processor with com.gel.driver.annotations.processing.GelTypeProcessor;
 
     opens com.gel.driver;
 }
@@ -0,0 +1,102 @@
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelClientPool;
+import com.gel.driver.GelConnection;
+import io.netty.channel.epoll.Epoll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ClientPoolMaintenanceTests {
+    @Test
+    public void testWarmUpAndHealthChecks() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "the native epoll transport isn't available");
+
+        try(var server = new StandInServer()) {
+            var connection = GelConnection.builder()
+                    .withUnixSocket(server.getPath())
+                    .withWaitUntilAvailable("5s")
+                    .build();
+
+            var config = GelClientConfig.builder()
+                    .withPoolSize(8)
+                    .withMinIdle(4)
+                    // maintenance is only run by hand here.
+                    .withPoolMaintenanceInterval(Duration.ofHours(1))
+                    .build();
+
+            var pool = new GelClientPool(connection, config);
+
+            pool.warmUp().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            assertThat(pool.getClientCount()).isEqualTo(4);
+            assertThat(server.getHandshakes()).isEqualTo(4);
+
+            // a second run checks the idle clients instead of connecting new ones.
+            pool.warmUp().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            assertThat(server.getSyncs()).isEqualTo(4);
+            assertThat(server.getHandshakes()).isEqualTo(4);
+
+            // the permits held by the health checks are returned with the clients.
+            assertThat(pool.getClientCount()).isEqualTo(4);
+            assertThat(pool.getPoolStatistics().getInUse()).isZero();
+
+            // dropped connections are replaced.
+            server.closeConnections();
+            pool.warmUp().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            assertThat(pool.getClientCount()).isEqualTo(4);
+            assertThat(server.getHandshakes()).isEqualTo(8);
+
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testCloseDisconnectsClientsOfRunningMaintenance() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "the native epoll transport isn't available");
+
+        try(var server = new StandInServer()) {
+            var connection = GelConnection.builder()
+                    .withUnixSocket(server.getPath())
+                    .withWaitUntilAvailable("5s")
+                    .build();
+
+            var config = GelClientConfig.builder()
+                    .withPoolSize(8)
+                    .withMinIdle(4)
+                    .withPoolMaintenanceInterval(Duration.ofHours(1))
+                    .build();
+
+            var pool = new GelClientPool(connection, config);
+
+            // closing while the clients connect waits for them, and disconnects them instead of pooling them.
+            var warmUp = pool.warmUp().toCompletableFuture();
+            pool.close();
+
+            assertThat(warmUp).isDone();
+            assertThat(pool.getClientCount()).isZero();
+            assertThat(pool.getPoolStatistics().getInUse()).isZero();
+
+            var handshakes = server.getHandshakes();
+
+            // maintenance doesn't run on a closed pool.
+            pool.warmUp().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            assertThat(pool.getClientCount()).isZero();
+            assertThat(server.getHandshakes()).isEqualTo(handshakes);
+
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+            while(server.getOpenConnections() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(server.getOpenConnections()).isZero();
+        }
+    }
+}
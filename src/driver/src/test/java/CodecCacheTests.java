@@ -0,0 +1,322 @@
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.binary.builders.CodecBuilder;
+import com.gel.driver.binary.builders.PersistentCodecCache;
+import com.gel.driver.binary.codecs.ArrayCodec;
+import com.gel.driver.binary.codecs.Codec;
+import com.gel.driver.binary.codecs.CompilableCodec;
+import com.gel.driver.binary.codecs.TupleCodec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.binary.protocol.QueryCacheKey;
+import com.gel.driver.binary.protocol.common.IOFormat;
+import com.gel.driver.clients.GelTcpClient;
+import com.gel.driver.datatypes.Tuple;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CodecCacheTests {
+    private static final String SCOPE = "localhost-5656-main-v1.0";
+    private static final QueryCacheKey KEY = new QueryCacheKey("select 'Hello'", Cardinality.MANY, IOFormat.BINARY, 0);
+    private static final UUID INPUT_ID = UUID.randomUUID();
+    private static final UUID OUTPUT_ID = UUID.randomUUID();
+    private static final byte[] INPUT_DESCRIPTOR = {1, 2, 3};
+    private static final byte[] OUTPUT_DESCRIPTOR = {4, 5, 6, 7};
+
+    private static PersistentCodecCache openWithQuery(Path directory) {
+        var cache = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(cache).isNotNull();
+
+        var input = Unpooled.wrappedBuffer(INPUT_DESCRIPTOR);
+        cache.put(KEY, INPUT_ID, input, OUTPUT_ID, Unpooled.wrappedBuffer(OUTPUT_DESCRIPTOR));
+        cache.flush();
+
+        assertThat(input.readerIndex()).isZero();
+        return cache;
+    }
+
+    @Test
+    public void testPersistedCodecsAreReadBack(@TempDir Path directory) {
+        openWithQuery(directory);
+
+        var cache = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(cache).isNotNull();
+
+        var key = new QueryCacheKey("select 'Hello'", Cardinality.MANY, IOFormat.BINARY, 0);
+        var query = cache.getQuery(key);
+
+        assertThat(query).isNotNull();
+        assertThat(query.inputTypeDescriptorId).isEqualTo(INPUT_ID);
+        assertThat(query.outputTypeDescriptorId).isEqualTo(OUTPUT_ID);
+        assertThat(cache.getDescriptor(INPUT_ID)).isEqualTo(INPUT_DESCRIPTOR);
+        assertThat(cache.getDescriptor(OUTPUT_ID)).isEqualTo(OUTPUT_DESCRIPTOR);
+
+        assertThat(cache.getQuery(new QueryCacheKey("select 'Hello'", Cardinality.ONE, IOFormat.BINARY, 0))).isNull();
+    }
+
+    @Test
+    public void testLaterDescriptionsReplaceEarlierOnes(@TempDir Path directory) {
+        var cache = openWithQuery(directory);
+        var newOutputId = UUID.randomUUID();
+
+        cache.put(KEY, INPUT_ID, Unpooled.wrappedBuffer(INPUT_DESCRIPTOR), newOutputId, Unpooled.wrappedBuffer(new byte[] {8}));
+        cache.flush();
+
+        var reopened = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(reopened).isNotNull();
+        assertThat(reopened.getQuery(KEY)).isNotNull();
+        assertThat(reopened.getQuery(KEY).outputTypeDescriptorId).isEqualTo(newOutputId);
+        assertThat(reopened.getDescriptor(newOutputId)).containsExactly(8);
+    }
+
+    @Test
+    public void testPartialRecordsAreDropped(@TempDir Path directory) throws IOException {
+        openWithQuery(directory);
+
+        var file = Files.list(directory).findFirst().orElseThrow();
+        var length = Files.size(file);
+
+        // a process stopped midway through writing a record.
+        try(var channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 0, 0, 0, 100, 42}));
+        }
+
+        var cache = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(cache).isNotNull();
+        assertThat(cache.getQuery(KEY)).isNotNull();
+        assertThat(Files.size(file)).isEqualTo(length);
+    }
+
+    @Test
+    public void testRecordsAreWrittenInTheBackground(@TempDir Path directory) throws Exception {
+        var cache = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(cache).isNotNull();
+
+        var file = Files.list(directory).findFirst().orElseThrow();
+        var headerLength = Files.size(file);
+
+        cache.put(KEY, INPUT_ID, Unpooled.wrappedBuffer(INPUT_DESCRIPTOR), OUTPUT_ID, null);
+
+        // readable right away, written once the writer gets to it.
+        assertThat(cache.getQuery(KEY)).isNotNull();
+
+        for(int i = 0; i != 100 && Files.size(file) == headerLength; i++) {
+            Thread.sleep(50);
+        }
+
+        var reopened = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(reopened).isNotNull();
+        assertThat(reopened.getQuery(KEY)).isNotNull();
+    }
+
+    @Test
+    public void testLoadKeepsTheMostRecentQueriesWithinTheLimit(@TempDir Path directory) {
+        var cache = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(cache).isNotNull();
+
+        for(int i = 0; i != 10; i++) {
+            cache.put(queryKey(i), INPUT_ID, Unpooled.wrappedBuffer(INPUT_DESCRIPTOR), UUID.randomUUID(), null);
+        }
+
+        cache.flush();
+
+        // a process with a smaller limit opens the file written by this one.
+        var limited = PersistentCodecCache.open(directory, SCOPE, 4);
+        assertThat(limited).isNotNull();
+        assertThat(limited.size()).isEqualTo(4);
+        assertThat(limited.getQuery(queryKey(5))).isNull();
+        assertThat(limited.getQuery(queryKey(9))).isNotNull();
+
+        var reopened = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(reopened).isNotNull();
+        assertThat(reopened.size()).isEqualTo(4);
+        assertThat(reopened.getDescriptor(INPUT_ID)).isEqualTo(INPUT_DESCRIPTOR);
+    }
+
+    @Test
+    public void testSupersededRecordsAreCompacted(@TempDir Path directory) throws IOException {
+        var cache = openWithQuery(directory);
+        var file = Files.list(directory).findFirst().orElseThrow();
+        var length = Files.size(file);
+
+        // the same query described anew over and over, each description appends a record.
+        UUID outputId = OUTPUT_ID;
+
+        for(int i = 0; i != 200; i++) {
+            outputId = UUID.randomUUID();
+            cache.put(KEY, INPUT_ID, Unpooled.wrappedBuffer(INPUT_DESCRIPTOR), outputId, null);
+            cache.flush();
+        }
+
+        assertThat(Files.size(file)).isLessThan(length + 100L * 64);
+
+        var reopened = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(reopened).isNotNull();
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.getQuery(KEY).outputTypeDescriptorId).isEqualTo(outputId);
+        assertThat(reopened.getDescriptor(INPUT_ID)).isEqualTo(INPUT_DESCRIPTOR);
+        assertThat(reopened.getDescriptor(OUTPUT_ID)).isNull();
+    }
+
+    private static QueryCacheKey queryKey(int i) {
+        return new QueryCacheKey("select " + i, Cardinality.MANY, IOFormat.BINARY, 0);
+    }
+
+    @Test
+    public void testClearRemovesPersistedCodecs(@TempDir Path directory) {
+        openWithQuery(directory).clear();
+
+        var cache = PersistentCodecCache.open(directory, SCOPE, 16);
+        assertThat(cache).isNotNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getDescriptor(INPUT_ID)).isNull();
+    }
+
+    @Test
+    public void testNewDescriptionsReplaceCachedCodecs() {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        var provider = new GelTcpClient(connection, GelClientConfig.DEFAULT, null).getProtocolProvider();
+        var key = new QueryCacheKey("select " + UUID.randomUUID(), Cardinality.MANY, IOFormat.BINARY, 0);
+        var oldOutputId = UUID.randomUUID();
+        var newOutputId = UUID.randomUUID();
+
+        CodecBuilder.getOrCreateCodec(provider, CodecBuilder.NULL_CODEC_ID, () -> CodecBuilder.NULL_CODEC);
+        CodecBuilder.getOrCreateCodec(provider, oldOutputId, () -> new Integer64Codec(null));
+        CodecBuilder.getOrCreateCodec(provider, newOutputId, () -> new Integer64Codec(null));
+
+        CodecBuilder.updateCachedCodecs(provider, key, CodecBuilder.NULL_CODEC_ID, oldOutputId);
+        assertThat(CodecBuilder.getCachedCodecs(provider, key)).isNotNull();
+
+        // the schema changed, and the server described the query again.
+        CodecBuilder.updateCachedCodecs(provider, key, CodecBuilder.NULL_CODEC_ID, newOutputId);
+
+        var codecs = CodecBuilder.getCachedCodecs(provider, key);
+        assertThat(codecs).isNotNull();
+        assertThat(codecs.outputCodecId).isEqualTo(newOutputId);
+    }
+
+    @Test
+    public void testNewDescriptionsReplaceRestoredCodecs(@TempDir Path directory) {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5657)
+                .build();
+
+        var config = GelClientConfig.builder()
+                .withCodecCacheDirectory(directory)
+                .build();
+
+        var client = new GelTcpClient(connection, config, null);
+        var schemaId = UUID.randomUUID();
+        client.setStateDescriptorId(schemaId);
+
+        var provider = client.getProtocolProvider();
+        var key = new QueryCacheKey("select " + UUID.randomUUID(), Cardinality.MANY, IOFormat.BINARY, 0);
+        var textId = UUID.fromString("00000000-0000-0000-0000-000000000101");
+        var int64Id = UUID.fromString("00000000-0000-0000-0000-000000000105");
+
+        // persisted before a migration changed the type of the result.
+        CodecBuilder.persistCachedCodecs(provider, key, CodecBuilder.NULL_CODEC_ID, null, textId, null);
+
+        var restored = CodecBuilder.restoreCachedCodecs(client, key);
+        assertThat(restored).isNotNull();
+        assertThat(restored.outputCodecId).isEqualTo(textId);
+
+        CodecBuilder.persistCachedCodecs(provider, key, CodecBuilder.NULL_CODEC_ID, null, int64Id, null);
+        CodecBuilder.updateCachedCodecs(provider, key, CodecBuilder.NULL_CODEC_ID, int64Id);
+
+        var codecs = CodecBuilder.getCachedCodecs(provider, key);
+        assertThat(codecs).isNotNull();
+        assertThat(codecs.outputCodecId).isEqualTo(int64Id);
+
+        provider.getCodecCache().flushPersistedCodecs();
+
+        var scope = String.format(
+                "%s-%d-%s-v%s-%s-%d", connection.getHostname(), connection.getPort(), connection.getBranch(),
+                provider.getVersion(), schemaId, config.getCodecCacheSize()
+        );
+        var persisted = PersistentCodecCache.open(directory, scope, 16);
+        assertThat(persisted).isNotNull();
+        assertThat(persisted.getQuery(key)).isNotNull();
+        assertThat(persisted.getQuery(key).outputTypeDescriptorId).isEqualTo(int64Id);
+    }
+
+    @Test
+    public void testCachesAreScopedToSchemaAndSettings() {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5658)
+                .build();
+
+        var small = GelClientConfig.builder().withCodecCacheSize(16).build();
+        var large = GelClientConfig.builder().withCodecCacheSize(64).build();
+        var schemaId = UUID.randomUUID();
+
+        var first = new GelTcpClient(connection, small, null);
+        var second = new GelTcpClient(connection, small, null);
+        var other = new GelTcpClient(connection, large, null);
+
+        for(var client : new GelTcpClient[] { first, second, other }) {
+            client.setStateDescriptorId(schemaId);
+        }
+
+        var cache = first.getProtocolProvider().getCodecCache();
+
+        assertThat(second.getProtocolProvider().getCodecCache()).isSameAs(cache);
+        assertThat(other.getProtocolProvider().getCodecCache()).isNotSameAs(cache);
+
+        // a migration changed the state type, the client moves to a cache of the new schema.
+        first.setStateDescriptorId(UUID.randomUUID());
+
+        var migrated = first.getProtocolProvider().getCodecCache();
+
+        assertThat(migrated).isNotSameAs(cache);
+        assertThat(migrated.isForSchema(first.getStateDescriptorId())).isTrue();
+
+        // the cache of the earlier schema was dropped once the new one was created.
+        var late = new GelTcpClient(connection, small, null);
+        late.setStateDescriptorId(schemaId);
+
+        assertThat(late.getProtocolProvider().getCodecCache()).isNotSameAs(cache);
+    }
+
+    @Test
+    public void testVisitedCodecsDoNotModifySharedCodecs() throws Exception {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        var client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+
+        var array = new CompilableCodec(
+                UUID.randomUUID(), null, new Integer64Codec(null), ArrayCodec::new, t -> Array.newInstance(t, 0).getClass()
+        );
+        var tuple = new TupleCodec(UUID.randomUUID(), null, new Codec<?>[] { new Integer64Codec(null), array });
+
+        var visited = CodecBuilder.getVisitedCodec(client, tuple, Tuple.class);
+
+        assertThat(visited).isInstanceOf(TupleCodec.class).isNotSameAs(tuple);
+        assertThat(((TupleCodec) visited).innerCodecs[1]).isInstanceOf(ArrayCodec.class);
+        assertThat(tuple.innerCodecs[1]).isSameAs(array);
+
+        assertThat(CodecBuilder.getVisitedCodec(client, tuple, Tuple.class)).isSameAs(visited);
+    }
+}
+
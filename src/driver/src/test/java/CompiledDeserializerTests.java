@@ -0,0 +1,257 @@
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.annotations.GelDeserializer;
+import com.gel.driver.annotations.GelName;
+import com.gel.driver.annotations.GelType;
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.codecs.CodecContext;
+import com.gel.driver.binary.codecs.ObjectCodec;
+import com.gel.driver.binary.codecs.scalars.BoolCodec;
+import com.gel.driver.binary.codecs.scalars.Float64Codec;
+import com.gel.driver.binary.codecs.scalars.Integer32Codec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.binary.codecs.scalars.TextCodec;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledDeserializerTests {
+    // 'name', 'count', 'ratio' and 'active' are required, 'nickname' and 'score' are optional and 'tag' isn't bound.
+    private static final ObjectCodec.ObjectProperty[] ELEMENTS = new ObjectCodec.ObjectProperty[] {
+            ObjectCodec.propertyOf("name", Cardinality.ONE, new TextCodec(null)),
+            ObjectCodec.propertyOf("nickname", Cardinality.AT_MOST_ONE, new TextCodec(null)),
+            ObjectCodec.propertyOf("tag", Cardinality.ONE, new TextCodec(null)),
+            ObjectCodec.propertyOf("count", Cardinality.ONE, new Integer64Codec(null)),
+            ObjectCodec.propertyOf("ratio", Cardinality.ONE, new Float64Codec(null)),
+            ObjectCodec.propertyOf("active", Cardinality.ONE, new BoolCodec(null)),
+            ObjectCodec.propertyOf("score", Cardinality.AT_MOST_ONE, new Integer32Codec(null))
+    };
+
+    @GelType
+    public static class FieldPerson {
+        public String name;
+        public String nickname;
+        public long count;
+        public double ratio;
+        public boolean active;
+        public int score = -1;
+        public String missing = "untouched";
+
+        public void setName(String name) {
+            this.name = "set " + name;
+        }
+    }
+
+    @GelType
+    public static class BoxedPerson {
+        public String name;
+        public String nickname;
+        public Long count;
+        public Double ratio;
+        public Boolean active;
+        public Integer score = -1;
+    }
+
+    @GelType
+    public static class ConstructorPerson {
+        public final String name;
+        public final String nickname;
+        public final long count;
+        public final double ratio;
+        public final boolean active;
+        public final int score;
+        public final String missing;
+
+        @GelDeserializer
+        public ConstructorPerson(
+                @GelName("name") String name,
+                @GelName("nickname") String nickname,
+                @GelName("count") long count,
+                @GelName("ratio") double ratio,
+                @GelName("active") boolean active,
+                @GelName("score") int score,
+                @GelName("missing") String missing
+        ) {
+            this.name = name;
+            this.nickname = nickname;
+            this.count = count;
+            this.ratio = ratio;
+            this.active = active;
+            this.score = score;
+            this.missing = missing;
+        }
+    }
+
+    @Test
+    public void testFieldsMatchReflectiveDeserializer() throws Exception {
+        for(var data : new ByteBuf[] { writeObject(true), writeObject(false) }) {
+            var reflective = deserialize(FieldPerson.class, false, false, data);
+            var compiled = deserialize(FieldPerson.class, true, false, data);
+
+            assertThat(compiled).usingRecursiveComparison().isEqualTo(reflective);
+        }
+
+        var compiled = deserialize(FieldPerson.class, true, false, writeObject(true));
+
+        assertThat(compiled.name).isEqualTo("Jane");
+        assertThat(compiled.nickname).isEqualTo("J");
+        assertThat(compiled.count).isEqualTo(42L);
+        assertThat(compiled.ratio).isEqualTo(0.5);
+        assertThat(compiled.active).isTrue();
+        assertThat(compiled.score).isEqualTo(7);
+        assertThat(compiled.missing).isEqualTo("untouched");
+    }
+
+    @Test
+    public void testNullableFieldsMatchReflectiveDeserializer() throws Exception {
+        var data = writeObject(false);
+
+        var reflective = deserialize(FieldPerson.class, false, false, data);
+        var compiled = deserialize(FieldPerson.class, true, false, data);
+
+        assertThat(compiled).usingRecursiveComparison().isEqualTo(reflective);
+
+        // missing values are the default of the field type, replacing the initial value.
+        assertThat(compiled.nickname).isNull();
+        assertThat(compiled.score).isZero();
+
+        var reflectiveBoxed = deserialize(BoxedPerson.class, false, false, data);
+        var compiledBoxed = deserialize(BoxedPerson.class, true, false, data);
+
+        assertThat(compiledBoxed).usingRecursiveComparison().isEqualTo(reflectiveBoxed);
+        assertThat(compiledBoxed.score).isNull();
+        assertThat(compiledBoxed.count).isEqualTo(42L);
+    }
+
+    @Test
+    public void testFieldSettersMatchReflectiveDeserializer() throws Exception {
+        var data = writeObject(true);
+
+        var reflective = deserialize(FieldPerson.class, false, true, data);
+        var compiled = deserialize(FieldPerson.class, true, true, data);
+
+        assertThat(compiled).usingRecursiveComparison().isEqualTo(reflective);
+        assertThat(compiled.name).isEqualTo("set Jane");
+
+        // without field setters, the field is assigned directly.
+        assertThat(deserialize(FieldPerson.class, true, false, data).name).isEqualTo("Jane");
+    }
+
+    @Test
+    public void testConstructorMatchesReflectiveDeserializer() throws Exception {
+        for(var data : new ByteBuf[] { writeObject(true), writeObject(false) }) {
+            var reflective = deserialize(ConstructorPerson.class, false, false, data);
+            var compiled = deserialize(ConstructorPerson.class, true, false, data);
+
+            assertThat(compiled).usingRecursiveComparison().isEqualTo(reflective);
+        }
+
+        var compiled = deserialize(ConstructorPerson.class, true, false, writeObject(false));
+
+        assertThat(compiled.name).isEqualTo("Jane");
+        assertThat(compiled.nickname).isNull();
+        assertThat(compiled.count).isEqualTo(42L);
+        assertThat(compiled.score).isZero();
+        assertThat(compiled.missing).isNull();
+    }
+
+    @Test
+    public void testUnknownElementsAreSkipped() throws Exception {
+        var data = writeObject(true);
+        var reader = new PacketReader(data.duplicate());
+        var codec = new ObjectCodec(UUID.randomUUID(), null, null, ELEMENTS).getOrCreateTypeCodec(FieldPerson.class);
+
+        var result = (FieldPerson)codec.deserialize(reader, createContext(true, false));
+
+        // the unbound 'tag' element is read past, so the elements after it still line up.
+        assertThat(result).isNotNull();
+        assertThat(result.count).isEqualTo(42L);
+        assertThat(result.active).isTrue();
+        assertThat(reader.isEmpty()).isTrue();
+    }
+
+    private static <T> T deserialize(Class<T> cls, boolean compiled, boolean useFieldSetters, ByteBuf data) throws Exception {
+        var context = createContext(compiled, useFieldSetters);
+        var config = context.client.getConfig();
+
+        // a codec per call, so that one path can't reuse the deserializer bound by the other.
+        var codec = new ObjectCodec(UUID.randomUUID(), null, null, ELEMENTS).getOrCreateTypeCodec(cls);
+
+        if(compiled) {
+            var deserializer = codec.getDeserializer();
+
+            assertThat(deserializer).isNotNull();
+            assertThat(deserializer.compile(codec, config.getNamingStrategy(), config.useFieldSetters()))
+                    .withFailMessage("%s should be compilable", cls.getName())
+                    .isNotNull();
+        }
+
+        return cls.cast(codec.deserialize(new PacketReader(data.duplicate()), context));
+    }
+
+    private static CodecContext createContext(boolean compiled, boolean useFieldSetters) {
+        var config = GelClientConfig.builder()
+                .useCompiledDeserializers(compiled)
+                .useFieldSetters(useFieldSetters)
+                .build();
+
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        return new CodecContext(new GelTcpClient(connection, config, null));
+    }
+
+    private static ByteBuf writeObject(boolean withOptionals) {
+        var data = Unpooled.buffer();
+        data.writeInt(ELEMENTS.length);
+
+        writeText(data, "Jane");
+        writeText(data, withOptionals ? "J" : null);
+        writeText(data, "unbound");
+
+        data.writeInt(0); // reserved
+        data.writeInt(Long.BYTES);
+        data.writeLong(42);
+
+        data.writeInt(0); // reserved
+        data.writeInt(Double.BYTES);
+        data.writeDouble(0.5);
+
+        data.writeInt(0); // reserved
+        data.writeInt(1);
+        data.writeBoolean(true);
+
+        data.writeInt(0); // reserved
+
+        if(withOptionals) {
+            data.writeInt(Integer.BYTES);
+            data.writeInt(7);
+        } else {
+            data.writeInt(-1); // no value
+        }
+
+        return data;
+    }
+
+    private static void writeText(ByteBuf data, String value) {
+        data.writeInt(0); // reserved
+
+        if(value == null) {
+            data.writeInt(-1); // no value
+            return;
+        }
+
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.writeBytes(bytes);
+    }
+}
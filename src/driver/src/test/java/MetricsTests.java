@@ -0,0 +1,41 @@
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelMetrics;
+import com.gel.driver.binary.PacketSerializer;
+import com.gel.driver.binary.protocol.v1.sendables.Sync;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsTests {
+    @Test
+    public void testEncoderRecordsBytesSent() {
+        var sent = new AtomicLong();
+        var metrics = new GelMetrics() {
+            @Override
+            public void recordBytesSent(long bytes) {
+                sent.addAndGet(bytes);
+            }
+        };
+
+        var config = GelClientConfig.builder().withMetrics(metrics).build();
+
+        assertThat(config.getMetrics()).isSameAs(metrics);
+        assertThat(GelClientConfig.DEFAULT.getMetrics()).isSameAs(GelMetrics.NOOP);
+
+        var channel = new EmbeddedChannel(PacketSerializer.createEncoder(config.getMetrics()));
+        channel.writeOutbound(new Sync(), new Sync());
+
+        for(int i = 0; i != 2; i++) {
+            ByteBuf encoded = channel.readOutbound();
+            encoded.release();
+        }
+
+        // type and length of each message.
+        assertThat(sent.get()).isEqualTo(10);
+        assertThat(channel.finish()).isFalse();
+    }
+}
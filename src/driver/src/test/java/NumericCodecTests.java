@@ -0,0 +1,123 @@
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.PacketWriter;
+import com.gel.driver.binary.codecs.Codec;
+import com.gel.driver.binary.codecs.CodecContext;
+import com.gel.driver.binary.codecs.scalars.BigIntCodec;
+import com.gel.driver.binary.codecs.scalars.DecimalCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NumericCodecTests {
+    private static final CodecContext CONTEXT = new CodecContext(null);
+    private static final int ITERATIONS = 20_000;
+
+    private static <T> ByteBuf serialize(Codec<T> codec, T value) throws Exception {
+        try(var writer = new PacketWriter()) {
+            codec.serialize(writer, value, CONTEXT);
+            return writer.getBuffer().copy();
+        }
+    }
+
+    private static <T> T roundTrip(Codec<T> codec, T value) throws Exception {
+        var buffer = serialize(codec, value);
+        var result = codec.deserialize(new PacketReader(buffer), CONTEXT);
+
+        assertThat(buffer.isReadable()).isFalse();
+        return result;
+    }
+
+    // ndigits, weight, sign, dscale/reserved, digits...
+    private static String hex(int... shorts) {
+        var builder = new StringBuilder();
+
+        for(var value : shorts) {
+            builder.append(String.format("%04x", value & 0xFFFF));
+        }
+
+        return builder.toString();
+    }
+
+    @Test
+    public void testDecimalWireFormat() throws Exception {
+        var codec = new DecimalCodec(null);
+
+        assertThat(ByteBufUtil.hexDump(serialize(codec, new BigDecimal("123.45"))))
+                .isEqualTo(hex(2, 0, 0, 2, 123, 4500));
+        assertThat(ByteBufUtil.hexDump(serialize(codec, new BigDecimal("-0.0001"))))
+                .isEqualTo(hex(1, -1, 0x4000, 4, 1));
+        assertThat(ByteBufUtil.hexDump(serialize(codec, new BigDecimal("1E+4"))))
+                .isEqualTo(hex(1, 1, 0, 0, 1));
+        assertThat(ByteBufUtil.hexDump(serialize(codec, new BigDecimal("0.00"))))
+                .isEqualTo(hex(0, 0, 0, 2));
+
+        // digits past the display scale are padding.
+        var value = codec.deserialize(new PacketReader(
+                Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(hex(2, 0, 0, 2, 123, 4500)))
+        ), CONTEXT);
+
+        assertThat(value).isEqualTo(new BigDecimal("123.45"));
+    }
+
+    @Test
+    public void testBigIntWireFormat() throws Exception {
+        var codec = new BigIntCodec(null);
+
+        assertThat(ByteBufUtil.hexDump(serialize(codec, new BigInteger("-12345678901234567890"))))
+                .isEqualTo(hex(5, 4, 0x4000, 0, 1234, 5678, 9012, 3456, 7890));
+        assertThat(ByteBufUtil.hexDump(serialize(codec, new BigInteger("100000000"))))
+                .isEqualTo(hex(1, 2, 0, 0, 1));
+        assertThat(ByteBufUtil.hexDump(serialize(codec, BigInteger.ZERO)))
+                .isEqualTo(hex(0, 0, 0, 0));
+    }
+
+    @Test
+    public void testDecimalsRoundTrip() throws Exception {
+        var codec = new DecimalCodec(null);
+        var seed = System.nanoTime();
+        var random = new Random(seed);
+
+        for(int i = 0; i != ITERATIONS; i++) {
+            var unscaled = new BigInteger(random.nextInt(256), random);
+
+            if(random.nextBoolean()) {
+                unscaled = unscaled.negate();
+            }
+
+            var value = new BigDecimal(unscaled, random.nextInt(100) - 40);
+
+            assertThat(roundTrip(codec, value))
+                    .as("seed %d, value %s", seed, value)
+                    .isEqualTo(value.setScale(Math.max(value.scale(), 0)));
+        }
+    }
+
+    @Test
+    public void testBigIntsRoundTrip() throws Exception {
+        var codec = new BigIntCodec(null);
+        var seed = System.nanoTime();
+        var random = new Random(seed);
+
+        for(int i = 0; i != ITERATIONS; i++) {
+            var value = new BigInteger(random.nextInt(512), random);
+
+            if(random.nextBoolean()) {
+                value = value.negate();
+            }
+
+            // trailing zero digits are left out of the encoding.
+            if(random.nextInt(4) == 0) {
+                value = value.multiply(BigInteger.TEN.pow(random.nextInt(20)));
+            }
+
+            assertThat(roundTrip(codec, value)).as("seed %d", seed).isEqualTo(value);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.binary.builders.ObjectBuilder;
+import com.gel.driver.binary.codecs.ArrayCodec;
+import com.gel.driver.binary.codecs.CompilableCodec;
+import com.gel.driver.binary.codecs.ObjectCodec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.binary.codecs.scalars.TextCodec;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ObjectEnumeratorTests {
+    private static final ObjectCodec CODEC = new ObjectCodec(UUID.randomUUID(), null, null,
+            new ObjectCodec.ObjectProperty("name", new TextCodec(null), Cardinality.ONE),
+            new ObjectCodec.ObjectProperty("nickname", new TextCodec(null), Cardinality.AT_MOST_ONE),
+            new ObjectCodec.ObjectProperty("values", new CompilableCodec(
+                    UUID.randomUUID(), null, new Integer64Codec(null), ArrayCodec::create, t -> Array.newInstance(t, 0).getClass()
+            ), Cardinality.ONE),
+            new ObjectCodec.ObjectProperty("count", new Integer64Codec(null), Cardinality.ONE)
+    );
+
+    private static ByteBuf writeObject() {
+        var name = "object".getBytes(StandardCharsets.UTF_8);
+        var data = Unpooled.buffer();
+
+        data.writeInt(4);
+
+        data.writeInt(0); // reserved
+        data.writeInt(name.length);
+        data.writeBytes(name);
+
+        data.writeInt(0); // reserved
+        data.writeInt(-1); // no value
+
+        data.writeInt(0); // reserved
+        data.writeInt(4 + 8 + 8 + 2 * (4 + Long.BYTES));
+        data.writeInt(1); // dimensions
+        data.writeLong(0); // reserved
+        data.writeInt(2); // upper
+        data.writeInt(1); // lower
+
+        for(int i = 0; i != 2; i++) {
+            data.writeInt(Long.BYTES);
+            data.writeLong(i + 1);
+        }
+
+        data.writeInt(0); // reserved
+        data.writeInt(Long.BYTES);
+        data.writeLong(42);
+
+        return data;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlattenedObjects() throws Exception {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        var client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+        var data = writeObject();
+
+        var map = (Map<String, Object>)ObjectBuilder.buildResult(client, CODEC, data, Map.class);
+
+        assertThat(map).isNotNull();
+        assertThat(data.isReadable()).isFalse();
+        assertThat(map.keySet()).containsExactly("name", "nickname", "values", "count");
+        assertThat(map).contains(entry("name", "object"), entry("nickname", null), entry("count", 42L));
+        assertThat((Long[])map.get("values")).containsExactly(1L, 2L);
+        assertThat(map).isEqualTo(new HashMap<>(map));
+
+        map.put("count", 7L);
+        assertThat(map.get("count")).isEqualTo(7L);
+
+        map.put("other", true);
+        map.remove("name");
+        assertThat(map.keySet()).containsExactly("nickname", "values", "count", "other");
+    }
+}
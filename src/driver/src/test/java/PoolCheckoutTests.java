@@ -0,0 +1,147 @@
+import com.gel.driver.CheckoutPriority;
+import com.gel.driver.exceptions.PoolCheckoutException;
+import com.gel.driver.util.ClientPoolHolder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PoolCheckoutTests {
+    @Test
+    public void testQueueLimit() {
+        var holder = new ClientPoolHolder(1, 2, Duration.ZERO);
+
+        assertThat(holder.acquire().toCompletableFuture()).isCompleted();
+        assertThat(holder.acquire().toCompletableFuture()).isNotDone();
+        assertThat(holder.acquire().toCompletableFuture()).isNotDone();
+
+        var rejected = holder.acquire().toCompletableFuture();
+
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(PoolCheckoutException.class)
+                .extracting(e -> ((PoolCheckoutException)e).getReason())
+                .isEqualTo(PoolCheckoutException.Reason.QUEUE_FULL);
+
+        var statistics = holder.getStatistics();
+
+        assertThat(statistics.getQueued()).isEqualTo(2);
+        assertThat(statistics.getRejected()).isEqualTo(1);
+        assertThat(statistics.getInUse()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        var holder = new ClientPoolHolder(1, 0, Duration.ofMillis(50));
+
+        assertThat(holder.acquire().toCompletableFuture()).isCompleted();
+
+        var timedOut = holder.acquire().toCompletableFuture();
+        var waiting = holder.acquire().toCompletableFuture();
+
+        assertThatThrownBy(() -> timedOut.get(5, TimeUnit.SECONDS))
+                .cause()
+                .isInstanceOf(PoolCheckoutException.class)
+                .extracting(e -> ((PoolCheckoutException)e).getReason())
+                .isEqualTo(PoolCheckoutException.Reason.TIMED_OUT);
+
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).cause().isInstanceOf(PoolCheckoutException.class);
+        assertThat(holder.getStatistics().getQueued()).isZero();
+        assertThat(holder.getStatistics().getTimedOut()).isEqualTo(2);
+
+        // the released permit skips the abandoned waiters and is free again.
+        holder.release();
+
+        assertThat(holder.remaining()).isEqualTo(1);
+        assertThat(holder.acquire().toCompletableFuture()).isCompleted();
+    }
+
+    @Test
+    public void testTimedOutWaitersLeaveTheQueue() throws Exception {
+        var holder = new ClientPoolHolder(1, 2, Duration.ofMillis(100));
+
+        assertThat(holder.acquire().toCompletableFuture()).isCompleted();
+
+        // the database stalls: no client is returned while more than 'maxQueued' checkouts time out.
+        for(int round = 0; round != 3; round++) {
+            var first = holder.acquire().toCompletableFuture();
+            var second = holder.acquire(CheckoutPriority.BATCH).toCompletableFuture();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).cause().isInstanceOf(PoolCheckoutException.class);
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).cause().isInstanceOf(PoolCheckoutException.class);
+            assertThat(holder.waiting()).isZero();
+        }
+
+        assertThat(holder.getStatistics().getTimedOut()).isEqualTo(6);
+
+        var queued = new ArrayList<CompletableFuture<Void>>();
+
+        for(int i = 0; i != 2; i++) {
+            queued.add(holder.acquire().toCompletableFuture());
+        }
+
+        var rejected = holder.acquire().toCompletableFuture();
+
+        assertThatThrownBy(rejected::get)
+                .cause()
+                .isInstanceOf(PoolCheckoutException.class)
+                .extracting(e -> ((PoolCheckoutException)e).getReason())
+                .isEqualTo(PoolCheckoutException.Reason.QUEUE_FULL);
+
+        assertThat(holder.waiting()).isEqualTo(2);
+
+        // the timed out waiters are gone, the permit goes straight to the oldest live one.
+        holder.release();
+
+        assertThat(queued.get(0)).isCompleted();
+        assertThat(holder.waiting()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPriorityLanes() {
+        var holder = new ClientPoolHolder(1);
+
+        assertThat(holder.acquire().toCompletableFuture()).isCompleted();
+
+        var batch = new ArrayList<CompletableFuture<Void>>();
+        var interactive = new ArrayList<CompletableFuture<Void>>();
+
+        for(int i = 0; i != 4; i++) {
+            batch.add(holder.acquire(CheckoutPriority.BATCH).toCompletableFuture());
+        }
+
+        for(int i = 0; i != 4; i++) {
+            interactive.add(holder.acquire(CheckoutPriority.INTERACTIVE).toCompletableFuture());
+        }
+
+        // three interactive handoffs, then one batch handoff.
+        for(int i = 0; i != 3; i++) {
+            holder.release();
+            assertThat(interactive.get(i)).isCompleted();
+        }
+
+        assertThat(batch.get(0)).isNotDone();
+
+        holder.release();
+
+        assertThat(batch.get(0)).isCompleted();
+        assertThat(interactive.get(3)).isNotDone();
+
+        holder.release();
+
+        assertThat(interactive.get(3)).isCompleted();
+
+        var statistics = holder.getStatistics();
+
+        assertThat(statistics.getWaitTimeBounds().get(0)).isEqualTo(Duration.ZERO);
+        assertThat(statistics.getWaitTimeCounts()).hasSize(statistics.getWaitTimeBounds().size() + 1);
+        assertThat(statistics.getQueued()).isEqualTo(3);
+    }
+}
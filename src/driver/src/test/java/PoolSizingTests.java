@@ -0,0 +1,139 @@
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.util.AdaptivePoolSizer;
+import com.gel.driver.util.ClientPoolHolder;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PoolSizingTests {
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testGrowingWakesWaiters() {
+        var holder = new ClientPoolHolder(1);
+
+        assertThat(holder.acquire().toCompletableFuture()).isDone();
+
+        var first = holder.acquire().toCompletableFuture();
+        var second = holder.acquire().toCompletableFuture();
+
+        assertThat(holder.waiting()).isEqualTo(2);
+
+        holder.resize(2);
+
+        assertThat(first).isDone();
+        assertThat(second).isNotDone();
+        assertThat(holder.inUse()).isEqualTo(2);
+
+        // shrinking while every permit is out retires the next released one instead of waking the waiter.
+        holder.resize(1);
+        holder.release();
+
+        assertThat(second).isNotDone();
+
+        holder.release();
+
+        assertThat(second).isDone();
+        assertThat(holder.inUse()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGrowsOnWaitAndShrinksWhenQuiet() {
+        var clock = new AtomicLong();
+        var holder = new ClientPoolHolder(4);
+        var sizer = new AdaptivePoolSizer(holder, true, 2, 16, clock::get);
+
+        // checkouts that wait grow the pool by half at the end of the window.
+        sizer.recordCheckout(TimeUnit.MILLISECONDS.toNanos(5));
+        clock.addAndGet(WINDOW);
+        sizer.recordCheckout(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(holder.size()).isEqualTo(6);
+
+        // the server's suggestion caps the configured maximum.
+        sizer.onSuggestedConcurrency(5);
+
+        assertThat(sizer.getMaxSize()).isEqualTo(5);
+        assertThat(holder.size()).isEqualTo(5);
+
+        clock.addAndGet(WINDOW);
+        sizer.recordCheckout(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(holder.size()).isEqualTo(5);
+
+        // windows without waits don't shrink the pool until the shrink delay passed.
+        clock.addAndGet(WINDOW);
+        sizer.recordCheckout(0);
+
+        assertThat(holder.size()).isEqualTo(5);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        sizer.recordCheckout(0);
+
+        assertThat(holder.size()).isEqualTo(4);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        sizer.recordCheckout(0);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        sizer.recordCheckout(0);
+
+        assertThat(holder.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testShrinkSeesThePeakOfTheWholeDelay() {
+        var clock = new AtomicLong();
+        var holder = new ClientPoolHolder(8);
+        var sizer = new AdaptivePoolSizer(holder, true, 1, 16, clock::get);
+
+        // a burst uses the whole pool right after the last wait, and every window after it is quiet.
+        for(int i = 0; i != 8; i++) {
+            assertThat(holder.acquire().toCompletableFuture()).isDone();
+        }
+
+        sizer.recordCheckout(0);
+
+        for(int i = 0; i != 8; i++) {
+            holder.release();
+        }
+
+        var windows = TimeUnit.SECONDS.toNanos(30) / WINDOW;
+
+        for(long i = 0; i != windows; i++) {
+            clock.addAndGet(WINDOW);
+            sizer.recordCheckout(0);
+        }
+
+        assertThat(holder.size()).isEqualTo(8);
+
+        // the next delay is quiet from start to end.
+        for(long i = 0; i != windows; i++) {
+            clock.addAndGet(WINDOW);
+            sizer.recordCheckout(0);
+        }
+
+        assertThat(holder.size()).isEqualTo(5);
+        assertThat(GelClientConfig.DEFAULT.useAdaptivePoolSizing()).isFalse();
+    }
+
+    @Test
+    public void testFixedSizeFollowsSuggestion() {
+        var holder = new ClientPoolHolder(50);
+        var sizer = new AdaptivePoolSizer(holder, false, 1, 0);
+
+        sizer.recordCheckout(TimeUnit.SECONDS.toNanos(1));
+        sizer.onSuggestedConcurrency(100);
+
+        assertThat(holder.size()).isEqualTo(100);
+        assertThat(holder.remaining()).isEqualTo(100);
+
+        assertThatThrownBy(() -> GelClientConfig.builder().withMinPoolSize(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GelClientConfig.builder().withMaxPoolSize(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,142 @@
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.annotations.GelType;
+import com.gel.driver.binary.PacketReader;
+import com.gel.driver.binary.PacketWriter;
+import com.gel.driver.binary.builders.ObjectBuilder;
+import com.gel.driver.binary.codecs.ArrayCodec;
+import com.gel.driver.binary.codecs.CompilableCodec;
+import com.gel.driver.binary.codecs.ObjectCodec;
+import com.gel.driver.binary.codecs.PrimitiveArrayCodec;
+import com.gel.driver.binary.codecs.scalars.Float64Codec;
+import com.gel.driver.binary.codecs.scalars.Integer32Codec;
+import com.gel.driver.binary.codecs.scalars.Integer64Codec;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Array;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrimitiveCodecTests {
+    @GelType
+    public static class Embedding {
+        public long count;
+        public double score;
+        public double[] values;
+
+        public Embedding() {}
+    }
+
+    private GelTcpClient client;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        var connection = GelConnection.builder()
+                .withHost("127.0.0.1")
+                .withPort(5656)
+                .build();
+
+        client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+    }
+
+    private static CompilableCodec float64Array() {
+        return new CompilableCodec(
+                UUID.randomUUID(), null, new Float64Codec(null), ArrayCodec::create, t -> Array.newInstance(t, 0).getClass()
+        );
+    }
+
+    private static void writeArray(ByteBuf buffer, double[] values) {
+        buffer.writeInt(1); // dimensions
+        buffer.writeLong(0); // reserved
+        buffer.writeInt(values.length); // upper
+        buffer.writeInt(1); // lower
+
+        for(var value : values) {
+            buffer.writeInt(Double.BYTES);
+            buffer.writeDouble(value);
+        }
+    }
+
+    @Test
+    public void testPrimitiveArrayResults() throws Exception {
+        var values = new double[1536];
+
+        for(int i = 0; i != values.length; i++) {
+            values[i] = i / 3d;
+        }
+
+        var data = Unpooled.buffer();
+        writeArray(data, values);
+
+        var codec = float64Array();
+
+        assertThat(ObjectBuilder.getResultCodec(client, codec, double[].class)).isInstanceOf(PrimitiveArrayCodec.class);
+        assertThat(ObjectBuilder.buildResult(client, codec, data.slice(), double[].class)).containsExactly(values);
+
+        // boxed arrays are still decoded by the array codec.
+        assertThat(ObjectBuilder.getResultCodec(client, codec, Double[].class)).isInstanceOf(ArrayCodec.class);
+        assertThat(ObjectBuilder.buildResult(client, codec, data.slice(), Double[].class)).hasSize(values.length);
+    }
+
+    @Test
+    public void testPrimitiveArraysRoundTrip() throws Exception {
+        var codec = PrimitiveArrayCodec.create(UUID.randomUUID(), null, long[].class, new Integer64Codec(null));
+
+        assertThat(codec).isNotNull();
+        assertThat(PrimitiveArrayCodec.create(UUID.randomUUID(), null, long[].class, new Integer32Codec(null))).isNull();
+        assertThat(PrimitiveArrayCodec.create(UUID.randomUUID(), null, Long[].class, new Integer64Codec(null))).isNull();
+
+        var values = new long[] {Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE};
+
+        try(var writer = new PacketWriter()) {
+            codec.serialize(writer, values, client.getCodecContext());
+
+            var result = codec.deserialize(new PacketReader(writer.getBuffer()), client.getCodecContext());
+
+            assertThat(result).isInstanceOf(long[].class);
+            assertThat((long[])result).containsExactly(values);
+        }
+    }
+
+    @Test
+    public void testUnboxedObjectFields() throws Exception {
+        var codec = new ObjectCodec(UUID.randomUUID(), null, null,
+                new ObjectCodec.ObjectProperty("count", new Integer64Codec(null), Cardinality.ONE),
+                new ObjectCodec.ObjectProperty("score", new Float64Codec(null), Cardinality.ONE),
+                new ObjectCodec.ObjectProperty("values", float64Array(), Cardinality.ONE)
+        );
+
+        var array = Unpooled.buffer();
+        writeArray(array, new double[] {0.5, 1.5});
+
+        var data = Unpooled.buffer();
+        data.writeInt(3);
+
+        data.writeInt(0); // reserved
+        data.writeInt(Long.BYTES);
+        data.writeLong(42);
+
+        data.writeInt(0); // reserved
+        data.writeInt(Double.BYTES);
+        data.writeDouble(0.25);
+
+        data.writeInt(0); // reserved
+        data.writeInt(array.readableBytes());
+        data.writeBytes(array);
+
+        for(int i = 0; i != 2; i++) {
+            var result = ObjectBuilder.buildResult(client, codec, data.slice(), Embedding.class);
+
+            assertThat(result).isNotNull();
+            assertThat(result.count).isEqualTo(42);
+            assertThat(result.score).isEqualTo(0.25);
+            assertThat(result.values).containsExactly(0.5, 1.5);
+        }
+    }
+}
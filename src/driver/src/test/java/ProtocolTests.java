@@ -1,7 +1,28 @@
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
 import com.gel.driver.GelClientPool;
+import com.gel.driver.GelConnection;
+import com.gel.driver.TransactionState;
 import com.gel.driver.annotations.GelType;
+import com.gel.driver.binary.PacketSerializer;
+import com.gel.driver.binary.protocol.ServerMessageType;
+import com.gel.driver.binary.protocol.common.CompilationFlags;
+import com.gel.driver.binary.protocol.common.IOFormat;
+import com.gel.driver.binary.protocol.v1.receivables.Data;
+import com.gel.driver.binary.protocol.v1.receivables.ReadyForCommand;
+import com.gel.driver.binary.protocol.v1.sendables.Execute;
+import com.gel.driver.clients.GelTcpClient;
 import com.gel.driver.exceptions.GelException;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ResourceLeakDetector;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,7 +48,7 @@ public class ProtocolTests {
     }
 
     /**
-     * The goal is to test the contract logic in {@linkplain com.gel.driver.binary.PacketSerializer}, specifically
+     * The goal is to test the framing logic in {@linkplain com.gel.driver.binary.PacketSerializer}, specifically
      * the decoder returned from the <b>createDecoder</b> function. To achieve this, we can query something that
      * returns either multiple data packets amounting up to >16k bytes, or a single data packet that is >16k bytes.
      */
@@ -75,6 +96,119 @@ public class ProtocolTests {
         assertStructuresMatch(structuresFromJson, results);
     }
 
+    /**
+     * Feeds the decoder a large data message and a small one split at every possible boundary, including within
+     * message headers, and checks each message comes out once and intact.
+     */
+    @Test
+    public void testFragmentedMessages() throws Exception {
+        var client = new GelTcpClient(
+                GelConnection.builder().withHost("127.0.0.1").withPort(5656).build(),
+                GelClientConfig.DEFAULT,
+                null
+        );
+
+        var payload = new byte[64 * 1024];
+        new Random(42).nextBytes(payload);
+
+        var stream = Unpooled.buffer();
+        writeData(stream, payload);
+        writeData(stream, new byte[] {1, 2, 3});
+        stream.writeByte(ServerMessageType.READY_FOR_COMMAND.getValue());
+        stream.writeInt(4 + Short.BYTES + Byte.BYTES);
+        stream.writeShort(0);
+        stream.writeByte(TransactionState.NOT_IN_TRANSACTION.getValue());
+
+        for(var fragmentSize : new int[] {1, 3, 5, 7, 1460, 16384, stream.readableBytes()}) {
+            var channel = new EmbeddedChannel(PacketSerializer.createDecoder(client));
+            var input = stream.duplicate();
+
+            while(input.isReadable()) {
+                channel.writeInbound(input.readRetainedSlice(Math.min(fragmentSize, input.readableBytes())));
+            }
+
+            Data first = channel.readInbound();
+            Data second = channel.readInbound();
+            ReadyForCommand ready = channel.readInbound();
+
+            assertThat(first.payloadBuffer).isNotNull();
+            assertThat(ByteBufUtil.getBytes(first.payloadBuffer)).isEqualTo(payload);
+            assertThat(second.payloadBuffer).isNotNull();
+            assertThat(ByteBufUtil.getBytes(second.payloadBuffer)).containsExactly(1, 2, 3);
+            assertThat(ready.transactionState).isEqualTo(TransactionState.NOT_IN_TRANSACTION);
+            assertThat((Object) channel.readInbound()).isNull();
+
+            first.close();
+            second.close();
+            assertThat(channel.finishAndReleaseAll()).isFalse();
+        }
+
+        stream.release();
+    }
+
+    /**
+     * Encodes executes with large arguments with the leak detector tracking every buffer, and checks the arguments are
+     * released along with the message, and that the message buffer is allocated once at its final size.
+     */
+    @Test
+    public void testExecuteEncodingDoesNotLeak() throws Exception {
+        var level = ResourceLeakDetector.getLevel();
+        var leakLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(ResourceLeakDetector.class);
+        var leaks = new ListAppender<ILoggingEvent>();
+
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        leaks.start();
+        leakLogger.addAppender(leaks);
+
+        try {
+            var arguments = new byte[1024 * 1024];
+            new Random(42).nextBytes(arguments);
+
+            for(int i = 0; i != 16; i++) {
+                var parameterData = ByteBufAllocator.DEFAULT.directBuffer(arguments.length).writeBytes(arguments);
+                var execute = new Execute(
+                        EnumSet.of(Capabilities.MODIFICATIONS), EnumSet.of(CompilationFlags.NONE), 0,
+                        IOFormat.BINARY, Cardinality.MANY, "select <bytes>$0", UUID.randomUUID(),
+                        Unpooled.EMPTY_BUFFER, UUID.randomUUID(), UUID.randomUUID(), parameterData
+                );
+                var size = execute.getSize();
+
+                var channel = new EmbeddedChannel(PacketSerializer.createEncoder());
+                channel.writeOutbound(execute);
+                ByteBuf encoded = channel.readOutbound();
+
+                assertThat(encoded.readableBytes()).isEqualTo(size);
+                assertThat(encoded.capacity()).isEqualTo(size);
+                assertThat(ByteBufUtil.getBytes(encoded, encoded.writerIndex() - arguments.length, arguments.length))
+                        .isEqualTo(arguments);
+                assertThat(parameterData.refCnt()).isZero();
+
+                encoded.release();
+                assertThat(channel.finish()).isFalse();
+            }
+
+            // leaks are reported once the leaked buffers are collected, by the next allocation.
+            for(int i = 0; i != 5; i++) {
+                System.gc();
+                Thread.sleep(50);
+                ByteBufAllocator.DEFAULT.directBuffer(1).release();
+            }
+
+            assertThat(leaks.list).noneMatch(event -> event.getFormattedMessage().contains("LEAK"));
+        } finally {
+            leakLogger.detachAppender(leaks);
+            ResourceLeakDetector.setLevel(level);
+        }
+    }
+
+    private static void writeData(ByteBuf stream, byte[] payload) {
+        stream.writeByte(ServerMessageType.DATA.getValue());
+        stream.writeInt(4 + Short.BYTES + Integer.BYTES + payload.length);
+        stream.writeShort(1);
+        stream.writeInt(payload.length);
+        stream.writeBytes(payload);
+    }
+
     private void assertStructuresMatch(List<TestDatastructure> source, Map<UUID, String[]> truth) {
         for(var structure : source) {
             assert structure != null;
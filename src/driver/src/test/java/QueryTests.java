@@ -1,15 +1,32 @@
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelClientConfig;
 import com.gel.driver.GelClientPool;
+import com.gel.driver.GelConnection;
+import com.gel.driver.PreparedQuery;
+import com.gel.driver.QueryWithArgs;
 import com.gel.driver.annotations.GelLinkType;
 import com.gel.driver.annotations.GelType;
+import com.gel.driver.clients.GelTcpClient;
+import com.gel.driver.exceptions.BatchExecutionException;
+import com.gel.driver.exceptions.ResultCardinalityMismatchException;
 import com.gel.driver.datatypes.MultiRange;
 import com.gel.driver.datatypes.Range;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class QueryTests {
     @GelType
@@ -97,4 +114,184 @@ public class QueryTests {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void testQueryStream() {
+        // request in small batches so reads from the connection get paused and resumed during the query.
+        try(var clientPool = new GelClientPool()) {
+            var result = new CompletableFuture<List<Long>>();
+
+            clientPool.queryStream(Long.class, "select range_unpack(range(0, 10000))")
+                    .subscribe(new Flow.Subscriber<>() {
+                        private final List<Long> values = new ArrayList<>();
+                        private Flow.Subscription subscription;
+
+                        @Override
+                        public void onSubscribe(Flow.Subscription subscription) {
+                            this.subscription = subscription;
+                            subscription.request(16);
+                        }
+
+                        @Override
+                        public void onNext(Long item) {
+                            values.add(item);
+
+                            if(values.size() % 16 == 0) {
+                                subscription.request(16);
+                            }
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            result.completeExceptionally(throwable);
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            result.complete(values);
+                        }
+                    });
+
+            var values = result.get();
+
+            assertThat(values).hasSize(10000);
+
+            for(int i = 0; i != values.size(); i++) {
+                assertThat(values.get(i)).isEqualTo((long) i);
+            }
+
+            // the connection must still be usable after a streamed query
+            assertThat(clientPool.queryRequiredSingle(Long.class, "select 1").toCompletableFuture().get())
+                    .isEqualTo(1L);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testOptimisticExecute() {
+        var config = GelClientConfig.builder()
+                .useOptimisticExecute(true)
+                .build();
+
+        try(var clientPool = new GelClientPool(config)) {
+            // a unique query, so its codecs can't be cached yet.
+            var marker = UUID.randomUUID().toString();
+            var query = "select '" + marker + "'";
+
+            assertThat(clientPool.queryRequiredSingle(String.class, query).toCompletableFuture().get())
+                    .isEqualTo(marker);
+
+            // second run goes through the cached codecs.
+            assertThat(clientPool.queryRequiredSingle(String.class, query).toCompletableFuture().get())
+                    .isEqualTo(marker);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testPipelinedQueries() throws Exception {
+        var config = GelClientConfig.builder()
+                .withMaxPipelinedCommands(8)
+                .build();
+
+        var client = new GelTcpClient(GelConnection.builder().build(), config, () -> {});
+
+        try {
+            var results = new ArrayList<CompletableFuture<Long>>();
+
+            for(long i = 0; i != 32; i++) {
+                results.add(client.queryRequiredSingle(Long.class, "select <int64>" + i).toCompletableFuture());
+            }
+
+            for(int i = 0; i != results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo((long) i);
+            }
+        } finally {
+            client.disconnect().toCompletableFuture().get();
+        }
+    }
+
+    @Test
+    public void testQueryBatch() throws Exception {
+        try(var clientPool = new GelClientPool()) {
+            var results = clientPool.queryBatch(Long.class, List.of(
+                    new QueryWithArgs("select <int64>$a", Map.of("a", 1L)),
+                    new QueryWithArgs("select {2, 3}"),
+                    new QueryWithArgs("select <int64>{}")
+            )).toCompletableFuture().get();
+
+            assertThat(results).containsExactly(List.of(1L), List.of(2L, 3L), List.of());
+
+            // the second statement fails, the third is skipped.
+            assertThatThrownBy(() -> clientPool.executeBatch(List.of(
+                    new QueryWithArgs("select 1"),
+                    new QueryWithArgs("select 1 / 0"),
+                    new QueryWithArgs("select 2")
+            )).toCompletableFuture().get())
+                    .hasCauseInstanceOf(BatchExecutionException.class)
+                    .cause()
+                    .extracting(e -> ((BatchExecutionException)e).getStatementIndex())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testCodecCacheStatistics() throws Exception {
+        try(var clientPool = new GelClientPool()) {
+            var query = "select <str>$marker ++ '" + UUID.randomUUID() + "'";
+
+            clientPool.queryRequiredSingle(String.class, query, Map.of("marker", "a")).toCompletableFuture().get();
+            var before = clientPool.getCodecCacheStatistics();
+
+            clientPool.queryRequiredSingle(String.class, query, Map.of("marker", "b")).toCompletableFuture().get();
+            var after = clientPool.getCodecCacheStatistics();
+
+            assertThat(after.getQueryHits()).isGreaterThan(before.getQueryHits());
+            assertThat(after.getQueryEntries()).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    public void testPreparedQuery() throws Exception {
+        try(var clientPool = new GelClientPool()) {
+            var prepared = clientPool.prepare(
+                    String.class, "select <str>$marker ++ '" + UUID.randomUUID() + "'", Cardinality.ONE
+            ).toCompletableFuture().get();
+
+            var before = clientPool.getCodecCacheStatistics();
+
+            for(int i = 0; i != 8; i++) {
+                assertThat(prepared.querySingle(Map.of("marker", "a" + i)).toCompletableFuture().get())
+                        .startsWith("a" + i);
+            }
+
+            // executions go straight to the pinned codecs.
+            assertThat(clientPool.getCodecCacheStatistics().getQueryHits()).isEqualTo(before.getQueryHits());
+
+            assertThatThrownBy(() -> clientPool.prepare(Long.class, "select {1, 2}", Cardinality.MANY)
+                    .thenCompose(PreparedQuery::querySingle)
+                    .toCompletableFuture().get())
+                    .hasCauseInstanceOf(ResultCardinalityMismatchException.class);
+        }
+    }
+
+    @Test
+    public void testQueryJsonStream() throws Exception {
+        try(var clientPool = new GelClientPool()) {
+            var mapper = new ObjectMapper();
+
+            var values = clientPool.queryJson(
+                    "select {'a', '\u00fc', '\ud83d\ude00'}", null, json -> mapper.readValue(json, String[].class)
+            ).toCompletableFuture().get();
+
+            assertThat(values).containsExactly("a", "\u00fc", "\ud83d\ude00");
+
+            var output = new ByteArrayOutputStream();
+            clientPool.queryJson("select <str>{}", null, output).toCompletableFuture().get();
+
+            assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+        }
+    }
 }
@@ -0,0 +1,148 @@
+import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
+import com.gel.driver.GelQueryable;
+import com.gel.driver.QueryWithArgs;
+import com.gel.driver.datatypes.Json;
+import com.gel.driver.exceptions.BatchExecutionException;
+import com.gel.driver.exceptions.GelException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class QueryableDefaultsTests {
+    @Test
+    public void testDefaultPrepareRunsRegularQueries() throws Exception {
+        var queryable = new RecordingQueryable();
+
+        var many = queryable.prepare(String.class, "select {'a', 'b'}", Cardinality.MANY)
+                .toCompletableFuture().get();
+
+        assertThat(many.getQuery()).isEqualTo("select {'a', 'b'}");
+        assertThat(many.query().toCompletableFuture().get()).containsExactly("a", "b");
+
+        var one = queryable.prepare(String.class, "select 'a'", Cardinality.ONE).toCompletableFuture().get();
+
+        assertThat(one.query(Map.<String, Object>of("x", 1)).toCompletableFuture().get()).containsExactly("a");
+        assertThat(one.querySingle().toCompletableFuture().get()).isEqualTo("a");
+
+        var atMostOne = queryable.prepare(String.class, "select <str>{}", Cardinality.AT_MOST_ONE)
+                .toCompletableFuture().get();
+
+        assertThat(atMostOne.querySingle().toCompletableFuture().get()).isEqualTo("a");
+
+        var none = queryable.prepare(String.class, "insert Foo", Cardinality.NO_RESULT).toCompletableFuture().get();
+
+        assertThat(none.query().toCompletableFuture().get()).isEmpty();
+
+        assertThat(queryable.calls).containsExactly(
+                "query select {'a', 'b'}",
+                "queryRequiredSingle select 'a' {x=1}",
+                "queryRequiredSingle select 'a'",
+                "querySingle select <str>{}",
+                "execute insert Foo"
+        );
+    }
+
+    @Test
+    public void testDefaultBatchesRunStatementsInOrder() throws Exception {
+        var queryable = new RecordingQueryable();
+
+        var results = queryable.queryBatch(String.class, List.of(
+                new QueryWithArgs("select 1"),
+                new QueryWithArgs("select 2", Map.of("x", 2))
+        )).toCompletableFuture().get();
+
+        assertThat(results).containsExactly(List.of("a", "b"), List.of("a", "b"));
+
+        var failed = queryable.executeBatch(List.of(
+                new QueryWithArgs("insert Foo"),
+                new QueryWithArgs("fail"),
+                new QueryWithArgs("insert Bar")
+        ));
+
+        assertThatThrownBy(() -> failed.toCompletableFuture().get())
+                .hasCauseInstanceOf(BatchExecutionException.class)
+                .cause()
+                .satisfies(e -> assertThat(((BatchExecutionException)e).getStatementIndex()).isEqualTo(1));
+
+        // statements after the failed one are skipped.
+        assertThat(queryable.calls).containsExactly(
+                "query select 1",
+                "query select 2 {x=2}",
+                "execute insert Foo",
+                "execute fail"
+        );
+    }
+
+    private static class RecordingQueryable implements GelQueryable {
+        public final List<String> calls = new ArrayList<>();
+
+        private void record(String method, String query, @Nullable Map<String, Object> args) {
+            calls.add(method + " " + query + (args == null ? "" : " " + args));
+        }
+
+        @Override
+        public CompletionStage<Void> execute(
+                @NotNull String query, @Nullable Map<String, Object> args, EnumSet<Capabilities> capabilities
+        ) {
+            record("execute", query, args);
+            return query.equals("fail")
+                    ? CompletableFuture.failedFuture(new GelException("statement failed"))
+                    : CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletionStage<List<@Nullable T>> query(
+                @NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args,
+                @NotNull EnumSet<Capabilities> capabilities
+        ) {
+            record("query", query, args);
+            return CompletableFuture.completedFuture((List<T>) List.of("a", "b"));
+        }
+
+        @Override
+        public <T> CompletionStage<@Nullable T> querySingle(
+                @NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args,
+                @NotNull EnumSet<Capabilities> capabilities
+        ) {
+            record("querySingle", query, args);
+            return CompletableFuture.completedFuture(cls.cast("a"));
+        }
+
+        @Override
+        public <T> CompletionStage<@NotNull T> queryRequiredSingle(
+                @NotNull Class<T> cls, @NotNull String query, @Nullable Map<String, Object> args,
+                @NotNull EnumSet<Capabilities> capabilities
+        ) {
+            record("queryRequiredSingle", query, args);
+            return CompletableFuture.completedFuture(cls.cast("a"));
+        }
+
+        @Override
+        public CompletionStage<@NotNull Json> queryJson(
+                @NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities
+        ) {
+            record("queryJson", query, args);
+            return CompletableFuture.completedFuture(new Json("[]"));
+        }
+
+        @Override
+        public CompletionStage<List<@NotNull Json>> queryJsonElements(
+                @NotNull String query, @Nullable Map<String, Object> args, @NotNull EnumSet<Capabilities> capabilities
+        ) {
+            record("queryJsonElements", query, args);
+            return CompletableFuture.completedFuture(List.of());
+        }
+    }
+}
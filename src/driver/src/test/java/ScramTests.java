@@ -33,4 +33,24 @@ public class ScramTests {
         assertThat(Base64.getEncoder().encodeToString(clientFinal.signature)).isEqualTo("6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4=");
     }
 
+    @Test
+    public void testCachedKeys() throws ScramException {
+        Scram.clearKeyCache();
+
+        var serverFirst = String.format("r=%s,s=%s,i=4096", SCRAM_SERVER_NONCE, SCRAM_SALT);
+        var expectedProof = String.format("c=biws,r=%s,p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=", SCRAM_SERVER_NONCE);
+
+        // the second flow reuses the keys derived by the first.
+        for(int i = 0; i != 2; i++) {
+            var scram = createScram();
+            scram.buildInitialMessage(SCRAM_USERNAME);
+
+            assertThat(scram.buildFinalMessage(serverFirst, SCRAM_PASSWORD).message).isEqualTo(expectedProof);
+        }
+
+        var scram = createScram();
+        scram.buildInitialMessage(SCRAM_USERNAME);
+
+        assertThat(scram.buildFinalMessage(serverFirst, "not " + SCRAM_PASSWORD).message).isNotEqualTo(expectedProof);
+    }
 }
@@ -0,0 +1,112 @@
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stand-in server listening on a unix socket. It accepts any handshake without authentication and answers
+ * {@code Sync} messages; anything else is ignored. Needs Netty's native epoll transport.
+ */
+final class StandInServer implements AutoCloseable {
+    private static final int CLIENT_HANDSHAKE = 0x56;
+    private static final int SYNC = 0x53;
+
+    private final Path directory;
+    private final Path path;
+    private final EpollEventLoopGroup group;
+    private final Channel server;
+    private final ChannelGroup connections;
+
+    private final AtomicInteger handshakes = new AtomicInteger();
+    private final AtomicInteger syncs = new AtomicInteger();
+
+    StandInServer() throws Exception {
+        this.directory = Files.createTempDirectory("gel");
+        this.path = directory.resolve(".s.GEL.5656");
+        this.group = new EpollEventLoopGroup(1);
+        this.connections = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+        this.server = new ServerBootstrap()
+                .group(group)
+                .channel(EpollServerDomainSocketChannel.class)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        connections.add(ch);
+                        ch.pipeline().addLast(
+                                new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 1, 4, -4, 0),
+                                new Handler()
+                        );
+                    }
+                })
+                .bind(new DomainSocketAddress(path.toFile()))
+                .sync()
+                .channel();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getHandshakes() {
+        return handshakes.get();
+    }
+
+    int getSyncs() {
+        return syncs.get();
+    }
+
+    int getOpenConnections() {
+        return connections.size();
+    }
+
+    void closeConnections() throws InterruptedException {
+        connections.close().sync();
+    }
+
+    @Override
+    public void close() throws Exception {
+        server.close().sync();
+        connections.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        Files.deleteIfExists(path);
+        Files.delete(directory);
+    }
+
+    private final class Handler extends SimpleChannelInboundHandler<ByteBuf> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+            var response = ctx.alloc().buffer();
+
+            switch (frame.getUnsignedByte(frame.readerIndex())) {
+                case CLIENT_HANDSHAKE:
+                    handshakes.incrementAndGet();
+                    response.writeByte(0x52).writeInt(8).writeInt(0); // AuthenticationOK
+                    break;
+                case SYNC:
+                    syncs.incrementAndGet();
+                    break;
+                default:
+                    response.release();
+                    return;
+            }
+
+            response.writeByte(0x5a).writeInt(7).writeShort(0).writeByte(0x49); // ReadyForCommand
+            ctx.writeAndFlush(response);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.TransportType;
+import com.gel.driver.clients.transport.NettyTransport;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TransportTests {
+    @Test
+    public void testTransportSelection() {
+        var auto = NettyTransport.get(TransportType.AUTO);
+        var nio = NettyTransport.get(TransportType.NIO);
+
+        assertThat(nio.getType()).isEqualTo(TransportType.NIO);
+        assertThat(NettyTransport.get(auto.getType())).isSameAs(auto);
+
+        // the io_uring incubator isn't on the test classpath.
+        assertThat(NettyTransport.get(TransportType.IO_URING)).isSameAs(nio);
+
+        assertThat(nio.getEventLoopGroup(2)).isSameAs(nio.getEventLoopGroup(2));
+        assertThat(nio.getEventLoopGroup(2)).isNotSameAs(nio.getEventLoopGroup(1));
+        assertThat(nio.getDomainSocketChannelClass()).isNull();
+        assertThat(nio.createDomainSocketAddress(Path.of("/run/gel/.s.EDGEDB.5656"))).isNull();
+    }
+
+    @Test
+    public void testTransportConfig() {
+        var config = GelClientConfig.builder()
+                .withTransportType(TransportType.EPOLL)
+                .withEventLoopThreads(4)
+                .useEventLoopHandlers(true)
+                .build();
+
+        assertThat(config.getTransportType()).isEqualTo(TransportType.EPOLL);
+        assertThat(config.getEventLoopThreads()).isEqualTo(4);
+        assertThat(config.useEventLoopHandlers()).isTrue();
+        assertThat(GelClientConfig.DEFAULT.getTransportType()).isEqualTo(TransportType.AUTO);
+
+        assertThatThrownBy(() -> GelClientConfig.builder().withEventLoopThreads(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
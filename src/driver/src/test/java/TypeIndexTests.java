@@ -0,0 +1,186 @@
+import com.gel.driver.GelTypeIndex;
+import com.gel.driver.annotations.GelType;
+import com.gel.driver.annotations.processing.GelTypeProcessor;
+import com.gel.driver.binary.builders.types.SubTypeIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TypeIndexTests {
+    private static final String SERVICES_FILE = "META-INF/services/" + GelTypeIndex.class.getName();
+
+    @Test
+    public void testProcessorWritesIndex(@TempDir Path directory) throws Exception {
+        var output = directory.resolve("classes");
+
+        compile(directory, output, true, List.of(), Map.of(
+                "people/Person.java",
+                "package people;\n" +
+                "@com.gel.driver.annotations.GelType\n" +
+                "public class Person {}\n",
+                "people/Outer.java",
+                "package people;\n" +
+                "public class Outer {\n" +
+                "    @com.gel.driver.annotations.GelType\n" +
+                "    public static class Inner {}\n" +
+                "}\n",
+                "people/Plain.java",
+                "package people;\n" +
+                "public class Plain {}\n"
+        ));
+
+        assertThat(directory.resolve("generated/people/GelGeneratedTypeIndex.java")).exists();
+        assertThat(Files.readString(output.resolve(SERVICES_FILE)).trim()).isEqualTo("people.GelGeneratedTypeIndex");
+
+        try(var loader = new URLClassLoader(new URL[] { output.toUri().toURL() }, getClass().getClassLoader())) {
+            var index = (GelTypeIndex)loader.loadClass("people.GelGeneratedTypeIndex")
+                    .getDeclaredConstructor()
+                    .newInstance();
+
+            // binary names, sorted, without the unannotated type.
+            assertThat(index.getTypeNames()).containsExactly("people.Outer$Inner", "people.Person");
+
+            for(var name : index.getTypeNames()) {
+                assertThat(Class.forName(name, false, loader).isAnnotationPresent(GelType.class)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void testProcessorSkipsCompilationsWithoutGelTypes(@TempDir Path directory) throws Exception {
+        var output = directory.resolve("classes");
+
+        compile(directory, output, true, List.of(), Map.of(
+                "people/Plain.java",
+                "package people;\n" +
+                "public class Plain {}\n"
+        ));
+
+        assertThat(output.resolve(SERVICES_FILE)).doesNotExist();
+        assertThat(directory.resolve("generated/people/GelGeneratedTypeIndex.java")).doesNotExist();
+    }
+
+    @Test
+    public void testSubTypesAreFoundInIndexedAndUnindexedLocations(@TempDir Path directory) throws Exception {
+        // the base type and one child are compiled without an index, like a library built without the processor.
+        var unindexed = directory.resolve("unindexed");
+
+        compile(directory.resolve("unindexed-src"), unindexed, false, List.of(), Map.of(
+                "shapes/Shape.java",
+                "package shapes;\n" +
+                "@com.gel.driver.annotations.GelType\n" +
+                "public abstract class Shape {}\n",
+                "shapes/Circle.java",
+                "package shapes;\n" +
+                "@com.gel.driver.annotations.GelType\n" +
+                "public class Circle extends Shape {}\n"
+        ));
+
+        // the other child is compiled into its own location, with an index.
+        var indexed = directory.resolve("indexed");
+
+        compile(directory.resolve("indexed-src"), indexed, true, List.of(unindexed), Map.of(
+                "squares/Square.java",
+                "package squares;\n" +
+                "@com.gel.driver.annotations.GelType\n" +
+                "public class Square extends shapes.Shape {}\n"
+        ));
+
+        assertThat(indexed.resolve(SERVICES_FILE)).exists();
+        assertThat(unindexed.resolve(SERVICES_FILE)).doesNotExist();
+
+        var urls = new URL[] { indexed.toUri().toURL(), unindexed.toUri().toURL() };
+
+        try(var loader = new URLClassLoader(urls, getClass().getClassLoader())) {
+            var shape = loader.loadClass("shapes.Shape");
+
+            var subTypes = SubTypeIndex.findSubTypesOf(shape).stream()
+                    .map(Class::getName)
+                    .collect(Collectors.toList());
+
+            assertThat(subTypes).containsExactlyInAnyOrder("squares.Square", "shapes.Circle");
+
+            // sub-types come from the same loader as the base type.
+            for(var subType : SubTypeIndex.findSubTypesOf(shape)) {
+                assertThat(subType.getClassLoader()).isSameAs(loader);
+            }
+        }
+    }
+
+    private static void compile(
+            Path directory, Path output, boolean index, List<Path> classpath, Map<String, String> sources
+    ) throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var sourceDirectory = directory.resolve("src");
+        var generated = directory.resolve("generated");
+
+        Files.createDirectories(output);
+        Files.createDirectories(generated);
+
+        var files = new ArrayList<File>();
+
+        for(var source : sources.entrySet()) {
+            var file = sourceDirectory.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            files.add(file.toFile());
+        }
+
+        var paths = new ArrayList<String>();
+        paths.add(System.getProperty("java.class.path"));
+        paths.add(driverLocation());
+
+        for(var path : classpath) {
+            paths.add(path.toString());
+        }
+
+        var options = new ArrayList<>(List.of(
+                "-d", output.toString(),
+                "-s", generated.toString(),
+                "-classpath", String.join(File.pathSeparator, paths)
+        ));
+
+        if(!index) {
+            options.add("-proc:none");
+        }
+
+        try(var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            var task = compiler.getTask(
+                    null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromFiles(files)
+            );
+
+            if(index) {
+                task.setProcessors(List.of(new GelTypeProcessor()));
+            }
+
+            assertThat(task.call())
+                    .withFailMessage(() -> diagnostics.getDiagnostics().toString())
+                    .isTrue();
+        }
+    }
+
+    private static String driverLocation() {
+        try {
+            return Paths.get(GelType.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import com.gel.driver.GelClientConfig;
+import com.gel.driver.GelConnection;
+import com.gel.driver.clients.GelTcpClient;
+import io.netty.channel.epoll.Epoll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class UnixSocketTests {
+    @Test
+    public void testConnectOverUnixSocket() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "the native epoll transport isn't available");
+
+        try(var server = new StandInServer()) {
+            var connection = GelConnection.builder()
+                    .withUnixSocket(server.getPath())
+                    .withWaitUntilAvailable("5s")
+                    .build();
+
+            var client = new GelTcpClient(connection, GelClientConfig.DEFAULT, null);
+
+            client.connect().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            // the handshake is sent in plain text rather than as a TLS client hello.
+            assertThat(server.getHandshakes()).isEqualTo(1);
+            assertThat(client.isConnected()).isTrue();
+
+            client.disconnect().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+}
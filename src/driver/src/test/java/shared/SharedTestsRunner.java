@@ -1,11 +1,11 @@
 package shared;
 
+import com.gel.driver.Cardinality;
 import com.gel.driver.GelClientPool;
 import com.gel.driver.GelClientConfig;
 import com.gel.driver.binary.builders.ObjectBuilder;
 import com.gel.driver.binary.codecs.Codec;
 import com.gel.driver.binary.protocol.QueryParameters;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.binary.protocol.common.IOFormat;
 import com.gel.driver.clients.BaseGelClient;
 import com.gel.driver.clients.GelBinaryClient;
@@ -1,8 +1,8 @@
 package shared.models;
 
 import com.gel.driver.Capabilities;
+import com.gel.driver.Cardinality;
 import com.gel.driver.binary.PacketSerializer;
-import com.gel.driver.binary.protocol.common.Cardinality;
 import com.gel.driver.state.Session;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import shared.json.SessionDeserializer;
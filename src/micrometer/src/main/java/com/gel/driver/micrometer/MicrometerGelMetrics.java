@@ -0,0 +1,193 @@
+package com.gel.driver.micrometer;
+
+import com.gel.driver.GelClientPool;
+import com.gel.driver.GelMetrics;
+import com.gel.driver.exceptions.PoolCheckoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@linkplain GelMetrics} that records into a Micrometer {@linkplain MeterRegistry}. Meters are registered once on
+ * construction, recording only updates them.
+ * <br/><br/>
+ * The meters are:
+ * <ul>
+ *     <li>{@code gel.pool.checkout.wait}: a timer with a percentile histogram of the time checkouts waited.</li>
+ *     <li>{@code gel.pool.checkout.failures}: a counter of failed checkouts, tagged with the {@code reason}.</li>
+ *     <li>{@code gel.query.codecs}: a counter of query codec cache lookups, tagged with the {@code result}.</li>
+ *     <li>{@code gel.query.parse} and {@code gel.query.execute}: timers tagged with the {@code outcome}.</li>
+ *     <li>{@code gel.bytes.sent}, {@code gel.bytes.received} and {@code gel.data.messages}: traffic counters.</li>
+ *     <li>{@code gel.reconnects}: a counter of client reconnects.</li>
+ * </ul>
+ * {@linkplain #bindTo(GelClientPool)} adds gauges for the size and queue length of a pool.
+ */
+public final class MicrometerGelMetrics implements GelMetrics {
+    private final @NotNull MeterRegistry registry;
+    private final @NotNull Tags tags;
+
+    private final @NotNull Timer checkoutWait;
+    private final @NotNull EnumMap<PoolCheckoutException.Reason, Counter> checkoutFailures;
+    private final @NotNull Counter codecHits;
+    private final @NotNull Counter codecMisses;
+    private final @NotNull Timer parseSuccess;
+    private final @NotNull Timer parseFailure;
+    private final @NotNull Timer executeSuccess;
+    private final @NotNull Timer executeFailure;
+    private final @NotNull Counter bytesSent;
+    private final @NotNull Counter bytesReceived;
+    private final @NotNull Counter dataMessages;
+    private final @NotNull Counter reconnects;
+
+    /**
+     * Constructs a new {@linkplain MicrometerGelMetrics}.
+     * @param registry The registry to register the meters in.
+     */
+    public MicrometerGelMetrics(@NotNull MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * Constructs a new {@linkplain MicrometerGelMetrics}.
+     * @param registry The registry to register the meters in.
+     * @param tags The tags added to every meter, for example to tell apart the databases an application connects to.
+     */
+    public MicrometerGelMetrics(@NotNull MeterRegistry registry, @NotNull Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+
+        this.checkoutWait = Timer.builder("gel.pool.checkout.wait")
+                .description("The time checkouts waited for a client")
+                .tags(this.tags)
+                .publishPercentileHistogram()
+                .register(registry);
+
+        this.checkoutFailures = new EnumMap<>(PoolCheckoutException.Reason.class);
+
+        for(var reason : PoolCheckoutException.Reason.values()) {
+            this.checkoutFailures.put(reason, Counter.builder("gel.pool.checkout.failures")
+                    .description("The checkouts that failed before they got a client")
+                    .tags(this.tags)
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+
+        this.codecHits = codecLookups("hit");
+        this.codecMisses = codecLookups("miss");
+        this.parseSuccess = queryTimer("gel.query.parse", "The time queries took to parse", "success");
+        this.parseFailure = queryTimer("gel.query.parse", "The time queries took to parse", "failure");
+        this.executeSuccess = queryTimer("gel.query.execute", "The time queries took to execute", "success");
+        this.executeFailure = queryTimer("gel.query.execute", "The time queries took to execute", "failure");
+
+        this.bytesSent = Counter.builder("gel.bytes.sent")
+                .description("The bytes written to connections")
+                .baseUnit("bytes")
+                .tags(this.tags)
+                .register(registry);
+        this.bytesReceived = Counter.builder("gel.bytes.received")
+                .description("The bytes read from connections")
+                .baseUnit("bytes")
+                .tags(this.tags)
+                .register(registry);
+        this.dataMessages = Counter.builder("gel.data.messages")
+                .description("The received Data messages, one per result row")
+                .tags(this.tags)
+                .register(registry);
+        this.reconnects = Counter.builder("gel.reconnects")
+                .description("The reconnects of clients")
+                .tags(this.tags)
+                .register(registry);
+    }
+
+    /**
+     * Registers gauges for the size, the clients in use and the queued checkouts of a pool. The gauges hold a weak
+     * reference to the pool.
+     * @param pool The pool to observe.
+     * @return This instance.
+     */
+    public @NotNull MicrometerGelMetrics bindTo(@NotNull GelClientPool pool) {
+        Gauge.builder("gel.pool.size", pool, p -> p.getPoolStatistics().getSize())
+                .description("The number of clients the pool can hand out at once")
+                .tags(this.tags)
+                .register(this.registry);
+        Gauge.builder("gel.pool.in_use", pool, p -> p.getPoolStatistics().getInUse())
+                .description("The number of clients checked out of the pool")
+                .tags(this.tags)
+                .register(this.registry);
+        Gauge.builder("gel.pool.queued", pool, p -> p.getPoolStatistics().getQueued())
+                .description("The number of checkouts waiting for a client")
+                .tags(this.tags)
+                .register(this.registry);
+
+        return this;
+    }
+
+    @Override
+    public void recordCheckoutWait(long nanos) {
+        checkoutWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordCheckoutFailure(PoolCheckoutException.Reason reason) {
+        checkoutFailures.get(reason).increment();
+    }
+
+    @Override
+    public void recordQueryCodecLookup(boolean hit) {
+        (hit ? codecHits : codecMisses).increment();
+    }
+
+    @Override
+    public void recordParse(long nanos, boolean success) {
+        (success ? parseSuccess : parseFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordExecute(long nanos, boolean success) {
+        (success ? executeSuccess : executeFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBytesSent(long bytes) {
+        bytesSent.increment(bytes);
+    }
+
+    @Override
+    public void recordBytesReceived(long bytes) {
+        bytesReceived.increment(bytes);
+    }
+
+    @Override
+    public void recordDataMessages(long count) {
+        dataMessages.increment(count);
+    }
+
+    @Override
+    public void recordReconnect() {
+        reconnects.increment();
+    }
+
+    private @NotNull Counter codecLookups(@NotNull String result) {
+        return Counter.builder("gel.query.codecs")
+                .description("The query codec cache lookups, a miss costs a parse round trip")
+                .tags(this.tags)
+                .tag("result", result)
+                .register(this.registry);
+    }
+
+    private @NotNull Timer queryTimer(@NotNull String name, @NotNull String description, @NotNull String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(this.tags)
+                .tag("outcome", outcome)
+                .register(this.registry);
+    }
+}
@@ -0,0 +1,47 @@
+import com.gel.driver.exceptions.PoolCheckoutException;
+import com.gel.driver.micrometer.MicrometerGelMetrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MicrometerGelMetricsTests {
+    @Test
+    public void testRecordsIntoRegistry() {
+        var registry = new SimpleMeterRegistry();
+        var metrics = new MicrometerGelMetrics(registry, Tags.of("database", "main"));
+
+        metrics.recordCheckoutWait(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordCheckoutWait(0);
+        metrics.recordCheckoutFailure(PoolCheckoutException.Reason.TIMED_OUT);
+        metrics.recordQueryCodecLookup(true);
+        metrics.recordQueryCodecLookup(false);
+        metrics.recordQueryCodecLookup(true);
+        metrics.recordParse(TimeUnit.MILLISECONDS.toNanos(2), true);
+        metrics.recordExecute(TimeUnit.MILLISECONDS.toNanos(5), false);
+        metrics.recordBytesSent(128);
+        metrics.recordBytesReceived(512);
+        metrics.recordDataMessages(4);
+        metrics.recordReconnect();
+
+        var wait = registry.get("gel.pool.checkout.wait").tag("database", "main").timer();
+
+        assertThat(wait.count()).isEqualTo(2);
+        assertThat(wait.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+        assertThat(registry.get("gel.pool.checkout.failures").tag("reason", "timed_out").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("gel.pool.checkout.failures").tag("reason", "queue_full").counter().count())
+                .isZero();
+        assertThat(registry.get("gel.query.codecs").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(registry.get("gel.query.codecs").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(registry.get("gel.query.parse").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get("gel.query.execute").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(registry.get("gel.bytes.sent").counter().count()).isEqualTo(128);
+        assertThat(registry.get("gel.bytes.received").counter().count()).isEqualTo(512);
+        assertThat(registry.get("gel.data.messages").counter().count()).isEqualTo(4);
+        assertThat(registry.get("gel.reconnects").counter().count()).isEqualTo(1);
+    }
+}